@@ -1,14 +1,20 @@
+import analysis.BatchComparison;
+import analysis.ComparisonResult;
 import analysis.Comparator;
+import csvUtils.TimeSeriesWriter;
+import importers.DsmCsvImporter;
+import importers.EdgeListImporter;
+import importers.GraphMLImporter;
+import importers.Importer;
 import xmlUtils.XMLHandler;
 import org.apache.commons.cli.*;
-import org.w3c.dom.Document;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.TransformerException;
+import javax.xml.stream.XMLStreamException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Main {
 
@@ -19,16 +25,17 @@ public class Main {
 
     public static void main(String[] args) {
         Options options = new Options();
-        options.addRequiredOption("s", "structure101-file", true, "The file to use from Structure101's analysis");
-        options.addRequiredOption("p", "pyne-file", true, "The file to use from Pyne's analysis");
+        options.addOption("s", "structure101-file", true, "The file to use from Structure101's analysis");
+        options.addOption("p", "pyne-file", true, "The file to use from Pyne's analysis");
+        options.addOption("e", "edge-list-file", true, "A file with a \"from,to[,amount]\" line per dependency, from any other tool's analysis, using fully qualified names");
         options.addOption("hr", "human-readable", false, "If provided, the file will be configured to be easier to read, this will lead to (much) bigger file sizes however. Cannot be used in combination with \"compact\"");
         options.addOption("i", "indent", false, "If provided, the file will be indented properly to be easier to read. The human-readable option implies this already");
         options.addRequiredOption("d", "detail-level", true, "CLASS: compares on a class level, PACKAGE: compares on a package level. Keep in mind that switching modes requires a different Structure101 file!");
+        options.addOption("b", "batch-directory", true, "A directory with Pyne files, like the snapshots per commit written by PyneCli. Each of them is compared with the other given files, and the counts of all comparisons are written to a single CSV file");
+        options.addOption("t", "threads", true, "The amount of Pyne files to compare at the same time in batch mode, the amount of processors by default");
         options.addOption("c", "compact", false, "If provided, the file will be generated to contain minimal duplicate data, to reduce the file size as much as possible. Cannot be used in combination with \"human-readable\"");
 
 
-        String structure101Path;
-        String pynePath;
         boolean classLevel = false;
         Comparator.OUTPUT_DETAIL outputDetail = Comparator.OUTPUT_DETAIL.NORMAL;
 
@@ -36,9 +43,6 @@ public class Main {
             CommandLineParser parser = new DefaultParser();
             CommandLine cmd = parser.parse(options, args);
 
-            structure101Path = cmd.getOptionValue("s");
-            pynePath = cmd.getOptionValue("p");
-
             if(cmd.getOptionValue("detail-level").equals(DETAIL.CLASS.name())) classLevel = true;
             else if(cmd.getOptionValue("detail-level").equals(DETAIL.PACKAGE.name())) classLevel = false;
             else {
@@ -46,6 +50,38 @@ public class Main {
                 System.exit(1);
             }
 
+            if(cmd.hasOption("batch-directory")) {
+                if(cmd.hasOption("pyne-file")) {
+                    System.err.println("The \"batch-directory\" option and the \"pyne-file\" option cannot be used together");
+                    printHelp(options);
+                    System.exit(1);
+                }
+                int threads = Runtime.getRuntime().availableProcessors();
+                try {
+                    if(cmd.hasOption("threads")) threads = Integer.parseInt(cmd.getOptionValue("threads"));
+                } catch(NumberFormatException e) {
+                    threads = 0;
+                }
+                if(threads < 1) {
+                    System.err.println("The \"threads\" option has to be a positive number");
+                    printHelp(options);
+                    System.exit(1);
+                }
+                runBatch(cmd, classLevel, threads);
+                return;
+            }
+
+            // the tools are merged in this order, an item is matched by name to the items of the tools before it
+            List<Importer> importers = new ArrayList<>();
+            if(cmd.hasOption("s")) importers.add(new DsmCsvImporter(Comparator.TOOL_NAME.STRUCTURE101, new File(cmd.getOptionValue("s"))));
+            if(cmd.hasOption("p")) importers.add(new GraphMLImporter(Comparator.TOOL_NAME.PYNE, new File(cmd.getOptionValue("p"))));
+            if(cmd.hasOption("e")) importers.add(new EdgeListImporter(Comparator.TOOL_NAME.EDGE_LIST, new File(cmd.getOptionValue("e"))));
+            if(importers.isEmpty()) {
+                System.err.println("At least one of the \"structure101-file\", \"pyne-file\" and \"edge-list-file\" options has to be given");
+                printHelp(options);
+                System.exit(1);
+            }
+
             if(cmd.hasOption("human-readable")) {
                 if(cmd.hasOption("compact")) {
                     System.err.println("The \"human-readable\" option and the \"compact\" option cannot be used together");
@@ -57,8 +93,6 @@ public class Main {
             else if(cmd.hasOption("compact")) outputDetail = Comparator.OUTPUT_DETAIL.COMPACT;
 
 
-            File structure101Matrix = new File(structure101Path);
-            File pyneGraph = new File(pynePath);
             // TODO: make this a parameter in CLI
             File output = new File("./results/comparison-" + System.currentTimeMillis() + ".xml");
             output.getParentFile().mkdirs();
@@ -66,7 +100,7 @@ public class Main {
 
             // initialize comparator
             System.out.println("Initializing comparator");
-            Comparator comparator = new Comparator(structure101Matrix, pyneGraph, classLevel, outputDetail).importFileData();
+            Comparator comparator = new Comparator(importers, classLevel, outputDetail).importFileData();
 
             // collect classes
 			System.out.println("Collecting " + (classLevel ? "classes" : "packages"));
@@ -74,24 +108,21 @@ public class Main {
 
             // compare packages
 			System.out.println("Comparing " + (classLevel ? "classes" : "packages"));
-            Document doc = comparator.compareResults();
+            ComparisonResult result = comparator.compareResults();
 
             // output differences to xml file
             System.out.println("Writing to output file");
-            XMLHandler.writeXML(doc, output, cmd.hasOption("human-readable") || cmd.hasOption("indent"));
+            XMLHandler.writeResults(result, output, cmd.hasOption("human-readable") || cmd.hasOption("indent"));
 
             // live happily ever after :)
             System.out.println("Done!");
         } catch(FileNotFoundException e) {
             System.err.println("Could not find file to open");
             e.printStackTrace();
-        } catch(ParserConfigurationException e) {
-            System.err.println("Something went wrong when getting DocumentBuilder");
-            e.printStackTrace();
-        } catch(SAXException | IOException e) {
+        } catch(IOException e) {
             System.err.println("Something went wrong when parsing a file");
             e.printStackTrace();
-        } catch(TransformerException e) {
+        } catch(XMLStreamException e) {
             System.err.println("Something went wrong when writing output");
             e.printStackTrace();
         } catch (ParseException e) {
@@ -100,6 +131,30 @@ public class Main {
         }
     }
 
+    /**
+     * compares every Pyne file in the batch directory with the other given files
+     */
+    private static void runBatch(CommandLine cmd, boolean classLevel, int threads) throws IOException {
+        List<Importer> before = new ArrayList<>();
+        List<Importer> after = new ArrayList<>();
+        if(cmd.hasOption("s")) before.add(new DsmCsvImporter(Comparator.TOOL_NAME.STRUCTURE101, new File(cmd.getOptionValue("s"))));
+        if(cmd.hasOption("e")) after.add(new EdgeListImporter(Comparator.TOOL_NAME.EDGE_LIST, new File(cmd.getOptionValue("e"))));
+
+        List<File> snapshots = BatchComparison.findSnapshots(new File(cmd.getOptionValue("batch-directory")));
+        File output = new File("./results/batch-" + System.currentTimeMillis() + ".csv");
+        output.getParentFile().mkdirs();
+
+        System.out.println("Comparing " + snapshots.size() + " Pyne files on " + threads + " threads");
+        BatchComparison batch = new BatchComparison(before, after, classLevel, threads);
+        List<BatchComparison.Summary> summaries = batch.run(snapshots);
+
+        System.out.println("Writing " + summaries.size() + " comparisons to output file");
+        TimeSeriesWriter.write(summaries, batch.getTools(), output);
+        System.out.println("Name matches: " + batch.getNameMatchCache().getHits() + " shared, "
+                + batch.getNameMatchCache().getMisses() + " computed");
+        System.out.println("Done!");
+    }
+
     private static void printHelp(Options options) {
         HelpFormatter hf = new HelpFormatter();
         hf.printHelp("java -jar dependency_checker.jar", options);
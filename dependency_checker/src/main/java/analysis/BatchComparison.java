@@ -0,0 +1,182 @@
+package analysis;
+
+import importers.CachedImporter;
+import importers.GraphMLImporter;
+import importers.Importer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * compares a series of Pyne snapshots, like the per commit GraphML files written by PyneCli,
+ * against the same output of the other tools.
+ * the other tools are read once, the tools before the snapshots are merged once and copied for each snapshot,
+ * and the name matching against Structure101 is shared between the snapshots.
+ * the snapshots are compared in parallel, each comparison is summarised by its counts
+ */
+public class BatchComparison {
+
+    private static final String SNAPSHOT_EXTENSION = ".graphml";
+
+    /**
+     * the counts of the comparison of one snapshot
+     */
+    public static class Summary {
+        private final String snapshot;
+        private final int itms;
+        private final int deps;
+        private final Map<Comparator.TOOL_NAME, int[]> toolCounts = new EnumMap<>(Comparator.TOOL_NAME.class);
+
+        private Summary(String snapshot, ComparisonResult result) {
+            this.snapshot = snapshot;
+            this.itms = result.getAllItms().getCount();
+            this.deps = result.getDeps().size();
+            for(Comparator.TOOL_NAME tool : result.getTools()) {
+                toolCounts.put(tool, new int[]{
+                        result.getFoundItms(tool).getCount(), result.getMissedItms(tool).getCount(),
+                        result.getFoundDeps(tool), result.getMissedDeps(tool)});
+            }
+        }
+
+        public String getSnapshot() {
+            return snapshot;
+        }
+
+        public int getItms() {
+            return itms;
+        }
+
+        public int getDeps() {
+            return deps;
+        }
+
+        public int getFoundItms(Comparator.TOOL_NAME tool) {
+            return toolCounts.get(tool)[0];
+        }
+
+        public int getMissedItms(Comparator.TOOL_NAME tool) {
+            return toolCounts.get(tool)[1];
+        }
+
+        public int getFoundDeps(Comparator.TOOL_NAME tool) {
+            return toolCounts.get(tool)[2];
+        }
+
+        public int getMissedDeps(Comparator.TOOL_NAME tool) {
+            return toolCounts.get(tool)[3];
+        }
+    }
+
+    private final List<Importer> before = new ArrayList<>();
+    private final List<Importer> after = new ArrayList<>();
+    private final boolean classLevel;
+    private final int threads;
+    private final NameMatchCache nameMatchCache = new NameMatchCache();
+
+    /**
+     * @param before the tools to merge before each snapshot, like Structure101
+     * @param after the tools to merge after each snapshot
+     * @param classLevel whether to compare the classes (false = packages)
+     * @param threads the amount of snapshots to compare at the same time
+     */
+    public BatchComparison(List<Importer> before, List<Importer> after, boolean classLevel, int threads) {
+        if(threads < 1) throw new IllegalArgumentException("at least one thread is needed");
+        for(Importer importer : before) this.before.add(new CachedImporter(importer));
+        for(Importer importer : after) this.after.add(new CachedImporter(importer));
+        this.classLevel = classLevel;
+        this.threads = threads;
+    }
+
+    /**
+     * finds the snapshots in a directory, in the order of their names.
+     * PyneCli starts the names with the date of the commit, so this is the order of the commits
+     * @param directory the directory with the snapshots
+     * @return the GraphML files in the directory
+     * @throws IOException when the directory can not be read
+     */
+    public static List<File> findSnapshots(File directory) throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SNAPSHOT_EXTENSION));
+        if(files == null) throw new IOException("could not read the directory " + directory);
+        Arrays.sort(files);
+        return Arrays.asList(files);
+    }
+
+    /**
+     * compares all snapshots, a snapshot that can not be compared is reported and left out
+     * @param snapshots the GraphML files of Pyne
+     * @return the summaries of the compared snapshots, in the order of the snapshots
+     * @throws IOException when the output of the other tools can not be read
+     */
+    public List<Summary> run(List<File> snapshots) throws IOException {
+        // read the other tools up front, so a broken file is reported once
+        for(Importer importer : after) importer.read(classLevel);
+        // the tools before the snapshots are merged once, each snapshot is merged into a copy
+        Comparator merged = new Comparator(before, classLevel, Comparator.OUTPUT_DETAIL.COMPACT)
+                .setNameMatchCache(nameMatchCache)
+                .importFileData()
+                .collectAllItems();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Summary>> futures = new ArrayList<>();
+            for(File snapshot : snapshots) futures.add(executor.submit(() -> compare(merged, snapshot)));
+
+            List<Summary> summaries = new ArrayList<>();
+            for(int i = 0; i < futures.size(); i++) {
+                try {
+                    summaries.add(futures.get(i).get());
+                } catch(ExecutionException e) {
+                    System.err.println("Could not compare " + snapshots.get(i) + ": " + e.getCause());
+                }
+            }
+            return summaries;
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while comparing", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * compares a snapshot, merged into a copy of the tools before it
+     * @param merged the tools before the snapshots, only read here so it can be shared between the threads
+     * @param snapshot the GraphML file of Pyne
+     */
+    private Summary compare(Comparator merged, File snapshot) throws IOException {
+        List<Importer> importers = new ArrayList<>();
+        importers.add(new GraphMLImporter(Comparator.TOOL_NAME.PYNE, snapshot));
+        importers.addAll(after);
+
+        // the snapshots are already compared in parallel, so the snapshot is read on this thread
+        ComparisonResult result = merged.copyWith(importers)
+                .importFileData(false)
+                .collectAllItems()
+                .compareResults();
+        return new Summary(snapshot.getName(), result);
+    }
+
+    /**
+     * @return the tools of the comparisons, in the order they are merged
+     */
+    public List<Comparator.TOOL_NAME> getTools() {
+        List<Comparator.TOOL_NAME> tools = new ArrayList<>();
+        for(Importer importer : before) tools.add(importer.getTool());
+        tools.add(Comparator.TOOL_NAME.PYNE);
+        for(Importer importer : after) tools.add(importer.getTool());
+        return tools;
+    }
+
+    public NameMatchCache getNameMatchCache() {
+        return nameMatchCache;
+    }
+}
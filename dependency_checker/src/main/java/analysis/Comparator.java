@@ -1,33 +1,48 @@
 package analysis;
 
-import com.opencsv.CSVReader;
-import items.Dep;
+import importers.ImportedGraph;
+import importers.Importer;
+import items.DepTable;
+import items.ItmTable;
 import items.SrcItm;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-import xmlUtils.XMLHandler;
-import xmlUtils.XML_TAG;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.ParserConfigurationException;
-import java.io.File;
-import java.io.FileReader;
+
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Stream;
-
-import static xmlUtils.XMLHandler.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Comparator {
 
+    /**
+     * how a tool names its items, only names of different styles are matched to each other
+     */
+    public enum NAMING {
+        // fully qualified names, like Pyne uses
+        QUALIFIED,
+        // names with underscores for nested classes and ( for unknown parts, like Structure101 uses
+        STRUCTURE101
+    }
+
     public enum TOOL_NAME {
         // IDEAL is reserved for keeping track of the total of all tools
         // it can be seen as a theoretical tool that has the knowledge of all other tools combined
-        IDEAL,
-        STRUCTURE101,
-        PYNE
+        IDEAL(null),
+        STRUCTURE101(NAMING.STRUCTURE101),
+        PYNE(NAMING.QUALIFIED),
+        // any other tool, of which the output is given as an edge list
+        EDGE_LIST(NAMING.QUALIFIED);
+
+        private final NAMING naming;
+
+        TOOL_NAME(NAMING naming) {
+            this.naming = naming;
+        }
+
+        public NAMING getNaming() {
+            return naming;
+        }
     }
 
     public enum OUTPUT_DETAIL {
@@ -37,371 +52,183 @@ public class Comparator {
     }
 
     private Map<String, SrcItm> itmMap = new HashMap<>();
-    private Set<Dep> depSet = new HashSet<>();
-
-    private IDProvider idProvider = new IDProvider();
+    // the items by their IDEAL id and the dependencies between them, in the order they were found
+    private ItmTable itmTable = new ItmTable();
+    private DepTable depTable = new DepTable(itmTable);
 
-    File structure101File;
-    File pyneFile;
-    List<List<String>> structure101Matrix;
-    Document pyneDoc;
+    // finds existing items by the (longer/shorter) name another tool uses for them
+    private NameIndex nameIndex;
+    // matches of qualified names shared with other comparisons, null if not shared
+    private NameMatchCache nameMatchCache;
 
-    private static final int ITM_NAME_INDEX = 0;
+    private IDProvider idProvider = new IDProvider();
 
-    private DocumentBuilder dBuilder;
+    // the tools to compare, they are merged in this order
+    private final List<Importer> importers;
+    private List<ImportedGraph> importedGraphs;
+    // the number of tools that have been merged
+    private int mergedTools;
 
     private boolean classLevel;
     private OUTPUT_DETAIL outputDetail;
 
-    public Comparator(File structure101File, File pyneFile, boolean classLevel, OUTPUT_DETAIL outputDetail) {
-        this.structure101File = structure101File;
-        this.pyneFile = pyneFile;
+    public Comparator(List<Importer> importers, boolean classLevel, OUTPUT_DETAIL outputDetail) {
+        this.importers = importers;
         this.classLevel = classLevel;
         this.outputDetail = outputDetail;
+        this.nameIndex = new NameIndex(classLevel);
     }
 
     /**
-     * imports the data from the given files in the constructor into datastructures in this class
+     * shares the matches of qualified names with other comparisons.
+     * the tools with Structure101 names have to be the same for all comparisons sharing the cache,
+     * the cache is only used when they are merged before any tool with qualified names
+     * @param nameMatchCache the shared cache
      * @return this, to allow it to be chained right after the constructor call
-     * @throws ParserConfigurationException
-     * @throws SAXException
-     * @throws IOException
      */
-    public Comparator importFileData() throws ParserConfigurationException, SAXException, IOException {
-        importPyneData();
-        importStructure101Data();
-
+    public Comparator setNameMatchCache(NameMatchCache nameMatchCache) {
+        this.nameMatchCache = nameMatchCache;
         return this;
     }
 
     /**
-     * imports structure101s data from the csv file
-     * @throws IOException
+     * copies the items and dependencies merged so far, to merge the output of more tools into the copy
+     * without reading and merging the same tools again. the copy shares the name match cache
+     * @param moreImporters the tools to merge into the copy, after the tools merged so far
+     * @return the copy
      */
-    private void importStructure101Data() throws IOException {
-        // read csv file
-        structure101Matrix = new ArrayList<>();
-        CSVReader csvReader = new CSVReader(new FileReader(structure101File));
-        String[] values = null;
-        // read all lines, and get the values split on commas already
-        while((values = csvReader.readNext()) != null) {
-            List<String> trimmed = new ArrayList<>(Arrays.asList(values));
-            // the reason we drop the first element is because
-            // 1. it only contains the index of the row, which we can easily deduce
-            // 2. if we remove the first column, the indices in the headers match up with the actual indices in the List
-            trimmed.remove(0);
-            structure101Matrix.add(trimmed);
+    public Comparator copyWith(List<Importer> moreImporters) {
+        if(importedGraphs != null) throw new IllegalStateException("collectAllItems has to be called first");
+
+        List<Importer> copyImporters = new ArrayList<>(importers.subList(0, mergedTools));
+        copyImporters.addAll(moreImporters);
+        Comparator copy = new Comparator(copyImporters, classLevel, outputDetail);
+        copy.nameMatchCache = nameMatchCache;
+        copy.mergedTools = mergedTools;
+        copy.idProvider = new IDProvider(idProvider.peekNextId());
+
+        // adding the items in the order of their ids keeps the order in which the name index checks them
+        for(int id = 0; id < itmTable.size(); id++) {
+            SrcItm item = itmTable.get(id);
+            if(item == null) continue;
+            SrcItm copied = item.copy();
+            copy.itmMap.put(copied.getName(), copied);
+            copy.itmTable.add(copied);
+            copy.nameIndex.add(copied);
         }
+        copy.depTable = depTable.copy(copy.itmTable);
+
+        int cacheStart = copy.getMatchCacheStart();
+        if(cacheStart >= 0 && cacheStart < mergedTools) copy.nameIndex.setMatchCache(nameMatchCache);
+        return copy;
     }
 
     /**
-     * imports pynes data from the given file
-     * @throws ParserConfigurationException
-     * @throws SAXException
-     * @throws IOException
+     * imports the output of all tools that have not been merged yet, each tool is read on its own thread
+     * @return this, to allow it to be chained right after the constructor call
+     * @throws IOException when the output of a tool can not be read
      */
-    private void importPyneData() throws ParserConfigurationException, SAXException, IOException {
-        dBuilder = XMLHandler.getDocumentBuilder();
-        // parse file
-        pyneDoc = dBuilder.parse(pyneFile);
-        // sanitize tree
-        pyneDoc.getDocumentElement().normalize();
+    public Comparator importFileData() throws IOException {
+        return importFileData(true);
     }
 
     /**
-     * collects the classes for all tools
-     * @return this, to allow it to be chained with the other public methods.
-     *         this will allow an entire analysis to be done in one line, if the user desires so
+     * imports the output of all tools that have not been merged yet
+     * @param parallel whether to read each tool on its own thread, otherwise they are read on the calling thread
+     * @return this, to allow it to be chained right after the constructor call
+     * @throws IOException when the output of a tool can not be read
      */
-    public Comparator collectAllItems() {
-        addStructure101Items(structure101Matrix, classLevel);
-        addPyneItems(pyneDoc, classLevel);
-        // this is where one would add calls to other tool specific methods
-        // in case a new tool joins the comparison
+    public Comparator importFileData(boolean parallel) throws IOException {
+        List<Importer> unmerged = importers.subList(mergedTools, importers.size());
+        if(!parallel) {
+            importedGraphs = new ArrayList<>();
+            for(Importer importer : unmerged) importedGraphs.add(importer.read(classLevel));
+            return this;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, unmerged.size()));
+        try {
+            List<Future<ImportedGraph>> futures = new ArrayList<>();
+            for(Importer importer : unmerged) futures.add(executor.submit(() -> importer.read(classLevel)));
+
+            importedGraphs = new ArrayList<>();
+            for(Future<ImportedGraph> future : futures) importedGraphs.add(future.get());
+        } catch(ExecutionException e) {
+            if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IOException(e.getCause());
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while importing", e);
+        } finally {
+            executor.shutdownNow();
+        }
 
         return this;
     }
 
     /**
-     * checks for each found class which tool was and wasn't able to find it, and reports the results
-     * @return a Document tree containing the results per tool
+     * merges the items and dependencies of all tools, in the order of the importers.
+     * the order matters, since an item is matched by name to the items of the tools before it
+     * @return this, to allow it to be chained with the other public methods.
+     *         this will allow an entire analysis to be done in one line, if the user desires so
      */
-    public Document compareResults() {
-        // perform an ancient ritual to summon a List<String> from an Enum
-        List<String> toolNames = new ArrayList<>(Arrays.asList(Stream.of(TOOL_NAME.values()).map(TOOL_NAME::toString).toArray(String[]::new)));
-        // and make sure to remove the ideal tool, since it will be handled differently from normal tools
-        toolNames.remove(TOOL_NAME.IDEAL.toString());
-
-        // get the template doc from the XMLHandler
-        Document doc = classLevel ? initClsDoc(dBuilder, toolNames) : initPkgDoc(dBuilder, toolNames);
-
-        // get the three children of the root element
-        Node allDeps = doc.getElementsByTagName(XML_TAG.ALL_DEPS).item(0);
-        Node allItms = classLevel ?
-                doc.getElementsByTagName(XML_TAG.ALL_CLSS).item(0) :
-                doc.getElementsByTagName(XML_TAG.ALL_PKGS).item(0);
-        Node tools = doc.getElementsByTagName(XML_TAG.TOOLS).item(0);
-
-        int totalItms = itmMap.size();
-        int totalDeps = depSet.size();
-        int internalItms = 0;
-        int externalItms = 0;
-        int unknownItms = 0;
-
-        for(SrcItm itm : itmMap.values()) {
-            if(itm.isInternal() == null) unknownItms++;
-            else if(itm.isInternal()) internalItms++;
-            else externalItms++;
-        }
-
-        // set the count of total classes and dependencies in the document
-        setNodeAttribute(allItms, XML_TAG.COUNT, Integer.toString(totalItms));
-        setNodeAttribute(allItms, XML_TAG.COUNT_INTERNAL, Integer.toString(internalItms));
-        setNodeAttribute(allItms, XML_TAG.COUNT_EXTERNAL, Integer.toString(externalItms));
-        setNodeAttribute(allItms, XML_TAG.COUNT_UNKNOWN, Integer.toString(unknownItms));
-
-        setNodeAttribute(allDeps, XML_TAG.COUNT, Integer.toString(totalDeps));
-
-        Map<TOOL_NAME, Node> toolNodeMap = new HashMap<>();
+    public Comparator collectAllItems() {
+        if(importedGraphs == null) throw new IllegalStateException("importFileData has to be called first");
 
-        NodeList toolNodes = tools.getChildNodes();
-        for(int i = 0; i < toolNodes.getLength(); i++) {
-            Node node = toolNodes.item(i);
-            // get the TOOL_NAME from the name of the node
-            TOOL_NAME tool = TOOL_NAME.valueOf(node.getAttributes().getNamedItem(XML_TAG.NAME).getTextContent());
-            toolNodeMap.put(tool, node);
+        int cacheStart = getMatchCacheStart();
+        for(int i = 0; i < importedGraphs.size(); i++) {
+            if(mergedTools + i == cacheStart) nameIndex.setMatchCache(nameMatchCache);
+            addImportedGraph(importedGraphs.get(i));
         }
+        mergedTools += importedGraphs.size();
+        // the merged graphs are no longer needed
+        importedGraphs = null;
 
-        // check which tools found which items
-        for(SrcItm itm : itmMap.values()) {
-            // first add this classes to the list of all classes/packages
-            // when creating the list of all classes/packages,
-            // we always want to get the complete versions
-            allItms.appendChild(classLevel ? createClass(doc, itm) : createPackage(doc, itm));
-
-            // check for each tool if it was found this class
-            for(Node node : toolNodeMap.values()) {
-                NodeList childNodes = node.getChildNodes();
-                TOOL_NAME tool = TOOL_NAME.valueOf(node.getAttributes().getNamedItem(XML_TAG.NAME).getTextContent());
-
-                for(int i = 0; i < childNodes.getLength(); i++) {
-                    Node child = childNodes.item(i);
-                    if((itm.wasFoundBy(tool) && child.getNodeName().equals(classLevel ? XML_TAG.FOUND_CLSS : XML_TAG.FOUND_PKGS)) ||
-                            (!itm.wasFoundBy(tool) && child.getNodeName().equals(classLevel ? XML_TAG.MISSED_CLSS : XML_TAG.MISSED_PKGS)))
-                    {
-                        // get the appropriate field names depending on whether this class is in- or external
-                        String ternal, ternalPercName;
-                        int ternalTotal;
-                        if(itm.isInternal() == null) {
-                            ternal = XML_TAG.COUNT_UNKNOWN;
-                            ternalPercName = XML_TAG.PERCENTAGE_UNKNOWN;
-                            ternalTotal = unknownItms;
-                        }
-                        else if(itm.isInternal()) {
-                            ternal = XML_TAG.COUNT_INTERNAL;
-                            ternalPercName = XML_TAG.PERCENTAGE_INTERNAL;
-                            ternalTotal = internalItms;
-                        }
-                        else {
-                            ternal = XML_TAG.COUNT_EXTERNAL;
-                            ternalPercName = XML_TAG.PERCENTAGE_EXTERNAL;
-                            ternalTotal = externalItms;
-                        }
-
-                        // get the current count from the tree
-                        int count = Integer.parseInt(child.getAttributes().getNamedItem(XML_TAG.COUNT).getTextContent());
-                        int ternalCount = Integer.parseInt(child.getAttributes().getNamedItem(ternal).getTextContent());
-
-                        // recalculate numbers
-                        count++;
-                        ternalCount++;
-                        float perc = (float)count / totalItms * 100;
-                        float ternalPerc = (float)ternalCount / ternalTotal * 100;
-
-                        // set the new values in the tree and add class to the list
-                        setNodeAttribute(child, XML_TAG.COUNT, Integer.toString(count));
-                        setNodeAttribute(child, ternal, Integer.toString(ternalCount));
-                        setNodeAttribute(child, XML_TAG.PERCENTAGE_TOTAL, Float.toString(perc));
-                        setNodeAttribute(child, ternalPercName, Float.toString(ternalPerc));
-                        // create a class or package, depending on which detail level was selected
-                        // and create the correct detail version of the item
-                        child.appendChild(classLevel ?
-                                (outputDetail.equals(OUTPUT_DETAIL.COMPACT) ?
-                                        createCompactClass(doc, itm) :
-                                        createClass(doc, itm)
-                                ) :
-                                (outputDetail.equals(OUTPUT_DETAIL.COMPACT) ?
-                                        createCompactPackage(doc, itm) :
-                                        createPackage(doc, itm)
-                                )
-                        );
-                    }
-                }
-            }
-        }
+        return this;
+    }
 
-        // same for found dependencies
-        for(Dep dep : depSet) {
-            // create simple or extended dependency based on cli option
-            if(outputDetail.equals(OUTPUT_DETAIL.HUMAN_READABLE)) allDeps.appendChild(createExtendedDependency(doc, dep));
-            else allDeps.appendChild(createSimpleDependency(doc, dep));
-
-            // check for each tool if it was found this dependency
-            for(Node node : toolNodeMap.values()) {
-                NodeList childNodes = node.getChildNodes();
-                TOOL_NAME tool = TOOL_NAME.valueOf(node.getAttributes().getNamedItem(XML_TAG.NAME).getTextContent());
-                for(int i = 0; i < childNodes.getLength(); i++) {
-                    Node child = childNodes.item(i);
-                    if((dep.wasFoundBy(tool) && child.getNodeName().equals(XML_TAG.FOUND_DEPS)) ||
-                            !dep.wasFoundBy(tool) && child.getNodeName().equals(XML_TAG.MISSED_DEPS))
-                    {
-                        // get the current count from the tree
-                        int count = Integer.parseInt(child.getAttributes().getNamedItem(XML_TAG.COUNT).getTextContent());
-
-                        // recalculate numbers
-                        count++;
-                        float perc = (float)count / totalDeps * 100;
-
-                        // set the new values in the tree and add dependency to the list
-                        setNodeAttribute(child, XML_TAG.COUNT, Integer.toString(count));
-                        setNodeAttribute(child, XML_TAG.PERCENTAGE_TOTAL, Float.toString(perc));
-
-                        // create simple or extended dependency based on cli option
-                        child.appendChild(outputDetail.equals(OUTPUT_DETAIL.HUMAN_READABLE) ?
-                                createExtendedDependency(doc, dep) :
-                                createSimpleDependency(doc, dep)
-                        );
-                    }
-                }
-            }
+    /**
+     * the shared matches are only valid once the Structure101 trie will no longer change,
+     * so they are used from the first tool with qualified names if no tool with Structure101 names comes after it
+     * @return the index of the tool from which on the shared matches are used, or -1 if they are not used
+     */
+    private int getMatchCacheStart() {
+        if(nameMatchCache == null) return -1;
+
+        int lastS101 = -1;
+        int firstQualified = -1;
+        for(int i = 0; i < importers.size(); i++) {
+            if(importers.get(i).getTool().getNaming() == NAMING.STRUCTURE101) lastS101 = i;
+            else if(firstQualified < 0) firstQualified = i;
         }
-
-        return doc;
+        return firstQualified >= 0 && lastS101 < firstQualified ? firstQualified : -1;
     }
 
     /**
-     * gets the classes from the Structure101 output and adds them to the classMap
-     * and adds them to the list of found classes of Structure101
-     * @param matrix the parsed matrix that was output by Structure101
+     * checks for each found class which tool was and wasn't able to find it, and counts the results
+     * @return the results per tool, which can be written with XMLHandler.writeResults
      */
-    private void addStructure101Items(List<List<String>> matrix, boolean classLevel) {
-        int id = 0;
-
-        for(List<String> row : matrix) {
-            // skip the first row, since that contains the headers
-            if(id > 0) {
-                String itemName = row.get(ITM_NAME_INDEX);
-                Boolean isInternal = !itemName.startsWith("(unknown)");
-                if(classLevel) isInternal = itemName.startsWith("(") ? false : null;
-                foundItem(itemName, TOOL_NAME.STRUCTURE101, isInternal, id, classLevel);
-
-                for(int i = 1; i < row.size(); i++) {
-                    String dependencyCount = row.get(i);
-                    if(!dependencyCount.isBlank()) {
-                        String from = matrix.get(i).get(ITM_NAME_INDEX);
-                        Boolean isFromInternal = !from.startsWith("(unknown)");
-                        // since structure101 doesn't always start external classes with "("
-                        // we can only tell when it definitely is internal,
-                        // but we can never be sure it is external if "(" is missing
-                        if(classLevel) isFromInternal = from.startsWith("(") ? false : null;
-                        foundDependency(from, isFromInternal, i, itemName, isInternal, id,
-                                TOOL_NAME.STRUCTURE101, Integer.parseInt(dependencyCount), classLevel);
-                    }
-                }
-            }
-            id++;
-        }
+    public ComparisonResult compareResults() {
+        List<TOOL_NAME> tools = new ArrayList<>();
+        for(Importer importer : importers) tools.add(importer.getTool());
+
+        return new ComparisonResult(classLevel, outputDetail, tools, itmMap.values(), depTable);
     }
 
     /**
-     * gets the class from the Pyne output and adds them to the classMap
-     * and adds them to the list of found classes of Pyne
-     * @param doc the parsed document that was output by Pyne
+     * adds the items and dependencies found by a tool to the itemMap and the dependency table
+     * @param graph the items and dependencies of the tool
      */
-    private void addPyneItems(Document doc, boolean classLevel) {
-        // we want to get all nodes called "node" and "edge"
-        NodeList nodes = doc.getElementsByTagName("node");
-        NodeList edges = doc.getElementsByTagName("edge");
-        Map<String, SrcItm> idMap = new HashMap<>();
-
-        // process item nodes
-        for(int i = 0; i < nodes.getLength(); i++) {
-            Node node = nodes.item(i);
-            // get the id of the node for easy cross referencing
-            String id = node.getAttributes().getNamedItem("id").getTextContent();
-
-            // each node contains a set of nodes called "data"
-            NodeList datas = node.getChildNodes();
-            String itmName = "";
-            // for pyne we can always tell whether something is internal or not, so a boolean is fine
-            boolean internal = true;
-            boolean shouldAdd = true;
-
-            for(int j = 0; j < datas.getLength(); j++) {
-                Node data = datas.item(j);
-
-                // each "data" node has an attribute "key" that specifies the type of data contained in this node
-                String key = data.getAttributes().getNamedItem("key").getTextContent();
-
-                // the "labelV" key indicates the type of object this node represents (package, class)
-                // so we filter out the ones we are not interested in according to classLevel
-                if(key.equals("labelV") && !data.getTextContent().equals(classLevel ? "class" : "package")) {
-                    shouldAdd = false;
-                    break;
-                }
-
-                // the "ClassType" or "PackageType" key indicates whether the class is internal or external
-                // (SystemClass/Package or RetrievedClass/Package, respectively)
-                else if(key.equals(classLevel ? "ClassType" : "PackageType"))
-                    internal = data.getTextContent().equals(classLevel ? "SystemClass" : "SystemPackage");
-
-                // the "name" key indicates the name of the class
-                else if(key.equals("name")) itmName = data.getTextContent();
-            }
-
-            if(shouldAdd) idMap.put(id, foundItem(itmName, TOOL_NAME.PYNE, internal, Integer.parseInt(id), classLevel));
-        }
+    private void addImportedGraph(ImportedGraph graph) {
+        TOOL_NAME tool = graph.getTool();
+        SrcItm[] itms = new SrcItm[graph.getItmCount()];
+        for(int i = 0; i < itms.length; i++)
+            itms[i] = foundItem(graph.getName(i), tool, graph.isInternal(i), graph.getToolId(i), classLevel);
 
-        // process edge nodes
-        for(int i = 0; i < edges.getLength(); i++) {
-            Node edge = edges.item(i);
-
-            String sourceId = edge.getAttributes().getNamedItem("source").getTextContent();
-            String targetId = edge.getAttributes().getNamedItem("target").getTextContent();
-
-            NodeList datas = edge.getChildNodes();
-            boolean shouldAdd = true;
-
-            for(int j = 0; j < datas.getLength(); j++) {
-                Node data = datas.item(j);
-
-                // each "data" node has an attribute "key" that specifies the type of data contained in this node
-                String key = data.getAttributes().getNamedItem("key").getTextContent();
-
-                // the "labelE" key indicates the type of edge this node represents
-                // so we filter the ones we are not interested in according to classLevel
-                // the expression: 'data.getTextContent().contains("package") == classLevel'
-                // essentially inverts 'data.getTextContent().contains("package")' if classLevel is false
-                // consider this truth table, where a = 'data.getTextContent().contains("package")', b = 'classLevel',
-                // which explains the result we want: if(b) return a else return !a. we can see this is equal to a == b
-                // a b
-                // 1 1 --> 1
-                // 1 0 --> 0
-                // 0 1 --> 0
-                // 0 0 --> 1
-                if(key.equals("labelE") && (data.getTextContent().contains("package") == classLevel)) {
-                    shouldAdd = false;
-                    break;
-                }
-            }
-
-            if(shouldAdd) {
-                SrcItm from = idMap.get(sourceId);
-                SrcItm to = idMap.get(targetId);
-                if(from != null && to != null) foundDependency(from.getName(), from.isInternal(), from.getId(),
-                            to.getName(), to.isInternal(), to.getId(), TOOL_NAME.PYNE, -1, classLevel);
-            }
-        }
+        // it's johnny Dep :)
+        for(int dep = 0; dep < graph.getDepCount(); dep++)
+            depTable.found(itms[graph.getFrom(dep)], itms[graph.getTo(dep)], graph.getAmount(dep), tool);
     }
 
     /**
@@ -418,42 +245,6 @@ public class Comparator {
         else return addNewItem(itm, toolName, internal, id, classLevel);
     }
 
-    /**
-     *
-     * @param from the name of the item where the dependency comes from
-     * @param isFromInternal whether from is internal or not
-     * @param fromId the id of the from item
-     * @param to the name of the to item
-     * @param isToInternal whether to is internal or not
-     * @param toId the id of the to item
-     * @param toolName the name of the tool that found the dependency
-     * @param amount the amount of dependencies there are between the two items
-     * @param classLevel whether or not to analyse on a class level (false = package level)
-     * @return the Dep object that represents this dependency
-     */
-    private Dep foundDependency(String from, Boolean isFromInternal, int fromId,
-                                String to, Boolean isToInternal, int toId, TOOL_NAME toolName,
-                                int amount, boolean classLevel)
-    {
-        // make sure both the from and to items exist in the itemMap already
-        SrcItm fromItm = foundItem(from, toolName, isFromInternal, fromId, classLevel);
-        SrcItm toItm = foundItem(to, toolName, isToInternal, toId, classLevel);
-
-        for(Dep dep : depSet) {
-            if(dep.getFrom().getId() == fromItm.getId() && dep.getTo().getId() == toItm.getId()) {
-                dep.addFoundBy(toolName);
-                return dep;
-            }
-        }
-        // if we get here the dependency was not in the set yet
-
-        // it's johnny Dep :)
-        Dep johnny = new Dep(fromItm, toItm, amount, toolName);
-
-        depSet.add(johnny);
-        return johnny;
-    }
-
     /**
      * creates a new itm in the itemMap
      * and adds it to the list of found items of the given tool
@@ -464,28 +255,10 @@ public class Comparator {
      */
     private SrcItm addNewItem(String itm, TOOL_NAME toolName, Boolean internal, Integer id, boolean classLevel) {
         // check if the class was not already in the classMap by another name (longer/shorter)
-        for(String key : itmMap.keySet()) {
-            String pyneName, s101Name;
-            // determine which string is from which tool
-            if(itmMap.get(key).wasFoundBy(TOOL_NAME.PYNE)) {
-                pyneName = key;
-                s101Name = itm;
-            }
-            else if(itmMap.get(key).wasFoundBy(TOOL_NAME.STRUCTURE101)){
-                pyneName = itm;
-                s101Name = key;
-            }
-            // should never actually happen, but just in case
-            else throw new RuntimeException("Cannot determine which item name is from which tool " +
-                        "to make a comparison between: \"" + key + "\" and \"" + itm + "\"");
-
-            if((pyneName.equals(key) && toolName.equals(TOOL_NAME.PYNE)) ||
-                    (s101Name.equals(key) && toolName.equals(TOOL_NAME.STRUCTURE101)))
-                continue;
-            else if((classLevel && isSameCls(pyneName, s101Name)) || (!classLevel && isSamePkg(pyneName, s101Name))) {
-                // update the existing class by its known name
-                return updateExistingItem(key, toolName, internal);
-            }
+        SrcItm match = nameIndex.findMatch(itm, toolName);
+        if(match != null) {
+            // update the existing class by its known name
+            return updateExistingItem(match.getName(), toolName, internal);
         }
 
         // class really doesn't exists yet
@@ -495,6 +268,8 @@ public class Comparator {
         item.setToolId(toolName, id);
         item.setToolId(TOOL_NAME.IDEAL, idProvider.getNextId());
         itmMap.put(itm, item);
+        itmTable.add(item);
+        nameIndex.add(item);
 
         return item;
     }
@@ -560,6 +335,8 @@ public class Comparator {
         SrcItm item = itmMap.get(itm);
         item.addFoundBy(toolName);
         if(isInternal != null) item.setInternal(isInternal);
+        // the item may now be a candidate for the names of another tool
+        nameIndex.add(item);
         return item;
     }
 }
@@ -0,0 +1,170 @@
+package analysis;
+
+import items.DepTable;
+import items.SrcItm;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the outcome of a comparison: the found items and dependencies,
+ * with for each tool how many of them it found and missed.
+ * which items and dependencies a tool found is kept as a bitset on their ids,
+ * so the found and missed sets and their counts are bitset operations instead of a pass per tool.
+ * the percentages are derived from the counts when the results are written
+ */
+public class ComparisonResult {
+
+    /**
+     * counts of items, in total and split on whether they are internal, external or unknown
+     */
+    public static class ItmCounts {
+        private final int count;
+        private final int internal;
+        private final int external;
+        private final int unknown;
+
+        /**
+         * @param itms the ids of the items to count
+         * @param internalItms the ids of all internal items
+         * @param externalItms the ids of all external items
+         */
+        private ItmCounts(BitSet itms, BitSet internalItms, BitSet externalItms) {
+            count = itms.cardinality();
+            internal = intersectionSize(itms, internalItms);
+            external = intersectionSize(itms, externalItms);
+            unknown = count - internal - external;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public int getInternal() {
+            return internal;
+        }
+
+        public int getExternal() {
+            return external;
+        }
+
+        public int getUnknown() {
+            return unknown;
+        }
+    }
+
+    private final boolean classLevel;
+    private final Comparator.OUTPUT_DETAIL outputDetail;
+    private final List<Comparator.TOOL_NAME> tools;
+    private final Collection<SrcItm> items;
+    private final DepTable deps;
+
+    private final ItmCounts allItms;
+    private final Map<Comparator.TOOL_NAME, ItmCounts> foundItms = new EnumMap<>(Comparator.TOOL_NAME.class);
+    private final Map<Comparator.TOOL_NAME, ItmCounts> missedItms = new EnumMap<>(Comparator.TOOL_NAME.class);
+    private final Map<Comparator.TOOL_NAME, Integer> foundDeps = new EnumMap<>(Comparator.TOOL_NAME.class);
+
+    /**
+     * counts which tool found which of the items and dependencies
+     * @param classLevel whether the items are classes (false = packages)
+     * @param outputDetail how detailed the results should be written
+     * @param tools the tools to report on, in the order they should be written
+     * @param items all items found by any tool
+     * @param deps all dependencies found by any tool
+     */
+    public ComparisonResult(boolean classLevel, Comparator.OUTPUT_DETAIL outputDetail, List<Comparator.TOOL_NAME> tools,
+                            Collection<SrcItm> items, DepTable deps)
+    {
+        this.classLevel = classLevel;
+        this.outputDetail = outputDetail;
+        this.tools = tools;
+        this.items = items;
+        this.deps = deps;
+
+        // a single pass over the items and dependencies fills the bitsets of all tools
+        BitSet all = new BitSet();
+        BitSet internal = new BitSet();
+        BitSet external = new BitSet();
+        Map<Comparator.TOOL_NAME, BitSet> foundItmIds = new EnumMap<>(Comparator.TOOL_NAME.class);
+        Map<Comparator.TOOL_NAME, BitSet> foundDepRows = new EnumMap<>(Comparator.TOOL_NAME.class);
+        for(Comparator.TOOL_NAME tool : tools) {
+            foundItmIds.put(tool, new BitSet());
+            foundDepRows.put(tool, new BitSet());
+        }
+
+        for(SrcItm itm : items) {
+            int id = itm.getId();
+            all.set(id);
+            if(itm.isInternal() != null) (itm.isInternal() ? internal : external).set(id);
+            for(Comparator.TOOL_NAME tool : tools) {
+                if(itm.wasFoundBy(tool)) foundItmIds.get(tool).set(id);
+            }
+        }
+
+        for(int row = 0; row < deps.size(); row++) {
+            for(Comparator.TOOL_NAME tool : tools) {
+                if(deps.wasFoundBy(row, tool)) foundDepRows.get(tool).set(row);
+            }
+        }
+
+        allItms = new ItmCounts(all, internal, external);
+        for(Comparator.TOOL_NAME tool : tools) {
+            BitSet found = foundItmIds.get(tool);
+            BitSet missed = (BitSet) all.clone();
+            missed.andNot(found);
+
+            foundItms.put(tool, new ItmCounts(found, internal, external));
+            missedItms.put(tool, new ItmCounts(missed, internal, external));
+            foundDeps.put(tool, foundDepRows.get(tool).cardinality());
+        }
+    }
+
+    private static int intersectionSize(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    public boolean isClassLevel() {
+        return classLevel;
+    }
+
+    public Comparator.OUTPUT_DETAIL getOutputDetail() {
+        return outputDetail;
+    }
+
+    public List<Comparator.TOOL_NAME> getTools() {
+        return tools;
+    }
+
+    public Collection<SrcItm> getItems() {
+        return items;
+    }
+
+    public DepTable getDeps() {
+        return deps;
+    }
+
+    public ItmCounts getAllItms() {
+        return allItms;
+    }
+
+    public ItmCounts getFoundItms(Comparator.TOOL_NAME tool) {
+        return foundItms.get(tool);
+    }
+
+    public ItmCounts getMissedItms(Comparator.TOOL_NAME tool) {
+        return missedItms.get(tool);
+    }
+
+    public int getFoundDeps(Comparator.TOOL_NAME tool) {
+        return foundDeps.get(tool);
+    }
+
+    public int getMissedDeps(Comparator.TOOL_NAME tool) {
+        return deps.size() - foundDeps.get(tool);
+    }
+}
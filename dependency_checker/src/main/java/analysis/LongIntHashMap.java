@@ -0,0 +1,117 @@
+package analysis;
+
+import java.util.Arrays;
+
+/**
+ * hash map from primitive long keys to primitive int values, so nothing has to be boxed for a lookup.
+ * uses open addressing with linear probing, entries can not be removed.
+ * only non-negative values can be stored, a negative value is used to mark empty slots
+ */
+public class LongIntHashMap {
+
+    // the value returned for keys that are not in the map
+    public static final int NO_VALUE = -1;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    // the table is grown once it is filled for more than 1/2
+    private static final int MAX_LOAD_SHIFT = 1;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = DEFAULT_CAPACITY;
+        while((capacity >> MAX_LOAD_SHIFT) < expectedSize) capacity <<= 1;
+        keys = new long[capacity];
+        values = newValues(capacity);
+    }
+
+    /**
+     * gets the value of a key
+     * @param key the key to look for
+     * @return the value, or NO_VALUE if the key is not in the map
+     */
+    public int get(long key) {
+        return values[slot(key)];
+    }
+
+    /**
+     * sets the value of a key
+     * @param key the key to set
+     * @param value the value to set it to, can not be negative
+     * @return the previous value, or NO_VALUE if the key was not in the map yet
+     */
+    public int put(long key, int value) {
+        if(value < 0) throw new IllegalArgumentException("negative values are not supported");
+
+        int slot = slot(key);
+        int previous = values[slot];
+        keys[slot] = key;
+        values[slot] = value;
+        if(previous == NO_VALUE && ++size > (keys.length >> MAX_LOAD_SHIFT)) grow();
+        return previous;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != NO_VALUE;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, NO_VALUE);
+        size = 0;
+    }
+
+    /**
+     * finds the slot of a key, which is either the slot containing the key
+     * or the empty slot where it should be added
+     * a slot is empty when its value is NO_VALUE, so 0 can be used as a key as well
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while(values[slot] != NO_VALUE && keys[slot] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = newValues(oldValues.length << 1);
+
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldValues[i] != NO_VALUE) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int[] newValues(int capacity) {
+        int[] values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+        return values;
+    }
+
+    /**
+     * spreads the bits of the key, packed ids only differ in a few low bits of both halves
+     */
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,320 @@
+package analysis;
+
+import items.Itm;
+import items.SrcItm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * index of the known item names, to find the item a tool means by another (longer/shorter) name
+ * without comparing the name against every known item.
+ * the names are stored in tries on their segments, starting at the last segment,
+ * so walking a name from its end only visits names that can still match.
+ *
+ * the matching is the same as Comparator.isSamePkg and Comparator.isSameCls:
+ * - packages match if the qualified name is a suffix (in whole segments) of the Structure101 name
+ * - classes match if, aligned from the end, every qualified segment starts with the Structure101 segment,
+ *   or the Structure101 segment starts with "(". qualified class names are split on "." and the
+ *   last part on "_", Structure101 names on "_"
+ *
+ * names are only matched against names of the other naming style (see Comparator.NAMING):
+ * a qualified name against items found only by tools with Structure101 names,
+ * and a Structure101 name against items found by any tool with qualified names.
+ * if several items match, the one that comes first in the iteration order of Comparator.itmMap is returned,
+ * like the scan over all items did before. that is the order of a HashMap with all items added so far
+ */
+public class NameIndex {
+
+    // the bitmasks of the tools using each naming style
+    private static final int QUALIFIED_TOOLS = toolMask(Comparator.NAMING.QUALIFIED);
+    private static final int S101_TOOLS = toolMask(Comparator.NAMING.STRUCTURE101);
+
+    private final boolean classLevel;
+
+    // items found by a tool with qualified names, keyed on their qualified segments
+    private final Node qualifiedRoot = new Node();
+    // items found only by tools with Structure101 names, keyed on their Structure101 segments
+    private final Node s101Root = new Node();
+
+    // the entries of each item in the tries, to move them when the item is found by another tool
+    private final Map<SrcItm, Entry> qualifiedEntries = new IdentityHashMap<>();
+    private final Map<SrcItm, Entry> s101Entries = new IdentityHashMap<>();
+
+    // the entries of the Structure101 trie by the name of their item, to look up the matches of the cache
+    private final Map<String, Entry> s101Names = new HashMap<>();
+
+    // the order in which the items were first added
+    private final Map<SrcItm, Long> seqs = new IdentityHashMap<>();
+
+    // the default capacity and load factor of a HashMap
+    private static final int MAP_CAPACITY = 16;
+    private static final float MAP_LOAD_FACTOR = 0.75f;
+
+    // shared matches of qualified names, null if not used
+    private NameMatchCache matchCache;
+
+    public NameIndex(boolean classLevel) {
+        this.classLevel = classLevel;
+    }
+
+    /**
+     * adds an item to the index, or moves it when it has been found by another tool since it was added.
+     * should be called every time an item is created or found by a tool
+     * @param item the item to (re)index
+     */
+    public void add(SrcItm item) {
+        if((item.getFoundBy() & QUALIFIED_TOOLS) != 0) {
+            // an item with a qualified name is no longer a candidate for qualified names
+            Entry s101Entry = s101Entries.remove(item);
+            if(s101Entry != null) s101Entry.removed = true;
+
+            if(!qualifiedEntries.containsKey(item))
+                qualifiedEntries.put(item, insert(qualifiedRoot, qualifiedSegments(item.getName()), item));
+        }
+        else if((item.getFoundBy() & S101_TOOLS) != 0 && !s101Entries.containsKey(item)) {
+            Entry entry = insert(s101Root, s101Segments(item.getName()), item);
+            s101Entries.put(item, entry);
+            s101Names.put(item.getName(), entry);
+        }
+    }
+
+    /**
+     * looks up the matches of qualified names in a cache shared with other indices from now on.
+     * may only be set once all items of the tools with Structure101 names have been added,
+     * and those have to be the same for all indices sharing the cache
+     * @param matchCache the shared cache
+     */
+    public void setMatchCache(NameMatchCache matchCache) {
+        this.matchCache = matchCache;
+    }
+
+    /**
+     * finds the known item the given tool means by the given name
+     * @param name the name the tool uses
+     * @param tool the tool that found the name
+     * @return the matching item that comes first in the iteration order of the items, or null if none matches
+     */
+    public SrcItm findMatch(String name, Comparator.TOOL_NAME tool) {
+        boolean qualified = tool.getNaming() == Comparator.NAMING.QUALIFIED;
+        if(qualified && matchCache != null) return findCachedMatch(name);
+
+        int capacity = mapCapacity();
+        Entry first = null;
+        for(Entry candidate : findCandidates(name, qualified)) {
+            if(candidate.removed || (first != null && compare(candidate, first, capacity) > 0)) continue;
+            if(isMatch(name, qualified, candidate)) first = candidate;
+        }
+        return first == null ? null : first.item;
+    }
+
+    /**
+     * finds the match of a qualified name through the cache.
+     * the cache also holds the items that have been found by a qualified tool since, those are skipped here
+     */
+    private SrcItm findCachedMatch(String name) {
+        List<String> matches = matchCache.get(name, (key) -> {
+            List<String> found = new ArrayList<>();
+            for(Entry candidate : findCandidates(key, true)) {
+                if(isMatch(key, true, candidate)) found.add(candidate.item.getName());
+            }
+            return found;
+        });
+
+        // the iteration order depends on the number of items, so it is not stored in the cache
+        int capacity = mapCapacity();
+        Entry first = null;
+        for(String match : matches) {
+            Entry entry = s101Names.get(match);
+            if(entry != null && !entry.removed && (first == null || compare(entry, first, capacity) < 0)) first = entry;
+        }
+        return first == null ? null : first.item;
+    }
+
+    /**
+     * compares two entries on the iteration order of a HashMap with all items added so far:
+     * on the bucket of their name, and on the order they were added within the bucket
+     * (resizing the map keeps that order)
+     * @param capacity the capacity of the map, see mapCapacity
+     */
+    private static int compare(Entry a, Entry b, int capacity) {
+        int bucketCompare = Integer.compare(a.hash & (capacity - 1), b.hash & (capacity - 1));
+        return bucketCompare != 0 ? bucketCompare : Long.compare(a.seq, b.seq);
+    }
+
+    /**
+     * the capacity of a HashMap with the default settings after adding all items added so far
+     */
+    private int mapCapacity() {
+        int capacity = MAP_CAPACITY;
+        while(seqs.size() > capacity * MAP_LOAD_FACTOR) capacity *= 2;
+        return capacity;
+    }
+
+    /**
+     * finds the items of the other naming style a name might match, including the ones that moved to the other trie
+     * @param name the name
+     * @param qualified whether the name is qualified (false = Structure101)
+     * @return the candidates, in no particular order
+     */
+    private List<Entry> findCandidates(String name, boolean qualified) {
+        List<Entry> candidates = new ArrayList<>();
+        if(qualified) {
+            String[] segments = qualifiedSegments(name);
+            if(classLevel) findQualifiedCls(s101Root, segments, 0, candidates);
+            else {
+                Node node = s101Root;
+                for(int i = segments.length - 1; i >= 0 && node != null; i--) node = node.children.get(segments[i]);
+                if(node != null) collectAll(node, candidates);
+            }
+        }
+        else {
+            String[] segments = s101Segments(name);
+            if(classLevel) findS101Cls(qualifiedRoot, segments, 0, candidates);
+            else {
+                Node node = qualifiedRoot;
+                for(int i = segments.length - 1; i >= 0 && node != null; i--) {
+                    node = node.children.get(segments[i]);
+                    if(node != null) candidates.addAll(node.entries);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * checks a candidate with the original comparison
+     */
+    private boolean isMatch(String name, boolean qualified, Entry candidate) {
+        String qualifiedName = qualified ? name : candidate.item.getName();
+        String s101Name = qualified ? candidate.item.getName() : name;
+        return classLevel ? Comparator.isSameCls(qualifiedName, s101Name) : Comparator.isSamePkg(qualifiedName, s101Name);
+    }
+
+    /**
+     * walks the Structure101 trie with the segments of a qualified class name
+     * @param node the current node
+     * @param segments the qualified segments
+     * @param depth the number of segments walked so far
+     * @param candidates the list to add the matching entries to
+     */
+    private void findQualifiedCls(Node node, String[] segments, int depth, List<Entry> candidates) {
+        // all segments of the qualified name matched, so any longer Structure101 name matches as well
+        if(depth == segments.length) {
+            collectAll(node, candidates);
+            return;
+        }
+        // the Structure101 name ended before the qualified name did
+        candidates.addAll(node.entries);
+
+        String segment = segments[segments.length - 1 - depth];
+        // Structure101 segments the qualified segment starts with
+        for(int i = 0; i <= segment.length(); i++) {
+            String prefix = segment.substring(0, i);
+            Node child = node.children.get(prefix);
+            if(child != null && !prefix.startsWith("(")) findQualifiedCls(child, segments, depth + 1, candidates);
+        }
+        // Structure101 segments starting with "(" match any segment
+        for(Map.Entry<String, Node> child : node.children.tailMap("(").entrySet()) {
+            if(!child.getKey().startsWith("(")) break;
+            findQualifiedCls(child.getValue(), segments, depth + 1, candidates);
+        }
+    }
+
+    /**
+     * walks the qualified trie with the segments of a Structure101 class name
+     * @param node the current node
+     * @param segments the Structure101 segments
+     * @param depth the number of segments walked so far
+     * @param candidates the list to add the matching entries to
+     */
+    private void findS101Cls(Node node, String[] segments, int depth, List<Entry> candidates) {
+        // all segments of the Structure101 name matched, so any longer qualified name matches as well
+        if(depth == segments.length) {
+            collectAll(node, candidates);
+            return;
+        }
+        // the qualified name ended before the Structure101 name did
+        candidates.addAll(node.entries);
+
+        String segment = segments[segments.length - 1 - depth];
+        if(segment.startsWith("(")) {
+            for(Node child : node.children.values()) findS101Cls(child, segments, depth + 1, candidates);
+            return;
+        }
+        // qualified segments starting with the Structure101 segment
+        for(Map.Entry<String, Node> child : node.children.tailMap(segment).entrySet()) {
+            if(!child.getKey().startsWith(segment)) break;
+            findS101Cls(child.getValue(), segments, depth + 1, candidates);
+        }
+    }
+
+    private static void collectAll(Node node, List<Entry> candidates) {
+        candidates.addAll(node.entries);
+        for(Node child : node.children.values()) collectAll(child, candidates);
+    }
+
+    private Entry insert(Node root, String[] segments, SrcItm item) {
+        Node node = root;
+        for(int i = segments.length - 1; i >= 0; i--)
+            node = node.children.computeIfAbsent(segments[i], (key) -> new Node());
+
+        Entry entry = new Entry(item, seqs.computeIfAbsent(item, (key) -> (long) seqs.size()));
+        node.entries.add(entry);
+        return entry;
+    }
+
+    /**
+     * splits a qualified name into segments, the same way Comparator.isSamePkg and Comparator.isSameCls do
+     */
+    private String[] qualifiedSegments(String name) {
+        String[] parts = name.split("\\.");
+        if(!classLevel || parts.length == 0) return parts;
+
+        // split the last part (i.e. the real class name) on underscores as well
+        String[] split = parts[parts.length - 1].split("_");
+        String[] segments = new String[parts.length - 1 + split.length];
+        System.arraycopy(parts, 0, segments, 0, parts.length - 1);
+        System.arraycopy(split, 0, segments, parts.length - 1, split.length);
+        return segments;
+    }
+
+    /**
+     * splits a Structure101 name into segments, the same way Comparator.isSamePkg and Comparator.isSameCls do
+     */
+    private String[] s101Segments(String name) {
+        return name.split(classLevel ? "_" : "\\.");
+    }
+
+    private static int toolMask(Comparator.NAMING naming) {
+        int mask = 0;
+        for(Comparator.TOOL_NAME tool : Comparator.TOOL_NAME.values())
+            if(tool.getNaming() == naming) mask |= Itm.toolBit(tool);
+        return mask;
+    }
+
+    private static class Node {
+        private final TreeMap<String, Node> children = new TreeMap<>();
+        private final List<Entry> entries = new ArrayList<>(1);
+    }
+
+    private static class Entry {
+        private final SrcItm item;
+        private final long seq;
+        // the hash a HashMap uses for the name of the item
+        private final int hash;
+        // set when the item moved to the other trie
+        private boolean removed;
+
+        private Entry(SrcItm item, long seq) {
+            this.item = item;
+            this.seq = seq;
+            int h = item.getName().hashCode();
+            this.hash = h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package analysis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * remembers which Structure101 items a qualified name matches, to share the name matching between comparisons
+ * against the same Structure101 output, like the snapshots of a batch.
+ * the matches of a name are stored by the names of the items, so each comparison can still skip the items
+ * that were already found by a qualified tool, and pick the first one in its own order of the items.
+ * safe to use from several threads
+ */
+public class NameMatchCache {
+
+    private final Map<String, List<String>> matches = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * gets the matches of a name, or finds and remembers them if the name was not matched before
+     * @param name the qualified name
+     * @param finder finds the names of all matching Structure101 items
+     * @return the names of the matching items
+     */
+    public List<String> get(String name, Function<String, List<String>> finder) {
+        List<String> found = matches.get(name);
+        if(found != null) {
+            hits.incrementAndGet();
+            return found;
+        }
+
+        // finding the matches can take a while, so do not hold a lock on the map in the meantime
+        // if another thread matched the same name already its matches are the same
+        misses.incrementAndGet();
+        found = List.copyOf(finder.apply(name));
+        List<String> previous = matches.putIfAbsent(name, found);
+        return previous != null ? previous : found;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+}
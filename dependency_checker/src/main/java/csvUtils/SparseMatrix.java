@@ -0,0 +1,80 @@
+package csvUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * keeps the names of the rows and the non blank cells of a Structure101 matrix,
+ * so the memory used scales with the amount of dependencies instead of the square of the amount of items.
+ * the cells are stored as (row, column, count) triples in parallel int arrays, in the order they were read
+ */
+public class SparseMatrix implements Structure101MatrixReader.Handler {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    // the names by row index, index 0 is the header row and has no name
+    private final List<String> names = new ArrayList<>();
+
+    private int[] rows = new int[DEFAULT_CAPACITY];
+    private int[] columns = new int[DEFAULT_CAPACITY];
+    private int[] counts = new int[DEFAULT_CAPACITY];
+    private int size;
+
+    public SparseMatrix() {
+        names.add(null);
+    }
+
+    @Override
+    public void row(int row, String name) {
+        while(names.size() <= row) names.add(null);
+        names.set(row, name);
+    }
+
+    @Override
+    public void cell(int row, int column, int count) {
+        if(size == rows.length) {
+            int capacity = rows.length << 1;
+            rows = Arrays.copyOf(rows, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        rows[size] = row;
+        columns[size] = column;
+        counts[size] = count;
+        size++;
+    }
+
+    /**
+     * @return the amount of rows, excluding the header row
+     */
+    public int getRowCount() {
+        return names.size() - 1;
+    }
+
+    /**
+     * @return the name of the item of the row, or null if there is no such row
+     */
+    public String getName(int row) {
+        return row < names.size() ? names.get(row) : null;
+    }
+
+    /**
+     * @return the amount of non blank cells
+     */
+    public int getCellCount() {
+        return size;
+    }
+
+    public int getRow(int cell) {
+        return rows[cell];
+    }
+
+    public int getColumn(int cell) {
+        return columns[cell];
+    }
+
+    public int getCount(int cell) {
+        return counts[cell];
+    }
+}
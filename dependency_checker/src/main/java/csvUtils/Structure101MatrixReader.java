@@ -0,0 +1,66 @@
+package csvUtils;
+
+import com.opencsv.CSVReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+/**
+ * streaming reader for the dependency matrix exported by Structure101.
+ * the first line holds the headers, every next line starts with the index and name of an item,
+ * followed by a cell per item with the amount of dependencies from that item to the item of the line.
+ * most cells are blank, so only the non blank cells are passed to the handler, as soon as their line is read
+ */
+public class Structure101MatrixReader {
+
+    /**
+     * receives the rows and non blank cells of a matrix, in the order they appear in the file
+     */
+    public interface Handler {
+        /**
+         * @param row the index of the row, the first row after the headers is 1
+         * @param name the name of the item of the row
+         */
+        void row(int row, String name);
+
+        /**
+         * @param row the index of the row, the item the dependencies go to
+         * @param column the index of the column, which is the row index of the item the dependencies come from
+         * @param count the amount of dependencies
+         */
+        void cell(int row, int column, int count);
+    }
+
+    // the first value of a line is the index of the row, the second the name of its item
+    private static final int NAME_INDEX = 1;
+    private static final int FIRST_CELL_INDEX = 2;
+
+    public static void read(File file, Handler handler) throws IOException {
+        try(CSVReader csvReader = new CSVReader(new BufferedReader(new FileReader(file)))) {
+            // the headers only contain the indices of the columns, which we can easily deduce
+            if(csvReader.readNext() == null) return;
+
+            int row = 1;
+            String[] values;
+            while((values = csvReader.readNext()) != null) {
+                if(values.length <= NAME_INDEX) throw new IOException(file + ": row " + row + " has no name");
+                handler.row(row, values[NAME_INDEX]);
+
+                for(int i = FIRST_CELL_INDEX; i < values.length; i++) {
+                    String count = values[i];
+                    if(count.isBlank()) continue;
+
+                    int column = i - NAME_INDEX;
+                    try {
+                        handler.cell(row, column, Integer.parseInt(count));
+                    } catch(NumberFormatException e) {
+                        throw new IOException(file + ": row " + row + ", column " + column + " is not a number: " + count, e);
+                    }
+                }
+                row++;
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package csvUtils;
+
+import analysis.BatchComparison;
+import analysis.Comparator;
+import com.opencsv.CSVWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * writes the summaries of a batch comparison as a csv file, with a line per snapshot
+ * and for each tool the found and missed items and dependencies
+ */
+public class TimeSeriesWriter {
+
+    public static void write(List<BatchComparison.Summary> summaries, List<Comparator.TOOL_NAME> tools, File output) throws IOException {
+        try(CSVWriter writer = new CSVWriter(new BufferedWriter(new FileWriter(output)))) {
+            List<String> header = new ArrayList<>(List.of("snapshot", "items", "dependencies"));
+            for(Comparator.TOOL_NAME tool : tools) {
+                String name = tool.name().toLowerCase();
+                header.addAll(List.of(name + "_found_items", name + "_missed_items", name + "_found_dependencies", name + "_missed_dependencies"));
+            }
+            writer.writeNext(header.toArray(new String[0]), false);
+
+            for(BatchComparison.Summary summary : summaries) {
+                List<String> line = new ArrayList<>(List.of(summary.getSnapshot(),
+                        Integer.toString(summary.getItms()), Integer.toString(summary.getDeps())));
+                for(Comparator.TOOL_NAME tool : tools) {
+                    line.add(Integer.toString(summary.getFoundItms(tool)));
+                    line.add(Integer.toString(summary.getMissedItms(tool)));
+                    line.add(Integer.toString(summary.getFoundDeps(tool)));
+                    line.add(Integer.toString(summary.getMissedDeps(tool)));
+                }
+                writer.writeNext(line.toArray(new String[0]), false);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package importers;
+
+import analysis.Comparator;
+
+import java.io.IOException;
+
+/**
+ * reads the output of a tool only once, for comparing it with the outputs of many other tools.
+ * the comparator does not change an ImportedGraph, so the same one can be used by several threads
+ */
+public class CachedImporter implements Importer {
+
+    private final Importer importer;
+    private ImportedGraph graph;
+    private boolean classLevel;
+
+    public CachedImporter(Importer importer) {
+        this.importer = importer;
+    }
+
+    @Override
+    public Comparator.TOOL_NAME getTool() {
+        return importer.getTool();
+    }
+
+    @Override
+    public synchronized ImportedGraph read(boolean classLevel) throws IOException {
+        if(graph == null || this.classLevel != classLevel) {
+            graph = importer.read(classLevel);
+            this.classLevel = classLevel;
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,64 @@
+package importers;
+
+import analysis.Comparator;
+import csvUtils.SparseMatrix;
+import csvUtils.Structure101MatrixReader;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * imports a dependency structure matrix in the csv format exported by Structure101.
+ * the id of an item is the index of its row
+ */
+public class DsmCsvImporter implements Importer {
+
+    private final Comparator.TOOL_NAME tool;
+    private final File file;
+
+    public DsmCsvImporter(Comparator.TOOL_NAME tool, File file) {
+        this.tool = tool;
+        this.file = file;
+    }
+
+    @Override
+    public Comparator.TOOL_NAME getTool() {
+        return tool;
+    }
+
+    @Override
+    public ImportedGraph read(boolean classLevel) throws IOException {
+        // a column can refer to a row that comes later, so the matrix is read completely first
+        SparseMatrix matrix = new SparseMatrix();
+        Structure101MatrixReader.read(file, matrix);
+
+        ImportedGraph graph = new ImportedGraph(tool);
+        int cell = 0;
+        for(int row = 1; row <= matrix.getRowCount(); row++) {
+            String name = matrix.getName(row);
+            int to = graph.addItm(row, name, isInternal(name, classLevel));
+
+            // the cells are in the order they were read, so the ones of this row come next
+            for(; cell < matrix.getCellCount() && matrix.getRow(cell) == row; cell++) {
+                int column = matrix.getColumn(cell);
+                String fromName = matrix.getName(column);
+                if(fromName == null) throw new IOException(file + ": column " + column + " has no row");
+                int from = graph.addItm(column, fromName, isInternal(fromName, classLevel));
+                graph.addDep(from, to, matrix.getCount(cell));
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * tells whether an item is internal from its name
+     * @return whether it is internal, or null if that can not be told
+     */
+    private static Boolean isInternal(String name, boolean classLevel) {
+        // since structure101 doesn't always start external classes with "("
+        // we can only tell when it definitely is internal,
+        // but we can never be sure it is external if "(" is missing
+        if(classLevel) return name.startsWith("(") ? false : null;
+        return !name.startsWith("(unknown)");
+    }
+}
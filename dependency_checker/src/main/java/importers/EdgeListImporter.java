@@ -0,0 +1,67 @@
+package importers;
+
+import analysis.Comparator;
+import com.opencsv.CSVReader;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * imports a plain list of dependencies, for tools without a dedicated importer.
+ * every line is "from,to" or "from,to,amount" with the fully qualified names of the items,
+ * blank lines and lines starting with "#" are skipped.
+ * an edge list does not tell whether items are internal, and items are numbered in the order they appear
+ */
+public class EdgeListImporter implements Importer {
+
+    private static final String COMMENT = "#";
+
+    private final Comparator.TOOL_NAME tool;
+    private final File file;
+
+    public EdgeListImporter(Comparator.TOOL_NAME tool, File file) {
+        this.tool = tool;
+        this.file = file;
+    }
+
+    @Override
+    public Comparator.TOOL_NAME getTool() {
+        return tool;
+    }
+
+    @Override
+    public ImportedGraph read(boolean classLevel) throws IOException {
+        ImportedGraph graph = new ImportedGraph(tool);
+        Map<String, Integer> ids = new HashMap<>();
+
+        try(CSVReader csvReader = new CSVReader(new BufferedReader(new FileReader(file)))) {
+            String[] values;
+            while((values = csvReader.readNext()) != null) {
+                if(values.length == 0 || values[0].isBlank() || values[0].startsWith(COMMENT)) continue;
+                if(values.length < 2) throw new IOException(file + ": line " + csvReader.getLinesRead() + " has no to item");
+
+                int from = addItm(graph, ids, values[0].trim());
+                int to = addItm(graph, ids, values[1].trim());
+                int amount = -1;
+                if(values.length > 2 && !values[2].isBlank()) {
+                    try {
+                        amount = Integer.parseInt(values[2].trim());
+                    } catch(NumberFormatException e) {
+                        throw new IOException(file + ": line " + csvReader.getLinesRead() + " has no valid amount: " + values[2], e);
+                    }
+                }
+                graph.addDep(from, to, amount);
+            }
+        }
+        return graph;
+    }
+
+    private static int addItm(ImportedGraph graph, Map<String, Integer> ids, String name) {
+        int id = ids.computeIfAbsent(name, (key) -> ids.size());
+        return graph.addItm(id, name, null);
+    }
+}
@@ -0,0 +1,98 @@
+package importers;
+
+import analysis.Comparator;
+import xmlUtils.GraphMLReader;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * imports a GraphML file in the format written by Pyne.
+ * the id of an item is the id of its node
+ */
+public class GraphMLImporter implements Importer {
+
+    private final Comparator.TOOL_NAME tool;
+    private final File file;
+
+    public GraphMLImporter(Comparator.TOOL_NAME tool, File file) {
+        this.tool = tool;
+        this.file = file;
+    }
+
+    @Override
+    public Comparator.TOOL_NAME getTool() {
+        return tool;
+    }
+
+    @Override
+    public ImportedGraph read(boolean classLevel) throws IOException {
+        if(!file.isFile()) throw new FileNotFoundException(file.getPath());
+
+        ImportedGraph graph = new ImportedGraph(tool);
+        // the ids of all nodes read so far, including the ones we are not interested in
+        Set<String> nodeIds = new HashSet<>();
+        // edges that were read before one of their nodes, GraphML allows nodes and edges in any order
+        List<String[]> pendingEdges = new ArrayList<>();
+
+        GraphMLReader.read(file, new GraphMLReader.Handler() {
+            @Override
+            public void node(String id, Map<String, String> data) {
+                nodeIds.add(id);
+
+                // the "labelV" key indicates the type of object this node represents (package, class)
+                // so we filter out the ones we are not interested in according to classLevel
+                String label = data.get("labelV");
+                if(label != null && !label.equals(classLevel ? "class" : "package")) return;
+
+                // the "ClassType" or "PackageType" key indicates whether the class is internal or external
+                // (SystemClass/Package or RetrievedClass/Package, respectively)
+                // for pyne we can always tell whether something is internal or not, so a boolean is fine
+                String type = data.get(classLevel ? "ClassType" : "PackageType");
+                boolean internal = type == null || type.equals(classLevel ? "SystemClass" : "SystemPackage");
+
+                // the "name" key indicates the name of the class
+                graph.addItm(Integer.parseInt(id), data.getOrDefault("name", ""), internal);
+            }
+
+            @Override
+            public void edge(String source, String target, Map<String, String> data) {
+                // the "labelE" key indicates the type of edge this node represents
+                // so we filter the ones we are not interested in according to classLevel
+                // the expression: 'label.contains("package") == classLevel'
+                // essentially inverts 'label.contains("package")' if classLevel is false
+                // consider this truth table, where a = 'label.contains("package")', b = 'classLevel',
+                // which explains the result we want: if(b) return a else return !a. we can see this is equal to a == b
+                // a b
+                // 1 1 --> 1
+                // 1 0 --> 0
+                // 0 1 --> 0
+                // 0 0 --> 1
+                String label = data.get("labelE");
+                if(label != null && label.contains("package") == classLevel) return;
+
+                if(nodeIds.contains(source) && nodeIds.contains(target)) addDep(graph, source, target);
+                else pendingEdges.add(new String[]{source, target});
+            }
+        });
+
+        for(String[] edge : pendingEdges) addDep(graph, edge[0], edge[1]);
+        return graph;
+    }
+
+    /**
+     * adds a dependency, if both of its nodes are items we are interested in
+     */
+    private static void addDep(ImportedGraph graph, String source, String target) {
+        int from = graph.findItm(Integer.parseInt(source));
+        int to = graph.findItm(Integer.parseInt(target));
+        // pyne does not count the dependencies between two items
+        if(from >= 0 && to >= 0) graph.addDep(from, to, -1);
+    }
+}
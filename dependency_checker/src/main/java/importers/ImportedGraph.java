@@ -0,0 +1,117 @@
+package importers;
+
+import analysis.Comparator;
+import analysis.LongIntHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * the items and dependencies found by a single tool, before they are merged with the ones of the other tools.
+ * items are numbered in the order they were first added, dependencies refer to items by that number
+ */
+public class ImportedGraph {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final Comparator.TOOL_NAME tool;
+
+    // the number of each item by the id the tool gave it
+    private final LongIntHashMap itmIndex = new LongIntHashMap();
+    private final List<String> names = new ArrayList<>();
+    private final List<Boolean> internals = new ArrayList<>();
+    private int[] toolIds = new int[DEFAULT_CAPACITY];
+
+    private int[] froms = new int[DEFAULT_CAPACITY];
+    private int[] tos = new int[DEFAULT_CAPACITY];
+    private int[] amounts = new int[DEFAULT_CAPACITY];
+    private int depCount;
+
+    public ImportedGraph(Comparator.TOOL_NAME tool) {
+        this.tool = tool;
+    }
+
+    public Comparator.TOOL_NAME getTool() {
+        return tool;
+    }
+
+    /**
+     * adds an item, unless the tool already reported an item with this id
+     * @param toolId the id the tool gave the item
+     * @param name the name the tool uses for the item
+     * @param internal whether the item is internal, or null if the tool can not tell
+     * @return the number of the item in this graph
+     */
+    public int addItm(int toolId, String name, Boolean internal) {
+        int itm = itmIndex.get(toolId);
+        if(itm != LongIntHashMap.NO_VALUE) return itm;
+
+        itm = names.size();
+        if(itm == toolIds.length) toolIds = Arrays.copyOf(toolIds, itm << 1);
+        toolIds[itm] = toolId;
+        names.add(name);
+        internals.add(internal);
+        itmIndex.put(toolId, itm);
+        return itm;
+    }
+
+    /**
+     * @param toolId the id the tool gave the item
+     * @return the number of the item in this graph, or -1 if the tool did not report it
+     */
+    public int findItm(int toolId) {
+        return itmIndex.get(toolId);
+    }
+
+    /**
+     * adds a dependency between two items of this graph
+     * @param from the number of the item the dependency comes from
+     * @param to the number of the item the dependency goes to
+     * @param amount the amount of dependencies between the items, -1 if the tool does not count them
+     */
+    public void addDep(int from, int to, int amount) {
+        if(depCount == froms.length) {
+            int capacity = depCount << 1;
+            froms = Arrays.copyOf(froms, capacity);
+            tos = Arrays.copyOf(tos, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+        }
+        froms[depCount] = from;
+        tos[depCount] = to;
+        amounts[depCount] = amount;
+        depCount++;
+    }
+
+    public int getItmCount() {
+        return names.size();
+    }
+
+    public String getName(int itm) {
+        return names.get(itm);
+    }
+
+    public Boolean isInternal(int itm) {
+        return internals.get(itm);
+    }
+
+    public int getToolId(int itm) {
+        return toolIds[itm];
+    }
+
+    public int getDepCount() {
+        return depCount;
+    }
+
+    public int getFrom(int dep) {
+        return froms[dep];
+    }
+
+    public int getTo(int dep) {
+        return tos[dep];
+    }
+
+    public int getAmount(int dep) {
+        return amounts[dep];
+    }
+}
@@ -0,0 +1,25 @@
+package importers;
+
+import analysis.Comparator;
+
+import java.io.IOException;
+
+/**
+ * reads the output of one tool into an ImportedGraph.
+ * importers do not share any state, so the comparator can run them in parallel
+ */
+public interface Importer {
+
+    /**
+     * @return the tool whose output this importer reads
+     */
+    Comparator.TOOL_NAME getTool();
+
+    /**
+     * reads the items and dependencies of the tool
+     * @param classLevel whether to read the classes (false = packages)
+     * @return the items and dependencies, in the order the tool reported them
+     * @throws IOException when the output of the tool can not be read
+     */
+    ImportedGraph read(boolean classLevel) throws IOException;
+}
@@ -0,0 +1,80 @@
+package importers;
+
+import analysis.Comparator;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.VertexProperty;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * imports a graph produced by Pyne directly, without writing it to a GraphML file and reading it back.
+ * the vertices and edges are read the same way GraphMLImporter reads the nodes and edges of the file,
+ * so comparing a graph gives the same results as comparing the GraphML file Pyne would write of it.
+ *
+ * to compare the graph of a Pyne Parser right after it parsed a commit:
+ * new Comparator(List.of(new DsmCsvImporter(TOOL_NAME.STRUCTURE101, csvFile), new TinkerPopImporter(TOOL_NAME.PYNE, graph)),
+ *         classLevel, outputDetail).importFileData().collectAllItems().compareResults()
+ * for a Ferma FramedGraph, pass its base graph.
+ * the graph is read on another thread, and should not be changed until importFileData returns
+ */
+public class TinkerPopImporter implements Importer {
+
+    private static final String CLASS_LABEL = "class";
+    private static final String PACKAGE_LABEL = "package";
+
+    private final Comparator.TOOL_NAME tool;
+    private final Graph graph;
+
+    public TinkerPopImporter(Comparator.TOOL_NAME tool, Graph graph) {
+        this.tool = tool;
+        this.graph = graph;
+    }
+
+    @Override
+    public Comparator.TOOL_NAME getTool() {
+        return tool;
+    }
+
+    @Override
+    public ImportedGraph read(boolean classLevel) {
+        ImportedGraph imported = new ImportedGraph(tool);
+        // ids that are not numbers are numbered in the order they are read, below zero to not clash with the numbers
+        Map<Object, Integer> otherIds = new HashMap<>();
+
+        Iterator<Vertex> vertices = graph.vertices();
+        while(vertices.hasNext()) {
+            Vertex vertex = vertices.next();
+            if(!vertex.label().equals(classLevel ? CLASS_LABEL : PACKAGE_LABEL)) continue;
+
+            // the "ClassType" or "PackageType" property indicates whether the class is internal or external
+            // (SystemClass/Package or RetrievedClass/Package, respectively)
+            VertexProperty<Object> type = vertex.property(classLevel ? "ClassType" : "PackageType");
+            boolean internal = !type.isPresent() || type.value().toString().equals(classLevel ? "SystemClass" : "SystemPackage");
+            VertexProperty<Object> name = vertex.property("name");
+
+            imported.addItm(toolId(vertex.id(), otherIds), name.isPresent() ? name.value().toString() : "", internal);
+        }
+
+        Iterator<Edge> edges = graph.edges();
+        while(edges.hasNext()) {
+            Edge edge = edges.next();
+            // see GraphMLImporter for why this selects the edges of the level we are interested in
+            if(edge.label().contains("package") == classLevel) continue;
+
+            int from = imported.findItm(toolId(edge.outVertex().id(), otherIds));
+            int to = imported.findItm(toolId(edge.inVertex().id(), otherIds));
+            // pyne does not count the dependencies between two items
+            if(from >= 0 && to >= 0) imported.addDep(from, to, -1);
+        }
+        return imported;
+    }
+
+    private static int toolId(Object id, Map<Object, Integer> otherIds) {
+        if(id instanceof Number) return ((Number) id).intValue();
+        return otherIds.computeIfAbsent(id, (key) -> -1 - otherIds.size());
+    }
+}
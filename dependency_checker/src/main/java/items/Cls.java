@@ -12,6 +12,13 @@ public class Cls extends SrcItm {
         super(name, internal, found);
     }
 
+    @Override
+    public Cls copy() {
+        Cls copy = new Cls(name, isInternal, analysis.Comparator.TOOL_NAME.IDEAL);
+        copyFoundBy(copy);
+        return copy;
+    }
+
     public String getCleanName() {
         List<String> split = Arrays.asList(name.split("[._]"));
         return split.get(split.size() - 1);
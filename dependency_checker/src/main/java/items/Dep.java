@@ -3,30 +3,66 @@ package items;
 import analysis.Comparator;
 
 /**
- * class to represent a dependency found by a tool
+ * a dependency found by a tool, as a view on a row of the DepTable it is stored in
  */
-public class Dep extends Itm {
+public class Dep {
 
-    private final SrcItm from;
-    private final SrcItm to;
-    private final int amount;
+    private final DepTable table;
+    private final int row;
 
-    public Dep(SrcItm from, SrcItm to, int amount, Comparator.TOOL_NAME found) {
-        super(null, found);
-        this.from = from;
-        this.to = to;
-        this.amount = amount;
+    Dep(DepTable table, int row) {
+        this.table = table;
+        this.row = row;
     }
 
     public SrcItm getFrom() {
-        return from;
+        return table.getFrom(row);
     }
 
     public SrcItm getTo() {
-        return to;
+        return table.getTo(row);
     }
 
     public int getAmount() {
-        return amount;
+        return table.getAmount(row);
+    }
+
+    public boolean wasFoundBy(Comparator.TOOL_NAME tool) {
+        return table.wasFoundBy(row, tool);
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * packs the ids of the from and to items into one long,
+     * which uniquely identifies a dependency between two items
+     * @param fromId the id of the from item
+     * @param toId the id of the to item
+     * @return the key of the dependency
+     */
+    public static long key(int fromId, int toId) {
+        return ((long) fromId << 32) | (toId & 0xFFFFFFFFL);
+    }
+
+    public long getKey() {
+        return key(table.getFromId(row), table.getToId(row));
+    }
+
+    /**
+     * two dependencies are the same if they go from and to the same items,
+     * regardless of which tool found them
+     */
+    @Override
+    public boolean equals(Object o) {
+        if(this == o) return true;
+        if(!(o instanceof Dep)) return false;
+        return getKey() == ((Dep) o).getKey();
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(getKey());
     }
 }
@@ -0,0 +1,124 @@
+package items;
+
+import analysis.Comparator;
+import analysis.LongIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * the dependencies of a comparison stored column wise, each row is one dependency.
+ * only the ids of the from and to items are stored, the items themselves are looked up in the ItmTable,
+ * so a dependency takes four ints instead of an object with a map and a set.
+ * rows are in the order the dependencies were first found and are indexed on their packed (from, to) ids
+ */
+public class DepTable {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final ItmTable itms;
+    private final LongIntHashMap index = new LongIntHashMap();
+
+    private int[] fromIds = new int[DEFAULT_CAPACITY];
+    private int[] toIds = new int[DEFAULT_CAPACITY];
+    private int[] amounts = new int[DEFAULT_CAPACITY];
+    // bitmask of the tools that found the dependency, see Itm.toolBit
+    private int[] foundBy = new int[DEFAULT_CAPACITY];
+    private int size;
+
+    public DepTable(ItmTable itms) {
+        this.itms = itms;
+    }
+
+    /**
+     * adds a dependency, or marks an existing dependency between the same items as found by the tool as well
+     * @param from the item the dependency comes from
+     * @param to the item the dependency goes to
+     * @param amount the amount of dependencies between the two items, only stored for a new dependency
+     * @param tool the tool that found it
+     * @return the row of the dependency
+     */
+    public int found(SrcItm from, SrcItm to, int amount, Comparator.TOOL_NAME tool) {
+        long key = Dep.key(from.getId(), to.getId());
+        int row = index.get(key);
+        if(row != LongIntHashMap.NO_VALUE) {
+            foundBy[row] |= Itm.toolBit(tool);
+            return row;
+        }
+
+        if(size == fromIds.length) grow();
+        row = size++;
+        fromIds[row] = from.getId();
+        toIds[row] = to.getId();
+        amounts[row] = amount;
+        foundBy[row] = Itm.toolBit(Comparator.TOOL_NAME.IDEAL) | Itm.toolBit(tool);
+        index.put(key, row);
+        return row;
+    }
+
+    /**
+     * copies the dependencies, to find more dependencies without changing this table
+     * @param itms the copies of the items, with the same ids
+     * @return the copy
+     */
+    public DepTable copy(ItmTable itms) {
+        DepTable copy = new DepTable(itms);
+        copy.fromIds = Arrays.copyOf(fromIds, fromIds.length);
+        copy.toIds = Arrays.copyOf(toIds, toIds.length);
+        copy.amounts = Arrays.copyOf(amounts, amounts.length);
+        copy.foundBy = Arrays.copyOf(foundBy, foundBy.length);
+        copy.size = size;
+        for(int row = 0; row < size; row++) copy.index.put(Dep.key(fromIds[row], toIds[row]), row);
+        return copy;
+    }
+
+    /**
+     * @return the row of the dependency between the items with the given ids, or -1 if there is none
+     */
+    public int find(int fromId, int toId) {
+        return index.get(Dep.key(fromId, toId));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getFromId(int row) {
+        return fromIds[row];
+    }
+
+    public int getToId(int row) {
+        return toIds[row];
+    }
+
+    public SrcItm getFrom(int row) {
+        return itms.get(fromIds[row]);
+    }
+
+    public SrcItm getTo(int row) {
+        return itms.get(toIds[row]);
+    }
+
+    public int getAmount(int row) {
+        return amounts[row];
+    }
+
+    public boolean wasFoundBy(int row, Comparator.TOOL_NAME tool) {
+        return (foundBy[row] & Itm.toolBit(tool)) != 0;
+    }
+
+    /**
+     * @return a view on a row, for code that wants to pass a single dependency around
+     */
+    public Dep get(int row) {
+        if(row < 0 || row >= size) throw new IndexOutOfBoundsException("row " + row + " of " + size);
+        return new Dep(this, row);
+    }
+
+    private void grow() {
+        int capacity = fromIds.length << 1;
+        fromIds = Arrays.copyOf(fromIds, capacity);
+        toIds = Arrays.copyOf(toIds, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        foundBy = Arrays.copyOf(foundBy, capacity);
+    }
+}
@@ -2,26 +2,27 @@ package items;
 
 import analysis.Comparator;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-
 /**
  * represents any item that will be looked for by tools
- * i.e. classes, packages, dependencies
+ * i.e. classes, packages
+ * which tools found it is kept as a bitmask and the ids per tool in an array indexed by the tool,
+ * since there can be a lot of items and only a few tools
  */
 public abstract class Itm {
 
+    private static final Comparator.TOOL_NAME[] TOOLS = Comparator.TOOL_NAME.values();
+
     protected String name;
-    protected Map<Comparator.TOOL_NAME, Integer> idMap = new HashMap<>();
-    protected Set<Comparator.TOOL_NAME> foundBy = new HashSet<>();
+    // the id each tool gave this item, only valid if the bit of the tool is set in idMask
+    protected final int[] toolIds = new int[TOOLS.length];
+    protected int idMask;
+    protected int foundBy;
 
 
     public Itm(String name, Comparator.TOOL_NAME found) {
         this.name = name;
-        foundBy.add(Comparator.TOOL_NAME.IDEAL);
-        foundBy.add(found);
+        addFoundBy(Comparator.TOOL_NAME.IDEAL);
+        addFoundBy(found);
     }
 
     public static Cls createClass(String name, Boolean internal, Comparator.TOOL_NAME found) {
@@ -32,18 +33,27 @@ public abstract class Itm {
         return new Pkg(name, internal, found);
     }
 
-    public static Dep createDependency(SrcItm from, SrcItm to, int amount, Comparator.TOOL_NAME found) {
-        return new Dep(from, to, amount, found);
+    /**
+     * @param tool the tool
+     * @return the bit of the tool in a bitmask of tools
+     */
+    public static int toolBit(Comparator.TOOL_NAME tool) {
+        return 1 << tool.ordinal();
     }
 
-
-
     public void addFoundBy(Comparator.TOOL_NAME tool) {
-        foundBy.add(tool);
+        foundBy |= toolBit(tool);
+    }
+
+    /**
+     * @return the bitmask of the tools that found this item, see toolBit
+     */
+    public int getFoundBy() {
+        return foundBy;
     }
 
     public boolean wasFoundBy(Comparator.TOOL_NAME tool) {
-        return foundBy.contains(tool);
+        return (foundBy & toolBit(tool)) != 0;
     }
 
     public String getName() {
@@ -51,11 +61,23 @@ public abstract class Itm {
     }
 
     public void setToolId(Comparator.TOOL_NAME tool, Integer id) {
-        idMap.put(tool, id);
+        toolIds[tool.ordinal()] = id;
+        idMask |= toolBit(tool);
     }
 
     public int getToolId(Comparator.TOOL_NAME tool) {
-        return idMap.get(tool);
+        if((idMask & toolBit(tool)) == 0) throw new IllegalStateException(tool + " did not give an id to " + name);
+        return toolIds[tool.ordinal()];
+    }
+
+    /**
+     * copies which tools found this item and the ids they gave it to another item
+     * @param copy the item to copy to
+     */
+    protected void copyFoundBy(Itm copy) {
+        System.arraycopy(toolIds, 0, copy.toolIds, 0, toolIds.length);
+        copy.idMask = idMask;
+        copy.foundBy = foundBy;
     }
 
     public void setName(String name) {
@@ -71,6 +93,6 @@ public abstract class Itm {
      * @return the id assigned by this program
      */
     public int getId() {
-        return idMap.get(Comparator.TOOL_NAME.IDEAL);
+        return getToolId(Comparator.TOOL_NAME.IDEAL);
     }
 }
@@ -0,0 +1,36 @@
+package items;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * the items of a comparison indexed by the id given to them by the IDProvider (the IDEAL tool id),
+ * so other tables only need to store that id to refer to an item
+ */
+public class ItmTable {
+
+    private final List<SrcItm> itms = new ArrayList<>();
+
+    /**
+     * adds an item at the index of its id, the item must already have its id
+     * @param itm the item to add
+     */
+    public void add(SrcItm itm) {
+        int id = itm.getId();
+        while(itms.size() <= id) itms.add(null);
+        if(itms.get(id) != null) throw new IllegalStateException("id " + id + " is already used by " + itms.get(id).getName());
+        itms.set(id, itm);
+    }
+
+    /**
+     * @param id the id given to the item by the IDProvider
+     * @return the item, or null if no item has this id
+     */
+    public SrcItm get(int id) {
+        return id < itms.size() ? itms.get(id) : null;
+    }
+
+    public int size() {
+        return itms.size();
+    }
+}
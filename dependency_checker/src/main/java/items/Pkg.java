@@ -10,4 +10,11 @@ public class Pkg extends SrcItm {
     public Pkg(String name, Boolean isInternal, Comparator.TOOL_NAME found) {
         super(name, isInternal, found);
     }
+
+    @Override
+    public Pkg copy() {
+        Pkg copy = new Pkg(name, isInternal, Comparator.TOOL_NAME.IDEAL);
+        copyFoundBy(copy);
+        return copy;
+    }
 }
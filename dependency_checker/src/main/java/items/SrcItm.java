@@ -22,4 +22,9 @@ public abstract class SrcItm extends Itm {
     public void setInternal(Boolean internal) {
         if(internal != null) isInternal = internal;
     }
+
+    /**
+     * @return a copy of this item, which can be found by more tools without changing this item
+     */
+    public abstract SrcItm copy();
 }
@@ -0,0 +1,126 @@
+package xmlUtils;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * streaming reader for GraphML files, like the ones written by Pyne.
+ * instead of building a tree of the whole file, every node and edge is passed to a handler as soon as it is read,
+ * so the memory used does not depend on the size of the file
+ */
+public class GraphMLReader {
+
+    /**
+     * receives the nodes and edges of a GraphML file, in the order they appear in the file
+     */
+    public interface Handler {
+        /**
+         * @param id the id of the node
+         * @param data the data of the node, by the attr.name of its key. the map is reused for the next element
+         */
+        void node(String id, Map<String, String> data);
+
+        /**
+         * @param source the id of the source node
+         * @param target the id of the target node
+         * @param data the data of the edge, by the attr.name of its key. the map is reused for the next element
+         */
+        void edge(String source, String target, Map<String, String> data);
+    }
+
+    private static final String KEY = "key";
+    private static final String NODE = "node";
+    private static final String EDGE = "edge";
+    private static final String DATA = "data";
+
+    /**
+     * reads a GraphML file and passes its nodes and edges to the handler
+     * @param file the file to read
+     * @param handler the handler to pass the nodes and edges to
+     * @throws IOException when the file can not be read or is not valid XML
+     */
+    public static void read(File file, Handler handler) throws IOException {
+        try(InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            read(in, handler);
+        } catch(XMLStreamException e) {
+            throw new IOException("Could not parse " + file, e);
+        }
+    }
+
+    /**
+     * reads GraphML from a stream and passes its nodes and edges to the handler
+     * @param in the stream to read
+     * @param handler the handler to pass the nodes and edges to
+     * @throws XMLStreamException when the stream is not valid XML
+     */
+    public static void read(InputStream in, Handler handler) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // GraphML has no need for a DTD, and we don't want to resolve anything outside the file
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(in);
+
+        // the attr.name of each key id, the data elements only refer to the id
+        Map<String, String> keyNames = new HashMap<>();
+        Map<String, String> data = new HashMap<>();
+        String element = null;
+        String id = null;
+        String source = null;
+        String target = null;
+
+        try {
+            while(reader.hasNext()) {
+                int event = reader.next();
+                if(event == XMLStreamConstants.START_ELEMENT) {
+                    switch(reader.getLocalName()) {
+                        case KEY:
+                            String keyId = reader.getAttributeValue(null, "id");
+                            String attrName = reader.getAttributeValue(null, "attr.name");
+                            keyNames.put(keyId, attrName == null ? keyId : attrName);
+                            break;
+                        case NODE:
+                            element = NODE;
+                            id = reader.getAttributeValue(null, "id");
+                            data.clear();
+                            break;
+                        case EDGE:
+                            element = EDGE;
+                            source = reader.getAttributeValue(null, "source");
+                            target = reader.getAttributeValue(null, "target");
+                            data.clear();
+                            break;
+                        case DATA:
+                            // data of the graph itself is not needed
+                            if(element == null) break;
+                            String key = reader.getAttributeValue(null, "key");
+                            data.put(keyNames.getOrDefault(key, key), reader.getElementText());
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                else if(event == XMLStreamConstants.END_ELEMENT) {
+                    if(reader.getLocalName().equals(NODE)) {
+                        handler.node(id, data);
+                        element = null;
+                    }
+                    else if(reader.getLocalName().equals(EDGE)) {
+                        handler.edge(source, target, data);
+                        element = null;
+                    }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
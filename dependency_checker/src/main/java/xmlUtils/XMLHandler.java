@@ -1,203 +1,209 @@
 package xmlUtils;
 
+import analysis.ComparisonResult;
 import analysis.Comparator;
-import items.Dep;
+import items.DepTable;
 import items.SrcItm;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.*;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.util.List;
-import java.util.Set;
+import java.io.OutputStreamWriter;
+import java.io.FileOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * class to deal with XML
- * this aims to abstract interactions with the raw tree to method calls in this class
- * to achieve a more consistent tree structure and more ease of use
+ * this aims to abstract interactions with the output to method calls in this class
+ * to achieve a more consistent tree structure and more ease of use.
+ * the results are written in a single streaming pass, so no tree of the whole output is kept in memory
  */
 public class XMLHandler {
-    public static DocumentBuilder getDocumentBuilder() throws ParserConfigurationException {
-        return DocumentBuilderFactory.newInstance().newDocumentBuilder();
-    }
 
-    private static Document initDoc(DocumentBuilder dBuilder, List<String> toolNames, boolean classLevel) {
-        Document template = dBuilder.newDocument();
-        // create root element in results
-        Element root = template.createElement(XML_TAG.RESULTS);
-
-        // create allClasses Element in root
-        Element allItms = template.createElement(classLevel ? XML_TAG.ALL_CLSS : XML_TAG.ALL_PKGS);
-        allItms.setAttribute(XML_TAG.COUNT, XML_TAG.UNINITIALIZED_INT);
-        allItms.setAttribute(XML_TAG.COUNT_INTERNAL, XML_TAG.UNINITIALIZED_INT);
-        allItms.setAttribute(XML_TAG.COUNT_EXTERNAL, XML_TAG.UNINITIALIZED_INT);
-        allItms.setAttribute(XML_TAG.COUNT_UNKNOWN, XML_TAG.UNINITIALIZED_INT);
-        root.appendChild(allItms);
-
-        // create allDependencies Element in root
-        Element allDeps = template.createElement(XML_TAG.ALL_DEPS);
-        allDeps.setAttribute(XML_TAG.COUNT, XML_TAG.UNINITIALIZED_INT);
-        root.appendChild(allDeps);
-
-        // create tools Element in root
-        Element tools = template.createElement(XML_TAG.TOOLS);
-        tools.setAttribute(XML_TAG.COUNT, Integer.toString(toolNames.size()));
-        root.appendChild(tools);
-
-        // create Elements for each tool in the toolNames in the tools Element
-        for(String toolName : toolNames) {
-            Element tool = template.createElement(XML_TAG.TOOL);
-            tool.setAttribute(XML_TAG.NAME, toolName);
-
-            // create the list of found items
-            Element foundItms = classLevel ?
-                    createList(template, XML_TAG.FOUND_CLSS) :
-                    createList(template, XML_TAG.FOUND_PKGS);
-            tool.appendChild(foundItms);
-
-            // create the list of missed items
-            Element missedItms = classLevel ?
-                    createList(template, XML_TAG.MISSED_CLSS) :
-                    createList(template, XML_TAG.MISSED_PKGS);
-            tool.appendChild(missedItms);
-
-            // create the list of found dependencies
-            Element foundDeps = template.createElement(XML_TAG.FOUND_DEPS);
-            foundDeps.setAttribute(XML_TAG.COUNT, XML_TAG.UNINITIALIZED_INT);
-            foundDeps.setAttribute(XML_TAG.PERCENTAGE_TOTAL, XML_TAG.UNINITIALIZED_INT);
-            tool.appendChild(foundDeps);
-
-            // create the list of missed dependencies
-            Element missedDeps = template.createElement(XML_TAG.MISSED_DEPS);
-            missedDeps.setAttribute(XML_TAG.COUNT, XML_TAG.UNINITIALIZED_INT);
-            missedDeps.setAttribute(XML_TAG.PERCENTAGE_TOTAL, XML_TAG.UNINITIALIZED_INT);
-            tool.appendChild(missedDeps);
-
-            tools.appendChild(tool);
+    private static final String INDENT = "    ";
+
+    private final XMLStreamWriter writer;
+    private final boolean pretty;
+    // the number of open elements, for indenting
+    private int depth;
+
+    private XMLHandler(XMLStreamWriter writer, boolean pretty) {
+        this.writer = writer;
+        this.pretty = pretty;
+    }
+
+    /**
+     * writes the results of a comparison to a file
+     * @param result the result of the comparison
+     * @param output the file to write to
+     * @param pretty whether to put every element on its own indented line
+     * @throws IOException when the file can not be written
+     * @throws XMLStreamException when the xml can not be written
+     */
+    public static void writeResults(ComparisonResult result, File output, boolean pretty) throws IOException, XMLStreamException {
+        try(Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), StandardCharsets.UTF_8))) {
+            // the StAX writer can not write the standalone declaration, so write it ourselves
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>");
+            XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out);
+            new XMLHandler(writer, pretty).writeResults(result);
+            writer.close();
+            if(pretty) out.write("\n");
         }
-
-        template.appendChild(root);
-        return template;
-    }
-
-    public static Document initClsDoc(DocumentBuilder dBuilder, List<String> toolNames) {
-        return initDoc(dBuilder, toolNames, true);
-    }
-
-    public static Document initPkgDoc(DocumentBuilder dBuilder, List<String> toolNames) {
-        return initDoc(dBuilder, toolNames, false);
-    }
-
-    private static Element createItem(Document doc, String itm, Boolean internal, Integer id, boolean classLevel) {
-        Element item = createCompactItem(doc, id, classLevel);
-        item.setAttribute(XML_TAG.INTERNAL, internal == null ? "" : internal.toString());
-        item.appendChild(doc.createTextNode(itm));
-
-        return item;
-    }
-
-    private static Element createCompactItem(Document doc, Integer id, boolean classLevel) {
-        Element item = doc.createElement(classLevel ? XML_TAG.CLASS : XML_TAG.PACKAGE);
-        item.setAttribute(XML_TAG.ID, id.toString());
-
-        return item;
-    }
-
-    public static Element createClass(Document doc, SrcItm cls) {
-        return createItem(doc, cls.getName(), cls.isInternal(), cls.getToolId(Comparator.TOOL_NAME.IDEAL), true);
-    }
-
-    public static Element createCompactClass(Document doc, SrcItm cls) {
-        return createCompactItem(doc, cls.getToolId(Comparator.TOOL_NAME.IDEAL), true);
-    }
-
-    public static Element createPackage(Document doc, SrcItm pkg) {
-        return createItem(doc, pkg.getName(), pkg.isInternal(), pkg.getToolId(Comparator.TOOL_NAME.IDEAL), false);
-    }
-
-    public static Element createCompactPackage(Document doc, SrcItm pkg) {
-        return createCompactItem(doc, pkg.getToolId(Comparator.TOOL_NAME.IDEAL), false);
     }
 
-
-    private static Element createList(Document template, String listName) {
-        Element list = template.createElement(listName);
-        list.setAttribute(XML_TAG.COUNT, XML_TAG.UNINITIALIZED_INT);
-        list.setAttribute(XML_TAG.COUNT_INTERNAL, XML_TAG.UNINITIALIZED_INT);
-        list.setAttribute(XML_TAG.COUNT_EXTERNAL, XML_TAG.UNINITIALIZED_INT);
-        list.setAttribute(XML_TAG.COUNT_UNKNOWN, XML_TAG.UNINITIALIZED_INT);
-        list.setAttribute(XML_TAG.PERCENTAGE_TOTAL, XML_TAG.UNINITIALIZED_INT);
-        list.setAttribute(XML_TAG.PERCENTAGE_INTERNAL, XML_TAG.UNINITIALIZED_INT);
-        list.setAttribute(XML_TAG.PERCENTAGE_EXTERNAL, XML_TAG.UNINITIALIZED_INT);
-        list.setAttribute(XML_TAG.PERCENTAGE_UNKNOWN, XML_TAG.UNINITIALIZED_INT);
-
-        return list;
-    }
-
-    public static Element createExtendedDependency(Document doc, Dep dep) {
-        Element dependency = createSimpleDependency(doc, dep);
-
-        Element fii = doc.createElement(XML_TAG.FROM_IS_INTERNAL);
-        Element fn = doc.createElement(XML_TAG.FROM_NAME);
-        fii.appendChild(doc.createTextNode(dep.getFrom().isInternal() == null ? "" : Boolean.toString(dep.getFrom().isInternal())));
-        fn.appendChild(doc.createTextNode(dep.getFrom().getName()));
-        dependency.appendChild(fii);
-        dependency.appendChild(fn);
-
-        Element tii = doc.createElement(XML_TAG.TO_IS_INTERNAL);
-        Element tn = doc.createElement(XML_TAG.TO_NAME);
-        tii.appendChild(doc.createTextNode(dep.getTo().isInternal() == null ? "" : Boolean.toString(dep.getTo().isInternal())));
-        tn.appendChild(doc.createTextNode(dep.getTo().getName()));
-        dependency.appendChild(tii);
-        dependency.appendChild(tn);
-
-        return dependency;
-    }
-
-    public static Element createSimpleDependency(Document doc, Dep dep) {
-        Element dependency = doc.createElement(XML_TAG.DEPENDENCY);
-
-        dependency.setAttribute(XML_TAG.FROM_ID, Integer.toString(dep.getFrom().getId()));
-        dependency.setAttribute(XML_TAG.TO_ID, Integer.toString(dep.getTo().getId()));
-        dependency.appendChild(doc.createTextNode(""));
-
-        return dependency;
-    }
-
-    public static void addAllExtendedDependencies(Document doc, Node depListNode, Set<Dep> dependencies) {
-        for(Dep dep : dependencies) {
-            depListNode.appendChild(createExtendedDependency(doc, dep));
+    private void writeResults(ComparisonResult result) throws XMLStreamException {
+        boolean classLevel = result.isClassLevel();
+        boolean compact = result.getOutputDetail().equals(Comparator.OUTPUT_DETAIL.COMPACT);
+        boolean extended = result.getOutputDetail().equals(Comparator.OUTPUT_DETAIL.HUMAN_READABLE);
+        ComparisonResult.ItmCounts all = result.getAllItms();
+        int totalDeps = result.getDeps().size();
+
+        start(XML_TAG.RESULTS, true);
+
+        // the list of all classes/packages, always with the complete versions
+        start(classLevel ? XML_TAG.ALL_CLSS : XML_TAG.ALL_PKGS, all.getCount() > 0,
+                XML_TAG.COUNT, Integer.toString(all.getCount()),
+                XML_TAG.COUNT_EXTERNAL, Integer.toString(all.getExternal()),
+                XML_TAG.COUNT_INTERNAL, Integer.toString(all.getInternal()),
+                XML_TAG.COUNT_UNKNOWN, Integer.toString(all.getUnknown()));
+        for(SrcItm itm : result.getItems()) writeItem(itm, classLevel, false);
+        end(all.getCount() > 0);
+
+        start(XML_TAG.ALL_DEPS, totalDeps > 0, XML_TAG.COUNT, Integer.toString(totalDeps));
+        DepTable deps = result.getDeps();
+        for(int row = 0; row < deps.size(); row++) writeDependency(deps, row, extended);
+        end(totalDeps > 0);
+
+        start(XML_TAG.TOOLS, !result.getTools().isEmpty(), XML_TAG.COUNT, Integer.toString(result.getTools().size()));
+        for(Comparator.TOOL_NAME tool : result.getTools()) {
+            start(XML_TAG.TOOL, true, XML_TAG.NAME, tool.toString());
+
+            // the lists of found and missed items
+            for(boolean found : new boolean[]{true, false}) {
+                ComparisonResult.ItmCounts counts = found ? result.getFoundItms(tool) : result.getMissedItms(tool);
+                String name = classLevel ?
+                        (found ? XML_TAG.FOUND_CLSS : XML_TAG.MISSED_CLSS) :
+                        (found ? XML_TAG.FOUND_PKGS : XML_TAG.MISSED_PKGS);
+                start(name, counts.getCount() > 0,
+                        XML_TAG.COUNT, Integer.toString(counts.getCount()),
+                        XML_TAG.COUNT_EXTERNAL, Integer.toString(counts.getExternal()),
+                        XML_TAG.COUNT_INTERNAL, Integer.toString(counts.getInternal()),
+                        XML_TAG.COUNT_UNKNOWN, Integer.toString(counts.getUnknown()),
+                        XML_TAG.PERCENTAGE_EXTERNAL, percentage(counts.getExternal(), all.getExternal()),
+                        XML_TAG.PERCENTAGE_INTERNAL, percentage(counts.getInternal(), all.getInternal()),
+                        XML_TAG.PERCENTAGE_TOTAL, percentage(counts.getCount(), all.getCount()),
+                        XML_TAG.PERCENTAGE_UNKNOWN, percentage(counts.getUnknown(), all.getUnknown()));
+                for(SrcItm itm : result.getItems()) {
+                    // create the correct detail version of the item
+                    if(itm.wasFoundBy(tool) == found) writeItem(itm, classLevel, compact);
+                }
+                end(counts.getCount() > 0);
+            }
+
+            // the lists of found and missed dependencies
+            for(boolean found : new boolean[]{true, false}) {
+                int count = found ? result.getFoundDeps(tool) : result.getMissedDeps(tool);
+                start(found ? XML_TAG.FOUND_DEPS : XML_TAG.MISSED_DEPS, count > 0,
+                        XML_TAG.COUNT, Integer.toString(count),
+                        XML_TAG.PERCENTAGE_TOTAL, percentage(count, totalDeps));
+                for(int row = 0; row < deps.size(); row++) {
+                    if(deps.wasFoundBy(row, tool) == found) writeDependency(deps, row, extended);
+                }
+                end(count > 0);
+            }
+
+            end(true);
         }
-    }
-
-    public static void setNodeAttribute(Node node, String attribute, String value) {
-        node.getAttributes().getNamedItem(attribute).setNodeValue(value);
-    }
-
-    public static void writeXML(Document doc, File output, boolean pretty) throws TransformerException, IOException {
-        // get all the necessary classes to write xml to file
-        TransformerFactory transformerFactory = TransformerFactory.newInstance();
-        Transformer transformer = transformerFactory.newTransformer();
-        DOMSource source = new DOMSource(doc);
-        FileWriter writer = new FileWriter(output);
-        StreamResult result = new StreamResult(writer);
-
-        // settings to pretty print to make it more human readable
-        if(pretty) {
-            transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4");
+        end(!result.getTools().isEmpty());
+
+        end(true);
+        writer.writeEndDocument();
+    }
+
+    /**
+     * calculates a percentage the same way for all lists, an empty list has percentage "0"
+     */
+    private static String percentage(int count, int total) {
+        if(count == 0) return XML_TAG.UNINITIALIZED_INT;
+        return Float.toString((float)count / total * 100);
+    }
+
+    private void writeItem(SrcItm itm, boolean classLevel, boolean compact) throws XMLStreamException {
+        String name = classLevel ? XML_TAG.CLASS : XML_TAG.PACKAGE;
+        String id = Integer.toString(itm.getToolId(Comparator.TOOL_NAME.IDEAL));
+        if(compact) start(name, false, XML_TAG.ID, id);
+        else textElement(name, itm.getName(), XML_TAG.ID, id,
+                XML_TAG.INTERNAL, itm.isInternal() == null ? "" : itm.isInternal().toString());
+    }
+
+    private void writeDependency(DepTable deps, int row, boolean extended) throws XMLStreamException {
+        start(XML_TAG.DEPENDENCY, extended,
+                XML_TAG.FROM_ID, Integer.toString(deps.getFromId(row)),
+                XML_TAG.TO_ID, Integer.toString(deps.getToId(row)));
+        if(extended) {
+            SrcItm from = deps.getFrom(row);
+            SrcItm to = deps.getTo(row);
+            textElement(XML_TAG.FROM_IS_INTERNAL, from.isInternal() == null ? "" : Boolean.toString(from.isInternal()));
+            textElement(XML_TAG.FROM_NAME, from.getName());
+            textElement(XML_TAG.TO_IS_INTERNAL, to.isInternal() == null ? "" : Boolean.toString(to.isInternal()));
+            textElement(XML_TAG.TO_NAME, to.getName());
+        }
+        end(extended);
+    }
+
+    /**
+     * starts an element on a new line
+     * @param name the name of the element
+     * @param hasChildren whether child elements will follow, if not the element is closed right away
+     * @param attributes the names and values of the attributes, alternating
+     */
+    private void start(String name, boolean hasChildren, String... attributes) throws XMLStreamException {
+        newLine();
+        if(hasChildren) {
+            writer.writeStartElement(name);
+            depth++;
         }
+        else writer.writeEmptyElement(name);
+
+        for(int i = 0; i < attributes.length; i += 2) writer.writeAttribute(attributes[i], attributes[i + 1]);
+    }
+
+    /**
+     * ends the last element started with children on a new line
+     * @param hadChildren the hasChildren the element was started with
+     */
+    private void end(boolean hadChildren) throws XMLStreamException {
+        if(!hadChildren) return;
+        depth--;
+        newLine();
+        writer.writeEndElement();
+    }
+
+    /**
+     * writes an element that only contains text on a new line
+     * @param name the name of the element
+     * @param text the text of the element
+     * @param attributes the names and values of the attributes, alternating
+     */
+    private void textElement(String name, String text, String... attributes) throws XMLStreamException {
+        if(text.isEmpty()) {
+            start(name, false, attributes);
+            return;
+        }
+        newLine();
+        writer.writeStartElement(name);
+        for(int i = 0; i < attributes.length; i += 2) writer.writeAttribute(attributes[i], attributes[i + 1]);
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+    }
 
-        transformer.setOutputProperty(OutputKeys.STANDALONE, "yes");
-        // write the xml
-        transformer.transform(source, result);
+    private void newLine() throws XMLStreamException {
+        if(!pretty) return;
+        // the root element goes on the line after the xml declaration as well
+        writer.writeCharacters("\n" + INDENT.repeat(depth));
     }
 }
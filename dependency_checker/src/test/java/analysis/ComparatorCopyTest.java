@@ -0,0 +1,115 @@
+package analysis;
+
+import importers.ImportedGraph;
+import importers.Importer;
+import items.DepTable;
+import items.SrcItm;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * checks that merging a tool into a copy gives the same result as merging all tools from scratch
+ */
+public class ComparatorCopyTest {
+
+    private static final String[] SEGMENTS = {"a", "ab", "b", "c"};
+
+    @Test
+    public void testCopyWith() throws Exception {
+        Random random = new Random(42);
+        Importer s101 = randomImporter(Comparator.TOOL_NAME.STRUCTURE101, random);
+        NameMatchCache nameMatchCache = new NameMatchCache();
+        Comparator merged = new Comparator(List.of(s101), true, Comparator.OUTPUT_DETAIL.COMPACT)
+                .setNameMatchCache(nameMatchCache)
+                .importFileData()
+                .collectAllItems();
+
+        // every snapshot is merged into its own copy, so the copies must not change the merged tools
+        for(int snapshot = 0; snapshot < 5; snapshot++) {
+            List<Importer> importers = List.of(
+                    randomImporter(Comparator.TOOL_NAME.PYNE, random),
+                    randomImporter(Comparator.TOOL_NAME.EDGE_LIST, random));
+
+            List<Importer> allImporters = new ArrayList<>();
+            allImporters.add(s101);
+            allImporters.addAll(importers);
+            ComparisonResult expected = new Comparator(allImporters, true, Comparator.OUTPUT_DETAIL.COMPACT)
+                    .importFileData()
+                    .collectAllItems()
+                    .compareResults();
+            ComparisonResult actual = merged.copyWith(importers)
+                    .importFileData(false)
+                    .collectAllItems()
+                    .compareResults();
+
+            assertEquals(describe(expected), describe(actual));
+        }
+    }
+
+    /**
+     * describes the items and dependencies of a result, with which tools found them
+     */
+    private static List<String> describe(ComparisonResult result) {
+        List<String> descriptions = new ArrayList<>();
+        for(SrcItm item : result.getItems()) {
+            descriptions.add(item.getId() + " " + item.getName() + " " + item.getFoundBy() + " " + item.isInternal());
+        }
+        descriptions.sort(null);
+
+        DepTable deps = result.getDeps();
+        for(int row = 0; row < deps.size(); row++) {
+            StringBuilder description = new StringBuilder(deps.getFromId(row) + " -> " + deps.getToId(row));
+            for(Comparator.TOOL_NAME tool : result.getTools())
+                if(deps.wasFoundBy(row, tool)) description.append(" ").append(tool);
+            descriptions.add(description.toString());
+        }
+
+        for(Comparator.TOOL_NAME tool : result.getTools()) {
+            descriptions.add(tool + " " + result.getFoundItms(tool).getCount() + " " + result.getMissedItms(tool).getCount()
+                    + " " + result.getFoundDeps(tool) + " " + result.getMissedDeps(tool));
+        }
+        return descriptions;
+    }
+
+    /**
+     * creates an importer of random class names and dependencies in the naming style of the tool
+     */
+    private static Importer randomImporter(Comparator.TOOL_NAME tool, Random random) {
+        ImportedGraph graph = new ImportedGraph(tool);
+        List<String> names = new ArrayList<>();
+        for(int itm = 0; itm < 40; itm++) {
+            String name = randomName(random, tool.getNaming() == Comparator.NAMING.QUALIFIED);
+            if(names.contains(name)) continue;
+            names.add(name);
+            graph.addItm(itm, name, random.nextBoolean());
+        }
+        for(int dep = 0; dep < 80; dep++) {
+            graph.addDep(random.nextInt(names.size()), random.nextInt(names.size()), 1 + random.nextInt(3));
+        }
+
+        return new Importer() {
+            @Override
+            public Comparator.TOOL_NAME getTool() {
+                return tool;
+            }
+
+            @Override
+            public ImportedGraph read(boolean classLevel) {
+                return graph;
+            }
+        };
+    }
+
+    private static String randomName(Random random, boolean qualified) {
+        StringBuilder name = new StringBuilder(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        int length = 1 + random.nextInt(3);
+        for(int i = 0; i < length; i++)
+            name.append(qualified && i < length - 1 ? "." : "_").append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        return name.toString();
+    }
+}
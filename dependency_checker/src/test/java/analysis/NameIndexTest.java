@@ -0,0 +1,98 @@
+package analysis;
+
+import items.Itm;
+import items.SrcItm;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * checks the matches of the name index against comparing the name with every known item
+ */
+public class NameIndexTest {
+
+    // few and short segments, so many names match each other
+    private static final String[] QUALIFIED_SEGMENTS = {"a", "ab", "b", "ba", "c"};
+    private static final String[] S101_SEGMENTS = {"a", "ab", "b", "c", "(anon)", "a.b"};
+
+    @Test
+    public void testPackages() {
+        compareWithScan(false, new Random(42));
+    }
+
+    @Test
+    public void testClasses() {
+        compareWithScan(true, new Random(42));
+    }
+
+    /**
+     * adds random items like Comparator.foundItem does and checks every lookup against a scan of all items
+     */
+    private static void compareWithScan(boolean classLevel, Random random) {
+        for(int round = 0; round < 20; round++) {
+            NameIndex index = new NameIndex(classLevel);
+            Map<String, SrcItm> itmMap = new HashMap<>();
+
+            for(int step = 0; step < 300; step++) {
+                Comparator.TOOL_NAME tool = random.nextInt(3) == 0 ? Comparator.TOOL_NAME.STRUCTURE101
+                        : random.nextBoolean() ? Comparator.TOOL_NAME.PYNE : Comparator.TOOL_NAME.EDGE_LIST;
+                String name = tool == Comparator.TOOL_NAME.STRUCTURE101
+                        ? randomName(random, S101_SEGMENTS, classLevel ? "_" : ".")
+                        : randomQualifiedName(random, classLevel);
+
+                SrcItm known = itmMap.get(name);
+                if(known == null) {
+                    SrcItm expected = scan(itmMap, name, tool, classLevel);
+                    assertSame(expected, index.findMatch(name, tool), "match of " + name + " by " + tool);
+                    known = expected;
+                }
+                if(known != null) {
+                    known.addFoundBy(tool);
+                    index.add(known);
+                    continue;
+                }
+
+                SrcItm item = classLevel ? Itm.createClass(name, true, tool) : Itm.createPackage(name, true, tool);
+                itmMap.put(name, item);
+                index.add(item);
+            }
+        }
+    }
+
+    /**
+     * finds the first item of the map that matches, comparing the name with every item like Comparator used to
+     */
+    private static SrcItm scan(Map<String, SrcItm> itmMap, String name, Comparator.TOOL_NAME tool, boolean classLevel) {
+        boolean qualified = tool.getNaming() == Comparator.NAMING.QUALIFIED;
+        for(SrcItm item : itmMap.values()) {
+            boolean itemQualified = item.wasFoundBy(Comparator.TOOL_NAME.PYNE)
+                    || item.wasFoundBy(Comparator.TOOL_NAME.EDGE_LIST);
+            if(qualified == itemQualified) continue;
+
+            String qualifiedName = qualified ? name : item.getName();
+            String s101Name = qualified ? item.getName() : name;
+            if(classLevel ? Comparator.isSameCls(qualifiedName, s101Name) : Comparator.isSamePkg(qualifiedName, s101Name))
+                return item;
+        }
+        return null;
+    }
+
+    private static String randomQualifiedName(Random random, boolean classLevel) {
+        String name = randomName(random, QUALIFIED_SEGMENTS, ".");
+        if(!classLevel) return name;
+
+        // a class name, possibly nested with an underscore
+        return name + "." + randomName(random, QUALIFIED_SEGMENTS, "_");
+    }
+
+    private static String randomName(Random random, String[] segments, String separator) {
+        StringBuilder name = new StringBuilder(segments[random.nextInt(segments.length)]);
+        int length = random.nextInt(3);
+        for(int i = 0; i < length; i++) name.append(separator).append(segments[random.nextInt(segments.length)]);
+        return name.toString();
+    }
+}
@@ -1,24 +1,21 @@
 package edu.rug.pyne.api;
 
+import edu.rug.pyne.api.git.ChangeSet;
+import edu.rug.pyne.api.git.MirrorCache;
+import edu.rug.pyne.api.git.ParsePlanner;
+import edu.rug.pyne.api.jfr.CommitParseEvent;
+import edu.rug.pyne.api.metrics.MetricsRegistry;
 import edu.rug.pyne.api.parser.Parser;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.lib.ObjectId;
-import org.eclipse.jgit.lib.ObjectReader;
-import org.eclipse.jgit.lib.Repository;
-import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.WindowCacheConfig;
-import org.eclipse.jgit.treewalk.CanonicalTreeParser;
 import org.eclipse.jgit.util.FileUtils;
 
 /**
@@ -40,6 +37,9 @@ public class GitHelper {
     private final Git git;
     private boolean cleand = false;
 
+    // Decides between incremental parsing and rebuilding the graph
+    private ParsePlanner parsePlanner = new ParsePlanner();
+
     /**
      * Creates a clone repository in a temporary location and gives access to
      * parse functions using commit ids
@@ -72,6 +72,30 @@ public class GitHelper {
         this(repository, true);
     }
 
+    /**
+     * Creates a working repository in a temporary location from the mirror
+     * of the repository in the given cache. Only the first use of a
+     * repository clones it, after that the mirror is fetched incrementally.
+     *
+     * @param mirrorCache The cache holding the mirror of the repository
+     * @param repository The URI to the repository
+     * @throws IOException Thrown when failed to create a temporary directory
+     * @throws GitAPIException Thrown when failed to update the mirror or to
+     * check out the working tree.
+     */
+    public GitHelper(MirrorCache mirrorCache, String repository)
+            throws IOException, GitAPIException {
+
+        WindowCacheConfig config = new WindowCacheConfig();
+        config.setPackedGitMMAP(false);
+        config.install();
+
+        cloneDir = Files.createTempDirectory("temp_git_worktree_").toFile();
+        git = mirrorCache.createWorktree(repository, cloneDir);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::cleanUp));
+    }
+
     /**
      * Returns the git created by the cloned repository.
      *
@@ -90,9 +114,31 @@ public class GitHelper {
         return cloneDir.getAbsoluteFile();
     }
 
+    /**
+     * Sets the planner that decides if a commit is parsed incrementally or if
+     * the graph is rebuilt.
+     *
+     * @param parsePlanner The planner to use
+     */
+    public void setParsePlanner(ParsePlanner parsePlanner) {
+        this.parsePlanner = parsePlanner;
+    }
+
+    /**
+     * Gets the planner that decides if a commit is parsed incrementally or if
+     * the graph is rebuilt.
+     *
+     * @return The planner in use
+     */
+    public ParsePlanner getParsePlanner() {
+        return parsePlanner;
+    }
+
     /**
      * parses a given commit. If a commit id is set on the graph it will check
-     * out the difference between that commit and the given one.
+     * out the difference between that commit and the given one. If the
+     * difference is large the graph is rebuilt instead, as decided by the
+     * parse planner.
      *
      * @param parser The parser that is used to process the files
      * @param commitId The commit id to parse
@@ -104,15 +150,118 @@ public class GitHelper {
         Optional<String> graphCommit = parser.getGraph().variables()
                 .<String>get(COMMIT_ID_VARIABLE);
 
+        MetricsRegistry metrics = parser.getMetricsRegistry();
+        CommitParseEvent event = new CommitParseEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        String strategy;
         try {
             if (graphCommit.isEmpty()) {
+                strategy = "full";
+                event.addedFiles = -1;
+                metrics.increment("commits.full", 1);
                 initGraph(parser, commitId);
             } else {
-                diffGraph(parser, graphCommit.get(), commitId);
+                LOGGER.info("Finding diffrences");
+                long diffStartTime = System.nanoTime();
+                ChangeSet changeSet = ChangeSet.compute(
+                        git.getRepository(),
+                        ObjectId.fromString(graphCommit.get()),
+                        ObjectId.fromString(commitId)
+                );
+                metrics.recordTime(
+                        "git.diff", System.nanoTime() - diffStartTime
+                );
+                metrics.increment(
+                        "files.added", changeSet.getAddedFiles().size()
+                );
+                metrics.increment(
+                        "files.modified", changeSet.getModifiedFiles().size()
+                );
+                metrics.increment(
+                        "files.removed", changeSet.getRemovedFiles().size()
+                );
+                metrics.increment(
+                        "files.renamed", changeSet.getRenameCount()
+                );
+                event.addedFiles = changeSet.getAddedFiles().size();
+                event.modifiedFiles = changeSet.getModifiedFiles().size();
+                event.removedFiles = changeSet.getRemovedFiles().size();
+
+                if (parsePlanner.shouldRebuild(
+                        git.getRepository(), changeSet,
+                        ObjectId.fromString(graphCommit.get()),
+                        ObjectId.fromString(commitId))) {
+                    strategy = "rebuild";
+                    metrics.increment("commits.rebuild", 1);
+                    rebuildGraph(parser, commitId);
+                } else {
+                    strategy = "incremental";
+                    metrics.increment(changeSet.isEmpty()
+                            ? "commits.unchanged" : "commits.incremental", 1);
+                    diffGraph(parser, graphCommit.get(), commitId, changeSet);
+                }
             }
         } catch (GitAPIException ex) {
             LOGGER.error("Git error while parsing commit " + commitId, ex);
+            return;
+        }
+
+        long duration = System.nanoTime() - startTime;
+        metrics.recordTime("commit.parse", duration);
+        event.end();
+        if (event.shouldCommit()) {
+            event.commitId = commitId;
+            event.strategy = strategy;
+            event.commit();
+        }
+        LOGGER.info("Parsed commit " + commitId + " " + describe(strategy)
+                + " in " + (duration / 1000000) + " ms");
+    }
+
+    /**
+     * Describes how a commit was parsed, for the log.
+     *
+     * @param strategy The strategy stored in the commit parse event
+     * @return The strategy as used in a sentence
+     */
+    private static String describe(String strategy) {
+        switch (strategy) {
+            case "full":
+                return "fully";
+            case "rebuild":
+                return "by rebuilding";
+            default:
+                return "incrementally";
+        }
+    }
+
+    /**
+     * Removes everything from the graph and parses the commit from scratch.
+     *
+     * @param parser The parser that is used to process the files
+     * @param commitId The commit id to parse
+     * @throws GitAPIException Thrown if git failed to checkout a commit
+     */
+    private void rebuildGraph(Parser parser, String commitId)
+            throws GitAPIException {
+
+        LOGGER.info("Removing the old graph");
+        MetricsRegistry metrics = parser.getMetricsRegistry();
+        if (metrics != MetricsRegistry.NOOP) {
+            metrics.increment("graph.vertices.removed",
+                    parser.getGraph().traversal().V().count().next());
+            metrics.increment("graph.edges.removed",
+                    parser.getGraph().traversal().E().count().next());
         }
+        parser.getGraph().traversal().V().drop().iterate();
+
+        // Commit the empty graph on its own, so a failed parse is not
+        // diffed against the old commit next time
+        parser.getGraph().variables().remove(COMMIT_ID_VARIABLE);
+        parser.getCommitChunker().flush();
+
+        initGraph(parser, commitId);
     }
 
     /**
@@ -126,20 +275,12 @@ public class GitHelper {
     private void initGraph(Parser parser, String commitId)
             throws GitAPIException {
 
-        // Set git config before checkout. 
-        // This is always needed or cleanup cannot occure
-        WindowCacheConfig config = new WindowCacheConfig();
-        config.setPackedGitMMAP(false);
-        config.install();
-
         LOGGER.info("Checking out commit");
-        git.checkout().setName(commitId).call();
+        checkout(parser, commitId);
 
         // Reset files if not already on null. 
         // This indicates a full parsing of classes.
-        parser.setAddedFiles(null);
-        parser.setModifiedFiles(null);
-        parser.setRemovedFiles(null);
+        parser.setChangeSet(null);
 
         LOGGER.info("Processing classes");
         parser.process();
@@ -149,100 +290,45 @@ public class GitHelper {
     }
 
     /**
-     * This first gets the difference between the commits, saves the files
-     * changed. It then reinstates the old commit and does the remove process.
-     * After this it checks out the new commit and does the normal process.
+     * This saves the Java files that differ between the commits. It then
+     * reinstates the old commit and does the remove process. After this it
+     * checks out the new commit and does the normal process. If no Java file
+     * changed only the new commit is checked out.
      *
      * @param parser The parser that is used to process the files
      * @param oldCommit The commit id of the old commit
      * @param newCommit The commit id of the new commit
-     * @throws GitAPIException Thrown if git failed to checkout a commit or to
-     * find the differences
-     * @throws IOException Thrown if a loose object or pack file could not be
-     * read.
+     * @param changeSet The Java files changed between the commits
+     * @throws GitAPIException Thrown if git failed to checkout a commit
      */
-    private void diffGraph(Parser parser, String oldCommit, String newCommit)
-            throws GitAPIException, IOException {
-
-        Repository repository = git.getRepository();
-        RevWalk revWalk = new RevWalk(repository);
-        ObjectReader reader = repository.newObjectReader();
-        File rootDir = repository.getWorkTree();
-
-        // Get old commit tree
-        ObjectId oldCommitObject = ObjectId.fromString(oldCommit);
-        RevCommit revOldCommit = revWalk.parseCommit(oldCommitObject);
-        CanonicalTreeParser canonicalTreeParserOld = new CanonicalTreeParser(
-                null, reader, revOldCommit.getTree().getId()
-        );
-
-        // Get new commit tree
-        ObjectId newCommitObject = ObjectId.fromString(newCommit);
-        RevCommit revNewCommit = revWalk.parseCommit(newCommitObject);
-        CanonicalTreeParser canonicalTreeParserNew = new CanonicalTreeParser(
-                null, reader, revNewCommit.getTree().getId()
-        );
-
-        LOGGER.info("Finding diffrences");
-        List<DiffEntry> diffEntries = git
-                .diff()
-                .setOldTree(canonicalTreeParserOld)
-                .setNewTree(canonicalTreeParserNew)
-                .call();
-
-        // Init diff arrays
-        List<File> addedFiles = new ArrayList<>();
-        List<File> modifiedFiles = new ArrayList<>();
-        List<File> removedFiles = new ArrayList<>();
-
-        for (DiffEntry diffEntry : diffEntries) {
-            switch (diffEntry.getChangeType()) {
-                case ADD:
-                case COPY:
-                    addedFiles.add(new File(rootDir, diffEntry.getNewPath()));
-                    break;
-                case DELETE:
-                    removedFiles.add(new File(rootDir, diffEntry.getOldPath()));
-                    break;
-                case MODIFY:
-                    addedFiles.add(new File(rootDir, diffEntry.getNewPath()));
-                    modifiedFiles
-                            .add(new File(rootDir, diffEntry.getOldPath()));
-                    break;
-                case RENAME:
-                    addedFiles.add(new File(rootDir, diffEntry.getNewPath()));
-                    removedFiles
-                            .add(new File(rootDir, diffEntry.getOldPath()));
-                    break;
-            }
-
+    private void diffGraph(Parser parser, String oldCommit, String newCommit,
+            ChangeSet changeSet) throws GitAPIException {
+
+        LOGGER.info("Found " + changeSet.getAddedFiles().size()
+                + " added, " + changeSet.getModifiedFiles().size()
+                + " modified and " + changeSet.getRemovedFiles().size()
+                + " removed Java files (" + changeSet.getRenameCount()
+                + " renames)");
+
+        // Nothing the parser looks at changed, so the graph stays the same
+        if (changeSet.isEmpty()) {
+            LOGGER.info("Checking out new commit");
+            checkout(parser, newCommit);
+            parser.getGraph().variables().set(COMMIT_ID_VARIABLE, newCommit);
+            return;
         }
 
         // Setup parser
-        parser.setAddedFiles(addedFiles);
-        parser.setModifiedFiles(modifiedFiles);
-        parser.setRemovedFiles(removedFiles);
-
-        // Set git config before checkout. 
-        // This is always needed or cleanup cannot occure
-        WindowCacheConfig config = new WindowCacheConfig();
-        config.setPackedGitMMAP(false);
-        config.install();
+        parser.setChangeSet(changeSet);
 
         LOGGER.info("Checking out old commit");
-        git.checkout().setName(oldCommit).call();
+        checkout(parser, oldCommit);
 
         LOGGER.info("Proccessing removed files");
         parser.processRemoved();
 
-        // Set git config before checkout. 
-        // This is always needed or cleanup cannot occure
-        config = new WindowCacheConfig();
-        config.setPackedGitMMAP(false);
-        config.install();
-
         LOGGER.info("Checking out new commit");
-        git.checkout().setName(newCommit).call();
+        checkout(parser, newCommit);
 
         LOGGER.info("Processing classes");
         parser.process();
@@ -251,6 +337,29 @@ public class GitHelper {
         parser.getGraph().variables().set(COMMIT_ID_VARIABLE, newCommit);
     }
 
+    /**
+     * Checks out a commit and records the time it took.
+     *
+     * @param parser The parser whose metrics registry receives the time
+     * @param commitId The commit id to check out
+     * @throws GitAPIException Thrown if git failed to checkout the commit
+     */
+    private void checkout(Parser parser, String commitId)
+            throws GitAPIException {
+
+        // Set git config before checkout. 
+        // This is always needed or cleanup cannot occure
+        WindowCacheConfig config = new WindowCacheConfig();
+        config.setPackedGitMMAP(false);
+        config.install();
+
+        long startTime = System.nanoTime();
+        git.checkout().setName(commitId).call();
+        parser.getMetricsRegistry().recordTime(
+                "git.checkout", System.nanoTime() - startTime
+        );
+    }
+
     /**
      * Closes the repository, tries to remove all temporary files and closes git
      */
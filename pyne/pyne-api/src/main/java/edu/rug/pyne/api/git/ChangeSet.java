@@ -0,0 +1,194 @@
+package edu.rug.pyne.api.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.RenameDetector;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.NullProgressMonitor;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * The Java files changed between two commits. Only Java files are included
+ * and renames are detected. The files are kept by canonical path in hash
+ * sets, so checking if a file changed takes constant time.
+ *
+ * A modified file is both in the added files, to be parsed again, and in the
+ * modified files, to have its edges removed. A renamed file is added under
+ * its new path and removed under its old path.
+ */
+public class ChangeSet {
+
+    // The canonical root directory of the repository
+    private final File rootDirectory;
+
+    private final Set<File> addedFiles = new HashSet<>();
+    private final Set<File> modifiedFiles = new HashSet<>();
+    private final Set<File> removedFiles = new HashSet<>();
+
+    // All changed files grouped by the source root they are in
+    private final Map<File, Set<File>> filesBySourceRoot
+            = new LinkedHashMap<>();
+
+    private int renameCount = 0;
+
+    /**
+     * Creates an empty change set for a repository.
+     *
+     * @param rootDirectory The root directory of the working tree
+     * @throws IOException Thrown when the canonical path cannot be determined
+     */
+    public ChangeSet(File rootDirectory) throws IOException {
+        this.rootDirectory = rootDirectory.getCanonicalFile();
+    }
+
+    /**
+     * Computes the Java files changed between two commits.
+     *
+     * @param repository The repository the commits are in
+     * @param oldCommit The old commit
+     * @param newCommit The new commit
+     * @return The change set with the changed Java files
+     * @throws IOException Thrown if a loose object or pack file could not be
+     * read.
+     */
+    public static ChangeSet compute(Repository repository,
+            AnyObjectId oldCommit, AnyObjectId newCommit) throws IOException {
+
+        ChangeSet changeSet = new ChangeSet(repository.getWorkTree());
+
+        try (ObjectReader reader = repository.newObjectReader();
+                RevWalk revWalk = new RevWalk(reader);
+                TreeWalk treeWalk = new TreeWalk(reader)) {
+
+            // Only walk the Java files that differ
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(AndTreeFilter.create(
+                    PathSuffixFilter.create(".java"), TreeFilter.ANY_DIFF
+            ));
+            treeWalk.addTree(revWalk.parseCommit(oldCommit).getTree());
+            treeWalk.addTree(revWalk.parseCommit(newCommit).getTree());
+
+            RenameDetector renameDetector = new RenameDetector(repository);
+            renameDetector.addAll(DiffEntry.scan(treeWalk));
+            List<DiffEntry> diffEntries = renameDetector.compute(
+                    reader, NullProgressMonitor.INSTANCE
+            );
+
+            for (DiffEntry diffEntry : diffEntries) {
+                changeSet.add(diffEntry);
+            }
+        }
+
+        return changeSet;
+    }
+
+    /**
+     * Adds a diff entry to the change set.
+     *
+     * @param diffEntry The diff entry to add
+     */
+    public void add(DiffEntry diffEntry) {
+        switch (diffEntry.getChangeType()) {
+            case ADD:
+            case COPY:
+                addedFiles.add(toFile(diffEntry.getNewPath()));
+                break;
+            case DELETE:
+                removedFiles.add(toFile(diffEntry.getOldPath()));
+                break;
+            case MODIFY:
+                addedFiles.add(toFile(diffEntry.getNewPath()));
+                modifiedFiles.add(toFile(diffEntry.getOldPath()));
+                break;
+            case RENAME:
+                addedFiles.add(toFile(diffEntry.getNewPath()));
+                removedFiles.add(toFile(diffEntry.getOldPath()));
+                renameCount++;
+                break;
+        }
+    }
+
+    /**
+     * Converts a repository path to a file and adds it to its source root.
+     *
+     * @param path The path relative to the repository
+     * @return The file in the working tree
+     */
+    private File toFile(String path) {
+        File file = new File(rootDirectory, path);
+        File sourceRoot = new File(
+                rootDirectory, SourceRoots.getSourceRoot(path)
+        );
+        filesBySourceRoot.computeIfAbsent(sourceRoot, (r) -> new HashSet<>())
+                .add(file);
+        return file;
+    }
+
+    /**
+     * Gets the files that are added or need to be parsed again.
+     *
+     * @return The added files
+     */
+    public Set<File> getAddedFiles() {
+        return Collections.unmodifiableSet(addedFiles);
+    }
+
+    /**
+     * Gets the files that have been modified.
+     *
+     * @return The modified files, by their old path
+     */
+    public Set<File> getModifiedFiles() {
+        return Collections.unmodifiableSet(modifiedFiles);
+    }
+
+    /**
+     * Gets the files that have been removed or renamed.
+     *
+     * @return The removed files, by their old path
+     */
+    public Set<File> getRemovedFiles() {
+        return Collections.unmodifiableSet(removedFiles);
+    }
+
+    /**
+     * Gets all changed files grouped by their source root.
+     *
+     * @return A map from source root to the files changed in it
+     */
+    public Map<File, Set<File>> getFilesBySourceRoot() {
+        return Collections.unmodifiableMap(filesBySourceRoot);
+    }
+
+    /**
+     * Gets the number of detected renames.
+     *
+     * @return The number of renamed files
+     */
+    public int getRenameCount() {
+        return renameCount;
+    }
+
+    /**
+     * Whether no Java file changed.
+     *
+     * @return True if nothing changed
+     */
+    public boolean isEmpty() {
+        return addedFiles.isEmpty() && removedFiles.isEmpty();
+    }
+
+}
@@ -0,0 +1,423 @@
+package edu.rug.pyne.api.git;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+
+/**
+ * Selects the commits of a branch to parse. The history is walked from the
+ * tip of the branch and only the selected commits are kept, so the log is
+ * never held in memory as a whole.
+ *
+ * By default only the first parents are followed. All samples are then on
+ * one line of history and the diff between two samples stays small.
+ *
+ * When sampling by period, the first commit after the start date is
+ * selected, and then each first commit at least one period after the last
+ * selected commit. This needs the commits oldest first, so the commits
+ * between the start and end date are kept until the walk is done.
+ */
+public class CommitSampler {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(CommitSampler.class);
+
+    /**
+     * The ways commits can be selected.
+     */
+    public enum Mode {
+        // Every commit
+        ALL,
+        // The first commit at least one period after the last selected one
+        PERIOD,
+        // The newest commit of every calendar period
+        CALENDAR_PERIOD,
+        // Every nth commit, starting at the tip
+        EVERY_NTH,
+        // Only tagged commits
+        TAGS
+    }
+
+    /**
+     * A selected commit.
+     */
+    public static class Sample {
+
+        private final ObjectId commit;
+        private final Date date;
+        private final String tagName;
+
+        private Sample(ObjectId commit, Date date, String tagName) {
+            this.commit = commit;
+            this.date = date;
+            this.tagName = tagName;
+        }
+
+        /**
+         * Gets the id of the commit.
+         *
+         * @return The commit id
+         */
+        public ObjectId getCommit() {
+            return commit;
+        }
+
+        /**
+         * Gets the commit id as a string.
+         *
+         * @return The name of the commit
+         */
+        public String getName() {
+            return commit.getName();
+        }
+
+        /**
+         * Gets the time of the commit.
+         *
+         * @return The commit date
+         */
+        public Date getDate() {
+            return date;
+        }
+
+        /**
+         * Gets the name of the tag on the commit, only set when sampling
+         * tags.
+         *
+         * @return The short tag name, or null
+         */
+        public String getTagName() {
+            return tagName;
+        }
+
+    }
+
+    private final Repository repository;
+
+    private String branch = Constants.HEAD;
+    private boolean firstParent = true;
+    private Date startDate;
+    private Date endDate;
+
+    private Mode mode = Mode.ALL;
+    private int period = Calendar.DAY_OF_YEAR;
+    private int everyNth = 1;
+
+    /**
+     * Creates a sampler for the given repository.
+     *
+     * @param repository The repository to walk
+     */
+    public CommitSampler(Repository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Sets the branch, or any other revision, to start walking from. Defaults
+     * to HEAD.
+     *
+     * @param branch The revision to start at
+     */
+    public void setBranch(String branch) {
+        this.branch = branch;
+    }
+
+    /**
+     * Sets if only the first parents are followed. If false all ancestors
+     * are walked, newest first. Defaults to true.
+     *
+     * @param firstParent Whether to only follow the first parents
+     */
+    public void setFirstParent(boolean firstParent) {
+        this.firstParent = firstParent;
+    }
+
+    /**
+     * Sets the oldest commit date to include. The walk stops at the first
+     * older commit.
+     *
+     * @param startDate The start date, null for no limit
+     */
+    public void setStartDate(Date startDate) {
+        this.startDate = startDate;
+    }
+
+    /**
+     * Sets the newest commit date to include.
+     *
+     * @param endDate The end date, null for no limit
+     */
+    public void setEndDate(Date endDate) {
+        this.endDate = endDate;
+    }
+
+    /**
+     * Selects the first commit after the start date, and then each first
+     * commit at least one period after the last selected commit.
+     *
+     * @param period The period as a calendar field: DAY_OF_YEAR, WEEK_OF_YEAR,
+     * MONTH or YEAR
+     */
+    public void samplePeriod(int period) {
+        checkPeriod(period);
+        this.mode = Mode.PERIOD;
+        this.period = period;
+    }
+
+    /**
+     * Selects the newest commit of every calendar day, week, month or year.
+     *
+     * @param period The period as a calendar field: DAY_OF_YEAR, WEEK_OF_YEAR,
+     * MONTH or YEAR
+     */
+    public void sampleCalendarPeriod(int period) {
+        checkPeriod(period);
+        this.mode = Mode.CALENDAR_PERIOD;
+        this.period = period;
+    }
+
+    /**
+     * Checks that a period is one of the supported calendar fields.
+     *
+     * @param period The period as a calendar field
+     */
+    private static void checkPeriod(int period) {
+        switch (period) {
+            case Calendar.DAY_OF_YEAR:
+            case Calendar.WEEK_OF_YEAR:
+            case Calendar.MONTH:
+            case Calendar.YEAR:
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unsupported period: " + period
+                );
+        }
+    }
+
+    /**
+     * Selects every nth commit, starting with the tip.
+     *
+     * @param everyNth The distance between selected commits
+     */
+    public void sampleEveryNth(int everyNth) {
+        if (everyNth < 1) {
+            throw new IllegalArgumentException(
+                    "Expected a positive number, got " + everyNth
+            );
+        }
+        this.mode = Mode.EVERY_NTH;
+        this.everyNth = everyNth;
+    }
+
+    /**
+     * Selects only the commits that have a tag.
+     */
+    public void sampleTags() {
+        this.mode = Mode.TAGS;
+    }
+
+    /**
+     * Selects every commit.
+     */
+    public void sampleAll() {
+        this.mode = Mode.ALL;
+    }
+
+    /**
+     * Gets the selection mode.
+     *
+     * @return The mode
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Walks the history and selects the commits.
+     *
+     * @return The selected commits, oldest first
+     * @throws IOException Thrown when the branch cannot be resolved or a
+     * commit cannot be read
+     */
+    public List<Sample> sample() throws IOException {
+        ObjectId tip = repository.resolve(branch);
+        if (tip == null) {
+            throw new IOException("Cannot resolve " + branch);
+        }
+
+        Map<ObjectId, String> tags = mode == Mode.TAGS
+                ? getTaggedCommits()
+                : Collections.emptyMap();
+
+        List<Sample> samples = new ArrayList<>();
+        Calendar calendar = Calendar.getInstance();
+        long lastBucket = Long.MIN_VALUE;
+        int index = 0;
+        int walked = 0;
+
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            revWalk.setRetainBody(false);
+            RevCommit commit = revWalk.parseCommit(tip);
+
+            if (!firstParent) {
+                revWalk.sort(RevSort.COMMIT_TIME_DESC);
+                revWalk.markStart(commit);
+                commit = revWalk.next();
+            }
+
+            while (commit != null) {
+                walked++;
+                Date date = new Date(((long) commit.getCommitTime()) * 1000);
+
+                if (startDate != null && date.before(startDate)) {
+                    break;
+                }
+
+                if (endDate == null || !date.after(endDate)) {
+                    boolean selected;
+                    switch (mode) {
+                        case CALENDAR_PERIOD:
+                            long bucket = getBucket(calendar, date);
+                            selected = bucket != lastBucket;
+                            lastBucket = bucket;
+                            break;
+                        case EVERY_NTH:
+                            selected = index % everyNth == 0;
+                            break;
+                        case TAGS:
+                            selected = tags.containsKey(commit);
+                            break;
+                        default:
+                            selected = true;
+                    }
+                    index++;
+
+                    if (selected) {
+                        samples.add(new Sample(
+                                commit.copy(), date, tags.get(commit)
+                        ));
+                    }
+                }
+
+                commit = nextCommit(revWalk, commit);
+            }
+        }
+
+        Collections.reverse(samples);
+        if (mode == Mode.PERIOD) {
+            samples = selectPeriods(samples);
+        }
+        LOGGER.info("Selected " + samples.size() + " of " + walked
+                + " walked commits");
+        return samples;
+    }
+
+    /**
+     * Selects the first commit after the start date, and then each first
+     * commit at least one period after the last selected commit.
+     *
+     * @param commits The commits between the start and end date, oldest
+     * first
+     * @return The selected commits, oldest first
+     */
+    private List<Sample> selectPeriods(List<Sample> commits) {
+        List<Sample> samples = new ArrayList<>();
+        Calendar calendar = Calendar.getInstance();
+        Date checkDate = startDate;
+        for (Sample commit : commits) {
+            if (checkDate != null && !commit.getDate().after(checkDate)) {
+                continue;
+            }
+            samples.add(commit);
+
+            // The next commit has to be a period after this one
+            calendar.setTime(commit.getDate());
+            calendar.add(period, 1);
+            checkDate = calendar.getTime();
+        }
+        return samples;
+    }
+
+    /**
+     * Gets the next commit of the walk.
+     *
+     * @param revWalk The walk in use
+     * @param commit The current commit
+     * @return The next commit, or null at the end of the history
+     * @throws IOException Thrown when a commit cannot be read
+     */
+    private RevCommit nextCommit(RevWalk revWalk, RevCommit commit)
+            throws IOException {
+
+        if (!firstParent) {
+            return revWalk.next();
+        }
+        if (commit.getParentCount() == 0) {
+            return null;
+        }
+        return revWalk.parseCommit(commit.getParent(0));
+    }
+
+    /**
+     * Gets all commits that have a tag, with the short name of the tag.
+     *
+     * @return A map from commit to tag name
+     * @throws IOException Thrown when the tags cannot be read
+     */
+    private Map<ObjectId, String> getTaggedCommits() throws IOException {
+        Map<ObjectId, String> tags = new HashMap<>();
+        for (Ref ref : repository.getRefDatabase().getRefsByPrefix(
+                Constants.R_TAGS
+        )) {
+            Ref peeled = repository.getRefDatabase().peel(ref);
+            ObjectId commit = peeled.getPeeledObjectId() != null
+                    ? peeled.getPeeledObjectId()
+                    : peeled.getObjectId();
+            if (commit != null) {
+                tags.putIfAbsent(
+                        commit, Repository.shortenRefName(ref.getName())
+                );
+            }
+        }
+        return tags;
+    }
+
+    /**
+     * Gets a number that is the same for all dates in one period.
+     *
+     * @param calendar The calendar to use
+     * @param date The date to get the period of
+     * @return The number of the period
+     */
+    private long getBucket(Calendar calendar, Date date) {
+        calendar.setTime(date);
+        long year = calendar.get(Calendar.YEAR);
+        switch (period) {
+            case Calendar.YEAR:
+                return year;
+            case Calendar.MONTH:
+                return year * 12 + calendar.get(Calendar.MONTH);
+            case Calendar.WEEK_OF_YEAR:
+                return calendar.getWeekYear() * 54L
+                        + calendar.get(Calendar.WEEK_OF_YEAR);
+            default:
+                return year * 367 + calendar.get(Calendar.DAY_OF_YEAR);
+        }
+    }
+
+}
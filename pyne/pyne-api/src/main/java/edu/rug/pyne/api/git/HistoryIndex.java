@@ -0,0 +1,475 @@
+package edu.rug.pyne.api.git;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectReader;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevObject;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.CanonicalTreeParser;
+import org.eclipse.jgit.treewalk.EmptyTreeIterator;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.AndTreeFilter;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+import org.eclipse.jgit.treewalk.filter.TreeFilter;
+
+/**
+ * An index of the Java files changed by each commit of a repository. Each
+ * commit is compared to its first parent. The index is built once, can be
+ * updated with only the new commits and is stored in a compact binary file.
+ *
+ * This allows planning which commits to parse, and estimating how much work
+ * that is, without checking out or diffing anything.
+ */
+public class HistoryIndex {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(HistoryIndex.class);
+
+    // Identifies the file format
+    private static final int MAGIC = 0x50594e58;
+    private static final int VERSION = 1;
+
+    /**
+     * The changes a single commit made to Java files, compared to its first
+     * parent.
+     */
+    public class Entry {
+
+        private final ObjectId commit;
+        private final int commitTime;
+        private final ObjectId firstParent;
+        private final int[] paths;
+        private final byte[] changeTypes;
+
+        private Entry(ObjectId commit, int commitTime, ObjectId firstParent,
+                int[] paths, byte[] changeTypes) {
+            this.commit = commit;
+            this.commitTime = commitTime;
+            this.firstParent = firstParent;
+            this.paths = paths;
+            this.changeTypes = changeTypes;
+        }
+
+        /**
+         * Gets the id of the commit.
+         *
+         * @return The commit id
+         */
+        public ObjectId getCommit() {
+            return commit;
+        }
+
+        /**
+         * Gets the commit time in seconds since the epoch.
+         *
+         * @return The commit time
+         */
+        public int getCommitTime() {
+            return commitTime;
+        }
+
+        /**
+         * Gets the id of the first parent.
+         *
+         * @return The first parent, or null for a root commit
+         */
+        public ObjectId getFirstParent() {
+            return firstParent;
+        }
+
+        /**
+         * Whether this commit changed any Java file.
+         *
+         * @return True if a Java file changed
+         */
+        public boolean touchesJava() {
+            return paths.length > 0;
+        }
+
+        /**
+         * Gets the number of Java files changed.
+         *
+         * @return The number of changed Java files
+         */
+        public int getChangeCount() {
+            return paths.length;
+        }
+
+        /**
+         * Gets the paths of the changed Java files relative to the repository.
+         *
+         * @return The changed paths
+         */
+        public List<String> getChangedPaths() {
+            List<String> changedPaths = new ArrayList<>(paths.length);
+            for (int path : paths) {
+                changedPaths.add(pathTable.get(path));
+            }
+            return changedPaths;
+        }
+
+        /**
+         * Gets the type of change of the path at the given position.
+         *
+         * @param index The position in the list of changed paths
+         * @return The type of change
+         */
+        public DiffEntry.ChangeType getChangeType(int index) {
+            return DiffEntry.ChangeType.values()[changeTypes[index]];
+        }
+
+        /**
+         * Gets the source roots the changed Java files are in.
+         *
+         * @return The source roots relative to the repository
+         */
+        public Set<String> getSourceRoots() {
+            Set<String> roots = new LinkedHashSet<>();
+            for (int path : paths) {
+                roots.add(SourceRoots.getSourceRoot(pathTable.get(path)));
+            }
+            return roots;
+        }
+
+    }
+
+    // All paths ever changed, entries refer to them by position
+    private final List<String> pathTable = new ArrayList<>();
+    private final Map<String, Integer> pathIds = new HashMap<>();
+
+    // The indexed commits
+    private final Map<ObjectId, Entry> entries = new HashMap<>();
+
+    // The tips of the refs at the last update. Everything reachable from
+    // these is already indexed.
+    private final Set<ObjectId> tips = new LinkedHashSet<>();
+
+    /**
+     * Loads an index from a file. If the file does not exist an empty index
+     * is returned.
+     *
+     * @param file The file the index is stored in
+     * @return The loaded index
+     * @throws IOException Thrown when the file cannot be read or is not an
+     * index
+     */
+    public static HistoryIndex load(File file) throws IOException {
+        HistoryIndex index = new HistoryIndex();
+        if (!file.exists()) {
+            return index;
+        }
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a history index: " + file);
+            }
+
+            int pathCount = in.readInt();
+            for (int i = 0; i < pathCount; i++) {
+                index.getPathId(in.readUTF());
+            }
+
+            int tipCount = in.readInt();
+            for (int i = 0; i < tipCount; i++) {
+                index.tips.add(readObjectId(in));
+            }
+
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                ObjectId commit = readObjectId(in);
+                int commitTime = in.readInt();
+                ObjectId firstParent = in.readBoolean()
+                        ? readObjectId(in) : null;
+                int changeCount = in.readInt();
+                int[] paths = new int[changeCount];
+                byte[] changeTypes = new byte[changeCount];
+                for (int j = 0; j < changeCount; j++) {
+                    paths[j] = in.readInt();
+                    changeTypes[j] = in.readByte();
+                }
+                index.entries.put(commit, index.new Entry(
+                        commit, commitTime, firstParent, paths, changeTypes
+                ));
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * Saves the index to a file. The file is replaced once it is completely
+     * written.
+     *
+     * @param file The file to store the index in
+     * @throws IOException Thrown when the file cannot be written
+     */
+    public void save(File file) throws IOException {
+        File tempFile = new File(file.getAbsolutePath() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(pathTable.size());
+            for (String path : pathTable) {
+                out.writeUTF(path);
+            }
+
+            out.writeInt(tips.size());
+            for (ObjectId tip : tips) {
+                tip.copyRawTo(out);
+            }
+
+            out.writeInt(entries.size());
+            for (Entry entry : entries.values()) {
+                entry.commit.copyRawTo(out);
+                out.writeInt(entry.commitTime);
+                out.writeBoolean(entry.firstParent != null);
+                if (entry.firstParent != null) {
+                    entry.firstParent.copyRawTo(out);
+                }
+                out.writeInt(entry.paths.length);
+                for (int i = 0; i < entry.paths.length; i++) {
+                    out.writeInt(entry.paths[i]);
+                    out.writeByte(entry.changeTypes[i]);
+                }
+            }
+        }
+
+        Files.move(
+                tempFile.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING
+        );
+    }
+
+    /**
+     * Adds all commits reachable from the branches and tags of the repository
+     * that are not indexed yet.
+     *
+     * @param repository The repository to index
+     * @return The number of newly indexed commits
+     * @throws IOException Thrown when an object cannot be read
+     */
+    public int update(Repository repository) throws IOException {
+        int added = 0;
+        Set<ObjectId> newTips = new LinkedHashSet<>();
+
+        try (RevWalk revWalk = new RevWalk(repository);
+                ObjectReader reader = repository.newObjectReader();
+                TreeWalk treeWalk = new TreeWalk(reader)) {
+
+            for (Ref ref : repository.getRefDatabase().getRefsByPrefix(
+                    Constants.R_REFS
+            )) {
+                ObjectId objectId = ref.getObjectId();
+                if (objectId == null) {
+                    continue;
+                }
+                RevObject peeled = revWalk.peel(revWalk.parseAny(objectId));
+                if (peeled instanceof RevCommit) {
+                    revWalk.markStart((RevCommit) peeled);
+                    newTips.add(peeled.copy());
+                }
+            }
+
+            // Everything behind the previous tips is already indexed
+            for (ObjectId tip : tips) {
+                if (reader.has(tip)) {
+                    revWalk.markUninteresting(revWalk.parseCommit(tip));
+                }
+            }
+
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(AndTreeFilter.create(
+                    PathSuffixFilter.create(".java"), TreeFilter.ANY_DIFF
+            ));
+
+            for (RevCommit commit : revWalk) {
+                if (entries.containsKey(commit)) {
+                    continue;
+                }
+                addEntry(revWalk, reader, treeWalk, commit);
+                added++;
+            }
+        }
+
+        tips.clear();
+        tips.addAll(newTips);
+
+        LOGGER.info("Indexed " + added + " new commits, "
+                + entries.size() + " in total");
+        return added;
+    }
+
+    /**
+     * Diffs the commit against its first parent and adds an entry for it.
+     *
+     * @param revWalk The walk the commit comes from
+     * @param reader The reader to read the trees with
+     * @param treeWalk The tree walk to reuse for the diff
+     * @param commit The commit to add
+     * @throws IOException Thrown when a tree cannot be read
+     */
+    private void addEntry(RevWalk revWalk, ObjectReader reader,
+            TreeWalk treeWalk, RevCommit commit) throws IOException {
+
+        ObjectId firstParent = null;
+        treeWalk.reset();
+        if (commit.getParentCount() > 0) {
+            RevCommit parent = revWalk.parseCommit(commit.getParent(0));
+            firstParent = parent.copy();
+            treeWalk.addTree(new CanonicalTreeParser(
+                    null, reader, parent.getTree()
+            ));
+        } else {
+            treeWalk.addTree(new EmptyTreeIterator());
+        }
+        treeWalk.addTree(new CanonicalTreeParser(
+                null, reader, commit.getTree()
+        ));
+
+        List<DiffEntry> diffEntries = DiffEntry.scan(treeWalk);
+        int[] paths = new int[diffEntries.size()];
+        byte[] changeTypes = new byte[diffEntries.size()];
+        for (int i = 0; i < diffEntries.size(); i++) {
+            DiffEntry diffEntry = diffEntries.get(i);
+            String path = diffEntry.getChangeType()
+                    == DiffEntry.ChangeType.DELETE
+                    ? diffEntry.getOldPath() : diffEntry.getNewPath();
+            paths[i] = getPathId(path);
+            changeTypes[i] = (byte) diffEntry.getChangeType().ordinal();
+        }
+
+        ObjectId commitId = commit.copy();
+        entries.put(commitId, new Entry(
+                commitId, commit.getCommitTime(), firstParent,
+                paths, changeTypes
+        ));
+    }
+
+    /**
+     * Gets the entry of a commit.
+     *
+     * @param commit The commit id
+     * @return The entry, or null if the commit is not indexed
+     */
+    public Entry get(AnyObjectId commit) {
+        return entries.get(commit);
+    }
+
+    /**
+     * Gets the number of indexed commits.
+     *
+     * @return The number of commits
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Counts the Java files changed between two commits by following the
+     * first parents back from the newer commit. A file changed by several
+     * commits is counted once.
+     *
+     * @param from The older commit, or null to count from the root
+     * @param to The newer commit
+     * @return The number of changed Java files, or -1 if the older commit is
+     * not a first parent ancestor of the newer one or a commit on the way is
+     * not indexed
+     */
+    public int countChangesBetween(AnyObjectId from, AnyObjectId to) {
+        Set<Integer> changed = new HashSet<>();
+        Entry entry = entries.get(to);
+        while (entry != null) {
+            if (entry.commit.equals(from)) {
+                return changed.size();
+            }
+            for (int path : entry.paths) {
+                changed.add(path);
+            }
+            if (entry.firstParent == null) {
+                return from == null ? changed.size() : -1;
+            }
+            entry = entries.get(entry.firstParent);
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if any Java file changed between two commits. When this cannot
+     * be determined from the index it is assumed something changed.
+     *
+     * @param from The older commit
+     * @param to The newer commit
+     * @return False only if the index shows no Java file changed
+     */
+    public boolean hasChangesBetween(AnyObjectId from, AnyObjectId to) {
+        return countChangesBetween(from, to) != 0;
+    }
+
+    /**
+     * Gets all the paths that are known to the index.
+     *
+     * @return The paths relative to the repository
+     */
+    public List<String> getPaths() {
+        return Collections.unmodifiableList(pathTable);
+    }
+
+    /**
+     * Gets the id for a path, adding it to the path table if needed.
+     *
+     * @param path The path
+     * @return The position of the path in the path table
+     */
+    private int getPathId(String path) {
+        return pathIds.computeIfAbsent(path, (p) -> {
+            pathTable.add(p);
+            return pathTable.size() - 1;
+        });
+    }
+
+    /**
+     * Reads a raw object id from the stream.
+     *
+     * @param in The stream to read from
+     * @return The read object id
+     * @throws IOException Thrown when the stream cannot be read
+     */
+    private static ObjectId readObjectId(DataInputStream in)
+            throws IOException {
+        byte[] raw = new byte[Constants.OBJECT_ID_LENGTH];
+        in.readFully(raw);
+        return ObjectId.fromRaw(raw);
+    }
+
+}
@@ -0,0 +1,318 @@
+package edu.rug.pyne.api.git;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.util.FileUtils;
+
+/**
+ * A cache of bare mirrors of remote repositories. Each repository URI gets
+ * one mirror that is cloned once and after that only fetched incrementally.
+ *
+ * The mirrors are shared read-only. Jobs that need a working tree get their
+ * own repository that borrows the objects of the mirror through git
+ * alternates, so no objects are copied.
+ */
+public class MirrorCache {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(MirrorCache.class);
+
+    // The refs that are kept in sync with the remote
+    private static final RefSpec[] MIRROR_REF_SPECS = {
+        new RefSpec("+refs/heads/*:refs/heads/*"),
+        new RefSpec("+refs/tags/*:refs/tags/*")
+    };
+
+    // The directory holding all mirrors
+    private final File cacheDirectory;
+
+    // The repositories already fetched by this cache instance
+    private final Set<String> fetched = ConcurrentHashMap.newKeySet();
+
+    // A lock per repository, so threads do not clone or fetch at the same time
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a mirror cache in the default location, which is
+     * ".pyne/mirrors" in the home directory of the user.
+     */
+    public MirrorCache() {
+        this(new File(
+                System.getProperty("user.home"),
+                ".pyne" + File.separator + "mirrors"
+        ));
+    }
+
+    /**
+     * Creates a mirror cache that stores its mirrors in the given directory.
+     *
+     * @param cacheDirectory The directory to put the mirrors in
+     */
+    public MirrorCache(File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory.getAbsoluteFile();
+    }
+
+    /**
+     * Gets the directory the mirrors are stored in.
+     *
+     * @return The cache directory
+     */
+    public File getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * Gets the directory the mirror of the given repository is, or would be,
+     * stored in.
+     *
+     * @param repository The URI of the repository
+     * @return The directory of the bare mirror
+     */
+    public File getMirrorDirectory(String repository) {
+        return new File(cacheDirectory, getKey(repository));
+    }
+
+    /**
+     * Makes sure the mirror of the given repository exists and is up to date.
+     * A missing mirror is cloned, an existing one is fetched. A repository is
+     * only fetched once per cache instance.
+     *
+     * @param repository The URI of the repository
+     * @return The directory of the bare mirror
+     * @throws IOException Thrown when the cache directory cannot be written
+     * @throws GitAPIException Thrown when cloning or fetching failed
+     */
+    public File updateMirror(String repository)
+            throws IOException, GitAPIException {
+
+        String key = getKey(repository);
+        File mirrorDir = new File(cacheDirectory, key);
+
+        synchronized (locks.computeIfAbsent(key, (k) -> new Object())) {
+            if (fetched.contains(key)) {
+                return mirrorDir;
+            }
+
+            Files.createDirectories(cacheDirectory.toPath());
+            File lockFile = new File(cacheDirectory, key + ".lock");
+
+            // Also lock on disk, other processes may share the cache
+            try (RandomAccessFile raf = new RandomAccessFile(lockFile, "rw");
+                    FileChannel channel = raf.getChannel();
+                    FileLock lock = channel.lock()) {
+
+                if (new File(mirrorDir, Constants.HEAD).exists()) {
+                    fetchMirror(repository, mirrorDir);
+                } else {
+                    cloneMirror(repository, mirrorDir);
+                }
+            }
+
+            fetched.add(key);
+        }
+
+        return mirrorDir;
+    }
+
+    /**
+     * Opens the up to date mirror of the given repository. The repository is
+     * shared and should only be read from. The caller needs to close it.
+     *
+     * @param repository The URI of the repository
+     * @return The opened bare mirror
+     * @throws IOException Thrown when the mirror cannot be opened
+     * @throws GitAPIException Thrown when cloning or fetching failed
+     */
+    public Repository openMirror(String repository)
+            throws IOException, GitAPIException {
+
+        File mirrorDir = updateMirror(repository);
+        return new FileRepositoryBuilder().setGitDir(mirrorDir)
+                .setMustExist(true).setBare().build();
+    }
+
+    /**
+     * Creates a working repository for one job in the given directory. The
+     * repository borrows all objects from the mirror, gets a copy of its refs
+     * and has the default branch checked out.
+     *
+     * @param repository The URI of the repository
+     * @param directory The directory to create the working tree in
+     * @return The git of the new working repository
+     * @throws IOException Thrown when the working repository cannot be
+     * created
+     * @throws GitAPIException Thrown when updating the mirror or checking out
+     * failed
+     */
+    public Git createWorktree(String repository, File directory)
+            throws IOException, GitAPIException {
+
+        File mirrorDir = updateMirror(repository);
+
+        File gitDir;
+        try (Git init = Git.init().setDirectory(directory).call()) {
+            gitDir = init.getRepository().getDirectory();
+        }
+
+        // Borrow the objects of the mirror instead of copying them. This is
+        // written before the repository is opened, so it is picked up.
+        File infoDir = new File(gitDir, "objects" + File.separator + "info");
+        Files.createDirectories(infoDir.toPath());
+        Files.write(
+                new File(infoDir, "alternates").toPath(),
+                (new File(mirrorDir, "objects").getAbsolutePath() + "\n")
+                        .getBytes(StandardCharsets.UTF_8)
+        );
+
+        Git git = Git.open(directory);
+        Repository worktree = git.getRepository();
+
+        try (Repository mirror = new FileRepositoryBuilder()
+                .setGitDir(mirrorDir).setMustExist(true).setBare().build()) {
+
+            copyRefs(mirror, worktree);
+        }
+
+        // Fill the working tree if there is anything to check out
+        if (worktree.resolve(Constants.HEAD) != null) {
+            git.reset().setMode(ResetCommand.ResetType.HARD)
+                    .setRef(Constants.HEAD).call();
+        }
+
+        return git;
+    }
+
+    /**
+     * Clones a new bare mirror. The clone is made next to its final location
+     * and only moved into place when it is complete.
+     *
+     * @param repository The URI of the repository
+     * @param mirrorDir The directory the mirror should end up in
+     * @throws IOException Thrown when the clone cannot be moved into place
+     * @throws GitAPIException Thrown when cloning failed
+     */
+    private void cloneMirror(String repository, File mirrorDir)
+            throws IOException, GitAPIException {
+
+        LOGGER.info("Creating mirror of " + repository);
+        File tempDir = Files.createTempDirectory(
+                cacheDirectory.toPath(), mirrorDir.getName() + ".tmp"
+        ).toFile();
+
+        try {
+            Git.cloneRepository().setURI(repository).setDirectory(tempDir)
+                    .setBare(true).setCloneAllBranches(true).call().close();
+
+            Files.move(
+                    tempDir.toPath(), mirrorDir.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE
+            );
+        } finally {
+            if (tempDir.exists()) {
+                FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+            }
+        }
+    }
+
+    /**
+     * Fetches the new objects and refs of an existing mirror.
+     *
+     * @param repository The URI of the repository
+     * @param mirrorDir The directory of the mirror
+     * @throws IOException Thrown when the mirror cannot be opened
+     * @throws GitAPIException Thrown when fetching failed
+     */
+    private void fetchMirror(String repository, File mirrorDir)
+            throws IOException, GitAPIException {
+
+        LOGGER.info("Updating mirror of " + repository);
+        try (Git git = Git.open(mirrorDir)) {
+            git.fetch().setRemote(repository).setRefSpecs(MIRROR_REF_SPECS)
+                    .setRemoveDeletedRefs(true).call();
+        }
+    }
+
+    /**
+     * Copies all refs of the mirror to the working repository, including
+     * where HEAD points to.
+     *
+     * @param mirror The repository to copy the refs from
+     * @param worktree The repository to copy the refs to
+     * @throws IOException Thrown when a ref cannot be read or written
+     */
+    private void copyRefs(Repository mirror, Repository worktree)
+            throws IOException {
+
+        for (Ref ref : mirror.getRefDatabase().getRefsByPrefix(
+                Constants.R_REFS
+        )) {
+            ObjectId objectId = ref.getObjectId();
+            if (ref.isSymbolic() || objectId == null) {
+                continue;
+            }
+            RefUpdate refUpdate = worktree.updateRef(ref.getName());
+            refUpdate.setNewObjectId(objectId);
+            refUpdate.setForceUpdate(true);
+            refUpdate.update();
+        }
+
+        Ref head = mirror.exactRef(Constants.HEAD);
+        if (head != null && head.isSymbolic()) {
+            worktree.updateRef(Constants.HEAD)
+                    .link(head.getTarget().getName());
+        }
+    }
+
+    /**
+     * Creates the key of a repository. It contains the last part of the URI
+     * to be readable and a hash of the whole URI to be unique.
+     *
+     * @param repository The URI of the repository
+     * @return The key used as directory name of the mirror
+     */
+    private static String getKey(String repository) {
+        String trimmed = repository.replaceAll("[/\\\\]+$", "");
+        String name = trimmed.substring(
+                Math.max(trimmed.lastIndexOf('/'), trimmed.lastIndexOf('\\'))
+                + 1
+        ).replaceAll("\\.git$", "").replaceAll("[^A-Za-z0-9._-]", "_");
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(
+                    trimmed.getBytes(StandardCharsets.UTF_8)
+            );
+            StringBuilder keyBuilder = new StringBuilder(name).append('-');
+            for (int i = 0; i < 8; i++) {
+                keyBuilder.append(String.format("%02x", hash[i]));
+            }
+            return keyBuilder.append(".git").toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-1 is not available", ex);
+        }
+    }
+
+}
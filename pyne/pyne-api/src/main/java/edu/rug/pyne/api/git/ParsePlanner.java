@@ -0,0 +1,164 @@
+package edu.rug.pyne.api.git;
+
+import java.io.IOException;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.treewalk.filter.PathSuffixFilter;
+
+/**
+ * Decides per commit step if the graph is updated incrementally or rebuilt
+ * from scratch.
+ *
+ * An incremental step builds the model of the old and of the new commit and
+ * only updates the changed classes. A rebuild builds the model once but
+ * processes every class. When a large part of the source tree changed, like
+ * after reformatting or moving packages, the rebuild is cheaper. The
+ * threshold is the fraction of changed Java files at which to rebuild.
+ *
+ * The Java files of the tree are only counted for the first commit. For the
+ * following commits the count is updated with the changes.
+ */
+public class ParsePlanner {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(ParsePlanner.class);
+
+    // The default fraction of changed files at which a rebuild is done
+    public static final double DEFAULT_THRESHOLD = 0.3;
+
+    private final double threshold;
+
+    // The last commit of which the Java files are known, null if none
+    private ObjectId countedCommit;
+    private int countedFiles;
+
+    /**
+     * Creates a planner with the default threshold.
+     */
+    public ParsePlanner() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Creates a planner with the given threshold. Use
+     * Double.POSITIVE_INFINITY to always update incrementally.
+     *
+     * @param threshold The fraction of changed Java files at which the graph
+     * is rebuilt
+     */
+    public ParsePlanner(double threshold) {
+        if (Double.isNaN(threshold) || threshold < 0) {
+            throw new IllegalArgumentException(
+                    "Expected a positive threshold, got " + threshold
+            );
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * Gets the fraction of changed Java files at which the graph is rebuilt.
+     *
+     * @return The threshold
+     */
+    public double getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Checks if rebuilding the graph is expected to be cheaper than updating
+     * it with the given changes. The graph is never rebuilt when no Java
+     * file changed.
+     *
+     * @param repository The repository the commits are in
+     * @param changeSet The changes since the last parsed commit
+     * @param oldCommit The last parsed commit
+     * @param newCommit The commit that will be parsed
+     * @return True if the graph should be rebuilt
+     * @throws IOException Thrown when the tree of the commit cannot be read
+     */
+    public boolean shouldRebuild(Repository repository, ChangeSet changeSet,
+            AnyObjectId oldCommit, AnyObjectId newCommit) throws IOException {
+
+        if (Double.isInfinite(threshold)) {
+            return false;
+        }
+
+        int totalFiles = countJavaFiles(
+                repository, changeSet, oldCommit, newCommit
+        );
+        if (changeSet.isEmpty()) {
+            return false;
+        }
+
+        int changedFiles = changeSet.getAddedFiles().size()
+                + changeSet.getRemovedFiles().size();
+        double fraction = (double) changedFiles / Math.max(totalFiles, 1);
+        boolean rebuild = fraction >= threshold;
+
+        LOGGER.info(String.format(
+                "%d of %d Java files changed (%.3f, threshold %.3f): %s",
+                changedFiles, totalFiles, fraction, threshold,
+                rebuild ? "rebuilding graph" : "updating graph"
+        ));
+
+        return rebuild;
+    }
+
+    /**
+     * Counts the Java files in the tree of a commit. When the count of the
+     * old commit is known, it is updated with the changes instead of walking
+     * the tree.
+     *
+     * @param repository The repository the commits are in
+     * @param changeSet The changes between the commits
+     * @param oldCommit The commit the changes are from
+     * @param newCommit The commit to count the files of
+     * @return The number of Java files in the new commit
+     * @throws IOException Thrown when the tree cannot be read
+     */
+    public int countJavaFiles(Repository repository, ChangeSet changeSet,
+            AnyObjectId oldCommit, AnyObjectId newCommit) throws IOException {
+
+        if (oldCommit.equals(countedCommit)) {
+            // A modified file is also in the added files
+            countedFiles += changeSet.getAddedFiles().size()
+                    - changeSet.getModifiedFiles().size()
+                    - changeSet.getRemovedFiles().size();
+        } else {
+            countedFiles = countJavaFiles(repository, newCommit);
+        }
+        countedCommit = newCommit.copy();
+        return countedFiles;
+    }
+
+    /**
+     * Counts the Java files in the tree of a commit.
+     *
+     * @param repository The repository the commit is in
+     * @param commit The commit to count the files of
+     * @return The number of Java files
+     * @throws IOException Thrown when the tree cannot be read
+     */
+    public static int countJavaFiles(Repository repository,
+            AnyObjectId commit) throws IOException {
+
+        int count = 0;
+        try (RevWalk revWalk = new RevWalk(repository);
+                TreeWalk treeWalk = new TreeWalk(repository)) {
+
+            treeWalk.setRecursive(true);
+            treeWalk.setFilter(PathSuffixFilter.create(".java"));
+            treeWalk.addTree(revWalk.parseCommit(commit).getTree());
+            while (treeWalk.next()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
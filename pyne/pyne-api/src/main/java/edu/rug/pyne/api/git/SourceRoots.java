@@ -0,0 +1,60 @@
+package edu.rug.pyne.api.git;
+
+/**
+ * Helper to find the source root of a path inside a repository. It uses the
+ * same directory names the parser looks for when it searches the source
+ * directories.
+ */
+public final class SourceRoots {
+
+    // The source root directories, in order of preference
+    private static final String[] ROOT_NAMES = {"src/main", "src/java", "src"};
+
+    private SourceRoots() {
+    }
+
+    /**
+     * Gets the source root a repository path belongs to. The root is the part
+     * of the path up to and including "src/main", "src/java" or "src". If none
+     * of these is in the path the root of the repository is used.
+     *
+     * @param path The path relative to the repository, separated by slashes
+     * @return The source root relative to the repository, or an empty string
+     * for the root of the repository
+     */
+    public static String getSourceRoot(String path) {
+        for (String rootName : ROOT_NAMES) {
+            int index = indexOfDirectory(path, rootName);
+            if (index >= 0) {
+                return path.substring(0, index + rootName.length());
+            }
+        }
+        return "";
+    }
+
+    /**
+     * Finds the first occurrence of the directory in the path, only matching
+     * whole path segments.
+     *
+     * @param path The path to search in
+     * @param directory The directory to find
+     * @return The index of the directory, or -1 if not found
+     */
+    private static int indexOfDirectory(String path, String directory) {
+        int from = 0;
+        while (true) {
+            int index = path.indexOf(directory, from);
+            if (index < 0) {
+                return -1;
+            }
+            int end = index + directory.length();
+            boolean startsSegment = index == 0 || path.charAt(index - 1) == '/';
+            boolean endsSegment = end < path.length() && path.charAt(end) == '/';
+            if (startsSegment && endsSegment) {
+                return index;
+            }
+            from = index + 1;
+        }
+    }
+
+}
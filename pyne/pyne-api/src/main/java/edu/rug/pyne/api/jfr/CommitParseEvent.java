@@ -0,0 +1,35 @@
+package edu.rug.pyne.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for parsing one commit, from the diff to the last
+ * post processor.
+ */
+@Name("edu.rug.pyne.CommitParse")
+@Label("Commit Parse")
+@Category("Pyne")
+@Description("Parsing of one commit into the graph")
+public class CommitParseEvent extends Event {
+
+    @Label("Commit Id")
+    public String commitId;
+
+    @Label("Strategy")
+    @Description("One of full, incremental or rebuild")
+    public String strategy;
+
+    @Label("Added Files")
+    public int addedFiles;
+
+    @Label("Modified Files")
+    public int modifiedFiles;
+
+    @Label("Removed Files")
+    public int removedFiles;
+
+}
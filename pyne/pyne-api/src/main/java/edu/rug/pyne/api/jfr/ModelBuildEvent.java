@@ -0,0 +1,29 @@
+package edu.rug.pyne.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for building the Spoon model of the source code.
+ */
+@Name("edu.rug.pyne.ModelBuild")
+@Label("Model Build")
+@Category("Pyne")
+@Description("Building of the Spoon model of the checked out sources")
+public class ModelBuildEvent extends Event {
+
+    @Label("Phase")
+    @Description("The parser step the model is built for")
+    public String phase;
+
+    @Label("Source Directories")
+    public int sourceDirectories;
+
+    @Label("Types")
+    @Description("The number of types in the built model")
+    public int types;
+
+}
@@ -0,0 +1,25 @@
+package edu.rug.pyne.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for running one post processor.
+ */
+@Name("edu.rug.pyne.PostProcess")
+@Label("Post Process")
+@Category("Pyne")
+public class PostProcessEvent extends Event {
+
+    @Label("Post Processor")
+    public String postProcessor;
+
+    @Label("Vertices")
+    public long vertices;
+
+    @Label("Edges")
+    public long edges;
+
+}
@@ -0,0 +1,34 @@
+package edu.rug.pyne.api.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for one parser step, including its model build,
+ * processors and post processors.
+ */
+@Name("edu.rug.pyne.Process")
+@Label("Process")
+@Category("Pyne")
+@Description("A process or remove step of the parser")
+public class ProcessEvent extends Event {
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Files")
+    @Description("The number of files to process, -1 for all files")
+    public int files;
+
+    @Label("Vertices")
+    @Description("The number of vertices in the graph after the step")
+    public long vertices;
+
+    @Label("Edges")
+    @Description("The number of edges in the graph after the step")
+    public long edges;
+
+}
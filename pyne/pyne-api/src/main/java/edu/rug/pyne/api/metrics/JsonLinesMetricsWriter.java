@@ -0,0 +1,104 @@
+package edu.rug.pyne.api.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * Appends the metrics of every commit as one JSON object per line to a file.
+ */
+public class JsonLinesMetricsWriter implements MetricsWriter {
+
+    private final File file;
+
+    /**
+     * Creates a writer that appends to the given file.
+     *
+     * @param file The file to append to
+     */
+    public JsonLinesMetricsWriter(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public void write(String commit, MetricsSnapshot snapshot)
+            throws IOException {
+
+        StringBuilder line = new StringBuilder("{\"commit\":");
+        appendString(line, commit);
+        line.append(",\"timestamp\":").append(System.currentTimeMillis());
+
+        line.append(",\"counters\":");
+        appendValues(line, snapshot.getCounters());
+        line.append(",\"gauges\":");
+        appendValues(line, snapshot.getGauges());
+
+        line.append(",\"timers\":{");
+        boolean first = true;
+        for (Map.Entry<String, Long> timer
+                : snapshot.getTimerNanos().entrySet()) {
+            if (!first) {
+                line.append(',');
+            }
+            first = false;
+            appendString(line, timer.getKey());
+            line.append(":{\"count\":")
+                    .append(snapshot.getTimerCounts().get(timer.getKey()))
+                    .append(",\"nanos\":").append(timer.getValue())
+                    .append('}');
+        }
+        line.append("}}\n");
+
+        Files.write(
+                file.toPath(), line.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND
+        );
+    }
+
+    /**
+     * Appends a JSON object with the given values.
+     *
+     * @param builder The builder to append to
+     * @param values The values by name
+     */
+    private static void appendValues(StringBuilder builder,
+            Map<String, Long> values) {
+
+        builder.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Long> value : values.entrySet()) {
+            if (!first) {
+                builder.append(',');
+            }
+            first = false;
+            appendString(builder, value.getKey());
+            builder.append(':').append(value.getValue());
+        }
+        builder.append('}');
+    }
+
+    /**
+     * Appends a quoted and escaped JSON string.
+     *
+     * @param builder The builder to append to
+     * @param value The string to append
+     */
+    private static void appendString(StringBuilder builder, String value) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                builder.append('\\').append(c);
+            } else if (c < 0x20) {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        builder.append('"');
+    }
+
+}
@@ -0,0 +1,53 @@
+package edu.rug.pyne.api.metrics;
+
+/**
+ * Receives the measurements of the parser and git helper. Implement this to
+ * forward the measurements to a metrics library, or use the
+ * SimpleMetricsRegistry which has no dependencies.
+ *
+ * Names are separated by dots, like "model.build".
+ */
+public interface MetricsRegistry {
+
+    /**
+     * A registry that ignores all measurements.
+     */
+    public static final MetricsRegistry NOOP = new MetricsRegistry() {
+        @Override
+        public void increment(String name, long amount) {
+        }
+
+        @Override
+        public void setGauge(String name, long value) {
+        }
+
+        @Override
+        public void recordTime(String name, long nanos) {
+        }
+    };
+
+    /**
+     * Adds to a counter.
+     *
+     * @param name The name of the counter
+     * @param amount The amount to add
+     */
+    public abstract void increment(String name, long amount);
+
+    /**
+     * Sets a gauge to a value.
+     *
+     * @param name The name of the gauge
+     * @param value The current value
+     */
+    public abstract void setGauge(String name, long value);
+
+    /**
+     * Records the duration of one run of a timed phase.
+     *
+     * @param name The name of the timer
+     * @param nanos The duration in nanoseconds
+     */
+    public abstract void recordTime(String name, long nanos);
+
+}
@@ -0,0 +1,73 @@
+package edu.rug.pyne.api.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The values of all metrics at one moment, sorted by name.
+ */
+public class MetricsSnapshot {
+
+    private final Map<String, Long> counters;
+    private final Map<String, Long> gauges;
+    private final Map<String, Long> timerCounts;
+    private final Map<String, Long> timerNanos;
+
+    /**
+     * Creates a snapshot from copies of the given values.
+     *
+     * @param counters The counters
+     * @param gauges The gauges
+     * @param timerCounts The number of recorded times per timer
+     * @param timerNanos The total recorded time per timer in nanoseconds
+     */
+    public MetricsSnapshot(Map<String, Long> counters,
+            Map<String, Long> gauges, Map<String, Long> timerCounts,
+            Map<String, Long> timerNanos) {
+
+        this.counters = Collections.unmodifiableMap(new TreeMap<>(counters));
+        this.gauges = Collections.unmodifiableMap(new TreeMap<>(gauges));
+        this.timerCounts
+                = Collections.unmodifiableMap(new TreeMap<>(timerCounts));
+        this.timerNanos
+                = Collections.unmodifiableMap(new TreeMap<>(timerNanos));
+    }
+
+    /**
+     * Gets the counters.
+     *
+     * @return The counter values by name
+     */
+    public Map<String, Long> getCounters() {
+        return counters;
+    }
+
+    /**
+     * Gets the gauges.
+     *
+     * @return The gauge values by name
+     */
+    public Map<String, Long> getGauges() {
+        return gauges;
+    }
+
+    /**
+     * Gets how often each timer recorded a time.
+     *
+     * @return The number of recordings by timer name
+     */
+    public Map<String, Long> getTimerCounts() {
+        return timerCounts;
+    }
+
+    /**
+     * Gets the total recorded time of each timer.
+     *
+     * @return The total time in nanoseconds by timer name
+     */
+    public Map<String, Long> getTimerNanos() {
+        return timerNanos;
+    }
+
+}
@@ -0,0 +1,20 @@
+package edu.rug.pyne.api.metrics;
+
+import java.io.IOException;
+
+/**
+ * Writes the metrics of a parsed commit to a file.
+ */
+public interface MetricsWriter {
+
+    /**
+     * Writes the metrics of a commit.
+     *
+     * @param commit The id of the parsed commit
+     * @param snapshot The metrics measured while parsing it
+     * @throws IOException Thrown when the metrics cannot be written
+     */
+    public abstract void write(String commit, MetricsSnapshot snapshot)
+            throws IOException;
+
+}
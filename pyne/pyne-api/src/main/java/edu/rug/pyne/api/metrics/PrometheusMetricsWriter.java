@@ -0,0 +1,96 @@
+package edu.rug.pyne.api.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+/**
+ * Writes the metrics of every commit to its own file in the Prometheus text
+ * format. Counters get a "_total" suffix, timers become summaries in
+ * seconds. Every value has the commit as label.
+ */
+public class PrometheusMetricsWriter implements MetricsWriter {
+
+    private final File directory;
+
+    /**
+     * Creates a writer that writes its files to the given directory.
+     *
+     * @param directory The directory to write to
+     */
+    public PrometheusMetricsWriter(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the file the metrics of a commit are written to.
+     *
+     * @param commit The id of the commit
+     * @return The file
+     */
+    public File getFile(String commit) {
+        return new File(directory, "pyne-" + commit + ".prom");
+    }
+
+    @Override
+    public void write(String commit, MetricsSnapshot snapshot)
+            throws IOException {
+
+        String labels = "{commit=\"" + commit.replace("\\", "\\\\")
+                .replace("\"", "\\\"") + "\"}";
+        StringBuilder text = new StringBuilder();
+
+        for (Map.Entry<String, Long> counter
+                : snapshot.getCounters().entrySet()) {
+            String name = toName(counter.getKey()) + "_total";
+            text.append("# TYPE ").append(name).append(" counter\n");
+            text.append(name).append(labels).append(' ')
+                    .append(counter.getValue()).append('\n');
+        }
+
+        for (Map.Entry<String, Long> gauge : snapshot.getGauges().entrySet()) {
+            String name = toName(gauge.getKey());
+            text.append("# TYPE ").append(name).append(" gauge\n");
+            text.append(name).append(labels).append(' ')
+                    .append(gauge.getValue()).append('\n');
+        }
+
+        for (Map.Entry<String, Long> timer
+                : snapshot.getTimerNanos().entrySet()) {
+            String name = toName(timer.getKey()) + "_seconds";
+            text.append("# TYPE ").append(name).append(" summary\n");
+            text.append(name).append("_sum").append(labels).append(' ')
+                    .append(timer.getValue() / 1e9).append('\n');
+            text.append(name).append("_count").append(labels).append(' ')
+                    .append(snapshot.getTimerCounts().get(timer.getKey()))
+                    .append('\n');
+        }
+
+        // Write to a temporary file first, so a collector never reads half a
+        // file
+        File file = getFile(commit);
+        File tempFile = new File(directory, file.getName() + ".tmp");
+        Files.write(
+                tempFile.toPath(), text.toString().getBytes(StandardCharsets.UTF_8)
+        );
+        Files.move(
+                tempFile.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE
+        );
+    }
+
+    /**
+     * Converts a metric name to a valid Prometheus name.
+     *
+     * @param name The name, separated by dots
+     * @return The Prometheus name, prefixed with "pyne_"
+     */
+    private static String toName(String name) {
+        return "pyne_" + name.replaceAll("[^a-zA-Z0-9_]", "_");
+    }
+
+}
@@ -0,0 +1,70 @@
+package edu.rug.pyne.api.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A metrics registry that keeps all values in memory. Take a snapshot to
+ * read them, and reset it to start measuring the next commit.
+ */
+public class SimpleMetricsRegistry implements MetricsRegistry {
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Long> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> timerCounts
+            = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> timerNanos
+            = new ConcurrentHashMap<>();
+
+    @Override
+    public void increment(String name, long amount) {
+        counters.computeIfAbsent(name, (n) -> new LongAdder()).add(amount);
+    }
+
+    @Override
+    public void setGauge(String name, long value) {
+        gauges.put(name, value);
+    }
+
+    @Override
+    public void recordTime(String name, long nanos) {
+        timerCounts.computeIfAbsent(name, (n) -> new LongAdder()).increment();
+        timerNanos.computeIfAbsent(name, (n) -> new LongAdder()).add(nanos);
+    }
+
+    /**
+     * Takes a snapshot of the current values.
+     *
+     * @return The snapshot
+     */
+    public MetricsSnapshot snapshot() {
+        return new MetricsSnapshot(
+                sum(counters), gauges, sum(timerCounts), sum(timerNanos)
+        );
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void reset() {
+        counters.clear();
+        gauges.clear();
+        timerCounts.clear();
+        timerNanos.clear();
+    }
+
+    /**
+     * Reads the sums of the adders.
+     *
+     * @param adders The adders by name
+     * @return The sums by name
+     */
+    private static Map<String, Long> sum(Map<String, LongAdder> adders) {
+        Map<String, Long> sums = new HashMap<>();
+        adders.forEach((name, adder) -> sums.put(name, adder.sum()));
+        return sums;
+    }
+
+}
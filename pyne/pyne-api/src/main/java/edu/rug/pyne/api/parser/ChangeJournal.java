@@ -0,0 +1,92 @@
+package edu.rug.pyne.api.parser;
+
+import edu.rug.pyne.api.structure.VertexClass;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records which classes the processors changed since the last successful
+ * process step. Post processors that keep their own state of the graph can
+ * use it to only look at the changed classes instead of the whole graph.
+ *
+ * A changed class is recorded with the id of its vertex, a removed class
+ * with null. When a class is recorded more than once the last record counts.
+ * Nothing is recorded until the journal is enabled.
+ */
+public class ChangeJournal {
+
+    // The vertex ids of the changed classes, null if removed
+    private final Map<String, Object> classes = new LinkedHashMap<>();
+
+    private boolean enabled;
+
+    /**
+     * Enables or disables recording the changed classes.
+     *
+     * @param enabled True to record the changed classes
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            classes.clear();
+        }
+    }
+
+    /**
+     * Checks if the changed classes are recorded.
+     *
+     * @return True if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Records that the edges of a class have been changed.
+     *
+     * @param vertexClass The vertex of the changed class
+     */
+    public void recordChanged(VertexClass vertexClass) {
+        if (enabled) {
+            classes.put(vertexClass.getName(), vertexClass.getId());
+        }
+    }
+
+    /**
+     * Records that a class is about to be removed.
+     *
+     * @param name The qualified name of the removed class
+     */
+    public void recordRemoved(String name) {
+        if (enabled) {
+            classes.put(name, null);
+        }
+    }
+
+    /**
+     * Gets the changed classes in the order they were first recorded.
+     *
+     * @return The vertex ids by qualified name, null for removed classes
+     */
+    public Map<String, Object> getClasses() {
+        return Collections.unmodifiableMap(classes);
+    }
+
+    /**
+     * Checks if no class has been recorded.
+     *
+     * @return True if nothing was recorded since the last clear
+     */
+    public boolean isEmpty() {
+        return classes.isEmpty();
+    }
+
+    /**
+     * Forgets all recorded classes.
+     */
+    public void clear() {
+        classes.clear();
+    }
+
+}
@@ -0,0 +1,143 @@
+package edu.rug.pyne.api.parser;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+
+/**
+ * Splits the changes of the processors into chunks of transactions. Every
+ * processed type is recorded, once a chunk of types is recorded the open
+ * transaction is committed. A type is never split over two transactions.
+ *
+ * The changes themselves are not buffered, they are made on the graph
+ * directly and only the commits are chunked. On graphs without transaction
+ * support, like TinkerGraph, flushing does nothing.
+ */
+public class CommitChunker {
+
+    // The default number of types per transaction
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(CommitChunker.class);
+
+    // The graph to commit the changes on
+    private final Graph graph;
+
+    // If the graph supports transactions
+    private final boolean transactional;
+
+    // The number of types per transaction
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    // The number of types recorded since the last flush
+    private int pending;
+
+    // The number of committed transactions since the statistics were reset
+    private long flushes;
+
+    /**
+     * Creates a commit chunker for the given graph.
+     *
+     * @param graph The graph the changes are made on
+     */
+    public CommitChunker(Graph graph) {
+        this.graph = graph;
+        this.transactional = graph.features().graph().supportsTransactions();
+    }
+
+    /**
+     * Sets the number of types that are changed in one transaction.
+     *
+     * @param chunkSize The number of types per transaction
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException(
+                    "The chunk size needs to be at least 1"
+            );
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the number of types that are changed in one transaction.
+     *
+     * @return The number of types per transaction
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Checks if the changes are committed in transactions.
+     *
+     * @return True if the graph supports transactions
+     */
+    public boolean isTransactional() {
+        return transactional;
+    }
+
+    /**
+     * Records that the changes of a type have been made. Commits the open
+     * transaction when the chunk is full.
+     */
+    public void record() {
+        pending++;
+        if (pending >= chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Commits the open transaction, including the changes that have not been
+     * recorded, like those of the post processors.
+     */
+    public void flush() {
+        pending = 0;
+        if (transactional && graph.tx().isOpen()) {
+            graph.tx().commit();
+            flushes++;
+        }
+    }
+
+    /**
+     * Rolls back the changes since the last flush. Without transaction
+     * support the changes stay in the graph.
+     */
+    public void rollback() {
+        pending = 0;
+        if (transactional && graph.tx().isOpen()) {
+            graph.tx().rollback();
+        } else if (!transactional) {
+            LOGGER.warn("The graph does not support transactions, changes"
+                    + " since the last flush cannot be rolled back");
+        }
+    }
+
+    /**
+     * Gets the number of types recorded since the last flush.
+     *
+     * @return The number of types in the open chunk
+     */
+    public int getPending() {
+        return pending;
+    }
+
+    /**
+     * Gets the number of committed transactions.
+     *
+     * @return The number of commits since the statistics were reset
+     */
+    public long getFlushes() {
+        return flushes;
+    }
+
+    /**
+     * Resets the number of committed transactions.
+     */
+    public void resetStatistics() {
+        flushes = 0;
+    }
+
+}
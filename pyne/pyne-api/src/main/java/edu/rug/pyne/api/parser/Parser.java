@@ -3,9 +3,18 @@ package edu.rug.pyne.api.parser;
 import com.syncleus.ferma.DelegatingFramedGraph;
 import com.syncleus.ferma.FramedGraph;
 import edu.rug.pyne.api.GitHelper;
+import edu.rug.pyne.api.git.ChangeSet;
+import edu.rug.pyne.api.jfr.ModelBuildEvent;
+import edu.rug.pyne.api.jfr.PostProcessEvent;
+import edu.rug.pyne.api.jfr.ProcessEvent;
+import edu.rug.pyne.api.metrics.MetricsRegistry;
 import edu.rug.pyne.api.parser.analysisprocessor.ClassAnalysis;
 import edu.rug.pyne.api.parser.analysisprocessor.ClassPostProcess;
 import edu.rug.pyne.api.parser.analysisprocessor.InterfaceAnalysis;
+import edu.rug.pyne.api.parser.analysisprocessor.TypeResolutionMemo;
+import edu.rug.pyne.api.parser.analysisprocessor.UnresolvedReferences;
+import edu.rug.pyne.api.parser.facts.FactPipeline;
+import edu.rug.pyne.api.parser.facts.TypeFacts;
 import edu.rug.pyne.api.parser.removeprocessor.ClassRemovePostProcess;
 import edu.rug.pyne.api.parser.removeprocessor.ClassRemover;
 import edu.rug.pyne.api.parser.removeprocessor.InterfaceRemover;
@@ -14,12 +23,9 @@ import edu.rug.pyne.api.parser.structureprocessor.InterfaceProcessor;
 
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.io.File;
-import java.util.stream.Collectors;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
@@ -27,6 +33,7 @@ import org.apache.tinkerpop.gremlin.structure.Graph;
 import spoon.Launcher;
 import spoon.SpoonModelBuilder;
 import spoon.processing.Processor;
+import spoon.reflect.CtModel;
 import spoon.reflect.declaration.CtElement;
 
 /**
@@ -62,10 +69,38 @@ public class Parser {
     private final List<PostProcess> removePostProcessors
             = new ArrayList<>();
 
-    // The files to work on, null if all files
-    private List<File> addedFiles;
-    private List<File> modifiedFiles;
-    private List<File> removedFiles;
+    // Receives the timings and counts of the processing steps
+    private MetricsRegistry metricsRegistry = MetricsRegistry.NOOP;
+
+    // Finds and caches the source directories below the root directory
+    private final SourceRootDiscovery sourceRootDiscovery
+            = new SourceRootDiscovery();
+
+    // Remembers the vertices of the types found in the analysis step
+    private final TypeResolutionMemo typeResolutionMemo
+            = new TypeResolutionMemo();
+
+    // Counts the invocations the analysis step could not resolve
+    private final UnresolvedReferences unresolvedReferences
+            = new UnresolvedReferences();
+
+    // Records the classes changed by the processors, for post processors
+    // that only look at the changes
+    private final ChangeJournal changeJournal = new ChangeJournal();
+
+    // Groups the changes of the processors into transactions, created when
+    // first used
+    private CommitChunker commitChunker;
+
+    // The number of source directories to extract facts of at once, 0 to
+    // use the structure and analysis processors instead
+    private int factExtractionThreads = 0;
+
+    // The files to work on, null if all files. Kept as hash sets as the
+    // processors check every class against them.
+    private Set<File> addedFiles;
+    private Set<File> modifiedFiles;
+    private Set<File> removedFiles;
 
     /**
      * Creates a parser that contains all relevant information to be able to
@@ -105,6 +140,108 @@ public class Parser {
         return framedGraph.getRawTraversal().getGraph();
     }
 
+    /**
+     * Sets the registry that receives the timings and counts of the
+     * processing steps. By default the measurements are ignored, and the
+     * vertices and edges of the graph are only counted when a registry is
+     * set or a flight recorder event is recorded.
+     *
+     * @param metricsRegistry The registry to use
+     */
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    /**
+     * Gets the registry that receives the timings and counts of the
+     * processing steps.
+     *
+     * @return The registry in use
+     */
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    /**
+     * Gets the discovery of the source directories, to change its include
+     * and exclude patterns.
+     *
+     * @return The source directory discovery
+     */
+    public SourceRootDiscovery getSourceRootDiscovery() {
+        return sourceRootDiscovery;
+    }
+
+    /**
+     * Gets the memo of the class and package vertices found by name in the
+     * analysis step.
+     *
+     * @return The type resolution memo
+     */
+    public TypeResolutionMemo getTypeResolutionMemo() {
+        return typeResolutionMemo;
+    }
+
+    /**
+     * Gets the counter of the invocations the analysis step could not
+     * resolve. A summary of it is logged after every analysis step.
+     *
+     * @return The counter of unresolved invocations
+     */
+    public UnresolvedReferences getUnresolvedReferences() {
+        return unresolvedReferences;
+    }
+
+    /**
+     * Gets the journal of the classes changed since the last process step.
+     * It is cleared after the analysis post processors ran successfully.
+     *
+     * @return The change journal
+     */
+    public ChangeJournal getChangeJournal() {
+        return changeJournal;
+    }
+
+    /**
+     * Gets the chunker that splits the commits of the processors into
+     * transactions, to change its chunk size.
+     *
+     * @return The commit chunker of the graph
+     */
+    public CommitChunker getCommitChunker() {
+        if (commitChunker == null) {
+            commitChunker = new CommitChunker(getGraph());
+        }
+        return commitChunker;
+    }
+
+    /**
+     * Sets the number of threads used to extract facts in the process step.
+     * With facts the types of the model are read in parallel, and the graph
+     * is changed afterwards. The structure and analysis processors are not
+     * used then. Set to 0, the default, to use the
+     * processors instead.
+     *
+     * @param factExtractionThreads The number of threads, 0 to disable
+     */
+    public void setFactExtractionThreads(int factExtractionThreads) {
+        if (factExtractionThreads < 0) {
+            throw new IllegalArgumentException(
+                    "The number of threads cannot be negative"
+            );
+        }
+        this.factExtractionThreads = factExtractionThreads;
+    }
+
+    /**
+     * Gets the number of threads used to extract facts in the process step.
+     *
+     * @return The number of threads, 0 if the processors are used
+     */
+    public int getFactExtractionThreads() {
+        return factExtractionThreads;
+    }
+
     /**
      * Adds a processor that handels removed classes.
      *
@@ -230,6 +367,25 @@ public class Parser {
         this.rootDirectory = rootDirectory;
     }
 
+    /**
+     * Sets the added, modified and removed files from a change set.
+     *
+     * Set to null to parse all the files and to not do the remove step.
+     *
+     * @param changeSet The changed files to parse and remove.
+     */
+    public void setChangeSet(ChangeSet changeSet) {
+        if (changeSet == null) {
+            setAddedFiles(null);
+            setModifiedFiles(null);
+            setRemovedFiles(null);
+        } else {
+            this.addedFiles = changeSet.getAddedFiles();
+            this.modifiedFiles = changeSet.getModifiedFiles();
+            this.removedFiles = changeSet.getRemovedFiles();
+        }
+    }
+
     /**
      * Sets the added files. Only classes inside should be parsed. This behavior
      * is done inside the processors themselves, so actual behavior might
@@ -239,16 +395,16 @@ public class Parser {
      *
      * @param addedFiles The files to parse.
      */
-    public void setAddedFiles(List<File> addedFiles) {
-        this.addedFiles = addedFiles;
+    public void setAddedFiles(Collection<File> addedFiles) {
+        this.addedFiles = toCanonicalSet(addedFiles);
     }
 
     /**
-     * Gets the list of added files
+     * Gets the set of added files
      *
      * @return The added files
      */
-    public List<File> getAddedFiles() {
+    public Set<File> getAddedFiles() {
         return addedFiles;
     }
 
@@ -261,16 +417,16 @@ public class Parser {
      *
      * @param removedFiles The files to remove.
      */
-    public void setRemovedFiles(List<File> removedFiles) {
-        this.removedFiles = removedFiles;
+    public void setRemovedFiles(Collection<File> removedFiles) {
+        this.removedFiles = toCanonicalSet(removedFiles);
     }
 
     /**
-     * Gets the list of removed files
+     * Gets the set of removed files
      *
      * @return The removed files
      */
-    public List<File> getRemovedFiles() {
+    public Set<File> getRemovedFiles() {
         return removedFiles;
     }
 
@@ -281,19 +437,41 @@ public class Parser {
      *
      * @param modifiedFiles The files that have been modified.
      */
-    public void setModifiedFiles(List<File> modifiedFiles) {
-        this.modifiedFiles = modifiedFiles;
+    public void setModifiedFiles(Collection<File> modifiedFiles) {
+        this.modifiedFiles = toCanonicalSet(modifiedFiles);
     }
 
     /**
-     * Gets the list of modified files
+     * Gets the set of modified files
      *
      * @return The modified files
      */
-    public List<File> getModifiedFiles() {
+    public Set<File> getModifiedFiles() {
         return modifiedFiles;
     }
 
+    /**
+     * Converts the given files to a set of canonical files. Spoon gives the
+     * positions of classes as canonical files, so this is needed to find them.
+     *
+     * @param files The files to convert, may be null
+     * @return The set of canonical files, or null if files was null
+     */
+    private static Set<File> toCanonicalSet(Collection<File> files) {
+        if (files == null) {
+            return null;
+        }
+        Set<File> canonicalFiles = new HashSet<>();
+        for (File file : files) {
+            try {
+                canonicalFiles.add(file.getCanonicalFile());
+            } catch (IOException ex) {
+                canonicalFiles.add(file.getAbsoluteFile());
+            }
+        }
+        return canonicalFiles;
+    }
+
     private Launcher getLauncher(){
         var launcher = new Launcher();
         launcher.getEnvironment().setIgnoreDuplicateDeclarations(true);
@@ -331,19 +509,51 @@ public class Parser {
             addDefaultRemovePostProcessors();
         }
 
-        Launcher launcher = getLauncher();
-        launcher.buildModel();
-        //TODO: does not do anything?
-        launcher.getModel();
-        SpoonModelBuilder modelBuilder = launcher.getModelBuilder();
-
-        launcher.process();
-        modelBuilder.process(removeProcessors);
-
-        for (PostProcess removePostProcessor : removePostProcessors) {
-            removePostProcessor.postProcess(framedGraph);
+        ProcessEvent event = new ProcessEvent();
+        event.begin();
+
+        boolean counting = isCounting(event);
+        long verticesBefore = counting ? countVertices() : -1;
+        long edgesBefore = counting ? countEdges() : -1;
+
+        try {
+            Launcher launcher = getLauncher();
+            buildModel(launcher, "removed", "model.build.removed");
+            //TODO: does not do anything?
+            launcher.getModel();
+            SpoonModelBuilder modelBuilder = launcher.getModelBuilder();
+
+            launcher.process();
+            long startTime = System.nanoTime();
+            modelBuilder.process(removeProcessors);
+            metricsRegistry.recordTime(
+                    "processors.remove", System.nanoTime() - startTime
+            );
+
+            for (PostProcess removePostProcessor : removePostProcessors) {
+                runPostProcess(removePostProcessor);
+            }
+            getCommitChunker().flush();
+        } catch (RuntimeException ex) {
+            getCommitChunker().rollback();
+            throw ex;
+        }
+        recordCommits();
+
+        long vertices = -1;
+        long edges = -1;
+        if (counting) {
+            vertices = countVertices();
+            edges = countEdges();
+            metricsRegistry.increment(
+                    "graph.vertices.removed", verticesBefore - vertices
+            );
+            metricsRegistry.increment(
+                    "graph.edges.removed", edgesBefore - edges
+            );
         }
 
+        commitProcessEvent(event, "removed", removedFiles, vertices, edges);
     }
 
     /**
@@ -351,6 +561,8 @@ public class Parser {
      * analysis step.
      *
      * After the analysis process step the post analysis processors are used.
+     * When fact extraction is enabled, the facts of the source directories
+     * are applied instead of running the structure and analysis processors.
      *
      * If no structure processors, analysis processors or analysis post
      * processors have been defined the default ones will be used.
@@ -366,25 +578,231 @@ public class Parser {
             addDefaultAnalysisPostProcessors();
         }
 
-        Launcher launcher = getLauncher();
+        // The source directories may have changed since the last step
+        if (addedFiles == null) {
+            sourceRootDiscovery.invalidate();
+            typeResolutionMemo.clear();
+        } else {
+            sourceRootDiscovery.update(addedFiles);
+        }
 
-        launcher.buildModel();
+        ProcessEvent event = new ProcessEvent();
+        event.begin();
+
+        boolean counting = isCounting(event);
+        long verticesBefore = counting ? countVertices() : -1;
+        long edgesBefore = counting ? countEdges() : -1;
+
+        try {
+            if (factExtractionThreads > 0) {
+                processFacts();
+            } else {
+                processModel();
+            }
+
+            metricsRegistry.increment("analysis.memo.hits",
+                    typeResolutionMemo.getHits());
+            metricsRegistry.increment("analysis.memo.misses",
+                    typeResolutionMemo.getMisses());
+            typeResolutionMemo.resetStatistics();
+            metricsRegistry.increment("analysis.unresolved.declaring_type",
+                    unresolvedReferences.getMissingDeclaringType());
+            metricsRegistry.increment("analysis.unresolved.declaration",
+                    unresolvedReferences.getMissingDeclaration());
+            unresolvedReferences.logSummaryAndReset();
+
+            for (PostProcess analysisPostProcessor : analysisPostProcessors) {
+                runPostProcess(analysisPostProcessor);
+            }
+            getCommitChunker().flush();
+        } catch (RuntimeException ex) {
+            getCommitChunker().rollback();
+            throw ex;
+        }
+        changeJournal.clear();
+        recordCommits();
+
+        long vertices = -1;
+        long edges = -1;
+        if (counting) {
+            vertices = countVertices();
+            edges = countEdges();
+            metricsRegistry.increment(
+                    "graph.vertices.added", vertices - verticesBefore
+            );
+            metricsRegistry.increment(
+                    "graph.edges.added", edges - edgesBefore
+            );
+            metricsRegistry.setGauge("graph.vertices", vertices);
+            metricsRegistry.setGauge("graph.edges", edges);
+        }
+
+        commitProcessEvent(event, "process", addedFiles, vertices, edges);
+    }
+
+    /**
+     * Builds the Spoon model of all source directories and runs the
+     * structure and analysis processors on it.
+     */
+    private void processModel() {
+        Launcher launcher = getLauncher();
+        buildModel(launcher, "process", "model.build");
         //TODO: is this even nececarry:
         launcher.getModel();
         SpoonModelBuilder modelBuilder = launcher.getModelBuilder();
 
         //TODO: this is not nececarry
         launcher.process();
+        long startTime = System.nanoTime();
         modelBuilder.process(structureProcessors);
+        metricsRegistry.recordTime(
+                "processors.structure", System.nanoTime() - startTime
+        );
 
         //TODO: this is not nececarry
         launcher.process();
+        startTime = System.nanoTime();
         modelBuilder.process(analysisProcessors);
+        metricsRegistry.recordTime(
+                "processors.analysis", System.nanoTime() - startTime
+        );
+    }
+
+    /**
+     * Builds the Spoon model of all source directories, extracts the facts of
+     * its types and applies those to the graph. The model is not referenced
+     * anymore while the graph is changed.
+     */
+    private void processFacts() {
+        FactPipeline pipeline = new FactPipeline(this, factExtractionThreads);
+        List<TypeFacts> facts = pipeline.extract(buildProcessModel());
+        pipeline.apply(facts);
+    }
+
+    /**
+     * Builds the Spoon model of all source directories for the process step.
+     *
+     * @return The model
+     */
+    private CtModel buildProcessModel() {
+        Launcher launcher = getLauncher();
+        buildModel(launcher, "process", "model.build");
+        return launcher.getModel();
+    }
+
+    /**
+     * Builds the Spoon model, records its time and emits a model build event.
+     *
+     * @param launcher The launcher to build the model with
+     * @param phase The parser step the model is built for
+     * @param metricName The name of the timer to record
+     */
+    private void buildModel(Launcher launcher, String phase,
+            String metricName) {
+
+        ModelBuildEvent event = new ModelBuildEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        launcher.buildModel();
+        metricsRegistry.recordTime(metricName, System.nanoTime() - startTime);
+        event.end();
+
+        // Counting the types walks the model, so only when recording
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.sourceDirectories = launcher.getModelBuilder()
+                    .getInputSources().size();
+            event.types = launcher.getModel().getAllTypes().size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Commits a process event with the state of the graph after the step.
+     *
+     * @param event The event started at the beginning of the step
+     * @param phase The name of the step
+     * @param files The files of the step, null if all files are processed
+     * @param vertices The number of vertices after the step, -1 if not
+     * counted
+     * @param edges The number of edges after the step, -1 if not counted
+     */
+    private static void commitProcessEvent(ProcessEvent event, String phase,
+            Set<File> files, long vertices, long edges) {
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.files = files == null ? -1 : files.size();
+            event.vertices = vertices;
+            event.edges = edges;
+            event.commit();
+        }
+    }
 
-        for (PostProcess analysisPostProcessor : analysisPostProcessors) {
-            analysisPostProcessor.postProcess(framedGraph);
+    /**
+     * Runs a post processor, records its time and emits a post process event.
+     *
+     * @param postProcess The post processor to run
+     */
+    private void runPostProcess(PostProcess postProcess) {
+        String name = postProcess.getClass().getSimpleName();
+        PostProcessEvent event = new PostProcessEvent();
+        event.begin();
+        long startTime = System.nanoTime();
+        postProcess.postProcess(framedGraph);
+        getCommitChunker().flush();
+        metricsRegistry.recordTime(
+                "postprocess." + name, System.nanoTime() - startTime
+        );
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.postProcessor = name;
+            event.vertices = countVertices();
+            event.edges = countEdges();
+            event.commit();
         }
+    }
+
+    /**
+     * Records the number of committed transactions of the last step.
+     */
+    private void recordCommits() {
+        metricsRegistry.increment(
+                "graph.commits", getCommitChunker().getFlushes()
+        );
+        getCommitChunker().resetStatistics();
+    }
+
+    /**
+     * Checks if the vertices and edges of the graph should be counted for a
+     * step. Counting walks the whole graph, so this is only done when the
+     * counts are used by the metrics registry or the flight recorder.
+     *
+     * @param event The event of the step
+     * @return True if the graph should be counted
+     */
+    private boolean isCounting(ProcessEvent event) {
+        return metricsRegistry != MetricsRegistry.NOOP || event.isEnabled();
+    }
+
+    /**
+     * Counts the vertices in the graph.
+     *
+     * @return The number of vertices
+     */
+    private long countVertices() {
+        return getGraph().traversal().V().count().next();
+    }
 
+    /**
+     * Counts the edges in the graph.
+     *
+     * @return The number of edges
+     */
+    private long countEdges() {
+        return getGraph().traversal().E().count().next();
     }
 
     public Set<File> findSourceDirectories() {
@@ -398,34 +816,7 @@ public class Parser {
                 return srcDirs;
             }
         }
-        var searchStartDir = rootDirectory.toPath();
-        Set<File> sourceDirs = new HashSet<>();
-        var testKeyword = File.separator + "test" + File.separator;
-        var exampleKeyword = "example";
-        //TODO: these filters should be removed. They cause certain packages to be excluded.
-        try(var stream = Files.walk(searchStartDir)){
-            sourceDirs = stream.map(Path::toFile)
-                    .filter(File::isDirectory)
-                    .filter(f -> f.toPath().endsWith("src/main") || f.toPath().endsWith("src/java"))
-                    //.filter(f -> !f.getAbsolutePath().toLowerCase().contains(testKeyword))
-                    //.filter(f -> !f.getAbsolutePath().toLowerCase().contains(exampleKeyword))
-                    .collect(Collectors.toSet());
-            if (sourceDirs.isEmpty()){
-                LOGGER.warn("Could not find any non-test Java source directory recursively. Using generic 'src'.");
-                try(var stream2 = Files.walk(rootDirectory.toPath())){
-                    sourceDirs = stream2.map(Path::toFile)
-                            .filter(File::isDirectory)
-                            .filter(f -> f.toPath().endsWith("src"))
-                            .filter(f -> !f.getAbsolutePath().toLowerCase().contains(testKeyword))
-                            .filter(f -> !f.getAbsolutePath().toLowerCase().contains(exampleKeyword))
-                            .collect(Collectors.toSet());
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        return sourceDirs;
+        return sourceRootDiscovery.find(rootDirectory);
     }
 
     public Set<File> getFromPropertiesFile(File propsFile){
@@ -0,0 +1,292 @@
+package edu.rug.pyne.api.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+/**
+ * Finds the source directories in a repository. Directories matching an
+ * include pattern are source directories, directories matching an exclude
+ * pattern are not entered at all. If no source directory is found, the "src"
+ * directories outside of test and example directories are used instead.
+ *
+ * Patterns are globs on the path relative to the repository root, separated
+ * by slashes. A pattern without a slash also matches in any subdirectory.
+ *
+ * The found directories are cached. They are only searched again when
+ * invalidated, when a cached directory no longer exists or when a file is
+ * added in a directory that was not there during the search.
+ */
+public class SourceRootDiscovery {
+
+    // The default directories that contain source code
+    public static final List<String> DEFAULT_INCLUDES
+            = List.of("src/main", "src/java", "**/src/main", "**/src/java");
+
+    // The default directories that never contain source code to parse
+    public static final List<String> DEFAULT_EXCLUDES = List.of(
+            ".git", ".hg", ".svn", ".idea", ".gradle", "node_modules", "target"
+    );
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(SourceRootDiscovery.class);
+
+    private final List<PathMatcher> includes = new ArrayList<>();
+    private final List<PathMatcher> excludes = new ArrayList<>();
+
+    // The root directory of the cached search, null if nothing is cached
+    private File cachedRoot;
+
+    // The found source directories
+    private Set<File> sourceDirectories;
+
+    // All directories seen during the search
+    private final Set<File> knownDirectories = new HashSet<>();
+
+    /**
+     * Creates a discovery with the default include and exclude patterns.
+     */
+    public SourceRootDiscovery() {
+        for (String include : DEFAULT_INCLUDES) {
+            addInclude(include);
+        }
+        for (String exclude : DEFAULT_EXCLUDES) {
+            addExclude(exclude);
+        }
+    }
+
+    /**
+     * Adds a pattern of directories that contain source code.
+     *
+     * @param glob The glob pattern of the directories
+     */
+    public void addInclude(String glob) {
+        includes.add(createMatcher(glob));
+        invalidate();
+    }
+
+    /**
+     * Adds a pattern of directories that should not be searched.
+     *
+     * @param glob The glob pattern of the directories
+     */
+    public void addExclude(String glob) {
+        excludes.add(createMatcher(glob));
+        invalidate();
+    }
+
+    /**
+     * Removes all include and exclude patterns, including the defaults.
+     */
+    public void clearPatterns() {
+        includes.clear();
+        excludes.clear();
+        invalidate();
+    }
+
+    /**
+     * Creates a matcher for a glob pattern. A pattern without a slash also
+     * matches the directory name in any subdirectory.
+     *
+     * @param glob The glob pattern
+     * @return The matcher of the pattern
+     */
+    private static PathMatcher createMatcher(String glob) {
+        FileSystem fileSystem = FileSystems.getDefault();
+        if (glob.contains("/")) {
+            return fileSystem.getPathMatcher("glob:" + glob);
+        }
+        return fileSystem.getPathMatcher(
+                "glob:{" + glob + ",**/" + glob + "}"
+        );
+    }
+
+    /**
+     * Forgets the found directories, the next call to find searches again.
+     */
+    public void invalidate() {
+        cachedRoot = null;
+        sourceDirectories = null;
+        knownDirectories.clear();
+    }
+
+    /**
+     * Invalidates the found directories if one of the added files is in a
+     * directory that did not exist during the last search.
+     *
+     * @param addedFiles The files that have been added or changed
+     */
+    public void update(Collection<File> addedFiles) {
+        if (cachedRoot == null) {
+            return;
+        }
+        for (File file : addedFiles) {
+            if (!knownDirectories.contains(file.getParentFile())) {
+                LOGGER.info("New directory " + file.getParentFile()
+                        + ", searching the source directories again");
+                invalidate();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Finds the source directories in the given root directory, or returns
+     * the cached ones if still valid.
+     *
+     * @param rootDirectory The root directory to search
+     * @return The found source directories
+     */
+    public Set<File> find(File rootDirectory) {
+        // The files of a change set are canonical, so the known directories
+        // have to be as well
+        try {
+            rootDirectory = rootDirectory.getCanonicalFile();
+        } catch (IOException ex) {
+            rootDirectory = rootDirectory.getAbsoluteFile();
+        }
+
+        if (sourceDirectories != null && rootDirectory.equals(cachedRoot)
+                && allExist(sourceDirectories)) {
+            return sourceDirectories;
+        }
+
+        invalidate();
+        long startTime = System.currentTimeMillis();
+        Set<File> found = new HashSet<>();
+        Set<File> fallback = new HashSet<>();
+        try {
+            search(rootDirectory, found, fallback);
+        } catch (IOException ex) {
+            LOGGER.error("Could not search the source directories in "
+                    + rootDirectory, ex);
+            knownDirectories.clear();
+            return found;
+        }
+
+        if (found.isEmpty()) {
+            LOGGER.warn("Could not find any non-test Java source directory"
+                    + " recursively. Using generic 'src'.");
+            found = fallback;
+        }
+
+        LOGGER.info("Found " + found.size() + " source directories in "
+                + knownDirectories.size() + " directories in "
+                + (System.currentTimeMillis() - startTime) + " ms");
+
+        cachedRoot = rootDirectory;
+        sourceDirectories = Collections.unmodifiableSet(found);
+        return sourceDirectories;
+    }
+
+    /**
+     * Walks the directories below the root, skipping excluded directories.
+     *
+     * @param rootDirectory The root directory to search
+     * @param found The set to add the included directories to
+     * @param fallback The set to add the generic src directories to
+     * @throws IOException Thrown when the root cannot be read
+     */
+    private void search(File rootDirectory, Set<File> found,
+            Set<File> fallback) throws IOException {
+
+        Path root = rootDirectory.toPath();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir,
+                    BasicFileAttributes attrs) {
+
+                Path relative = root.relativize(dir);
+                if (relative.toString().isEmpty()) {
+                    knownDirectories.add(dir.toFile());
+                    return FileVisitResult.CONTINUE;
+                }
+                if (matchesAny(excludes, relative)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+
+                knownDirectories.add(dir.toFile());
+                if (matchesAny(includes, relative)) {
+                    found.add(dir.toFile());
+                } else if (isFallback(relative)) {
+                    fallback.add(dir.toFile());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file,
+                    IOException ex) {
+
+                LOGGER.warn("Could not read " + file + ": " + ex.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+
+        });
+    }
+
+    /**
+     * Checks if a path matches any of the matchers.
+     *
+     * @param matchers The matchers to check
+     * @param path The relative path
+     * @return True if one of the matchers matches
+     */
+    private static boolean matchesAny(List<PathMatcher> matchers, Path path) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a directory is a generic src directory outside of test and
+     * example directories.
+     *
+     * @param relative The path relative to the root
+     * @return True if it can be used when no source directory is found
+     */
+    private static boolean isFallback(Path relative) {
+        if (!relative.endsWith("src")) {
+            return false;
+        }
+        String path = (File.separator + relative + File.separator)
+                .toLowerCase();
+        return !path.contains(File.separator + "test" + File.separator)
+                && !path.contains("example");
+    }
+
+    /**
+     * Checks if all given directories still exist.
+     *
+     * @param directories The directories to check
+     * @return True if all are existing directories
+     */
+    private static boolean allExist(Set<File> directories) {
+        for (File directory : directories) {
+            if (!directory.isDirectory()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -5,20 +5,17 @@ import edu.rug.pyne.api.parser.Parser;
 import edu.rug.pyne.api.structure.VertexClass;
 import edu.rug.pyne.api.structure.VertexPackage;
 import java.io.File;
-import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.function.Consumer;
 
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
 import spoon.processing.AbstractProcessor;
-import spoon.reflect.code.*;
-import spoon.reflect.declaration.*;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtType;
 import spoon.reflect.reference.CtPackageReference;
 import spoon.reflect.reference.CtTypeReference;
-import spoon.reflect.visitor.filter.TypeFilter;
 
 
 /**
@@ -39,32 +36,6 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
     private static final Logger LOGGER
             = LogManager.getLogger(ClassAnalysis.class);
 
-    /**
-     * A consumer for annotations, used to get the type and add the declaration
-     * of it
-     */
-    private class AnnotationConsumer
-            implements Consumer<CtAnnotation<? extends Annotation>> {
-
-        private final List<CtTypeReference> dependences;
-
-        /**
-         * A consumer for annotations, used to get the type and add the
-         * declaration of it
-         *
-         * @param dependences The list to add the found type to
-         */
-        public AnnotationConsumer(List<CtTypeReference> dependences) {
-            this.dependences = dependences;
-        }
-
-        @Override
-        public void accept(CtAnnotation<? extends Annotation> annotation) {
-            dependences.add(annotation.getAnnotationType());
-        }
-
-    }
-
     /**
      * This class processor implements a spoon processor to analyze source code
      * classes
@@ -94,8 +65,8 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
      */
     public void processClass(CtType<?> clazz) {
 
-        VertexClass vertex = VertexClass
-                .getVertexClassByName(framedGraph, clazz.getQualifiedName());
+        VertexClass vertex = parser.getTypeResolutionMemo()
+                .getVertexClass(framedGraph, clazz.getQualifiedName());
 
         if (vertex == null) {
             return;
@@ -111,6 +82,8 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
 
         processClassDependencies(clazz, vertex);
         processClassReferences(clazz, vertex);
+        parser.getChangeJournal().recordChanged(vertex);
+        parser.getCommitChunker().record();
 
     }
 
@@ -162,87 +135,24 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
     }
 
     /**
-     * Finds all dependencies the given class has.
+     * Finds all dependencies the given class has. Unresolved invocations are
+     * counted by the parser.
      *
      * @param clazz The class being processed
      */
     private List<CtTypeReference> getClassReferences(CtType clazz) {
-        List<CtTypeReference> references = new ArrayList<>();
-
-        // Sets up the consumers that will add the references.
-        AnnotationConsumer annotationConsumer
-                = new AnnotationConsumer(references);
-
-        //Creates a list of methods and constructors
-        ArrayList<CtExecutable<?>> executables = new ArrayList<>();
-        executables.addAll((Set<CtExecutable<?>>) clazz.getMethods());
-        if (clazz instanceof CtClass) {
-            executables.addAll((Set<CtExecutable<?>>) ((CtClass) clazz).getConstructors());
-        }
-
-        //retrieve the dependencies out of all the methods and constructors
-        for (CtExecutable<?> ctExecutable : executables) {
-
-            //add return value of method
-            references.add(ctExecutable.getType());
-
-            // Get binaryOperators used in the method, so we can check if they 
-            // are instanceof elements and add the dependency if so.
-            List<CtBinaryOperator<?>> BinaryElements = ctExecutable
-                    .getElements(new TypeFilter<>(CtBinaryOperator.class));
-
-            for (CtBinaryOperator<?> element : BinaryElements) {
-                if (element.getKind().equals(BinaryOperatorKind.INSTANCEOF)) {
-                    references.add(element.getRightHandOperand().getType());
-                }
-            }
-
-            // Add all paramater references and annotations
-            ctExecutable.getAnnotations().forEach(annotationConsumer);
-            for (CtParameter<?> parameter : ctExecutable.getParameters()) {
-                parameter.getAnnotations().forEach(annotationConsumer);
-                references.add(parameter.getType());
-            }
-
-            // Get the body if the method has one
-            CtBlock<?> body = ctExecutable.getBody();
-            if (body == null) {
-                continue;
+        List<CtInvocation<?>> unresolvedInvocations = new ArrayList<>();
+        List<CtTypeReference> references = ClassReferences.collect(
+                clazz, unresolvedInvocations
+        );
+
+        UnresolvedReferences unresolved = parser.getUnresolvedReferences();
+        for (CtInvocation<?> invocation : unresolvedInvocations) {
+            if (invocation.getExecutable().getDeclaringType() == null) {
+                unresolved.addMissingDeclaringType(invocation);
+            } else {
+                unresolved.addMissingDeclaration(invocation);
             }
-
-            // Get all constructors in the method
-            List<CtConstructorCall<?>> constructorElements = body
-                    .getElements(new TypeFilter<>(CtConstructorCall.class));
-
-            //add all references for the constructor calls in the method
-            for(CtConstructorCall<?> c : constructorElements){
-                references.add(c.getType());
-            }
-
-            // Get all invocations in the method
-            List<CtInvocation<?>> invocationElements = body
-                    .getElements(new TypeFilter<>(CtInvocation.class));
-
-            // Retrieve the dependencies of all invocations
-            for(CtInvocation<?> c : invocationElements){
-                if(c.getExecutable().getDeclaringType() == null){
-                    LOGGER.warn("Spoon cannot find the declaration of " + c);
-                }else {
-                    if(!(c.getExecutable().getDeclaringType().getTypeDeclaration() == null))
-                        references.add(c.getExecutable().getDeclaringType());
-                    else
-                        LOGGER.warn("Spoon cannot find the declaring type of " + c);
-                }
-            }
-        }
-
-        // Get all annotations the class uses and add them
-        clazz.getAnnotations().forEach(annotationConsumer);
-
-        // add all the fields types and annotations
-        for (CtField<?> field : (List<CtField<?>>) clazz.getFields()) {
-            field.getAnnotations().forEach(annotationConsumer);
-            references.add(field.getType());
         }
 
         return references;
@@ -259,9 +169,10 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
      */
     private VertexClass getOrCreateVertexClass(CtTypeReference clazz) {
 
-        // Find the vertex class by name
-        VertexClass vertexClass = VertexClass
-                .getVertexClassByName(framedGraph, clazz.getQualifiedName());
+        // Find the vertex class by name, most types are already known
+        TypeResolutionMemo memo = parser.getTypeResolutionMemo();
+        String name = clazz.getQualifiedName();
+        VertexClass vertexClass = memo.getVertexClass(framedGraph, name);
 
         // If found we are done and it can be returned
         if (vertexClass != null) {
@@ -269,8 +180,8 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
         }
 
         // A new vertex class is created.
-        vertexClass = VertexClass
-                .createRetrievedClass(framedGraph, clazz.getQualifiedName());
+        vertexClass = VertexClass.createRetrievedClass(framedGraph, name);
+        memo.addVertexClass(vertexClass);
 
         // An inner class does not have a package. So we need to go outside
         // until we find the parent class that does have a package.
@@ -286,24 +197,25 @@ public class ClassAnalysis extends AbstractProcessor<CtClass<?>> {
         // If the type is a primative (like int or byte) it does not have a
         // package, So we set it to java.lang
         if (cur.isPrimitive()) {
-            packageVertex = VertexPackage
-                    .getVertexPackageByName(framedGraph, "java.lang");
+            packageVertex = memo.getVertexPackage(framedGraph, "java.lang");
             if (packageVertex == null) {
                 packageVertex = VertexPackage.createRetrievedPackage(
                         framedGraph, "java.lang"
                 );
+                memo.addVertexPackage(packageVertex);
             }
         } else {
             // Get or create the package by name.
             CtPackageReference ctPackage = cur.getPackage();
             if (ctPackage != null) {
-                packageVertex = VertexPackage.getVertexPackageByName(
+                packageVertex = memo.getVertexPackage(
                         framedGraph, ctPackage.getQualifiedName()
                 );
                 if (packageVertex == null) {
                     packageVertex = VertexPackage.createVertexPackage(
                             framedGraph, ctPackage
                     );
+                    memo.addVertexPackage(packageVertex);
                 }
             }
         }
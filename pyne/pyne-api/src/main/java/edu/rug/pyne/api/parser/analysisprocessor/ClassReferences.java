@@ -0,0 +1,150 @@
+package edu.rug.pyne.api.parser.analysisprocessor;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import spoon.reflect.code.BinaryOperatorKind;
+import spoon.reflect.code.CtBinaryOperator;
+import spoon.reflect.code.CtBlock;
+import spoon.reflect.code.CtConstructorCall;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.declaration.CtAnnotation;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtExecutable;
+import spoon.reflect.declaration.CtField;
+import spoon.reflect.declaration.CtParameter;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtTypeReference;
+import spoon.reflect.visitor.filter.TypeFilter;
+
+/**
+ * Collects the types a source code class depends on. Used by the analysis
+ * step and the fact extraction.
+ */
+public final class ClassReferences {
+
+    /**
+     * A consumer for annotations, used to get the type and add the declaration
+     * of it
+     */
+    private static class AnnotationConsumer
+            implements Consumer<CtAnnotation<? extends Annotation>> {
+
+        private final List<CtTypeReference> dependences;
+
+        /**
+         * A consumer for annotations, used to get the type and add the
+         * declaration of it
+         *
+         * @param dependences The list to add the found type to
+         */
+        public AnnotationConsumer(List<CtTypeReference> dependences) {
+            this.dependences = dependences;
+        }
+
+        @Override
+        public void accept(CtAnnotation<? extends Annotation> annotation) {
+            dependences.add(annotation.getAnnotationType());
+        }
+
+    }
+
+    private ClassReferences() {
+    }
+
+    /**
+     * Finds all dependencies the given class has. Invocations of which the
+     * declaring type or its declaration cannot be found are not added to the
+     * references but to the unresolved invocations.
+     *
+     * @param clazz The class being processed
+     * @param unresolved The list to add the unresolved invocations to
+     * @return The referenced types, may contain null
+     */
+    public static List<CtTypeReference> collect(
+            CtType clazz, List<CtInvocation<?>> unresolved
+    ) {
+        List<CtTypeReference> references = new ArrayList<>();
+
+        // Sets up the consumers that will add the references.
+        AnnotationConsumer annotationConsumer
+                = new AnnotationConsumer(references);
+
+        //Creates a list of methods and constructors
+        ArrayList<CtExecutable<?>> executables = new ArrayList<>();
+        executables.addAll((Set<CtExecutable<?>>) clazz.getMethods());
+        if (clazz instanceof CtClass) {
+            executables.addAll((Set<CtExecutable<?>>) ((CtClass) clazz).getConstructors());
+        }
+
+        //retrieve the dependencies out of all the methods and constructors
+        for (CtExecutable<?> ctExecutable : executables) {
+
+            //add return value of method
+            references.add(ctExecutable.getType());
+
+            // Get binaryOperators used in the method, so we can check if they 
+            // are instanceof elements and add the dependency if so.
+            List<CtBinaryOperator<?>> BinaryElements = ctExecutable
+                    .getElements(new TypeFilter<>(CtBinaryOperator.class));
+
+            for (CtBinaryOperator<?> element : BinaryElements) {
+                if (element.getKind().equals(BinaryOperatorKind.INSTANCEOF)) {
+                    references.add(element.getRightHandOperand().getType());
+                }
+            }
+
+            // Add all paramater references and annotations
+            ctExecutable.getAnnotations().forEach(annotationConsumer);
+            for (CtParameter<?> parameter : ctExecutable.getParameters()) {
+                parameter.getAnnotations().forEach(annotationConsumer);
+                references.add(parameter.getType());
+            }
+
+            // Get the body if the method has one
+            CtBlock<?> body = ctExecutable.getBody();
+            if (body == null) {
+                continue;
+            }
+
+            // Get all constructors in the method
+            List<CtConstructorCall<?>> constructorElements = body
+                    .getElements(new TypeFilter<>(CtConstructorCall.class));
+
+            //add all references for the constructor calls in the method
+            for(CtConstructorCall<?> c : constructorElements){
+                references.add(c.getType());
+            }
+
+            // Get all invocations in the method
+            List<CtInvocation<?>> invocationElements = body
+                    .getElements(new TypeFilter<>(CtInvocation.class));
+
+            // Retrieve the dependencies of all invocations
+            for(CtInvocation<?> c : invocationElements){
+                if(c.getExecutable().getDeclaringType() == null){
+                    unresolved.add(c);
+                }else {
+                    if(!(c.getExecutable().getDeclaringType().getTypeDeclaration() == null))
+                        references.add(c.getExecutable().getDeclaringType());
+                    else
+                        unresolved.add(c);
+                }
+            }
+        }
+
+        // Get all annotations the class uses and add them
+        clazz.getAnnotations().forEach(annotationConsumer);
+
+        // add all the fields types and annotations
+        for (CtField<?> field : (List<CtField<?>>) clazz.getFields()) {
+            field.getAnnotations().forEach(annotationConsumer);
+            references.add(field.getType());
+        }
+
+        return references;
+    }
+
+}
@@ -0,0 +1,437 @@
+package edu.rug.pyne.api.parser.analysisprocessor;
+
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.metrics.MetricsRegistry;
+import edu.rug.pyne.api.parser.ChangeJournal;
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.PostProcess;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import org.apache.tinkerpop.gremlin.process.traversal.dsl.graph.GraphTraversalSource;
+import org.apache.tinkerpop.gremlin.structure.Direction;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+
+/**
+ * This class is a post processor for the analysis processor. It finds the
+ * dependency cycles between classes and between packages and sets the id of
+ * the cycle as the cycleId property of the vertices in it. Vertices that are
+ * not part of a cycle have no cycleId.
+ *
+ * The first time the whole graph is read, after that only the dependsOn
+ * edges of the classes in the change journal of the parser are compared to
+ * the copy kept by this post processor, and only the vertices of which the
+ * cycle changed are written. A package depends on another package when one
+ * of its classes depends on a class of the other package.
+ *
+ * It should be added after the default analysis post processors, so the
+ * orphan classes have already been removed.
+ */
+public class CyclePostProcess implements PostProcess {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(CyclePostProcess.class);
+
+    // The parser containing the change journal
+    private final Parser parser;
+
+    // The copies of the class and package graphs, null until the first step
+    private Level classes;
+    private Level packages;
+
+    // The package of each class in the copy, -1 if it has none
+    private final List<Integer> classPackages = new ArrayList<>();
+
+    /**
+     * Creates the post processor and enables the change journal of the
+     * parser.
+     *
+     * @param parser The parser this post processor is added to
+     */
+    public CyclePostProcess(Parser parser) {
+        this.parser = parser;
+        parser.getChangeJournal().setEnabled(true);
+    }
+
+    /**
+     * Updates the cycles and the cycle ids in the graph
+     *
+     * @param framedGraph The graph to do the processing on
+     */
+    @Override
+    public void postProcess(FramedGraph framedGraph) {
+        GraphTraversalSource g = framedGraph.getRawTraversal();
+        ChangeJournal journal = parser.getChangeJournal();
+        if (classes == null || parser.getAddedFiles() == null) {
+            LOGGER.info("Finding all dependency cycles");
+            build(g);
+        } else {
+            LOGGER.info("Updating the dependency cycles of "
+                    + journal.getClasses().size() + " changed classes");
+            for (Map.Entry<String, Object> changedClass
+                    : journal.getClasses().entrySet()) {
+                update(g, changedClass.getKey(), changedClass.getValue());
+            }
+        }
+
+        int written = write(g, classes) + write(g, packages);
+        LOGGER.info("Found " + classes.index.getCycleCount()
+                + " class cycles and " + packages.index.getCycleCount()
+                + " package cycles, updated " + written + " vertices");
+
+        MetricsRegistry metrics = parser.getMetricsRegistry();
+        metrics.setGauge("cycles.classes", classes.index.getCycleCount());
+        metrics.setGauge("cycles.packages", packages.index.getCycleCount());
+        metrics.increment("cycles.vertices.written", written);
+    }
+
+    /**
+     * Gets the number of cycles between classes found in the last step.
+     *
+     * @return The number of class cycles
+     */
+    public int getClassCycleCount() {
+        return classes == null ? 0 : classes.index.getCycleCount();
+    }
+
+    /**
+     * Gets the number of cycles between packages found in the last step.
+     *
+     * @return The number of package cycles
+     */
+    public int getPackageCycleCount() {
+        return packages == null ? 0 : packages.index.getCycleCount();
+    }
+
+    /**
+     * Copies the whole class graph and finds all cycles.
+     *
+     * @param g The traversal source of the graph
+     */
+    private void build(GraphTraversalSource g) {
+        classes = new Level(VertexClass.LABEL);
+        packages = new Level(VertexPackage.LABEL);
+        classPackages.clear();
+        classes.index.setLoading(true);
+        packages.index.setLoading(true);
+
+        Map<Object, Integer> byId = new HashMap<>();
+        for (Vertex vertex : g.V().hasLabel(VertexClass.LABEL).toList()) {
+            byId.put(vertex.id(), addClass(vertex, false));
+        }
+        for (Edge edge : g.E().hasLabel("dependsOn").toList()) {
+            Integer from = byId.get(edge.outVertex().id());
+            Integer to = byId.get(edge.inVertex().id());
+            if (from != null && to != null
+                    && classes.index.getEdgeCount(from, to) == 0) {
+                addDependency(from, to);
+            }
+        }
+
+        classes.index.setLoading(false);
+        packages.index.setLoading(false);
+    }
+
+    /**
+     * Compares the dependencies of a changed class to the copy and updates
+     * the copy where they differ.
+     *
+     * @param g The traversal source of the graph
+     * @param name The qualified name of the changed class
+     * @param vertexId The id of its vertex, null if the class was removed
+     */
+    private void update(GraphTraversalSource g, String name,
+            Object vertexId) {
+
+        // A removed class can already be back as a retrieved class, found as
+        // dependency of another changed class
+        Integer known = classes.indices.get(name);
+        if (vertexId == null && known != null) {
+            vertexId = classes.vertexIds.get(known);
+        }
+
+        Vertex vertex = vertexId == null
+                ? null : find(g, VertexClass.LABEL, name, vertexId);
+        if (vertex == null) {
+            // Removed, either by the remove step or as orphan
+            if (known != null) {
+                for (int to : new ArrayList<>(
+                        classes.index.getOutgoing(known))) {
+                    removeDependency(known, to);
+                }
+                for (int from : new ArrayList<>(
+                        classes.index.getIncoming(known))) {
+                    removeDependency(from, known);
+                }
+            }
+            return;
+        }
+
+        int changed = addClass(vertex, true);
+        Set<Integer> dependencies = findClasses(vertex, Direction.OUT);
+        Set<Integer> dependents = findClasses(vertex, Direction.IN);
+
+        for (int to : new ArrayList<>(classes.index.getOutgoing(changed))) {
+            if (!dependencies.remove(to)) {
+                removeDependency(changed, to);
+            }
+        }
+        for (int to : dependencies) {
+            addDependency(changed, to);
+        }
+        for (int from : new ArrayList<>(classes.index.getIncoming(changed))) {
+            if (!dependents.remove(from)) {
+                removeDependency(from, changed);
+            }
+        }
+        for (int from : dependents) {
+            addDependency(from, changed);
+        }
+    }
+
+    /**
+     * Finds the classes a vertex class has a dependsOn edge to or from.
+     *
+     * @param vertex The vertex of the class
+     * @param direction OUT for its dependencies, IN for its dependents
+     * @return The classes in the copy
+     */
+    private Set<Integer> findClasses(Vertex vertex, Direction direction) {
+        Set<Integer> found = new LinkedHashSet<>();
+        Iterator<Vertex> neighbours = vertex.vertices(direction, "dependsOn");
+        while (neighbours.hasNext()) {
+            Vertex neighbour = neighbours.next();
+            if (!neighbour.id().equals(vertex.id())) {
+                found.add(addClass(neighbour, false));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Adds a class to the copy if it is not in it yet.
+     *
+     * @param vertex The vertex of the class
+     * @param refreshPackage True to read the package of a known class again
+     * @return The class in the copy
+     */
+    private int addClass(Vertex vertex, boolean refreshPackage) {
+        String name = vertex.value("name");
+        boolean known = classes.indices.containsKey(name);
+        int added = classes.getIndex(name, vertex.id());
+        if (!known) {
+            classPackages.add(-1);
+        }
+        if (!known || refreshPackage) {
+            setPackage(added, findPackage(vertex));
+        }
+        return added;
+    }
+
+    /**
+     * Finds the package a class belongs to.
+     *
+     * @param vertex The vertex of the class
+     * @return The package in the copy, -1 if the class has no package
+     */
+    private int findPackage(Vertex vertex) {
+        Iterator<Vertex> belongsTo
+                = vertex.vertices(Direction.OUT, "belongsTo");
+        if (!belongsTo.hasNext()) {
+            return -1;
+        }
+        Vertex packageVertex = belongsTo.next();
+        return packages.getIndex(
+                packageVertex.value("name"), packageVertex.id()
+        );
+    }
+
+    /**
+     * Moves a class to another package, moving the package dependencies of
+     * its class dependencies along.
+     *
+     * @param changed The class in the copy
+     * @param newPackage The package in the copy, -1 for none
+     */
+    private void setPackage(int changed, int newPackage) {
+        int oldPackage = classPackages.get(changed);
+        if (oldPackage == newPackage) {
+            return;
+        }
+        for (int to : classes.index.getOutgoing(changed)) {
+            int toPackage = classPackages.get(to);
+            changePackageDependency(oldPackage, toPackage, false);
+            changePackageDependency(newPackage, toPackage, true);
+        }
+        for (int from : classes.index.getIncoming(changed)) {
+            int fromPackage = classPackages.get(from);
+            changePackageDependency(fromPackage, oldPackage, false);
+            changePackageDependency(fromPackage, newPackage, true);
+        }
+        classPackages.set(changed, newPackage);
+    }
+
+    /**
+     * Adds a class dependency and the package dependency it gives.
+     *
+     * @param from The depending class in the copy
+     * @param to The class it depends on
+     */
+    private void addDependency(int from, int to) {
+        classes.index.addEdge(from, to);
+        changePackageDependency(
+                classPackages.get(from), classPackages.get(to), true
+        );
+    }
+
+    /**
+     * Removes a class dependency and the package dependency it gave.
+     *
+     * @param from The depending class in the copy
+     * @param to The class it depends on
+     */
+    private void removeDependency(int from, int to) {
+        classes.index.removeEdge(from, to);
+        changePackageDependency(
+                classPackages.get(from), classPackages.get(to), false
+        );
+    }
+
+    /**
+     * Counts a class dependency between two packages, if they are different
+     * packages.
+     *
+     * @param from The package of the depending class, -1 if none
+     * @param to The package of the class it depends on, -1 if none
+     * @param add True to add the dependency, false to remove it
+     */
+    private void changePackageDependency(int from, int to, boolean add) {
+        if (from < 0 || to < 0 || from == to) {
+            return;
+        }
+        if (add) {
+            packages.index.addEdge(from, to);
+        } else {
+            packages.index.removeEdge(from, to);
+        }
+    }
+
+    /**
+     * Writes the cycle ids of the changed vertices of a level to the graph.
+     *
+     * @param g The traversal source of the graph
+     * @param level The classes or packages
+     * @return The number of vertices written
+     */
+    private int write(GraphTraversalSource g, Level level) {
+        Set<Integer> changed = new LinkedHashSet<>(
+                level.index.getChangedVertices()
+        );
+        changed.addAll(level.moved);
+        int written = 0;
+        for (int vertexIndex : changed) {
+            Vertex vertex = find(g, level.label, level.names.get(vertexIndex),
+                    level.vertexIds.get(vertexIndex));
+            if (vertex == null) {
+                continue;
+            }
+
+            Integer cycleId = level.index.isInCycle(vertexIndex)
+                    ? level.index.getComponent(vertexIndex) : null;
+            Object current = vertex.property("cycleId").orElse(null);
+            if (cycleId == null ? current == null : cycleId.equals(current)) {
+                continue;
+            }
+            if (cycleId == null) {
+                vertex.property("cycleId").remove();
+            } else {
+                vertex.property("cycleId", cycleId);
+            }
+            written++;
+            parser.getCommitChunker().record();
+        }
+        level.index.clearChanged();
+        level.moved.clear();
+        return written;
+    }
+
+    /**
+     * Finds a vertex by its id, checking it is still the same vertex as ids
+     * can be reused by the graph.
+     *
+     * @param g The traversal source of the graph
+     * @param label The label of the vertex
+     * @param name The name of the vertex
+     * @param id The id of the vertex
+     * @return The vertex, or null if it no longer exists
+     */
+    private static Vertex find(GraphTraversalSource g, String label,
+            String name, Object id) {
+
+        return g.V(id).hasLabel(label).has("name", name).tryNext()
+                .orElse(null);
+    }
+
+    /**
+     * The copy of the class or package graph with the names and vertex ids
+     * of its vertices.
+     */
+    private static class Level {
+
+        // The label of the vertices
+        private final String label;
+
+        // The dependencies and their components
+        private final SccIndex index = new SccIndex();
+
+        // The vertex in the index by name, and the name and id by vertex
+        private final Map<String, Integer> indices = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final List<Object> vertexIds = new ArrayList<>();
+
+        // The vertices that got a new vertex id, which has no cycleId yet
+        private final Set<Integer> moved = new HashSet<>();
+
+        /**
+         * Creates an empty copy.
+         *
+         * @param label The label of the vertices
+         */
+        private Level(String label) {
+            this.label = label;
+        }
+
+        /**
+         * Gets the vertex in the index of a name, adding it if unknown.
+         *
+         * @param name The name of the vertex
+         * @param vertexId The id of the vertex in the graph
+         * @return The vertex in the index
+         */
+        private int getIndex(String name, Object vertexId) {
+            Integer known = indices.get(name);
+            if (known == null) {
+                known = index.addVertex();
+                indices.put(name, known);
+                names.add(name);
+                vertexIds.add(vertexId);
+            } else if (!vertexId.equals(vertexIds.get(known))) {
+                vertexIds.set(known, vertexId);
+                moved.add(known);
+            }
+            return known;
+        }
+
+    }
+
+}
@@ -0,0 +1,612 @@
+package edu.rug.pyne.api.parser.analysisprocessor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Keeps the strongly connected components of a directed graph up to date
+ * while edges are added and removed, so the cycles of a dependency graph do
+ * not have to be searched again after every change.
+ *
+ * The components are kept in a topological order. An added edge that follows
+ * the order cannot create a cycle, otherwise only the components between its
+ * ends in the order are searched and moved, as described by Pearce and Kelly.
+ * A removed edge can only split the component it is in, so only that
+ * component is searched again with Tarjan's algorithm.
+ *
+ * Edges are counted, an edge added twice has to be removed twice before it is
+ * gone. When components merge the largest keeps its id and when a component
+ * splits the largest part keeps it, so a cycle keeps its id while it grows or
+ * shrinks. The vertices of which the component changed are remembered until
+ * they are cleared.
+ */
+public class SccIndex {
+
+    // The space between the positions of added or renumbered components, so
+    // split components can be placed in between
+    private static final long GAP = 1L << 16;
+
+    // The edges from and to each vertex with their counts
+    private final List<Map<Integer, Integer>> outEdges = new ArrayList<>();
+    private final List<Map<Integer, Integer>> inEdges = new ArrayList<>();
+
+    // The component of each vertex
+    private int[] components = new int[16];
+
+    // The vertices of each component and its position in the order
+    private final Map<Integer, Set<Integer>> members = new HashMap<>();
+    private final Map<Integer, Long> positions = new HashMap<>();
+    private final TreeMap<Long, Integer> order = new TreeMap<>();
+
+    private int nextComponent;
+
+    // The number of components with more than one vertex
+    private int cycleCount;
+
+    // While loading edges the components are not kept up to date
+    private boolean loading;
+
+    // The vertices of which the component changed since the last clear
+    private final Set<Integer> changed = new LinkedHashSet<>();
+
+    /**
+     * Adds a vertex without edges, in a component of its own.
+     *
+     * @return The number of the vertex
+     */
+    public int addVertex() {
+        int vertex = outEdges.size();
+        outEdges.add(new HashMap<>());
+        inEdges.add(new HashMap<>());
+        if (vertex == components.length) {
+            components = Arrays.copyOf(components, vertex * 2);
+        }
+
+        int component = nextComponent++;
+        components[vertex] = component;
+        Set<Integer> vertices = new HashSet<>();
+        vertices.add(vertex);
+        members.put(component, vertices);
+        long position = order.isEmpty() ? 0 : order.lastKey() + GAP;
+        place(component, position);
+        return vertex;
+    }
+
+    /**
+     * Gets the number of vertices.
+     *
+     * @return The number of added vertices
+     */
+    public int getVertexCount() {
+        return outEdges.size();
+    }
+
+    /**
+     * Starts or ends loading edges. While loading the components are not
+     * updated, when loading ends they are all computed at once. This is
+     * faster than keeping them up to date when adding a whole graph.
+     *
+     * @param loading True to start loading, false to end it
+     */
+    public void setLoading(boolean loading) {
+        boolean wasLoading = this.loading;
+        this.loading = loading;
+        if (wasLoading && !loading) {
+            recompute();
+        }
+    }
+
+    /**
+     * Adds an edge, or increases its count if it already exists.
+     *
+     * @param from The vertex the edge starts at
+     * @param to The vertex the edge points to
+     */
+    public void addEdge(int from, int to) {
+        checkVertex(from);
+        checkVertex(to);
+        int count = outEdges.get(from).merge(to, 1, Integer::sum);
+        inEdges.get(to).merge(from, 1, Integer::sum);
+        if (count > 1 || from == to || loading) {
+            return;
+        }
+
+        int fromComponent = components[from];
+        int toComponent = components[to];
+        if (fromComponent == toComponent) {
+            return;
+        }
+
+        // An edge that follows the order changes nothing
+        long lower = positions.get(toComponent);
+        long upper = positions.get(fromComponent);
+        if (upper < lower) {
+            return;
+        }
+
+        Set<Integer> forward = search(toComponent, upper, true);
+        Set<Integer> backward = search(fromComponent, lower, false);
+        reorder(forward, backward);
+    }
+
+    /**
+     * Decreases the count of an edge, and removes it when it reaches zero.
+     *
+     * @param from The vertex the edge starts at
+     * @param to The vertex the edge points to
+     */
+    public void removeEdge(int from, int to) {
+        checkVertex(from);
+        checkVertex(to);
+        Integer count = outEdges.get(from).get(to);
+        if (count == null) {
+            throw new IllegalArgumentException(
+                    "There is no edge from " + from + " to " + to
+            );
+        }
+        if (count > 1) {
+            outEdges.get(from).put(to, count - 1);
+            inEdges.get(to).put(from, count - 1);
+            return;
+        }
+
+        outEdges.get(from).remove(to);
+        inEdges.get(to).remove(from);
+        if (from == to || loading || components[from] != components[to]) {
+            return;
+        }
+        split(components[from]);
+    }
+
+    /**
+     * Gets the vertices a vertex has an edge to.
+     *
+     * @param vertex The vertex
+     * @return The vertices the edges point to
+     */
+    public Set<Integer> getOutgoing(int vertex) {
+        checkVertex(vertex);
+        return Collections.unmodifiableSet(outEdges.get(vertex).keySet());
+    }
+
+    /**
+     * Gets the vertices that have an edge to a vertex.
+     *
+     * @param vertex The vertex
+     * @return The vertices the edges start at
+     */
+    public Set<Integer> getIncoming(int vertex) {
+        checkVertex(vertex);
+        return Collections.unmodifiableSet(inEdges.get(vertex).keySet());
+    }
+
+    /**
+     * Gets the count of an edge.
+     *
+     * @param from The vertex the edge starts at
+     * @param to The vertex the edge points to
+     * @return The number of times the edge was added, 0 if it does not exist
+     */
+    public int getEdgeCount(int from, int to) {
+        checkVertex(from);
+        return outEdges.get(from).getOrDefault(to, 0);
+    }
+
+    /**
+     * Gets the id of the component of a vertex.
+     *
+     * @param vertex The vertex
+     * @return The id of its component
+     */
+    public int getComponent(int vertex) {
+        checkVertex(vertex);
+        return components[vertex];
+    }
+
+    /**
+     * Gets the number of vertices in the component of a vertex.
+     *
+     * @param vertex The vertex
+     * @return The size of its component
+     */
+    public int getComponentSize(int vertex) {
+        return members.get(getComponent(vertex)).size();
+    }
+
+    /**
+     * Checks if a vertex is part of a cycle, a component of more than one
+     * vertex.
+     *
+     * @param vertex The vertex
+     * @return True if it is in a cycle
+     */
+    public boolean isInCycle(int vertex) {
+        return getComponentSize(vertex) > 1;
+    }
+
+    /**
+     * Gets the number of components with more than one vertex.
+     *
+     * @return The number of cycles
+     */
+    public int getCycleCount() {
+        return cycleCount;
+    }
+
+    /**
+     * Gets the vertices of which the component changed since the last clear,
+     * including vertices that joined or left a cycle.
+     *
+     * @return The changed vertices
+     */
+    public Set<Integer> getChangedVertices() {
+        return Collections.unmodifiableSet(changed);
+    }
+
+    /**
+     * Forgets the changed vertices.
+     */
+    public void clearChanged() {
+        changed.clear();
+    }
+
+    /**
+     * Checks if a vertex exists.
+     *
+     * @param vertex The vertex to check
+     */
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= outEdges.size()) {
+            throw new IndexOutOfBoundsException("Unknown vertex " + vertex);
+        }
+    }
+
+    /**
+     * Finds the components reachable from, or reaching, a component without
+     * passing the given position in the order.
+     *
+     * @param start The component to start at
+     * @param bound The last position to search
+     * @param forward True to follow the edges, false to follow them back
+     * @return The found components, including the start
+     */
+    private Set<Integer> search(int start, long bound, boolean forward) {
+        Set<Integer> found = new HashSet<>();
+        Deque<Integer> stack = new ArrayDeque<>();
+        found.add(start);
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            for (int vertex : members.get(stack.pop())) {
+                Map<Integer, Integer> edges = forward
+                        ? outEdges.get(vertex) : inEdges.get(vertex);
+                for (int next : edges.keySet()) {
+                    int component = components[next];
+                    long position = positions.get(component);
+                    boolean inRange = forward
+                            ? position <= bound : position >= bound;
+                    if (inRange && found.add(component)) {
+                        stack.push(component);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Moves the components found by an added edge that went against the
+     * order. The components reaching the start of the edge are placed before
+     * the ones reachable from its end. Components that are both form a cycle
+     * with the edge and are merged.
+     *
+     * @param forward The components reachable from the end of the edge
+     * @param backward The components reaching the start of the edge
+     */
+    private void reorder(Set<Integer> forward, Set<Integer> backward) {
+        Comparator<Integer> byPosition = Comparator.comparing(positions::get);
+        List<Long> slots = new ArrayList<>();
+        List<Integer> before = new ArrayList<>();
+        List<Integer> after = new ArrayList<>();
+        Set<Integer> cycle = new HashSet<>();
+        for (int component : backward) {
+            slots.add(positions.get(component));
+            if (forward.contains(component)) {
+                cycle.add(component);
+            } else {
+                before.add(component);
+            }
+        }
+        for (int component : forward) {
+            if (!cycle.contains(component)) {
+                slots.add(positions.get(component));
+                after.add(component);
+            }
+        }
+        Collections.sort(slots);
+        before.sort(byPosition);
+        after.sort(byPosition);
+
+        for (long slot : slots) {
+            order.remove(slot);
+        }
+
+        // The components before only move to earlier and the components
+        // after only to later positions, a merged cycle goes in between
+        for (int i = 0; i < before.size(); i++) {
+            place(before.get(i), slots.get(i));
+        }
+        if (!cycle.isEmpty()) {
+            place(merge(cycle), slots.get(before.size()));
+        }
+        int offset = slots.size() - after.size();
+        for (int i = 0; i < after.size(); i++) {
+            place(after.get(i), slots.get(offset + i));
+        }
+    }
+
+    /**
+     * Sets the position of a component in the order.
+     *
+     * @param component The component to place
+     * @param position The new position of the component
+     */
+    private void place(int component, long position) {
+        positions.put(component, position);
+        order.put(position, component);
+    }
+
+    /**
+     * Merges components into the largest of them.
+     *
+     * @param cycle The components to merge
+     * @return The id of the merged component
+     */
+    private int merge(Set<Integer> cycle) {
+        int largest = -1;
+        for (int component : cycle) {
+            if (largest < 0 || isLarger(component, largest)) {
+                largest = component;
+            }
+        }
+
+        Set<Integer> merged = members.get(largest);
+        if (merged.size() > 1) {
+            cycleCount--;
+        } else {
+            changed.addAll(merged);
+        }
+        for (int component : cycle) {
+            if (component == largest) {
+                continue;
+            }
+            Set<Integer> vertices = members.remove(component);
+            positions.remove(component);
+            if (vertices.size() > 1) {
+                cycleCount--;
+            }
+            for (int vertex : vertices) {
+                components[vertex] = largest;
+            }
+            merged.addAll(vertices);
+            changed.addAll(vertices);
+        }
+        cycleCount++;
+        return largest;
+    }
+
+    /**
+     * Checks if a component is larger than another, the lowest id wins ties.
+     *
+     * @param component The component to check
+     * @param other The component to compare to
+     * @return True if the component is larger
+     */
+    private boolean isLarger(int component, int other) {
+        int size = members.get(component).size();
+        int otherSize = members.get(other).size();
+        return size > otherSize || (size == otherSize && component < other);
+    }
+
+    /**
+     * Searches a component that lost an edge again and splits it if it is no
+     * longer strongly connected. The parts are placed at its position in the
+     * order.
+     *
+     * @param component The component that lost an edge
+     */
+    private void split(int component) {
+        List<List<Integer>> parts = findComponents(
+                members.get(component), component
+        );
+        if (parts.size() == 1) {
+            return;
+        }
+        // Tarjan's algorithm finds the parts in reverse topological order
+        Collections.reverse(parts);
+
+        int largest = 0;
+        for (int i = 1; i < parts.size(); i++) {
+            if (parts.get(i).size() > parts.get(largest).size()) {
+                largest = i;
+            }
+        }
+
+        long position = positions.get(component);
+        Long next = order.higherKey(position);
+        if (next != null && next - position < parts.size()) {
+            renumber(Math.max(GAP, parts.size()));
+            position = positions.get(component);
+            next = order.higherKey(position);
+        }
+        long step = next == null ? GAP : (next - position) / parts.size();
+        order.remove(position);
+
+        cycleCount--;
+        for (int i = 0; i < parts.size(); i++) {
+            List<Integer> part = parts.get(i);
+            int id = i == largest ? component : nextComponent++;
+            long partPosition = position + i * step;
+            members.put(id, new HashSet<>(part));
+            place(id, partPosition);
+            if (part.size() > 1) {
+                cycleCount++;
+            }
+            if (i != largest || part.size() == 1) {
+                for (int vertex : part) {
+                    components[vertex] = id;
+                }
+                changed.addAll(part);
+            }
+        }
+    }
+
+    /**
+     * Gives all components new positions, keeping their order.
+     *
+     * @param gap The space between the new positions
+     */
+    private void renumber(long gap) {
+        List<Integer> sequence = new ArrayList<>(order.values());
+        order.clear();
+        for (int i = 0; i < sequence.size(); i++) {
+            place(sequence.get(i), i * gap);
+        }
+    }
+
+    /**
+     * Computes all components and their order from scratch. Every vertex is
+     * marked as changed.
+     */
+    private void recompute() {
+        List<Integer> vertices = new ArrayList<>();
+        for (int vertex = 0; vertex < outEdges.size(); vertex++) {
+            vertices.add(vertex);
+        }
+        List<List<Integer>> parts = findComponents(vertices, -1);
+        Collections.reverse(parts);
+
+        members.clear();
+        positions.clear();
+        order.clear();
+        cycleCount = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            List<Integer> part = parts.get(i);
+            int id = nextComponent++;
+            members.put(id, new HashSet<>(part));
+            place(id, i * GAP);
+            if (part.size() > 1) {
+                cycleCount++;
+            }
+            for (int vertex : part) {
+                components[vertex] = id;
+            }
+            changed.addAll(part);
+        }
+    }
+
+    /**
+     * Finds the strongly connected components of the given vertices with
+     * Tarjan's algorithm. It keeps its own stack, so large components do not
+     * overflow the call stack.
+     *
+     * @param vertices The vertices to search
+     * @param component Only follow edges within this component, -1 to follow
+     * all edges
+     * @return The components in reverse topological order
+     */
+    private List<List<Integer>> findComponents(Collection<Integer> vertices,
+            int component) {
+
+        Map<Integer, Integer> index = new HashMap<>();
+        Map<Integer, Integer> low = new HashMap<>();
+        Deque<Integer> stack = new ArrayDeque<>();
+        Set<Integer> onStack = new HashSet<>();
+        Deque<Integer> calls = new ArrayDeque<>();
+        Deque<Iterator<Integer>> iterators = new ArrayDeque<>();
+        List<List<Integer>> found = new ArrayList<>();
+
+        for (int root : vertices) {
+            if (index.containsKey(root)) {
+                continue;
+            }
+            visit(root, index, low, stack, onStack, calls, iterators);
+
+            while (!calls.isEmpty()) {
+                int vertex = calls.peek();
+                Iterator<Integer> edges = iterators.peek();
+                if (edges.hasNext()) {
+                    int next = edges.next();
+                    if (component >= 0 && components[next] != component) {
+                        continue;
+                    }
+                    if (!index.containsKey(next)) {
+                        visit(next, index, low, stack, onStack, calls,
+                                iterators);
+                    } else if (onStack.contains(next)) {
+                        low.put(vertex, Math.min(
+                                low.get(vertex), index.get(next)
+                        ));
+                    }
+                    continue;
+                }
+
+                calls.pop();
+                iterators.pop();
+                if (!calls.isEmpty()) {
+                    int parent = calls.peek();
+                    low.put(parent, Math.min(low.get(parent), low.get(vertex)));
+                }
+                if (low.get(vertex).equals(index.get(vertex))) {
+                    List<Integer> part = new ArrayList<>();
+                    int member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        part.add(member);
+                    } while (member != vertex);
+                    found.add(part);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Starts visiting a vertex in Tarjan's algorithm.
+     *
+     * @param vertex The vertex to visit
+     * @param index The visit number per vertex
+     * @param low The lowest visit number reachable per vertex
+     * @param stack The vertices not yet assigned to a component
+     * @param onStack The vertices on the stack
+     * @param calls The vertices being visited
+     * @param iterators The remaining edges of the vertices being visited
+     */
+    private void visit(int vertex, Map<Integer, Integer> index,
+            Map<Integer, Integer> low, Deque<Integer> stack,
+            Set<Integer> onStack, Deque<Integer> calls,
+            Deque<Iterator<Integer>> iterators) {
+
+        int number = index.size();
+        index.put(vertex, number);
+        low.put(vertex, number);
+        stack.push(vertex);
+        onStack.add(vertex);
+        calls.push(vertex);
+        iterators.push(outEdges.get(vertex).keySet().iterator());
+    }
+
+}
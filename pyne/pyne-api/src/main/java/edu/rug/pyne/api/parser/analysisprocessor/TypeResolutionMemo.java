@@ -0,0 +1,163 @@
+package edu.rug.pyne.api.parser.analysisprocessor;
+
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the vertex ids of the classes and packages found by their
+ * qualified name. The same types are referenced many times during the
+ * analysis step, looking them up by id is much cheaper than by name.
+ *
+ * A remembered vertex is checked to still exist with the same label and name
+ * before it is returned, so vertices removed by a post processor are looked
+ * up again and an id reused by the graph for another vertex is not
+ * mistaken for the remembered one.
+ */
+public class TypeResolutionMemo {
+
+    // The vertex ids by qualified name
+    private final Map<String, Object> classIds = new HashMap<>();
+    private final Map<String, Object> packageIds = new HashMap<>();
+
+    // The number of lookups answered and not answered by the memo
+    private long hits;
+    private long misses;
+
+    /**
+     * Gets a vertex class by its qualified name.
+     *
+     * @param framedGraph The graph to find the vertex class on
+     * @param name The qualified name of the class
+     * @return The vertex class, or null if not found
+     */
+    public VertexClass getVertexClass(FramedGraph framedGraph, String name) {
+        VertexClass vertexClass = getById(
+                framedGraph, classIds, VertexClass.LABEL, name,
+                VertexClass.class
+        );
+        if (vertexClass != null) {
+            return vertexClass;
+        }
+
+        vertexClass = VertexClass.getVertexClassByName(framedGraph, name);
+        if (vertexClass != null) {
+            classIds.put(name, vertexClass.getId());
+        }
+        return vertexClass;
+    }
+
+    /**
+     * Gets a vertex package by its qualified name.
+     *
+     * @param framedGraph The graph to find the vertex package on
+     * @param name The qualified name of the package
+     * @return The vertex package, or null if not found
+     */
+    public VertexPackage getVertexPackage(FramedGraph framedGraph,
+            String name) {
+
+        VertexPackage vertexPackage = getById(
+                framedGraph, packageIds, VertexPackage.LABEL, name,
+                VertexPackage.class
+        );
+        if (vertexPackage != null) {
+            return vertexPackage;
+        }
+
+        vertexPackage = VertexPackage.getVertexPackageByName(framedGraph, name);
+        if (vertexPackage != null) {
+            packageIds.put(name, vertexPackage.getId());
+        }
+        return vertexPackage;
+    }
+
+    /**
+     * Remembers a newly created vertex class.
+     *
+     * @param vertexClass The created vertex class
+     */
+    public void addVertexClass(VertexClass vertexClass) {
+        classIds.put(vertexClass.getName(), vertexClass.getId());
+    }
+
+    /**
+     * Remembers a newly created vertex package.
+     *
+     * @param vertexPackage The created vertex package
+     */
+    public void addVertexPackage(VertexPackage vertexPackage) {
+        packageIds.put(vertexPackage.getName(), vertexPackage.getId());
+    }
+
+    /**
+     * Gets a remembered vertex if it still exists. A vertex that no longer
+     * exists, or of which the id now belongs to another vertex, is
+     * forgotten.
+     *
+     * @param <T> The type of the vertex
+     * @param framedGraph The graph to find the vertex on
+     * @param ids The remembered ids of the vertex type
+     * @param label The label of the vertex type
+     * @param name The qualified name of the vertex
+     * @param kind The class of the vertex type
+     * @return The vertex, or null if not remembered or removed
+     */
+    private <T> T getById(FramedGraph framedGraph, Map<String, Object> ids,
+            String label, String name, Class<T> kind) {
+
+        Object id = ids.get(name);
+        if (id == null) {
+            misses++;
+            return null;
+        }
+
+        T vertex = framedGraph.traverse(
+                (g) -> g.V(id).hasLabel(label).has("name", name)
+        ).nextOrDefault(kind, null);
+        if (vertex == null) {
+            ids.remove(name);
+            misses++;
+        } else {
+            hits++;
+        }
+        return vertex;
+    }
+
+    /**
+     * Gets the number of lookups answered by the memo.
+     *
+     * @return The number of hits since the statistics were reset
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that had to search the graph.
+     *
+     * @return The number of misses since the statistics were reset
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Resets the number of hits and misses.
+     */
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+
+    /**
+     * Forgets all remembered vertices.
+     */
+    public void clear() {
+        classIds.clear();
+        packageIds.clear();
+    }
+
+}
@@ -0,0 +1,234 @@
+package edu.rug.pyne.api.parser.analysisprocessor;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.reference.CtExecutableReference;
+
+/**
+ * Counts the invocations Spoon could not resolve, per declaring type and
+ * signature. In noclasspath mode there can be many of them, so instead of
+ * logging every invocation a summary is logged after each analysis step.
+ *
+ * Logging the invocations themselves can be enabled, then only every nth
+ * occurrence of each signature is logged.
+ */
+public class UnresolvedReferences {
+
+    // The declaring type used when Spoon did not find one at all
+    public static final String UNKNOWN_TYPE = "<unknown>";
+
+    // The number of signatures listed in the summary
+    private static final int SUMMARY_SIZE = 10;
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(UnresolvedReferences.class);
+
+    // The counts per declaring type and signature
+    private final Map<String, Map<String, int[]>> counts = new HashMap<>();
+
+    // The number of invocations without a declaring type
+    private long missingDeclaringType;
+
+    // The number of invocations with a declaring type without declaration
+    private long missingDeclaration;
+
+    // Log every nth invocation of a signature, 0 to not log them
+    private int detailInterval;
+
+    /**
+     * Sets how often the unresolved invocations are logged. With an interval
+     * of n the first and then every nth occurrence of each signature is
+     * logged. An interval of 0, the default, disables this.
+     *
+     * @param detailInterval The interval between logged invocations
+     */
+    public void setDetailInterval(int detailInterval) {
+        if (detailInterval < 0) {
+            throw new IllegalArgumentException(
+                    "The detail interval cannot be negative"
+            );
+        }
+        this.detailInterval = detailInterval;
+    }
+
+    /**
+     * Gets how often the unresolved invocations are logged.
+     *
+     * @return The interval between logged invocations, 0 if disabled
+     */
+    public int getDetailInterval() {
+        return detailInterval;
+    }
+
+    /**
+     * Counts an invocation of which Spoon cannot find the declaring type.
+     *
+     * @param invocation The unresolved invocation
+     */
+    public void addMissingDeclaringType(CtInvocation<?> invocation) {
+        missingDeclaringType++;
+        if (count(UNKNOWN_TYPE, invocation.getExecutable().getSignature())) {
+            LOGGER.warn("Spoon cannot find the declaring type of "
+                    + invocation);
+        }
+    }
+
+    /**
+     * Counts an invocation of which Spoon cannot find the declaration of the
+     * declaring type.
+     *
+     * @param invocation The unresolved invocation
+     */
+    public void addMissingDeclaration(CtInvocation<?> invocation) {
+        missingDeclaration++;
+        CtExecutableReference<?> executable = invocation.getExecutable();
+        if (count(executable.getDeclaringType().getQualifiedName(),
+                executable.getSignature())) {
+            LOGGER.warn("Spoon cannot find the declaration of " + invocation);
+        }
+    }
+
+    /**
+     * Adds all counts of another counter to this one.
+     *
+     * @param other The counter to add
+     */
+    public void merge(UnresolvedReferences other) {
+        missingDeclaringType += other.missingDeclaringType;
+        missingDeclaration += other.missingDeclaration;
+        for (Map.Entry<String, Map<String, int[]>> type
+                : other.counts.entrySet()) {
+            Map<String, int[]> signatures = counts.computeIfAbsent(
+                    type.getKey(), (key) -> new HashMap<>()
+            );
+            for (Map.Entry<String, int[]> signature
+                    : type.getValue().entrySet()) {
+                signatures.computeIfAbsent(
+                        signature.getKey(), (key) -> new int[1]
+                )[0] += signature.getValue()[0];
+            }
+        }
+    }
+
+    /**
+     * Increments the count of a declaring type and signature.
+     *
+     * @param declaringType The name of the declaring type
+     * @param signature The signature of the invoked executable
+     * @return True if this occurrence should be logged in detail
+     */
+    private boolean count(String declaringType, String signature) {
+        int[] count = counts
+                .computeIfAbsent(declaringType, (key) -> new HashMap<>())
+                .computeIfAbsent(signature, (key) -> new int[1]);
+        count[0]++;
+        return detailInterval > 0 && (count[0] - 1) % detailInterval == 0;
+    }
+
+    /**
+     * Gets the number of invocations without a declaring type.
+     *
+     * @return The number of invocations since the last reset
+     */
+    public long getMissingDeclaringType() {
+        return missingDeclaringType;
+    }
+
+    /**
+     * Gets the number of invocations of which the declaring type has no
+     * declaration.
+     *
+     * @return The number of invocations since the last reset
+     */
+    public long getMissingDeclaration() {
+        return missingDeclaration;
+    }
+
+    /**
+     * Gets the count of a declaring type and signature.
+     *
+     * @param declaringType The name of the declaring type, or UNKNOWN_TYPE
+     * @param signature The signature of the executable
+     * @return The number of unresolved invocations since the last reset
+     */
+    public int getCount(String declaringType, String signature) {
+        Map<String, int[]> signatures = counts.get(declaringType);
+        if (signatures == null || !signatures.containsKey(signature)) {
+            return 0;
+        }
+        return signatures.get(signature)[0];
+    }
+
+    /**
+     * Checks if no unresolved invocations have been counted.
+     *
+     * @return True if nothing was counted since the last reset
+     */
+    public boolean isEmpty() {
+        return missingDeclaringType == 0 && missingDeclaration == 0;
+    }
+
+    /**
+     * Logs a summary of the counted invocations, with the most frequent
+     * signatures, and resets the counts.
+     */
+    public void logSummaryAndReset() {
+        if (!isEmpty()) {
+            LOGGER.warn(getSummary());
+        }
+        reset();
+    }
+
+    /**
+     * Creates a summary of the counted invocations.
+     *
+     * @return The summary
+     */
+    public String getSummary() {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<String, Map<String, int[]>> type : counts.entrySet()) {
+            for (Map.Entry<String, int[]> signature
+                    : type.getValue().entrySet()) {
+                entries.add(Map.entry(
+                        type.getKey() + "#" + signature.getKey(),
+                        signature.getValue()[0]
+                ));
+            }
+        }
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        StringBuilder summary = new StringBuilder();
+        summary.append("Spoon could not resolve ")
+                .append(missingDeclaringType + missingDeclaration)
+                .append(" invocations (")
+                .append(missingDeclaringType)
+                .append(" without declaring type, ")
+                .append(missingDeclaration)
+                .append(" without declaration) of ")
+                .append(entries.size())
+                .append(" signatures");
+        for (int i = 0; i < entries.size() && i < SUMMARY_SIZE; i++) {
+            summary.append("\n    ")
+                    .append(entries.get(i).getValue())
+                    .append("x ")
+                    .append(entries.get(i).getKey());
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Removes all counts.
+     */
+    public void reset() {
+        counts.clear();
+        missingDeclaringType = 0;
+        missingDeclaration = 0;
+    }
+
+}
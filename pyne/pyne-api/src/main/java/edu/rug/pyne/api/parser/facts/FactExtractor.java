@@ -0,0 +1,173 @@
+package edu.rug.pyne.api.parser.facts;
+
+import edu.rug.pyne.api.parser.analysisprocessor.ClassReferences;
+import edu.rug.pyne.api.parser.analysisprocessor.UnresolvedReferences;
+import edu.rug.pyne.api.parser.structureprocessor.LineCounter;
+import edu.rug.pyne.api.parser.structureprocessor.LineMetrics;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import spoon.reflect.code.CtInvocation;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.reference.CtTypeReference;
+
+/**
+ * Extracts the facts the structure and analysis steps need from the types of
+ * a Spoon model. The references are resolved by Spoon in the model of all
+ * source directories, the same way the processors see them.
+ *
+ * An extractor can be used by one thread at a time, different extractors can
+ * read the same model in parallel.
+ */
+public class FactExtractor {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(FactExtractor.class);
+
+    private final LineCounter lineCounter = new LineCounter();
+
+    // The invocations that could not be resolved by this extractor
+    private final UnresolvedReferences unresolvedReferences
+            = new UnresolvedReferences();
+
+    /**
+     * Creates an extractor.
+     *
+     * @param detailInterval The interval of logged unresolved invocations, 0
+     * to only count them
+     */
+    public FactExtractor(int detailInterval) {
+        unresolvedReferences.setDetailInterval(detailInterval);
+    }
+
+    /**
+     * Extracts the facts of one class or interface.
+     *
+     * @param type The class or interface
+     * @return The facts of the type, null if Spoon failed on it
+     */
+    public TypeFacts extract(CtType<?> type) {
+        try {
+            return extractType(type);
+        } catch (Exception ex) {
+            LOGGER.error("Spoon error while extracting class "
+                    + type.getQualifiedName() + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gets the invocations that could not be resolved by this extractor.
+     *
+     * @return The counter of unresolved invocations
+     */
+    public UnresolvedReferences getUnresolvedReferences() {
+        return unresolvedReferences;
+    }
+
+    /**
+     * Extracts the facts of one class or interface.
+     *
+     * @param type The class or interface
+     * @return The facts of the type
+     */
+    private TypeFacts extractType(CtType<?> type) {
+        String classModifier = "none";
+        if (type.isAbstract()) {
+            classModifier = "Abstract";
+        }
+        if (type.isInterface()) {
+            classModifier = "Interface";
+        }
+        TypeFacts typeFacts = new TypeFacts(
+                type.getQualifiedName(), classModifier,
+                type.getPosition().getFile()
+        );
+
+        // The package the type belongs to, for an inner class the package of
+        // the outer class
+        try {
+            CtTypeReference<?> cur = type.getReference();
+            while (cur.getPackage() == null) {
+                cur = cur.getDeclaringType();
+            }
+            typeFacts.setPackage(
+                    cur.getPackage().getQualifiedName(),
+                    VertexPackage.isRetrieved(cur.getPackage())
+                            ? "RetrievedPackage" : "SystemPackage",
+                    countLinesOfCode(type)
+            );
+        } catch (RuntimeException ex) {
+            LOGGER.error("Spoon error while analysing class "
+                    + type.getQualifiedName() + ": " + ex.getMessage());
+        }
+
+        if (type.getSuperclass() != null) {
+            typeFacts.setSuperclass(
+                    addReference(typeFacts, type.getSuperclass())
+            );
+        }
+        for (CtTypeReference<?> superInterface : type.getSuperInterfaces()) {
+            if (superInterface != null) {
+                typeFacts.addInterface(
+                        addReference(typeFacts, superInterface)
+                );
+            }
+        }
+
+        List<CtInvocation<?>> unresolved = new ArrayList<>();
+        for (CtTypeReference<?> reference
+                : ClassReferences.collect(type, unresolved)) {
+            if (reference != null) {
+                typeFacts.addDependency(addReference(typeFacts, reference));
+            }
+        }
+        for (CtInvocation<?> invocation : unresolved) {
+            if (invocation.getExecutable().getDeclaringType() == null) {
+                unresolvedReferences.addMissingDeclaringType(invocation);
+            } else {
+                unresolvedReferences.addMissingDeclaration(invocation);
+            }
+        }
+
+        return typeFacts;
+    }
+
+    /**
+     * Adds the facts of a referenced type to the facts of the referencing
+     * type.
+     *
+     * @param typeFacts The facts of the referencing type
+     * @param reference The referenced type
+     * @return The qualified name of the referenced type
+     */
+    private static String addReference(TypeFacts typeFacts,
+            CtTypeReference<?> reference) {
+
+        ReferenceFacts referenceFacts = ReferenceFacts.of(reference);
+        typeFacts.addReference(referenceFacts);
+        return referenceFacts.getName();
+    }
+
+    /**
+     * Counts the non-comment lines of code of a type.
+     *
+     * @param type The type to count
+     * @return The lines of code, 0 if the source cannot be read
+     */
+    private long countLinesOfCode(CtType<?> type) {
+        try {
+            LineMetrics lineMetrics = lineCounter.count(type);
+            if (lineMetrics != null) {
+                return lineMetrics.getCodeLines();
+            }
+        } catch (Exception ex) {
+            LOGGER.warn("Could not read the source of class "
+                    + type.getQualifiedName() + ", 0 LOC assigned.");
+        }
+        return 0;
+    }
+
+}
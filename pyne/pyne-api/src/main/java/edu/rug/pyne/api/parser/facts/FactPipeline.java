@@ -0,0 +1,183 @@
+package edu.rug.pyne.api.parser.facts;
+
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.analysisprocessor.UnresolvedReferences;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+import spoon.reflect.CtModel;
+import spoon.reflect.declaration.CtClass;
+import spoon.reflect.declaration.CtInterface;
+import spoon.reflect.declaration.CtType;
+import spoon.reflect.visitor.filter.TypeFilter;
+
+/**
+ * Extracts the facts of the types of a Spoon model in parallel and applies
+ * them to the graph afterwards. The model is of all source directories, like
+ * the one of the processors, so Spoon resolves the references the same way.
+ * The graph is then changed by a single thread.
+ *
+ * The compilation units are divided over the threads. The threads only read
+ * the model, the parts Spoon builds lazily while reading, like the shadow
+ * types of library classes, give the same result when built twice.
+ *
+ * The whole model is kept while the facts are extracted, so this needs as
+ * much heap as the processors to parse. Only the facts are kept while the
+ * graph is changed, the model can be dropped by then.
+ */
+public class FactPipeline {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(FactPipeline.class);
+
+    private final Parser parser;
+    private final int threads;
+
+    /**
+     * Creates a pipeline for the given parser.
+     *
+     * @param parser The parser with the graph, files and metrics to use
+     * @param threads The number of threads to extract the facts with
+     */
+    public FactPipeline(Parser parser, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException(
+                    "At least one thread is needed to extract facts"
+            );
+        }
+        this.parser = parser;
+        this.threads = threads;
+    }
+
+    /**
+     * Extracts the facts of the classes and interfaces of a model, in the
+     * order the class and interface processors handle them. Only the types in
+     * the added files of the parser are extracted, if set. If a thread fails
+     * the exception is thrown, so the parser rolls back the step.
+     *
+     * @param model The model of all source directories
+     * @return The facts of the types
+     */
+    public List<TypeFacts> extract(CtModel model) {
+        long startTime = System.nanoTime();
+
+        // The same order as the class and interface processors
+        List<CtType<?>> types = new ArrayList<>();
+        for (CtClass<?> clazz
+                : model.getElements(new TypeFilter<CtClass<?>>(CtClass.class))) {
+            types.add(clazz);
+        }
+        for (CtInterface<?> ctInterface : model.getElements(
+                new TypeFilter<CtInterface<?>>(CtInterface.class))) {
+            types.add(ctInterface);
+        }
+
+        // The indices of the types per compilation unit
+        Map<File, List<Integer>> units = new LinkedHashMap<>();
+        for (int i = 0; i < types.size(); i++) {
+            File file = types.get(i).getPosition().getFile();
+            if (parser.getAddedFiles() != null
+                    && !parser.getAddedFiles().contains(file)) {
+                continue;
+            }
+            units.computeIfAbsent(file, (key) -> new ArrayList<>()).add(i);
+        }
+
+        // Every thread gets the types of every nth compilation unit
+        int threadCount = Math.max(1, Math.min(threads, units.size()));
+        List<List<Integer>> partitions = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        int unit = 0;
+        for (List<Integer> indices : units.values()) {
+            partitions.get(unit++ % threadCount).addAll(indices);
+        }
+
+        LOGGER.info("Extracting facts of " + units.size()
+                + " compilation units");
+        TypeFacts[] facts = new TypeFacts[types.size()];
+        int detailInterval
+                = parser.getUnresolvedReferences().getDetailInterval();
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        List<Future<UnresolvedReferences>> futures = new ArrayList<>();
+        for (List<Integer> partition : partitions) {
+            futures.add(executor.submit(() -> {
+                FactExtractor extractor = new FactExtractor(detailInterval);
+                for (int index : partition) {
+                    facts[index] = extractor.extract(types.get(index));
+                }
+                return extractor.getUnresolvedReferences();
+            }));
+        }
+        executor.shutdown();
+
+        List<UnresolvedReferences> unresolved = new ArrayList<>();
+        for (Future<UnresolvedReferences> future : futures) {
+            try {
+                unresolved.add(future.get());
+            } catch (ExecutionException ex) {
+                executor.shutdownNow();
+                LOGGER.error("Could not extract the facts of a compilation "
+                        + "unit", ex.getCause());
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                if (ex.getCause() instanceof Error) {
+                    throw (Error) ex.getCause();
+                }
+                throw new IllegalStateException(
+                        "Could not extract the facts of a compilation unit",
+                        ex.getCause()
+                );
+            } catch (InterruptedException ex) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(
+                        "Interrupted while extracting facts", ex
+                );
+            }
+        }
+        for (UnresolvedReferences references : unresolved) {
+            parser.getUnresolvedReferences().merge(references);
+        }
+
+        List<TypeFacts> extracted = new ArrayList<>();
+        for (TypeFacts typeFacts : facts) {
+            if (typeFacts != null) {
+                extracted.add(typeFacts);
+            }
+        }
+        parser.getMetricsRegistry().recordTime(
+                "facts.extract", System.nanoTime() - startTime
+        );
+        return extracted;
+    }
+
+    /**
+     * Applies extracted facts to the graph.
+     *
+     * @param facts The facts of the types, in the order to add them
+     */
+    public void apply(List<TypeFacts> facts) {
+        long startTime = System.nanoTime();
+        new FactWriter(
+                parser.getFramedGraph(),
+                parser.getTypeResolutionMemo(),
+                parser.getCommitChunker(),
+                parser.getChangeJournal()
+        ).apply(facts);
+        parser.getMetricsRegistry().recordTime(
+                "facts.apply", System.nanoTime() - startTime
+        );
+    }
+
+}
@@ -0,0 +1,182 @@
+package edu.rug.pyne.api.parser.facts;
+
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.parser.ChangeJournal;
+import edu.rug.pyne.api.parser.CommitChunker;
+import edu.rug.pyne.api.parser.analysisprocessor.TypeResolutionMemo;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.List;
+import java.util.Map;
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+/**
+ * Applies extracted facts to the graph. It gives the same graph as the class
+ * processors and class analysis: first all classes are added, then their
+ * dependencies.
+ *
+ * Only one writer should change a graph at a time.
+ */
+public class FactWriter {
+
+    private static final Logger LOGGER
+            = LogManager.getLogger(FactWriter.class);
+
+    private final FramedGraph framedGraph;
+    private final TypeResolutionMemo memo;
+    private final CommitChunker commitChunker;
+    private final ChangeJournal changeJournal;
+
+    /**
+     * Creates a writer for the given graph.
+     *
+     * @param framedGraph The graph to apply the facts to
+     * @param memo The memo to find and remember vertices with
+     * @param commitChunker The writer to record the changed types with
+     * @param changeJournal The journal to record the changed classes in
+     */
+    public FactWriter(FramedGraph framedGraph, TypeResolutionMemo memo,
+            CommitChunker commitChunker, ChangeJournal changeJournal) {
+
+        this.framedGraph = framedGraph;
+        this.memo = memo;
+        this.commitChunker = commitChunker;
+        this.changeJournal = changeJournal;
+    }
+
+    /**
+     * Applies the facts of the given types.
+     *
+     * @param types The facts of the types, in the order to add them
+     */
+    public void apply(List<TypeFacts> types) {
+        for (TypeFacts type : types) {
+            applyStructure(type);
+        }
+        for (TypeFacts type : types) {
+            applyDependencies(type);
+        }
+    }
+
+    /**
+     * Adds the class vertex of a type and the package it belongs to.
+     *
+     * @param type The facts of the type
+     */
+    private void applyStructure(TypeFacts type) {
+        try {
+            VertexClass vertex = memo.getVertexClass(
+                    framedGraph, type.getName()
+            );
+            if (vertex == null) {
+                vertex = VertexClass.createSystemClass(
+                        framedGraph, type.getName(), type.getClassModifier()
+                );
+                memo.addVertexClass(vertex);
+            }
+
+            if (vertex.getBelongsToPackage() == null
+                    && type.getPackageName() != null) {
+                VertexPackage packageVertex = getOrCreatePackage(
+                        type.getPackageName(), type.getPackageType()
+                );
+                vertex.setBelongsTo(packageVertex);
+                vertex.setLinesOfCode(type.getLinesOfCode());
+            }
+            commitChunker.record();
+        } catch (Exception ex) {
+            LOGGER.error("Error while adding class " + type.getName() + ": "
+                    + ex.getMessage());
+        }
+    }
+
+    /**
+     * Adds the edges of a type to its superclass, interfaces and referenced
+     * types.
+     *
+     * @param type The facts of the type
+     */
+    private void applyDependencies(TypeFacts type) {
+        VertexClass vertex = memo.getVertexClass(framedGraph, type.getName());
+        if (vertex == null) {
+            return;
+        }
+
+        if (type.getSuperclass() != null) {
+            vertex.addChildOfClass(
+                    getOrCreateVertexClass(type, type.getSuperclass())
+            );
+        }
+        for (String superInterface : type.getInterfaces()) {
+            vertex.addImplematationOfClass(
+                    getOrCreateVertexClass(type, superInterface)
+            );
+        }
+
+        for (Map.Entry<String, Integer> dependency
+                : type.getDependencies().entrySet()) {
+            vertex.addDependOnClass(
+                    getOrCreateVertexClass(type, dependency.getKey()),
+                    dependency.getValue()
+            );
+        }
+        changeJournal.recordChanged(vertex);
+        commitChunker.record();
+    }
+
+    /**
+     * Gets the vertex class of a referenced type. If it does not exist a new
+     * vertex class, with SystemType set to RetrievedClass, is created.
+     *
+     * @param type The facts of the type with the reference
+     * @param name The qualified name of the referenced type
+     * @return The found or created vertex
+     */
+    private VertexClass getOrCreateVertexClass(TypeFacts type, String name) {
+
+        VertexClass vertexClass = memo.getVertexClass(framedGraph, name);
+        if (vertexClass != null) {
+            return vertexClass;
+        }
+
+        vertexClass = VertexClass.createRetrievedClass(framedGraph, name);
+        memo.addVertexClass(vertexClass);
+
+        ReferenceFacts reference = type.getReference(name);
+        VertexPackage packageVertex = null;
+        if (reference == null) {
+            return vertexClass;
+        } else if (reference.isPrimitive()) {
+            packageVertex = getOrCreatePackage("java.lang", "RetrievedPackage");
+        } else if (reference.getPackageName() != null) {
+            packageVertex = getOrCreatePackage(
+                    reference.getPackageName(), reference.getPackageType()
+            );
+        }
+
+        if (packageVertex != null) {
+            vertexClass.setBelongsTo(packageVertex);
+        }
+        return vertexClass;
+    }
+
+    /**
+     * Gets a package vertex by name, or creates it with the given type.
+     *
+     * @param name The qualified name of the package
+     * @param packageType The package type to create it with
+     * @return The found or created package vertex
+     */
+    private VertexPackage getOrCreatePackage(String name, String packageType) {
+        VertexPackage packageVertex = memo.getVertexPackage(framedGraph, name);
+        if (packageVertex == null) {
+            packageVertex = VertexPackage.createVertexPackage(
+                    framedGraph, name, packageType
+            );
+            memo.addVertexPackage(packageVertex);
+        }
+        return packageVertex;
+    }
+
+}
@@ -0,0 +1,110 @@
+package edu.rug.pyne.api.parser.facts;
+
+import edu.rug.pyne.api.structure.VertexPackage;
+import spoon.reflect.reference.CtPackageReference;
+import spoon.reflect.reference.CtTypeReference;
+
+/**
+ * The facts about a referenced type needed to create its vertex when it is
+ * not in the graph yet.
+ */
+public class ReferenceFacts {
+
+    private final String name;
+    private final boolean primitive;
+    private final String packageName;
+    private final String packageType;
+
+    /**
+     * Creates the facts of a referenced type.
+     *
+     * @param name The qualified name of the type
+     * @param primitive If the type is a primitive
+     * @param packageName The qualified name of the package, null if unknown
+     * @param packageType The package type: SystemPackage or RetrievedPackage
+     */
+    public ReferenceFacts(String name, boolean primitive, String packageName,
+            String packageType) {
+
+        this.name = name;
+        this.primitive = primitive;
+        this.packageName = packageName;
+        this.packageType = packageType;
+    }
+
+    /**
+     * Creates the facts of a type reference. An inner class does not have a
+     * package, so the package of the outer class is used.
+     *
+     * @param reference The type reference
+     * @return The facts of the referenced type
+     */
+    public static ReferenceFacts of(CtTypeReference<?> reference) {
+        CtTypeReference<?> cur = reference;
+        while (!cur.isPrimitive() && cur.getPackage() == null) {
+            CtTypeReference<?> tmp = cur.getDeclaringType();
+            if (tmp == null || tmp.getPackage() == null) {
+                break;
+            }
+            cur = tmp;
+        }
+
+        if (cur.isPrimitive()) {
+            return new ReferenceFacts(
+                    reference.getQualifiedName(), true, null, null
+            );
+        }
+
+        CtPackageReference ctPackage = cur.getPackage();
+        if (ctPackage == null) {
+            return new ReferenceFacts(
+                    reference.getQualifiedName(), false, null, null
+            );
+        }
+        return new ReferenceFacts(
+                reference.getQualifiedName(),
+                false,
+                ctPackage.getQualifiedName(),
+                VertexPackage.isRetrieved(ctPackage)
+                        ? "RetrievedPackage" : "SystemPackage"
+        );
+    }
+
+    /**
+     * Gets the qualified name of the type.
+     *
+     * @return The qualified name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Checks if the type is a primitive, those belong to java.lang.
+     *
+     * @return True if the type is a primitive
+     */
+    public boolean isPrimitive() {
+        return primitive;
+    }
+
+    /**
+     * Gets the qualified name of the package of the type.
+     *
+     * @return The package name, null if unknown
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * Gets the type of the package of the type.
+     *
+     * @return SystemPackage or RetrievedPackage, null if the package is
+     * unknown
+     */
+    public String getPackageType() {
+        return packageType;
+    }
+
+}
@@ -0,0 +1,191 @@
+package edu.rug.pyne.api.parser.facts;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The facts of one source code class or interface: its declaration, its
+ * supertypes and the types it references with their counts. Holds no
+ * references to the Spoon model, so the model can be dropped once the facts
+ * are extracted.
+ */
+public class TypeFacts {
+
+    private final String name;
+    private final String classModifier;
+    private final File file;
+
+    // The package of the type, null if it could not be determined
+    private String packageName;
+    private String packageType;
+    private long linesOfCode;
+
+    private String superclass;
+    private final List<String> interfaces = new ArrayList<>();
+
+    // The referenced types with the number of references
+    private final Map<String, Integer> dependencies = new LinkedHashMap<>();
+
+    // The facts of the supertypes and referenced types by qualified name
+    private final Map<String, ReferenceFacts> references = new HashMap<>();
+
+    /**
+     * Creates the facts of a type.
+     *
+     * @param name The qualified name of the type
+     * @param classModifier The modifier: none, Abstract or Interface
+     * @param file The file the type is declared in, null if unknown
+     */
+    public TypeFacts(String name, String classModifier, File file) {
+        this.name = name;
+        this.classModifier = classModifier;
+        this.file = file;
+    }
+
+    /**
+     * Sets the package the type belongs to and its size.
+     *
+     * @param packageName The qualified name of the package
+     * @param packageType The package type: SystemPackage or RetrievedPackage
+     * @param linesOfCode The number of lines of code of the type
+     */
+    public void setPackage(String packageName, String packageType,
+            long linesOfCode) {
+
+        this.packageName = packageName;
+        this.packageType = packageType;
+        this.linesOfCode = linesOfCode;
+    }
+
+    /**
+     * Sets the superclass of the type.
+     *
+     * @param superclass The qualified name of the superclass
+     */
+    public void setSuperclass(String superclass) {
+        this.superclass = superclass;
+    }
+
+    /**
+     * Adds an implemented interface of the type.
+     *
+     * @param superInterface The qualified name of the interface
+     */
+    public void addInterface(String superInterface) {
+        interfaces.add(superInterface);
+    }
+
+    /**
+     * Counts a reference to another type.
+     *
+     * @param type The qualified name of the referenced type
+     */
+    public void addDependency(String type) {
+        dependencies.merge(type, 1, Integer::sum);
+    }
+
+    /**
+     * Adds the facts of a supertype or referenced type, if not known yet.
+     *
+     * @param reference The facts of the referenced type
+     */
+    public void addReference(ReferenceFacts reference) {
+        references.putIfAbsent(reference.getName(), reference);
+    }
+
+    /**
+     * Gets the qualified name of the type.
+     *
+     * @return The qualified name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the class modifier of the type.
+     *
+     * @return The modifier: none, Abstract or Interface
+     */
+    public String getClassModifier() {
+        return classModifier;
+    }
+
+    /**
+     * Gets the file the type is declared in.
+     *
+     * @return The file, null if unknown
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the qualified name of the package of the type.
+     *
+     * @return The package name, null if it could not be determined
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * Gets the type of the package of the type.
+     *
+     * @return SystemPackage or RetrievedPackage
+     */
+    public String getPackageType() {
+        return packageType;
+    }
+
+    /**
+     * Gets the number of lines of code of the type.
+     *
+     * @return The non-comment lines of code
+     */
+    public long getLinesOfCode() {
+        return linesOfCode;
+    }
+
+    /**
+     * Gets the superclass of the type.
+     *
+     * @return The qualified name of the superclass, null if none
+     */
+    public String getSuperclass() {
+        return superclass;
+    }
+
+    /**
+     * Gets the implemented interfaces of the type.
+     *
+     * @return The qualified names of the interfaces
+     */
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    /**
+     * Gets the referenced types with the number of references.
+     *
+     * @return The number of references by qualified name
+     */
+    public Map<String, Integer> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Gets the facts of a supertype or referenced type.
+     *
+     * @param name The qualified name of the referenced type
+     * @return The facts, null if the type is not referenced
+     */
+    public ReferenceFacts getReference(String name) {
+        return references.get(name);
+    }
+
+}
@@ -75,10 +75,13 @@ public class ClassRemover extends AbstractProcessor<CtClass<?>> {
         // If it is in a removed files it needs to be complete removed
         // Otherwise only the edges need to be removed
         if (parser.getRemovedFiles().contains(curFile)) {
+            parser.getChangeJournal().recordRemoved(vertex.getName());
             vertex.remove();
         } else if (parser.getModifiedFiles().contains(curFile)) {
+            parser.getChangeJournal().recordChanged(vertex);
             vertex.removeEdges();
         }
+        parser.getCommitChunker().record();
 
     }
 
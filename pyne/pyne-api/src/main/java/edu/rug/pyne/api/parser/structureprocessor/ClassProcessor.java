@@ -13,7 +13,7 @@ import spoon.reflect.declaration.CtClass;
 import spoon.reflect.declaration.CtType;
 import spoon.reflect.reference.CtTypeReference;
 
-import java.util.regex.Pattern;
+import java.io.IOException;
 
 /**
  * This a structure processor. It takes the source code class and adds it as a
@@ -31,6 +31,9 @@ public class ClassProcessor extends AbstractProcessor<CtClass<?>> {
     // The parser containing additional information
     private final Parser parser;
 
+    // Counts the lines of the classes, sharing the scan of a file
+    private final LineCounter lineCounter = new LineCounter();
+
     /**
      * This class processor implements a spoon processor to find source code
      * classes
@@ -104,26 +107,40 @@ public class ClassProcessor extends AbstractProcessor<CtClass<?>> {
                 vertex.setBelongsTo(packageVertex);
                 vertex.setLinesOfCode(countLOC(clazz));
             }
+            parser.getCommitChunker().record();
         }catch (Exception e){
             LOGGER.error("Spoon error while analysing class " + clazz.getQualifiedName() + ": " + e.getMessage());
         }
 
     }
 
-    private Pattern linePattern = Pattern.compile("[^\\s*].*[\\n\\r]+");
+    /**
+     * Counts the non-comment lines of code of a class from its original
+     * source code. Inner classes are counted as part of their outer class.
+     *
+     * @param clazz The class to count the lines of
+     * @return The number of lines with code, 0 if the source is not known
+     */
     private long countLOC(CtType<?> clazz){
-        var linesOfCode = 0;
         try {
-            var sourceCode = clazz.toString();
-
-            var matcher = linePattern.matcher(sourceCode);
-
-            while (matcher.find())
-                linesOfCode++;
-        }catch (SpoonException e){
-            LOGGER.warn("Spoon could not fetch class " + clazz.getQualifiedName() + ", 0 LOC assigned.");
+            LineMetrics lineMetrics = lineCounter.count(clazz);
+            if (lineMetrics != null) {
+                return lineMetrics.getCodeLines();
+            }
+            LOGGER.warn("No source position for class " + clazz.getQualifiedName() + ", 0 LOC assigned.");
+        }catch (IOException | SpoonException e){
+            LOGGER.warn("Could not read the source of class " + clazz.getQualifiedName() + ", 0 LOC assigned.");
         }
-        return linesOfCode;
+        return 0;
+    }
+
+    /**
+     * Forgets the scanned source files, so the next model is counted from
+     * its own sources.
+     */
+    @Override
+    public void processingDone() {
+        lineCounter.clear();
     }
 
 }
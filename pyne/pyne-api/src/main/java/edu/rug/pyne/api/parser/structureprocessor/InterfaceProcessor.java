@@ -41,4 +41,12 @@ public class InterfaceProcessor extends AbstractProcessor<CtInterface<?>> {
         processor.processClass(clazz);
     }
 
+    /**
+     * Forgets the source files scanned by the class processor.
+     */
+    @Override
+    public void processingDone() {
+        processor.processingDone();
+    }
+
 }
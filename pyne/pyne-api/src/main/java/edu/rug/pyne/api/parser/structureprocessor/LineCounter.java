@@ -0,0 +1,224 @@
+package edu.rug.pyne.api.parser.structureprocessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import spoon.reflect.cu.CompilationUnit;
+import spoon.reflect.cu.SourcePosition;
+import spoon.reflect.declaration.CtType;
+
+/**
+ * Counts the lines of types from their original source code. Every file is
+ * scanned once, after which the counts of each type in it, including inner
+ * classes, are taken from its line span.
+ */
+public class LineCounter {
+
+    /**
+     * The scanned lines of one file. For every line it holds the number of
+     * code and comment lines up to and including that line.
+     */
+    static class FileLines {
+
+        // The source the lines are counted from, to detect a changed file
+        private final String source;
+
+        // The counts up to a line, index 0 is before the first line
+        private final int[] codeLines;
+        private final int[] commentLines;
+
+        /**
+         * Scans the given source code.
+         *
+         * @param source The source code of a file
+         */
+        FileLines(String source) {
+            this.source = source;
+
+            int lineCount = 1;
+            for (int i = 0; i < source.length(); i++) {
+                char c = source.charAt(i);
+                if (c == '\n' || (c == '\r' && (i + 1 == source.length()
+                        || source.charAt(i + 1) != '\n'))) {
+                    lineCount++;
+                }
+            }
+            codeLines = new int[lineCount + 1];
+            commentLines = new int[lineCount + 1];
+            scan();
+        }
+
+        /**
+         * Goes over the source once and fills the line counts. Strings and
+         * characters are skipped, so comment markers in them are ignored.
+         */
+        private void scan() {
+            final int code = 0;
+            final int lineComment = 1;
+            final int blockComment = 2;
+            final int string = 3;
+            final int character = 4;
+
+            int state = code;
+            int line = 1;
+            boolean hasCode = false;
+            boolean hasComment = false;
+
+            int length = source.length();
+            for (int i = 0; i < length; i++) {
+                char c = source.charAt(i);
+                char next = i + 1 < length ? source.charAt(i + 1) : 0;
+
+                if (c == '\n' || c == '\r') {
+                    if (c == '\r' && next == '\n') {
+                        i++;
+                    }
+                    codeLines[line] = codeLines[line - 1] + (hasCode ? 1 : 0);
+                    commentLines[line] = commentLines[line - 1]
+                            + (hasComment && !hasCode ? 1 : 0);
+                    line++;
+                    hasCode = false;
+                    hasComment = false;
+                    if (state == lineComment) {
+                        state = code;
+                    }
+                    continue;
+                }
+
+                switch (state) {
+                    case code:
+                        if (c == '/' && next == '/') {
+                            state = lineComment;
+                            hasComment = true;
+                            i++;
+                        } else if (c == '/' && next == '*') {
+                            state = blockComment;
+                            hasComment = true;
+                            i++;
+                        } else if (!Character.isWhitespace(c)) {
+                            hasCode = true;
+                            if (c == '"') {
+                                state = string;
+                            } else if (c == '\'') {
+                                state = character;
+                            }
+                        }
+                        break;
+                    case blockComment:
+                        if (c == '*' && next == '/') {
+                            state = code;
+                            i++;
+                        }
+                        if (!Character.isWhitespace(c)) {
+                            hasComment = true;
+                        }
+                        break;
+                    case string:
+                    case character:
+                        if (c == '\\') {
+                            i++;
+                        } else if ((state == string && c == '"')
+                                || (state == character && c == '\'')) {
+                            state = code;
+                        }
+                        break;
+                    default:
+                        // The rest of a line comment
+                        break;
+                }
+            }
+
+            // The last line does not have to end with a line separator
+            codeLines[line] = codeLines[line - 1] + (hasCode ? 1 : 0);
+            commentLines[line] = commentLines[line - 1]
+                    + (hasComment && !hasCode ? 1 : 0);
+        }
+
+        /**
+         * Gets the line counts of a span of lines.
+         *
+         * @param firstLine The first line, starting at 1
+         * @param lastLine The last line, inclusive
+         * @return The line counts of the span
+         */
+        LineMetrics getMetrics(int firstLine, int lastLine) {
+            int first = Math.max(firstLine, 1);
+            int last = Math.min(lastLine, codeLines.length - 1);
+            if (last < first) {
+                return new LineMetrics(0, 0, 0);
+            }
+            return new LineMetrics(
+                    last - first + 1,
+                    codeLines[last] - codeLines[first - 1],
+                    commentLines[last] - commentLines[first - 1]
+            );
+        }
+
+    }
+
+    // The scanned files
+    private final Map<File, FileLines> files = new HashMap<>();
+
+    /**
+     * Counts the lines of a type. Types in the same file share the scan of
+     * the file.
+     *
+     * @param type The type to count the lines of
+     * @return The line counts, null if the source of the type is not known
+     * @throws IOException Thrown when the source file cannot be read
+     */
+    public LineMetrics count(CtType<?> type) throws IOException {
+        SourcePosition position = type.getPosition();
+        if (!position.isValidPosition() || position.getFile() == null) {
+            return null;
+        }
+
+        FileLines fileLines = getFileLines(position);
+        return fileLines.getMetrics(position.getLine(), position.getEndLine());
+    }
+
+    /**
+     * Gets the scanned lines of the file of a position, scanning it if it is
+     * not known or changed.
+     *
+     * @param position The position in the file
+     * @return The scanned lines of the file
+     * @throws IOException Thrown when the source file cannot be read
+     */
+    private FileLines getFileLines(SourcePosition position)
+            throws IOException {
+
+        CompilationUnit compilationUnit = position.getCompilationUnit();
+        String source = compilationUnit == null
+                ? null : compilationUnit.getOriginalSourceCode();
+
+        FileLines fileLines = files.get(position.getFile());
+        // The compilation unit keeps its source, so a new model gives a new
+        // source and the file has to be scanned again.
+        if (fileLines != null
+                && (source == null || fileLines.source == source)) {
+            return fileLines;
+        }
+
+        if (source == null) {
+            source = new String(
+                    Files.readAllBytes(position.getFile().toPath()),
+                    StandardCharsets.UTF_8
+            );
+        }
+        fileLines = new FileLines(source);
+        files.put(position.getFile(), fileLines);
+        return fileLines;
+    }
+
+    /**
+     * Removes all scanned files.
+     */
+    public void clear() {
+        files.clear();
+    }
+
+}
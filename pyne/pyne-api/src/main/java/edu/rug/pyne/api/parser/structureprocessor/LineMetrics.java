@@ -0,0 +1,62 @@
+package edu.rug.pyne.api.parser.structureprocessor;
+
+/**
+ * The line counts of a piece of source code.
+ */
+public class LineMetrics {
+
+    private final int lines;
+    private final int codeLines;
+    private final int commentLines;
+
+    /**
+     * Creates the line counts of a piece of source code.
+     *
+     * @param lines The total number of lines
+     * @param codeLines The number of lines with code
+     * @param commentLines The number of lines with only comments
+     */
+    public LineMetrics(int lines, int codeLines, int commentLines) {
+        this.lines = lines;
+        this.codeLines = codeLines;
+        this.commentLines = commentLines;
+    }
+
+    /**
+     * Gets the total number of lines, including blank and comment lines.
+     *
+     * @return The number of lines
+     */
+    public int getLines() {
+        return lines;
+    }
+
+    /**
+     * Gets the number of lines that contain code, the non-comment lines of
+     * code. A line with code and a comment counts as a code line.
+     *
+     * @return The number of lines with code
+     */
+    public int getCodeLines() {
+        return codeLines;
+    }
+
+    /**
+     * Gets the number of lines that contain a comment and no code.
+     *
+     * @return The number of comment lines
+     */
+    public int getCommentLines() {
+        return commentLines;
+    }
+
+    /**
+     * Gets the number of lines without code or comments.
+     *
+     * @return The number of blank lines
+     */
+    public int getBlankLines() {
+        return lines - codeLines - commentLines;
+    }
+
+}
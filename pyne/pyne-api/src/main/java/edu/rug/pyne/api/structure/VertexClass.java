@@ -86,12 +86,30 @@ public abstract class VertexClass extends AbstractVertexFrame {
             classModifier = "Interface";
         }
 
+        return createSystemClass(
+                framedGraph, clazz.getQualifiedName(), classModifier
+        );
+    }
+
+    /**
+     * This static function creates a new system class from its name and
+     * class modifier
+     *
+     * @param framedGraph The graph to add the class vertex to
+     * @param name The qualified name of the class
+     * @param classModifier The modifier: none, Abstract or Interface
+     * @return The newly created class vertex
+     */
+    public static VertexClass createSystemClass(
+            FramedGraph framedGraph, String name, String classModifier
+    ) {
+
         // Create the vertex class with the class label
         VertexClass vertex = framedGraph.addFramedVertex(
                 new DefaultClassInitializer<>(VertexClass.class), T.label, LABEL
         );
 
-        vertex.setName(clazz.getQualifiedName());
+        vertex.setName(name);
         vertex.setClassType(ClassType.SystemClass);
         vertex.setClassModifier(classModifier);
 
@@ -190,6 +208,23 @@ public abstract class VertexClass extends AbstractVertexFrame {
     @Property("classModifier")
     public abstract void setClassModifier(String classModifier);
 
+    /**
+     * Gets the id of the dependency cycle this class is part of, as set by
+     * the cycle post processor
+     *
+     * @return The cycle id, or null if the class is not part of a cycle
+     */
+    @Property("cycleId")
+    public abstract Integer getCycleId();
+
+    /**
+     * Sets the id of the dependency cycle this class is part of
+     *
+     * @param cycleId The cycle id, or null to remove it
+     */
+    @Property("cycleId")
+    public abstract void setCycleId(Integer cycleId);
+
     /**
      * This function removes all the edges from the vertex class
      */
@@ -367,6 +402,21 @@ public abstract class VertexClass extends AbstractVertexFrame {
      * been incremented.
      */
     public EdgeDependsOn addDependOnClass(VertexClass dependingClass) {
+        return addDependOnClass(dependingClass, 1);
+    }
+
+    /**
+     * Adds a depends on edge with the given weight. If the edge already
+     * exists its weight is increased by the given weight instead.
+     *
+     * @param dependingClass The class this vertex class depends on.
+     * @param weight The number of dependencies to add
+     *
+     * @return The newly created edge, or the already existing edge that has
+     * been increased.
+     */
+    public EdgeDependsOn addDependOnClass(VertexClass dependingClass,
+            int weight) {
 
         if (dependingClass.getName().equals(getName())) {
             return null;
@@ -379,16 +429,16 @@ public abstract class VertexClass extends AbstractVertexFrame {
 
         EdgeDependsOn dependOnEdge;
         if (dependency.isEmpty()) {
-            // Create an edge and set the weight to 1
+            // Create an edge and set the weight
             dependOnEdge = addFramedEdge(
                     "dependsOn", dependingClass, EdgeDependsOn.class
             );
 
-            dependOnEdge.setWeight(1);
+            dependOnEdge.setWeight(weight);
         } else {
-            // Increment the weight.
+            // Increase the weight.
             dependOnEdge = dependency.get();
-            dependOnEdge.incrementWeight();
+            dependOnEdge.setWeight(dependOnEdge.getWeight() + weight);
         }
         return dependOnEdge;
     }
@@ -67,16 +67,33 @@ public abstract class VertexPackage extends AbstractVertexFrame {
     ) {
 
         // Check if this package comes from within the source files
-        String packageType = ctPackage.isImplicit() || ctPackage.getSimpleName().equals("$") ||  ctPackage.getDeclaration() == null || ctPackage.isUnnamedPackage()
+        String packageType = isRetrieved(ctPackage)
                 ? "RetrievedPackage" : "SystemPackage";
 
+        return createVertexPackage(
+                framedGraph, ctPackage.getQualifiedName(), packageType
+        );
+    }
+
+    /**
+     * This creates a new vertex on the graph denoting a package.
+     *
+     * @param framedGraph The graph to add the vertex to
+     * @param packageName The qualified name of the package
+     * @param packageType The package type: SystemPackage or RetrievedPackage
+     * @return The newly created vertex.
+     */
+    public static VertexPackage createVertexPackage(
+            FramedGraph framedGraph, String packageName, String packageType
+    ) {
+
         VertexPackage vertex = framedGraph.addFramedVertex(
                 new DefaultClassInitializer<>(VertexPackage.class),
                 T.label,
                 LABEL
         );
 
-        vertex.setName(ctPackage.getQualifiedName());
+        vertex.setName(packageName);
         vertex.setPackageType(packageType);
         vertex.setNumTotalDep(0);
         vertex.setNumOfClassesInPackage(0);
@@ -84,6 +101,19 @@ public abstract class VertexPackage extends AbstractVertexFrame {
         return vertex;
     }
 
+    /**
+     * Checks if a package reference denotes a package from outside the
+     * source files.
+     *
+     * @param ctPackage The reference to the package
+     * @return True if the package is not declared in the source files
+     */
+    public static boolean isRetrieved(CtPackageReference ctPackage) {
+        return ctPackage.isImplicit() || ctPackage.getSimpleName().equals("$")
+                || ctPackage.getDeclaration() == null
+                || ctPackage.isUnnamedPackage();
+    }
+
     /**
      * This static function gives a vertex package back from a qualified package
      * name or returns null when not found.
@@ -189,6 +219,23 @@ public abstract class VertexPackage extends AbstractVertexFrame {
     @Property("numOfClassesInPackage")
     public abstract void setNumOfClassesInPackage(int numOfClassesInPackage);
 
+    /**
+     * Gets the id of the dependency cycle this package is part of, as set by
+     * the cycle post processor
+     *
+     * @return The cycle id, or null if the package is not part of a cycle
+     */
+    @Property("cycleId")
+    public abstract Integer getCycleId();
+
+    /**
+     * Sets the id of the dependency cycle this package is part of
+     *
+     * @param cycleId The cycle id, or null to remove it
+     */
+    @Property("cycleId")
+    public abstract void setCycleId(Integer cycleId);
+
     /**
      * Increment the total number of classes by one
      */
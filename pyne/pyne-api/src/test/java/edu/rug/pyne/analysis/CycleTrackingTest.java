@@ -0,0 +1,261 @@
+package edu.rug.pyne.analysis;
+
+import com.syncleus.ferma.DelegatingFramedGraph;
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.analysisprocessor.CyclePostProcess;
+import edu.rug.pyne.api.parser.analysisprocessor.SccIndex;
+import edu.rug.pyne.api.structure.EdgeDependsOn;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the incremental cycle index and the cycle post processor.
+ */
+public class CycleTrackingTest {
+
+    /**
+     * Test that the components stay the same as the ones found by searching
+     * the whole graph, while random edges are added and removed.
+     */
+    @Test
+    public void testRandomChanges() {
+        Random random = new Random(42);
+        int vertices = 30;
+        SccIndex index = new SccIndex();
+        for (int i = 0; i < vertices; i++) {
+            index.addVertex();
+        }
+
+        List<int[]> edges = new ArrayList<>();
+        for (int step = 0; step < 3000; step++) {
+            // Keep few enough edges for many small cycles
+            if (edges.size() < 20
+                    || (edges.size() < 45 && random.nextBoolean())) {
+                int[] edge = {
+                    random.nextInt(vertices), random.nextInt(vertices)
+                };
+                index.addEdge(edge[0], edge[1]);
+                edges.add(edge);
+            } else {
+                int[] edge = edges.remove(random.nextInt(edges.size()));
+                index.removeEdge(edge[0], edge[1]);
+            }
+            assertSameComponents(index, vertices);
+        }
+    }
+
+    /**
+     * Test that a cycle keeps its id when it grows and when it shrinks.
+     */
+    @Test
+    public void testStableIds() {
+        SccIndex index = new SccIndex();
+        for (int i = 0; i < 5; i++) {
+            index.addVertex();
+        }
+        index.addEdge(0, 1);
+        index.addEdge(1, 2);
+        index.addEdge(2, 0);
+        int cycleId = index.getComponent(0);
+        assertEquals(1, index.getCycleCount());
+        assertEquals(3, index.getComponentSize(1));
+
+        // Growing the cycle keeps the id of the largest component
+        index.addEdge(3, 4);
+        index.addEdge(4, 3);
+        index.addEdge(2, 3);
+        index.addEdge(3, 0);
+        assertEquals(1, index.getCycleCount());
+        assertEquals(cycleId, index.getComponent(4));
+
+        // A double edge has to be removed twice
+        index.addEdge(3, 0);
+        index.removeEdge(3, 0);
+        assertEquals(5, index.getComponentSize(0));
+
+        // Splitting keeps the id for the largest part
+        index.clearChanged();
+        index.removeEdge(3, 0);
+        assertEquals(2, index.getCycleCount());
+        assertEquals(cycleId, index.getComponent(0));
+        assertNotEquals(cycleId, index.getComponent(3));
+        assertEquals(Set.of(3, 4), index.getChangedVertices());
+
+        index.removeEdge(1, 2);
+        assertEquals(1, index.getCycleCount());
+        assertFalse(index.isInCycle(0));
+        assertTrue(index.isInCycle(3));
+    }
+
+    /**
+     * Test that the post processor sets the cycle ids of classes and
+     * packages and only updates the changed classes afterwards.
+     */
+    @Test
+    public void testPostProcess() {
+        FramedGraph framedGraph = new DelegatingFramedGraph<>(
+                TinkerGraph.open(), true, true
+        );
+        Parser parser = new Parser(framedGraph);
+        CyclePostProcess cycles = new CyclePostProcess(parser);
+
+        VertexPackage first = VertexPackage.createRetrievedPackage(
+                framedGraph, "first"
+        );
+        VertexPackage second = VertexPackage.createRetrievedPackage(
+                framedGraph, "second"
+        );
+        VertexClass a = createClass(framedGraph, "first.A", first);
+        VertexClass b = createClass(framedGraph, "first.B", first);
+        VertexClass c = createClass(framedGraph, "second.C", second);
+        VertexClass d = createClass(framedGraph, "second.D", second);
+        a.addDependOnClass(b);
+        b.addDependOnClass(a);
+        b.addDependOnClass(c);
+        c.addDependOnClass(d);
+
+        // The first step searches the whole graph
+        cycles.postProcess(framedGraph);
+        assertEquals(1, cycles.getClassCycleCount());
+        assertEquals(0, cycles.getPackageCycleCount());
+        assertNotNull(a.getCycleId());
+        assertEquals(a.getCycleId(), b.getCycleId());
+        assertNull(c.getCycleId());
+        assertNull(first.getCycleId());
+
+        // A dependency back from the second package joins both packages
+        parser.setAddedFiles(List.of());
+        d.addDependOnClass(a);
+        parser.getChangeJournal().recordChanged(d);
+        cycles.postProcess(framedGraph);
+        parser.getChangeJournal().clear();
+        assertEquals(1, cycles.getClassCycleCount());
+        assertEquals(1, cycles.getPackageCycleCount());
+        assertEquals(a.getCycleId(), d.getCycleId());
+        assertNotNull(first.getCycleId());
+        assertEquals(first.getCycleId(), second.getCycleId());
+
+        // Removing a class breaks the cycle through the second package
+        parser.getChangeJournal().recordRemoved(c.getName());
+        c.remove();
+        cycles.postProcess(framedGraph);
+        parser.getChangeJournal().clear();
+        assertEquals(1, cycles.getClassCycleCount());
+        assertEquals(0, cycles.getPackageCycleCount());
+        assertNotNull(a.getCycleId());
+        assertNull(d.getCycleId());
+        assertNull(second.getCycleId());
+
+        // Removing the edges of a changed class breaks the last cycle
+        for (EdgeDependsOn edge : b.getDependOnEdges()) {
+            edge.remove();
+        }
+        parser.getChangeJournal().recordChanged(b);
+        cycles.postProcess(framedGraph);
+        assertEquals(0, cycles.getClassCycleCount());
+        assertNull(a.getCycleId());
+        assertNull(b.getCycleId());
+    }
+
+    /**
+     * Creates a system class in a package.
+     *
+     * @param framedGraph The graph to create the class in
+     * @param name The qualified name of the class
+     * @param vertexPackage The package of the class
+     * @return The created class
+     */
+    private static VertexClass createClass(FramedGraph framedGraph,
+            String name, VertexPackage vertexPackage) {
+
+        VertexClass vertexClass = VertexClass.createSystemClass(
+                framedGraph, name, "none"
+        );
+        vertexClass.setBelongsTo(vertexPackage);
+        return vertexClass;
+    }
+
+    /**
+     * Checks that two vertices are in the same component exactly when they
+     * can reach each other.
+     *
+     * @param index The index to check
+     * @param vertices The number of vertices
+     */
+    private static void assertSameComponents(SccIndex index, int vertices) {
+        boolean[][] reachable = new boolean[vertices][];
+        for (int vertex = 0; vertex < vertices; vertex++) {
+            reachable[vertex] = reach(index, vertex, vertices);
+        }
+
+        int cycles = 0;
+        for (int from = 0; from < vertices; from++) {
+            int size = 0;
+            for (int to = 0; to < vertices; to++) {
+                boolean connected = reachable[from][to] && reachable[to][from];
+                assertEquals(connected,
+                        index.getComponent(from) == index.getComponent(to),
+                        "Vertices " + from + " and " + to);
+                if (connected) {
+                    size++;
+                }
+            }
+            assertEquals(size, index.getComponentSize(from));
+            if (size > 1 && isFirst(index, from)) {
+                cycles++;
+            }
+        }
+        assertEquals(cycles, index.getCycleCount());
+    }
+
+    /**
+     * Finds the vertices reachable from a vertex, including itself.
+     *
+     * @param index The index with the edges
+     * @param start The vertex to start at
+     * @param vertices The number of vertices
+     * @return Per vertex whether it is reachable
+     */
+    private static boolean[] reach(SccIndex index, int start, int vertices) {
+        boolean[] found = new boolean[vertices];
+        Deque<Integer> stack = new ArrayDeque<>();
+        found[start] = true;
+        stack.push(start);
+        while (!stack.isEmpty()) {
+            for (int next : index.getOutgoing(stack.pop())) {
+                if (!found[next]) {
+                    found[next] = true;
+                    stack.push(next);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Checks if a vertex is the lowest vertex of its component.
+     *
+     * @param index The index with the components
+     * @param vertex The vertex to check
+     * @return True if no lower vertex is in the same component
+     */
+    private static boolean isFirst(SccIndex index, int vertex) {
+        for (int other = 0; other < vertex; other++) {
+            if (index.getComponent(other) == index.getComponent(vertex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
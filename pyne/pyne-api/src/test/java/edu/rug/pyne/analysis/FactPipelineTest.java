@@ -0,0 +1,300 @@
+package edu.rug.pyne.analysis;
+
+import edu.rug.pyne.api.parser.Parser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Element;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that extracting facts before changing the graph gives the same graph
+ * as the structure and analysis processors.
+ */
+public class FactPipelineTest {
+
+    private File tempDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("pyne_facts_test_").toFile();
+        write("a/src/main/java/a/A.java", "package a;\n"
+                + "\n"
+                + "import b.B;\n"
+                + "import java.util.List;\n"
+                + "\n"
+                + "public abstract class A extends B implements Runnable {\n"
+                + "\n"
+                + "    private List<String> names;\n"
+                + "\n"
+                + "    // Calls into the other source directory\n"
+                + "    public int count() {\n"
+                + "        B.call();\n"
+                + "        B.call();\n"
+                + "        return names.size();\n"
+                + "    }\n"
+                + "\n"
+                + "    class Inner {\n"
+                + "        int value;\n"
+                + "    }\n"
+                + "}\n");
+        write("b/src/main/java/b/B.java", "package b;\n"
+                + "\n"
+                + "public class B {\n"
+                + "\n"
+                + "    public static void call() {\n"
+                + "        missing.Other.run();\n"
+                + "    }\n"
+                + "}\n");
+        write("b/src/main/java/b/I.java", "package b;\n"
+                + "\n"
+                + "public interface I extends Comparable<B> {\n"
+                + "}\n");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    /**
+     * Writes a source file below the temporary directory.
+     *
+     * @param path The relative path of the file
+     * @param content The content of the file
+     * @throws IOException Thrown when the file cannot be written
+     */
+    private void write(String path, String content) throws IOException {
+        File file = new File(tempDir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test that the facts give the same vertices, properties and edges.
+     */
+    @Test
+    public void testSameGraph() {
+        List<String> expected = assertSameGraph();
+        assertTrue(expected.contains("vertex {ClassType=SystemClass, "
+                + "classModifier=Abstract, linesOfCode=11, name=a.A}"));
+        // The invocations of B are resolved in another source directory
+        assertTrue(expected.contains("dependsOn a.A -> b.B {Weight=3}"));
+    }
+
+    /**
+     * Test that a type imported with a wildcard from another source
+     * directory is resolved to its declaration there.
+     */
+    @Test
+    public void testWildcardImport() throws IOException {
+        String source = new String(Files.readAllBytes(
+                new File(tempDir, "a/src/main/java/a/A.java").toPath()
+        ), StandardCharsets.UTF_8);
+        write("a/src/main/java/a/A.java",
+                source.replace("import b.B;", "import b.*;"));
+
+        List<String> expected = assertSameGraph();
+        assertTrue(expected.contains("isChildOf a.A -> b.B {}"));
+        assertTrue(expected.contains("dependsOn a.A -> b.B {Weight=3}"));
+    }
+
+    /**
+     * Test that a type of the same package declared in another source
+     * directory is resolved to its declaration there.
+     */
+    @Test
+    public void testSamePackageAcrossDirectories() throws IOException {
+        write("a/src/main/java/a/User.java", "package a;\n"
+                + "\n"
+                + "public class User extends Shared {\n"
+                + "\n"
+                + "    public void use() {\n"
+                + "        Shared.help();\n"
+                + "    }\n"
+                + "}\n");
+        write("b/src/main/java/a/Shared.java", "package a;\n"
+                + "\n"
+                + "public class Shared {\n"
+                + "\n"
+                + "    public static void help() {\n"
+                + "    }\n"
+                + "}\n");
+
+        List<String> expected = assertSameGraph();
+        assertTrue(expected.contains("isChildOf a.User -> a.Shared {}"));
+        assertTrue(expected.contains(
+                "dependsOn a.User -> a.Shared {Weight=2}"
+        ));
+    }
+
+    /**
+     * Test that a nested type of another source directory, referenced
+     * through its outer type, is resolved to its declaration there.
+     */
+    @Test
+    public void testNestedType() throws IOException {
+        writeNestedTypeUser("import b.Outer;\n", "Outer.Nested", "Outer.Nested");
+
+        List<String> expected = assertSameGraph();
+        assertTrue(expected.contains("isChildOf a.C -> b.Outer$Nested {}"));
+        assertTrue(expected.contains(
+                "dependsOn a.C -> b.Outer$Nested {Weight=3}"
+        ));
+    }
+
+    /**
+     * Test that an explicitly imported nested type of another source
+     * directory is resolved to its declaration there.
+     */
+    @Test
+    public void testNestedTypeImport() throws IOException {
+        writeNestedTypeUser("import b.Outer.Nested;\n", "Nested", "Nested");
+
+        List<String> expected = assertSameGraph();
+        assertTrue(expected.contains("isChildOf a.C -> b.Outer$Nested {}"));
+        assertTrue(expected.contains(
+                "dependsOn a.C -> b.Outer$Nested {Weight=3}"
+        ));
+    }
+
+    /**
+     * Test that a nested type of another source directory imported on
+     * demand is resolved to its declaration there, and no type is guessed in
+     * the package of the importing type.
+     */
+    @Test
+    public void testNestedTypeWildcardImport() throws IOException {
+        writeNestedTypeUser(
+                "import b.Outer;\nimport b.Outer.*;\n", "Nested", "Outer.Nested"
+        );
+
+        List<String> expected = assertSameGraph();
+        assertTrue(expected.contains("isChildOf a.C -> b.Outer$Nested {}"));
+        assertTrue(expected.contains(
+                "dependsOn a.C -> b.Outer$Nested {Weight=3}"
+        ));
+        for (String description : expected) {
+            assertFalse(description.contains("a.Nested"), description);
+        }
+    }
+
+    /**
+     * Writes a type with a nested type in one source directory, and a type
+     * using it in the other.
+     *
+     * @param imports The import declarations of the using type
+     * @param name The name the using type extends and invokes the nested
+     * type with
+     * @param fieldType The name the using type declares a field with
+     * @throws IOException Thrown when a file cannot be written
+     */
+    private void writeNestedTypeUser(String imports, String name,
+            String fieldType) throws IOException {
+
+        write("b/src/main/java/b/Outer.java", "package b;\n"
+                + "\n"
+                + "public class Outer {\n"
+                + "\n"
+                + "    public static class Nested {\n"
+                + "\n"
+                + "        public static void run() {\n"
+                + "        }\n"
+                + "    }\n"
+                + "}\n");
+        write("a/src/main/java/a/C.java", "package a;\n"
+                + "\n"
+                + imports
+                + "\n"
+                + "public class C extends " + name + " {\n"
+                + "\n"
+                + "    private " + fieldType + " field;\n"
+                + "\n"
+                + "    public void use() {\n"
+                + "        " + name + ".run();\n"
+                + "    }\n"
+                + "}\n");
+    }
+
+    /**
+     * Processes the temporary directory with the processors and with the
+     * fact extraction and checks that both give the same graph.
+     *
+     * @return The description of the graph of the processors
+     */
+    private List<String> assertSameGraph() {
+        Graph processed = TinkerGraph.open();
+        Parser parser = new Parser(processed);
+        parser.setRootDirectory(tempDir);
+        parser.process();
+
+        Graph extracted = TinkerGraph.open();
+        parser = new Parser(extracted);
+        parser.setRootDirectory(tempDir);
+        parser.setFactExtractionThreads(2);
+        parser.process();
+
+        List<String> expected = describe(processed);
+        assertEquals(expected, describe(extracted));
+        return expected;
+    }
+
+    /**
+     * Describes the vertices and edges of a graph independent of their ids.
+     *
+     * @param graph The graph to describe
+     * @return The sorted descriptions
+     */
+    private static List<String> describe(Graph graph) {
+        List<String> descriptions = new ArrayList<>();
+        graph.vertices().forEachRemaining((vertex) -> descriptions.add(
+                "vertex " + properties(vertex)
+        ));
+        graph.edges().forEachRemaining((edge) -> descriptions.add(
+                edge.label() + " " + name(edge.outVertex()) + " -> "
+                + name(edge.inVertex()) + " " + properties(edge)
+        ));
+        descriptions.sort(null);
+        return descriptions;
+    }
+
+    /**
+     * Gets the properties of an element, without the framing type.
+     *
+     * @param element The vertex or edge
+     * @return The properties sorted by key
+     */
+    private static Map<String, Object> properties(Element element) {
+        Map<String, Object> properties = new TreeMap<>();
+        element.properties().forEachRemaining((property) -> {
+            if (!property.key().startsWith("ferma")) {
+                properties.put(property.key(), property.value());
+            }
+        });
+        return properties;
+    }
+
+    /**
+     * Gets the name of a vertex.
+     *
+     * @param vertex The vertex
+     * @return The name property of the vertex
+     */
+    private static String name(Vertex vertex) {
+        return vertex.value("name");
+    }
+
+}
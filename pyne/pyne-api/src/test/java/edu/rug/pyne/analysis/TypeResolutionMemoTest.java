@@ -0,0 +1,95 @@
+package edu.rug.pyne.analysis;
+
+import com.syncleus.ferma.DelegatingFramedGraph;
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.parser.analysisprocessor.TypeResolutionMemo;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import org.apache.tinkerpop.gremlin.structure.T;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the memo of class and package vertices.
+ */
+public class TypeResolutionMemoTest {
+
+    private TinkerGraph graph;
+    private FramedGraph framedGraph;
+    private TypeResolutionMemo memo;
+
+    @BeforeEach
+    public void setUp() {
+        graph = TinkerGraph.open();
+        framedGraph = new DelegatingFramedGraph<>(graph, true, true);
+        memo = new TypeResolutionMemo();
+    }
+
+    /**
+     * Test that found and added vertices are answered by the memo.
+     */
+    @Test
+    public void testHits() {
+        VertexClass string = VertexClass.createRetrievedClass(
+                framedGraph, "java.lang.String"
+        );
+        assertNull(memo.getVertexClass(framedGraph, "java.util.List"));
+        assertEquals(string,
+                memo.getVertexClass(framedGraph, "java.lang.String"));
+        assertEquals(string,
+                memo.getVertexClass(framedGraph, "java.lang.String"));
+
+        VertexPackage javaLang = VertexPackage.createRetrievedPackage(
+                framedGraph, "java.lang"
+        );
+        memo.addVertexPackage(javaLang);
+        assertEquals(javaLang,
+                memo.getVertexPackage(framedGraph, "java.lang"));
+
+        assertEquals(2, memo.getHits());
+        assertEquals(2, memo.getMisses());
+    }
+
+    /**
+     * Test that a removed vertex is not returned and can be found again
+     * after it is created again.
+     */
+    @Test
+    public void testRemoved() {
+        VertexClass string = VertexClass.createRetrievedClass(
+                framedGraph, "java.lang.String"
+        );
+        memo.addVertexClass(string);
+        string.remove();
+        assertNull(memo.getVertexClass(framedGraph, "java.lang.String"));
+
+        VertexClass newString = VertexClass.createRetrievedClass(
+                framedGraph, "java.lang.String"
+        );
+        assertEquals(newString,
+                memo.getVertexClass(framedGraph, "java.lang.String"));
+    }
+
+    /**
+     * Test that a remembered id reused by the graph for another vertex does
+     * not return that vertex.
+     */
+    @Test
+    public void testReusedId() {
+        VertexClass string = VertexClass.createRetrievedClass(
+                framedGraph, "java.lang.String"
+        );
+        memo.addVertexClass(string);
+        Object id = string.getId();
+        string.remove();
+        graph.addVertex(
+                T.id, id, T.label, VertexPackage.LABEL, "name", "java.lang"
+        );
+
+        assertNull(memo.getVertexClass(framedGraph, "java.lang.String"));
+        assertEquals(0, memo.getHits());
+    }
+
+}
@@ -0,0 +1,71 @@
+package edu.rug.pyne.analysis;
+
+import edu.rug.pyne.api.metrics.MetricsSnapshot;
+import edu.rug.pyne.api.metrics.SimpleMetricsRegistry;
+import edu.rug.pyne.api.parser.Parser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the counting of invocations Spoon cannot resolve.
+ */
+public class UnresolvedReferencesTest {
+
+    private File tempDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("pyne_unresolved_test_").toFile();
+        File sourceDir = new File(tempDir, "src/main/java/a");
+        assertTrue(sourceDir.mkdirs());
+        Files.write(new File(sourceDir, "A.java").toPath(), (
+                "package a;\n"
+                + "public class A {\n"
+                + "    void f() {\n"
+                + "        b.Missing.call();\n"
+                + "        b.Missing.call();\n"
+                + "        b.Missing.other(1);\n"
+                + "        new B().g();\n"
+                + "    }\n"
+                + "}\n"
+        ).getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(sourceDir, "B.java").toPath(),
+                "package a;\npublic class B { void g() { } }\n"
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    /**
+     * Test that unresolved invocations are counted into the metrics and the
+     * counts are reset after the analysis step.
+     */
+    @Test
+    public void testCounts() {
+        SimpleMetricsRegistry metrics = new SimpleMetricsRegistry();
+        Parser parser = new Parser(TinkerGraph.open());
+        parser.setMetricsRegistry(metrics);
+        parser.getUnresolvedReferences().setDetailInterval(2);
+        parser.setRootDirectory(tempDir);
+        parser.process();
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        assertEquals(3L, (long) snapshot.getCounters()
+                .get("analysis.unresolved.declaration"));
+        assertEquals(0L, (long) snapshot.getCounters()
+                .get("analysis.unresolved.declaring_type"));
+        assertTrue(parser.getUnresolvedReferences().isEmpty());
+    }
+
+}
@@ -0,0 +1,122 @@
+package edu.rug.pyne.git;
+
+import edu.rug.pyne.api.git.ChangeSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Set;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the Java files found as changed between commits.
+ */
+public class ChangeSetTest {
+
+    // Long enough for the rename detection to find a rename
+    private static final String CLASS_B = "package b;\n\npublic class B {\n\n"
+            + "    public int value() {\n        return 42;\n    }\n\n}\n";
+
+    private File tempDir;
+    private File rootDir;
+    private Git git;
+
+    @BeforeEach
+    public void setUp() throws IOException, GitAPIException {
+        tempDir = Files.createTempDirectory("pyne_changeset_test_").toFile();
+        rootDir = tempDir.getCanonicalFile();
+        git = Git.init().setDirectory(tempDir).call();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        git.close();
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    private void writeFile(String path, String content)
+            throws IOException, GitAPIException {
+        File file = new File(tempDir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        git.add().addFilepattern(path).call();
+    }
+
+    private void removeFile(String path) throws GitAPIException {
+        new File(tempDir, path).delete();
+        git.rm().addFilepattern(path).call();
+    }
+
+    private RevCommit commit() throws GitAPIException {
+        return git.commit().setMessage("Change").call();
+    }
+
+    /**
+     * Test that only Java files are found, and that modifications, removals
+     * and renames end up in the right sets.
+     */
+    @Test
+    public void testCompute() throws IOException, GitAPIException {
+        writeFile("core/src/main/java/a/A.java", "class A {}");
+        writeFile("core/src/main/java/b/B.java", CLASS_B);
+        writeFile("core/src/main/java/c/C.java", "class C {}");
+        writeFile("README.md", "readme");
+        RevCommit oldCommit = commit();
+
+        writeFile("core/src/main/java/a/A.java", "class A { }");
+        removeFile("core/src/main/java/b/B.java");
+        writeFile("core/src/main/java/b/Moved.java", CLASS_B);
+        removeFile("core/src/main/java/c/C.java");
+        writeFile("util/src/D.java", "class D {}");
+        writeFile("README.md", "new readme");
+        RevCommit newCommit = commit();
+
+        ChangeSet changeSet = ChangeSet.compute(
+                git.getRepository(), oldCommit, newCommit
+        );
+
+        File fileA = new File(rootDir, "core/src/main/java/a/A.java");
+        File fileB = new File(rootDir, "core/src/main/java/b/B.java");
+        File fileMoved = new File(rootDir, "core/src/main/java/b/Moved.java");
+        File fileC = new File(rootDir, "core/src/main/java/c/C.java");
+        File fileD = new File(rootDir, "util/src/D.java");
+
+        assertEquals(Set.of(fileA, fileMoved, fileD), changeSet.getAddedFiles());
+        assertEquals(Set.of(fileA), changeSet.getModifiedFiles());
+        assertEquals(Set.of(fileB, fileC), changeSet.getRemovedFiles());
+        assertEquals(1, changeSet.getRenameCount());
+
+        assertEquals(
+                Set.of(fileA, fileB, fileMoved, fileC),
+                changeSet.getFilesBySourceRoot()
+                        .get(new File(rootDir, "core/src/main"))
+        );
+        assertEquals(
+                Set.of(fileD),
+                changeSet.getFilesBySourceRoot().get(new File(rootDir, "util/src"))
+        );
+    }
+
+    /**
+     * Test that a change without Java files gives an empty change set.
+     */
+    @Test
+    public void testNoJavaChanges() throws IOException, GitAPIException {
+        writeFile("src/A.java", "class A {}");
+        RevCommit oldCommit = commit();
+        writeFile("pom.xml", "<project/>");
+        RevCommit newCommit = commit();
+
+        assertTrue(ChangeSet.compute(
+                git.getRepository(), oldCommit, newCommit
+        ).isEmpty());
+    }
+
+}
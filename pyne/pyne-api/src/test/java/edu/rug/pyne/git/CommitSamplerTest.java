@@ -0,0 +1,167 @@
+package edu.rug.pyne.git;
+
+import edu.rug.pyne.api.git.CommitSampler;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.MergeCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the selection of commits to parse.
+ */
+public class CommitSamplerTest {
+
+    private File tempDir;
+    private Git git;
+
+    // The commits on the main line, oldest first
+    private final List<RevCommit> mainLine = new ArrayList<>();
+    private RevCommit sideCommit;
+
+    @BeforeEach
+    public void setUp() throws IOException, GitAPIException {
+        tempDir = Files.createTempDirectory("pyne_sampler_test_").toFile();
+        git = Git.init().setDirectory(tempDir).call();
+
+        // Two commits on the first of January, one on the second, all with
+        // the same time on the first day
+        mainLine.add(commit("A.java", date(1, 10)));
+        mainLine.add(commit("B.java", date(1, 10)));
+        git.branchCreate().setName("side").call();
+        mainLine.add(commit("C.java", date(2, 10)));
+
+        // A commit on a side branch that is merged back
+        git.checkout().setName("side").call();
+        sideCommit = commit("D.java", date(3, 10));
+        git.checkout().setName("master").call();
+        git.merge().include(sideCommit)
+                .setFastForward(MergeCommand.FastForwardMode.NO_FF)
+                .setCommit(false).call();
+        mainLine.add(commitMerge(date(4, 10)));
+        mainLine.add(commit("E.java", date(5, 10)));
+
+        git.tag().setName("v1").setObjectId(mainLine.get(1)).call();
+        git.tag().setName("v2").setObjectId(mainLine.get(4))
+                .setAnnotated(true).setMessage("Release").call();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        git.close();
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    private static Date date(int day, int hour) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getDefault());
+        calendar.clear();
+        calendar.set(2019, Calendar.JANUARY, day, hour, 0);
+        return calendar.getTime();
+    }
+
+    private RevCommit commit(String path, Date date)
+            throws IOException, GitAPIException {
+        Files.write(
+                new File(tempDir, path).toPath(),
+                path.getBytes(StandardCharsets.UTF_8)
+        );
+        git.add().addFilepattern(path).call();
+        return git.commit().setMessage("Add " + path)
+                .setCommitter(ident(date)).setAuthor(ident(date)).call();
+    }
+
+    private RevCommit commitMerge(Date date) throws GitAPIException {
+        return git.commit().setMessage("Merge side")
+                .setCommitter(ident(date)).setAuthor(ident(date)).call();
+    }
+
+    private static PersonIdent ident(Date date) {
+        return new PersonIdent("Test", "test@example.com", date,
+                TimeZone.getDefault());
+    }
+
+    private static List<ObjectId> ids(List<CommitSampler.Sample> samples) {
+        List<ObjectId> ids = new ArrayList<>();
+        for (CommitSampler.Sample sample : samples) {
+            ids.add(sample.getCommit());
+        }
+        return ids;
+    }
+
+    /**
+     * Test that commits with the same time are all kept and that the side
+     * branch is only walked when all parents are followed.
+     */
+    @Test
+    public void testFirstParent() throws IOException {
+        CommitSampler sampler = new CommitSampler(git.getRepository());
+        assertEquals(mainLine, ids(sampler.sample()));
+
+        sampler.setFirstParent(false);
+        List<ObjectId> all = ids(sampler.sample());
+        assertEquals(mainLine.size() + 1, all.size());
+        assertTrue(all.contains(sideCommit));
+    }
+
+    /**
+     * Test selecting by period, by calendar period, every nth commit and
+     * tags.
+     */
+    @Test
+    public void testModes() throws IOException {
+        CommitSampler sampler = new CommitSampler(git.getRepository());
+
+        // The second commit of the first day is not after the first one,
+        // and the third commit is exactly one day after it
+        sampler.samplePeriod(Calendar.DAY_OF_YEAR);
+        sampler.setStartDate(date(1, 0));
+        sampler.setEndDate(date(4, 23));
+        assertEquals(
+                List.of(mainLine.get(0), mainLine.get(3)),
+                ids(sampler.sample())
+        );
+
+        sampler.setStartDate(date(1, 10));
+        assertEquals(
+                List.of(mainLine.get(2), mainLine.get(3)),
+                ids(sampler.sample())
+        );
+
+        sampler.sampleCalendarPeriod(Calendar.DAY_OF_YEAR);
+        sampler.setStartDate(date(1, 0));
+        assertEquals(
+                List.of(mainLine.get(1), mainLine.get(2), mainLine.get(3)),
+                ids(sampler.sample())
+        );
+
+        sampler.setStartDate(null);
+        sampler.setEndDate(null);
+        sampler.sampleEveryNth(2);
+        assertEquals(
+                List.of(mainLine.get(0), mainLine.get(2), mainLine.get(4)),
+                ids(sampler.sample())
+        );
+
+        sampler.sampleTags();
+        List<CommitSampler.Sample> tags = sampler.sample();
+        assertEquals(List.of(mainLine.get(1), mainLine.get(4)), ids(tags));
+        assertEquals("v1", tags.get(0).getTagName());
+        assertEquals("v2", tags.get(1).getTagName());
+    }
+
+}
@@ -0,0 +1,101 @@
+package edu.rug.pyne.git;
+
+import edu.rug.pyne.api.git.HistoryIndex;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the index of changed Java files.
+ */
+public class HistoryIndexTest {
+
+    private File tempDir;
+    private Git git;
+
+    @BeforeEach
+    public void setUp() throws IOException, GitAPIException {
+        tempDir = Files.createTempDirectory("pyne_index_test_").toFile();
+        git = Git.init().setDirectory(tempDir).call();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        git.close();
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    private RevCommit commitFile(String path, String content)
+            throws IOException, GitAPIException {
+        File file = new File(tempDir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        git.add().addFilepattern(path).call();
+        return git.commit().setMessage("Change " + path).call();
+    }
+
+    /**
+     * Test which files and source roots are found per commit.
+     */
+    @Test
+    public void testEntries() throws IOException, GitAPIException {
+        RevCommit first = commitFile("core/src/main/java/a/A.java", "class A {}");
+        RevCommit readme = commitFile("README.md", "readme");
+        RevCommit modify = commitFile("core/src/main/java/a/A.java", "class A { }");
+
+        HistoryIndex index = new HistoryIndex();
+        assertEquals(3, index.update(git.getRepository()));
+
+        assertTrue(index.get(first).touchesJava());
+        assertNull(index.get(first).getFirstParent());
+        assertFalse(index.get(readme).touchesJava());
+        assertEquals(
+                List.of("core/src/main/java/a/A.java"),
+                index.get(modify).getChangedPaths()
+        );
+        assertEquals(
+                "core/src/main",
+                index.get(modify).getSourceRoots().iterator().next()
+        );
+
+        assertFalse(index.hasChangesBetween(first, readme));
+        assertEquals(1, index.countChangesBetween(first, modify));
+        assertEquals(1, index.countChangesBetween(null, modify));
+    }
+
+    /**
+     * Test that saving and loading keeps the index, and that an update only
+     * adds new commits.
+     */
+    @Test
+    public void testSaveAndUpdate() throws IOException, GitAPIException {
+        RevCommit first = commitFile("src/A.java", "class A {}");
+
+        File indexFile = new File(tempDir, "history.index");
+        HistoryIndex index = new HistoryIndex();
+        index.update(git.getRepository());
+        index.save(indexFile);
+
+        RevCommit second = commitFile("src/B.java", "class B {}");
+
+        HistoryIndex loaded = HistoryIndex.load(indexFile);
+        assertEquals(1, loaded.size());
+        assertEquals(1, loaded.update(git.getRepository()));
+        assertEquals(2, loaded.size());
+        assertEquals(first, loaded.get(second).getFirstParent());
+        assertEquals(
+                List.of("src/B.java"), loaded.get(second).getChangedPaths()
+        );
+    }
+
+}
@@ -0,0 +1,125 @@
+package edu.rug.pyne.git;
+
+import edu.rug.pyne.api.git.MirrorCache;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the mirror cache using a local bare repository as remote.
+ */
+public class MirrorCacheTest {
+
+    private File tempDir;
+    private File sourceDir;
+    private String remote;
+    private Git source;
+
+    @BeforeEach
+    public void setUp() throws IOException, GitAPIException {
+        tempDir = Files.createTempDirectory("pyne_mirror_test_").toFile();
+        sourceDir = new File(tempDir, "source");
+        File remoteDir = new File(tempDir, "remote.git");
+
+        Git.init().setBare(true).setDirectory(remoteDir).call().close();
+        remote = remoteDir.toURI().toString();
+
+        source = Git.init().setDirectory(sourceDir).call();
+        commitFile("Foo.java", "class Foo {}");
+        source.push().setRemote(remote).add("master").call();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        source.close();
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    private RevCommit commitFile(String name, String content)
+            throws IOException, GitAPIException {
+        Files.write(
+                new File(sourceDir, name).toPath(),
+                content.getBytes(StandardCharsets.UTF_8)
+        );
+        source.add().addFilepattern(name).call();
+        return source.commit().setMessage("Add " + name).call();
+    }
+
+    /**
+     * Test that a worktree is checked out from the mirror.
+     */
+    @Test
+    public void testCreateWorktree() throws IOException, GitAPIException {
+        MirrorCache cache = new MirrorCache(new File(tempDir, "cache"));
+
+        File worktreeDir = new File(tempDir, "worktree");
+        try (Git worktree = cache.createWorktree(remote, worktreeDir)) {
+            assertTrue(new File(worktreeDir, "Foo.java").exists());
+            assertEquals(
+                    source.getRepository().resolve(Constants.HEAD),
+                    worktree.getRepository().resolve(Constants.HEAD)
+            );
+        }
+
+        // The objects are borrowed from the mirror, not copied
+        File alternates = new File(
+                worktreeDir, ".git/objects/info/alternates"
+        );
+        assertTrue(alternates.exists());
+    }
+
+    /**
+     * Test that a second cache on the same directory reuses the mirror and
+     * only fetches the new commits.
+     */
+    @Test
+    public void testMirrorIsReused() throws IOException, GitAPIException {
+        File cacheDir = new File(tempDir, "cache");
+        File mirrorDir = new MirrorCache(cacheDir).updateMirror(remote);
+
+        RevCommit newCommit = commitFile("Bar.java", "class Bar {}");
+        source.push().setRemote(remote).add("master").call();
+
+        MirrorCache cache = new MirrorCache(cacheDir);
+        assertEquals(mirrorDir, cache.updateMirror(remote));
+        assertEquals(1, cacheDir.listFiles(File::isDirectory).length);
+
+        try (Repository mirror = cache.openMirror(remote)) {
+            assertEquals(newCommit, mirror.resolve("refs/heads/master"));
+        }
+
+        File worktreeDir = new File(tempDir, "worktree");
+        try (Git worktree = cache.createWorktree(remote, worktreeDir)) {
+            assertTrue(new File(worktreeDir, "Bar.java").exists());
+        }
+    }
+
+    /**
+     * Test that a cache only fetches a repository once.
+     */
+    @Test
+    public void testFetchedOncePerCache() throws IOException, GitAPIException {
+        MirrorCache cache = new MirrorCache(new File(tempDir, "cache"));
+        cache.updateMirror(remote);
+
+        commitFile("Bar.java", "class Bar {}");
+        source.push().setRemote(remote).add("master").call();
+
+        File worktreeDir = new File(tempDir, "worktree");
+        try (Git worktree = cache.createWorktree(remote, worktreeDir)) {
+            assertFalse(new File(worktreeDir, "Bar.java").exists());
+        }
+    }
+
+}
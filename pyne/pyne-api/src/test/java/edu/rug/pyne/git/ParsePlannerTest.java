@@ -0,0 +1,139 @@
+package edu.rug.pyne.git;
+
+import edu.rug.pyne.api.git.ChangeSet;
+import edu.rug.pyne.api.git.ParsePlanner;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the choice between incremental parsing and rebuilding.
+ */
+public class ParsePlannerTest {
+
+    private File tempDir;
+    private Git git;
+
+    @BeforeEach
+    public void setUp() throws IOException, GitAPIException {
+        tempDir = Files.createTempDirectory("pyne_planner_test_").toFile();
+        git = Git.init().setDirectory(tempDir).call();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        git.close();
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    private void writeFile(String path, String content)
+            throws IOException, GitAPIException {
+        File file = new File(tempDir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        git.add().addFilepattern(path).call();
+    }
+
+    /**
+     * Test that the graph is only rebuilt when enough files changed.
+     */
+    @Test
+    public void testShouldRebuild() throws IOException, GitAPIException {
+        for (int i = 0; i < 10; i++) {
+            writeFile("src/C" + i + ".java", "class C" + i + " {}");
+        }
+        writeFile("README.md", "readme");
+        RevCommit first = git.commit().setMessage("Add classes").call();
+
+        writeFile("src/C0.java", "class C0 { }");
+        RevCommit small = git.commit().setMessage("Small change").call();
+
+        for (int i = 0; i < 5; i++) {
+            writeFile("src/C" + i + ".java", "class C" + i + " {\n}");
+        }
+        RevCommit large = git.commit().setMessage("Reformat").call();
+
+        assertEquals(10, ParsePlanner.countJavaFiles(
+                git.getRepository(), first
+        ));
+
+        ParsePlanner planner = new ParsePlanner(0.3);
+        assertFalse(planner.shouldRebuild(
+                git.getRepository(),
+                ChangeSet.compute(git.getRepository(), first, small),
+                first, small
+        ));
+        assertTrue(planner.shouldRebuild(
+                git.getRepository(),
+                ChangeSet.compute(git.getRepository(), small, large),
+                small, large
+        ));
+
+        ParsePlanner never = new ParsePlanner(Double.POSITIVE_INFINITY);
+        assertFalse(never.shouldRebuild(
+                git.getRepository(),
+                ChangeSet.compute(git.getRepository(), small, large),
+                small, large
+        ));
+    }
+
+    /**
+     * Test that the count updated with the changes stays the same as the
+     * count of the whole tree.
+     */
+    @Test
+    public void testCountUpdatedWithChanges()
+            throws IOException, GitAPIException {
+
+        for (int i = 0; i < 4; i++) {
+            writeFile("src/C" + i + ".java", "class C" + i + " {}");
+        }
+        RevCommit previous = git.commit().setMessage("Add classes").call();
+
+        ParsePlanner planner = new ParsePlanner();
+        assertEquals(4, planner.countJavaFiles(
+                git.getRepository(),
+                ChangeSet.compute(git.getRepository(), previous, previous),
+                previous, previous
+        ));
+
+        // Add, modify, remove and rename files, and change nothing
+        writeFile("src/C4.java", "class C4 {}");
+        writeFile("src/C0.java", "class C0 { }");
+        RevCommit added = git.commit().setMessage("Add").call();
+        git.rm().addFilepattern("src/C1.java").call();
+        RevCommit removed = git.commit().setMessage("Remove").call();
+        git.rm().addFilepattern("src/C2.java").call();
+        writeFile("src/moved/C2.java", "class C2 {}");
+        RevCommit renamed = git.commit().setMessage("Rename").call();
+        writeFile("README.md", "readme");
+        RevCommit unchanged = git.commit().setMessage("Readme").call();
+
+        for (RevCommit commit : new RevCommit[]{
+            added, removed, renamed, unchanged
+        }) {
+            assertEquals(
+                    ParsePlanner.countJavaFiles(git.getRepository(), commit),
+                    planner.countJavaFiles(
+                            git.getRepository(),
+                            ChangeSet.compute(
+                                    git.getRepository(), previous, commit
+                            ),
+                            previous, commit
+                    ),
+                    commit.getShortMessage()
+            );
+            previous = commit;
+        }
+    }
+
+}
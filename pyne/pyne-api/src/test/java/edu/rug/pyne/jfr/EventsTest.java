@@ -0,0 +1,87 @@
+package edu.rug.pyne.jfr;
+
+import edu.rug.pyne.api.parser.Parser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the flight recorder events emitted while parsing.
+ */
+public class EventsTest {
+
+    private File tempDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("pyne_jfr_test_").toFile();
+        File sourceDir = new File(tempDir, "src/main/java/a");
+        assertTrue(sourceDir.mkdirs());
+        Files.write(new File(sourceDir, "A.java").toPath(),
+                "package a;\npublic class A { B b; }\n"
+                        .getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(sourceDir, "B.java").toPath(),
+                "package a;\npublic class B { }\n"
+                        .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    /**
+     * Test that processing emits the model build, process and post process
+     * events with their counts.
+     */
+    @Test
+    public void testProcessEvents() throws IOException {
+        Path recordingFile = new File(tempDir, "pyne.jfr").toPath();
+        try (Recording recording = new Recording()) {
+            recording.enable("edu.rug.pyne.ModelBuild");
+            recording.enable("edu.rug.pyne.Process");
+            recording.enable("edu.rug.pyne.PostProcess");
+            recording.start();
+
+            Parser parser = new Parser(TinkerGraph.open());
+            parser.setRootDirectory(tempDir);
+            parser.process();
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        Map<String, RecordedEvent> events = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+            events.put(event.getEventType().getName(), event);
+        }
+
+        RecordedEvent modelBuild = events.get("edu.rug.pyne.ModelBuild");
+        assertNotNull(modelBuild);
+        assertEquals("process", modelBuild.getString("phase"));
+        assertEquals(2, modelBuild.getInt("types"));
+
+        RecordedEvent process = events.get("edu.rug.pyne.Process");
+        assertNotNull(process);
+        assertEquals(-1, process.getInt("files"));
+        assertTrue(process.getLong("vertices") > 0);
+
+        RecordedEvent postProcess = events.get("edu.rug.pyne.PostProcess");
+        assertNotNull(postProcess);
+        assertEquals("ClassPostProcess", postProcess.getString("postProcessor"));
+    }
+
+}
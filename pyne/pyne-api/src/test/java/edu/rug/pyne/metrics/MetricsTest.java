@@ -0,0 +1,103 @@
+package edu.rug.pyne.metrics;
+
+import edu.rug.pyne.api.metrics.JsonLinesMetricsWriter;
+import edu.rug.pyne.api.metrics.MetricsSnapshot;
+import edu.rug.pyne.api.metrics.PrometheusMetricsWriter;
+import edu.rug.pyne.api.metrics.SimpleMetricsRegistry;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the metrics registry and the metrics writers.
+ */
+public class MetricsTest {
+
+    private File tempDir;
+    private SimpleMetricsRegistry registry;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("pyne_metrics_test_").toFile();
+        registry = new SimpleMetricsRegistry();
+        registry.increment("files.added", 2);
+        registry.increment("files.added", 3);
+        registry.setGauge("graph.vertices", 10);
+        registry.recordTime("model.build", 1500000000L);
+        registry.recordTime("model.build", 500000000L);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    /**
+     * Test that the registry sums the values and can be reset.
+     */
+    @Test
+    public void testRegistry() {
+        MetricsSnapshot snapshot = registry.snapshot();
+        assertEquals(5L, (long) snapshot.getCounters().get("files.added"));
+        assertEquals(10L, (long) snapshot.getGauges().get("graph.vertices"));
+        assertEquals(2L, (long) snapshot.getTimerCounts().get("model.build"));
+        assertEquals(
+                2000000000L, (long) snapshot.getTimerNanos().get("model.build")
+        );
+
+        registry.reset();
+        assertTrue(registry.snapshot().getCounters().isEmpty());
+        assertTrue(registry.snapshot().getTimerNanos().isEmpty());
+    }
+
+    /**
+     * Test that a JSON line is appended per commit.
+     */
+    @Test
+    public void testJsonLines() throws IOException {
+        File file = new File(tempDir, "metrics.jsonl");
+        JsonLinesMetricsWriter writer = new JsonLinesMetricsWriter(file);
+        writer.write("abc", registry.snapshot());
+        writer.write("def", registry.snapshot());
+
+        List<String> lines = Files.readAllLines(
+                file.toPath(), StandardCharsets.UTF_8
+        );
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).startsWith("{\"commit\":\"abc\""));
+        assertTrue(lines.get(0).contains("\"counters\":{\"files.added\":5}"));
+        assertTrue(lines.get(0).contains(
+                "\"model.build\":{\"count\":2,\"nanos\":2000000000}"
+        ));
+    }
+
+    /**
+     * Test the names and values in the Prometheus text format.
+     */
+    @Test
+    public void testPrometheus() throws IOException {
+        PrometheusMetricsWriter writer = new PrometheusMetricsWriter(tempDir);
+        writer.write("abc", registry.snapshot());
+
+        String text = new String(
+                Files.readAllBytes(writer.getFile("abc").toPath()),
+                StandardCharsets.UTF_8
+        );
+        assertTrue(text.contains("pyne_files_added_total{commit=\"abc\"} 5\n"));
+        assertTrue(text.contains("pyne_graph_vertices{commit=\"abc\"} 10\n"));
+        assertTrue(text.contains(
+                "pyne_model_build_seconds_sum{commit=\"abc\"} 2.0\n"
+        ));
+        assertTrue(text.contains(
+                "pyne_model_build_seconds_count{commit=\"abc\"} 2\n"
+        ));
+    }
+
+}
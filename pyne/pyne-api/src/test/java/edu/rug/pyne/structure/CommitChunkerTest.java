@@ -0,0 +1,257 @@
+package edu.rug.pyne.structure;
+
+import edu.rug.pyne.api.metrics.SimpleMetricsRegistry;
+import edu.rug.pyne.api.parser.CommitChunker;
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.structure.VertexClass;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Iterator;
+import org.apache.commons.configuration.Configuration;
+import org.apache.tinkerpop.gremlin.process.computer.GraphComputer;
+import org.apache.tinkerpop.gremlin.structure.Edge;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.structure.Transaction;
+import org.apache.tinkerpop.gremlin.structure.Vertex;
+import org.apache.tinkerpop.gremlin.structure.util.AbstractThreadLocalTransaction;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that the commit chunker commits the changes in chunks of types.
+ */
+public class CommitChunkerTest {
+
+    /**
+     * Test that a transaction is committed when the chunk is full.
+     */
+    @Test
+    public void testChunks() {
+        TransactionalGraph graph = new TransactionalGraph();
+        CommitChunker commitChunker = new CommitChunker(graph);
+        commitChunker.setChunkSize(2);
+        assertTrue(commitChunker.isTransactional());
+
+        graph.addVertex();
+        commitChunker.record();
+        assertEquals(0, graph.commits);
+        graph.addVertex();
+        commitChunker.record();
+        assertEquals(1, graph.commits);
+        assertEquals(0, commitChunker.getPending());
+
+        // Nothing changed since the last commit
+        commitChunker.flush();
+        assertEquals(1, graph.commits);
+
+        graph.addVertex();
+        commitChunker.record();
+        commitChunker.flush();
+        assertEquals(2, graph.commits);
+        assertEquals(2, commitChunker.getFlushes());
+    }
+
+    /**
+     * Test that a rollback only undoes the chunk that is not committed yet.
+     */
+    @Test
+    public void testRollback() {
+        TransactionalGraph graph = new TransactionalGraph();
+        CommitChunker commitChunker = new CommitChunker(graph);
+        commitChunker.setChunkSize(2);
+
+        for (int i = 0; i < 3; i++) {
+            graph.addVertex();
+            commitChunker.record();
+        }
+        assertEquals(1, graph.commits);
+        assertEquals(1, commitChunker.getPending());
+
+        commitChunker.rollback();
+        assertEquals(1, graph.commits);
+        assertEquals(1, graph.rollbacks);
+        assertEquals(0, commitChunker.getPending());
+        assertFalse(graph.tx().isOpen());
+
+        // Nothing is left to commit after the rollback
+        commitChunker.flush();
+        assertEquals(1, graph.commits);
+        assertEquals(1, commitChunker.getFlushes());
+    }
+
+    /**
+     * Test that nothing is committed on a graph without transactions.
+     */
+    @Test
+    public void testWithoutTransactions() {
+        CommitChunker commitChunker = new CommitChunker(TinkerGraph.open());
+        commitChunker.setChunkSize(1);
+        assertFalse(commitChunker.isTransactional());
+
+        commitChunker.record();
+        commitChunker.flush();
+        assertEquals(0, commitChunker.getFlushes());
+    }
+
+    /**
+     * Test that the parser commits its changes in chunks.
+     */
+    @Test
+    public void testParser() throws IOException {
+        File tempDir = Files.createTempDirectory("pyne_chunk_test_").toFile();
+        try {
+            for (String name : new String[]{"A", "B", "C"}) {
+                File file = new File(
+                        tempDir, "src/main/java/p/" + name + ".java"
+                );
+                file.getParentFile().mkdirs();
+                Files.write(file.toPath(), ("package p;\n\npublic class "
+                        + name + " {\n}\n").getBytes(StandardCharsets.UTF_8));
+            }
+
+            TransactionalGraph graph = new TransactionalGraph();
+            SimpleMetricsRegistry metrics = new SimpleMetricsRegistry();
+            Parser parser = new Parser(graph);
+            parser.setMetricsRegistry(metrics);
+            parser.setRootDirectory(tempDir);
+            parser.getCommitChunker().setChunkSize(2);
+            parser.process();
+
+            // Three types in the structure and the analysis step, so a
+            // commit per two types, after the post processor and at the end
+            assertEquals(4, graph.commits);
+            assertEquals(4L, (long) metrics.snapshot().getCounters()
+                    .get("graph.commits"));
+            assertNotNull(VertexClass.getVertexClassByName(
+                    parser.getFramedGraph(), "p.C"
+            ));
+        } finally {
+            FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+        }
+    }
+
+    /**
+     * A TinkerGraph that counts commits and rollbacks. Changes are applied directly, the
+     * transaction only tracks if something changed since the last commit.
+     */
+    private static class TransactionalGraph implements Graph {
+
+        private final TinkerGraph graph = TinkerGraph.open();
+        private final Transaction transaction = new CountingTransaction();
+        private boolean open;
+        private int commits;
+        private int rollbacks;
+
+        @Override
+        public Vertex addVertex(Object... keyValues) {
+            transaction.readWrite();
+            return graph.addVertex(keyValues);
+        }
+
+        @Override
+        public <C extends GraphComputer> C compute(Class<C> graphComputerClass) {
+            return graph.compute(graphComputerClass);
+        }
+
+        @Override
+        public GraphComputer compute() {
+            return graph.compute();
+        }
+
+        @Override
+        public Iterator<Vertex> vertices(Object... vertexIds) {
+            transaction.readWrite();
+            return graph.vertices(vertexIds);
+        }
+
+        @Override
+        public Iterator<Edge> edges(Object... edgeIds) {
+            transaction.readWrite();
+            return graph.edges(edgeIds);
+        }
+
+        @Override
+        public Transaction tx() {
+            return transaction;
+        }
+
+        @Override
+        public void close() {
+            graph.close();
+        }
+
+        @Override
+        public Variables variables() {
+            return graph.variables();
+        }
+
+        @Override
+        public Configuration configuration() {
+            return graph.configuration();
+        }
+
+        @Override
+        public Features features() {
+            Features features = graph.features();
+            return new Features() {
+
+                @Override
+                public GraphFeatures graph() {
+                    return new GraphFeatures() {
+                    };
+                }
+
+                @Override
+                public VertexFeatures vertex() {
+                    return features.vertex();
+                }
+
+                @Override
+                public EdgeFeatures edge() {
+                    return features.edge();
+                }
+
+            };
+        }
+
+        /**
+         * A transaction that counts its commits and rollbacks.
+         */
+        private class CountingTransaction
+                extends AbstractThreadLocalTransaction {
+
+            CountingTransaction() {
+                super(TransactionalGraph.this);
+            }
+
+            @Override
+            protected void doOpen() {
+                open = true;
+            }
+
+            @Override
+            protected void doCommit() {
+                open = false;
+                commits++;
+            }
+
+            @Override
+            protected void doRollback() {
+                open = false;
+                rollbacks++;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return open;
+            }
+
+        }
+
+    }
+
+}
@@ -0,0 +1,84 @@
+package edu.rug.pyne.structure;
+
+import edu.rug.pyne.api.parser.structureprocessor.LineCounter;
+import edu.rug.pyne.api.parser.structureprocessor.LineMetrics;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import spoon.Launcher;
+import spoon.reflect.CtModel;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the counting of lines from the original source code.
+ */
+public class LineCounterTest {
+
+    private File tempDir;
+    private CtModel model;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("pyne_lines_test_").toFile();
+        File sourceFile = new File(tempDir, "a/A.java");
+        assertTrue(sourceFile.getParentFile().mkdirs());
+        Files.write(sourceFile.toPath(), (
+                "package a;\n"
+                + "\n"
+                + "public class A {\n"
+                + "    // A comment\n"
+                + "    private String s = \"// not a comment\";\n"
+                + "\n"
+                + "    /*\n"
+                + "     * A block comment\n"
+                + "     */\n"
+                + "    public void f() { } // trailing comment\n"
+                + "\n"
+                + "    static class Inner {\n"
+                + "        char c = '\\'';\n"
+                + "        /* a */ int i;\n"
+                + "    }\n"
+                + "}\n"
+        ).getBytes(StandardCharsets.UTF_8));
+
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.getEnvironment().setCommentEnabled(false);
+        launcher.addInputResource(tempDir.getAbsolutePath());
+        model = launcher.buildModel();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    /**
+     * Test the counts of an outer and an inner class in the same file.
+     */
+    @Test
+    public void testCount() throws IOException {
+        LineCounter lineCounter = new LineCounter();
+
+        LineMetrics outer = lineCounter.count(model.getAllTypes().stream()
+                .filter((type) -> type.getQualifiedName().equals("a.A"))
+                .findFirst().get());
+        assertEquals(14, outer.getLines());
+        assertEquals(8, outer.getCodeLines());
+        assertEquals(4, outer.getCommentLines());
+        assertEquals(2, outer.getBlankLines());
+
+        LineMetrics inner = lineCounter.count(model.getAllTypes().stream()
+                .filter((type) -> type.getQualifiedName().equals("a.A"))
+                .findFirst().get().getNestedType("Inner"));
+        assertEquals(4, inner.getLines());
+        assertEquals(4, inner.getCodeLines());
+        assertEquals(0, inner.getCommentLines());
+    }
+
+}
@@ -0,0 +1,86 @@
+package edu.rug.pyne.structure;
+
+import edu.rug.pyne.api.parser.SourceRootDiscovery;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.jgit.util.FileUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the search and caching of the source directories.
+ */
+public class SourceRootDiscoveryTest {
+
+    private File tempDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        tempDir = Files.createTempDirectory("pyne_discovery_test_").toFile()
+                .getCanonicalFile();
+        for (String path : List.of("a/src/main/java/p", "b/src/java",
+                "target/x/src/main", "node_modules/y/src/main", "c/src")) {
+            assertTrue(new File(tempDir, path).mkdirs());
+        }
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        FileUtils.delete(tempDir, FileUtils.RECURSIVE);
+    }
+
+    /**
+     * Test that excluded directories are skipped and custom patterns are
+     * used.
+     */
+    @Test
+    public void testPatterns() {
+        SourceRootDiscovery discovery = new SourceRootDiscovery();
+        assertEquals(Set.of(
+                new File(tempDir, "a/src/main"), new File(tempDir, "b/src/java")
+        ), discovery.find(tempDir));
+
+        discovery.addExclude("b");
+        assertEquals(
+                Set.of(new File(tempDir, "a/src/main")),
+                discovery.find(tempDir)
+        );
+
+        discovery.clearPatterns();
+        discovery.addInclude("**/src");
+        assertEquals(Set.of(
+                new File(tempDir, "a/src"), new File(tempDir, "b/src"),
+                new File(tempDir, "c/src"),
+                new File(tempDir, "target/x/src"),
+                new File(tempDir, "node_modules/y/src")
+        ), discovery.find(tempDir));
+    }
+
+    /**
+     * Test that the cache is only searched again when directories change.
+     */
+    @Test
+    public void testCache() throws IOException {
+        SourceRootDiscovery discovery = new SourceRootDiscovery();
+        Set<File> found = discovery.find(tempDir);
+
+        discovery.update(List.of(new File(tempDir, "a/src/main/java/p/A.java")));
+        assertSame(found, discovery.find(tempDir));
+
+        assertTrue(new File(tempDir, "d/src/main/java").mkdirs());
+        assertSame(found, discovery.find(tempDir));
+        discovery.update(List.of(new File(tempDir, "d/src/main/java/D.java")));
+        found = discovery.find(tempDir);
+        assertTrue(found.contains(new File(tempDir, "d/src/main")));
+
+        FileUtils.delete(new File(tempDir, "b"), FileUtils.RECURSIVE);
+        found = discovery.find(tempDir);
+        assertFalse(found.contains(new File(tempDir, "b/src/java")));
+    }
+
+}
@@ -0,0 +1,115 @@
+package edu.rug.pyne.benchmarks;
+
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.analysisprocessor.ClassAnalysis;
+import edu.rug.pyne.api.parser.analysisprocessor.InterfaceAnalysis;
+import edu.rug.pyne.api.parser.structureprocessor.ClassProcessor;
+import edu.rug.pyne.api.parser.structureprocessor.InterfaceProcessor;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import spoon.Launcher;
+import spoon.SpoonModelBuilder;
+
+/**
+ * Benchmarks the analysis step on generated source code. The Spoon model is
+ * built once, every invocation runs the structure step on a new graph and
+ * measures the analysis step.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+@Fork(1)
+public class ClassAnalysisBenchmark {
+
+    @Param({"100", "500"})
+    public int classCount;
+
+    @Param({"5"})
+    public int dependenciesPerClass;
+
+    private File sourceDirectory;
+    private SpoonModelBuilder modelBuilder;
+    private Parser parser;
+
+    /**
+     * Generates the sources and builds the Spoon model.
+     *
+     * @throws IOException Thrown when the sources cannot be written
+     */
+    @Setup(Level.Trial)
+    public void setUpModel() throws IOException {
+        sourceDirectory = Files.createTempDirectory("pyne_benchmark_")
+                .toFile();
+        SourceGenerator.writeProject(
+                sourceDirectory, Math.max(classCount / 20, 1), classCount,
+                dependenciesPerClass, 42
+        );
+
+        Launcher launcher = new Launcher();
+        launcher.getEnvironment().setCommentEnabled(false);
+        launcher.getEnvironment().setNoClasspath(true);
+        launcher.getEnvironment().setShouldCompile(false);
+        launcher.getEnvironment().setComplianceLevel(9);
+        launcher.addInputResource(new File(
+                sourceDirectory, SourceGenerator.SOURCE_ROOT
+        ).getAbsolutePath());
+        launcher.buildModel();
+        modelBuilder = launcher.getModelBuilder();
+    }
+
+    /**
+     * Creates a new graph with the structure of the generated classes.
+     */
+    @Setup(Level.Invocation)
+    public void setUpGraph() {
+        parser = new Parser(TinkerGraph.open());
+        ClassProcessor classProcessor
+                = new ClassProcessor(parser, parser.getFramedGraph());
+        modelBuilder.process(List.of(
+                classProcessor, new InterfaceProcessor(classProcessor)
+        ));
+    }
+
+    /**
+     * Removes the generated sources.
+     *
+     * @throws IOException Thrown when the sources cannot be removed
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.delete(sourceDirectory, FileUtils.RECURSIVE);
+    }
+
+    /**
+     * Analyzes the dependencies of all generated classes.
+     */
+    @Benchmark
+    public void classAnalysis() {
+        ClassAnalysis classAnalysis
+                = new ClassAnalysis(parser, parser.getFramedGraph());
+        modelBuilder.process(List.of(
+                classAnalysis, new InterfaceAnalysis(classAnalysis)
+        ));
+    }
+
+}
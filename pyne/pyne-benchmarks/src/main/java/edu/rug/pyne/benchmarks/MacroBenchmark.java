@@ -0,0 +1,308 @@
+package edu.rug.pyne.benchmarks;
+
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.GitHelper;
+import edu.rug.pyne.api.git.ParsePlanner;
+import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.PostProcess;
+import edu.rug.pyne.api.parser.analysisprocessor.ClassPostProcess;
+import edu.rug.pyne.api.parser.removeprocessor.ClassRemovePostProcess;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.List;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.tinkerpop.gremlin.process.traversal.IO;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.util.FileUtils;
+
+/**
+ * Parses the whole history of a generated repository and reports per commit
+ * the parse time, post process time, write time and peak heap use.
+ *
+ * In full mode every commit is parsed on a new graph. In incremental mode
+ * one graph is updated from commit to commit.
+ */
+public class MacroBenchmark {
+
+    /**
+     * The ways the history can be parsed.
+     */
+    public enum Mode {
+        FULL,
+        INCREMENTAL
+    }
+
+    /**
+     * A post processor that measures the time of another post processor.
+     */
+    private static class TimedPostProcess implements PostProcess {
+
+        private final PostProcess postProcess;
+        private long nanos;
+
+        /**
+         * Creates a timed version of a post processor.
+         *
+         * @param postProcess The post processor to time
+         */
+        public TimedPostProcess(PostProcess postProcess) {
+            this.postProcess = postProcess;
+        }
+
+        @Override
+        public void postProcess(FramedGraph framedGraph) {
+            long start = System.nanoTime();
+            postProcess.postProcess(framedGraph);
+            nanos += System.nanoTime() - start;
+        }
+
+        /**
+         * Gets the measured time and resets it.
+         *
+         * @return The time spent since the last call in nanoseconds
+         */
+        public long takeNanos() {
+            long taken = nanos;
+            nanos = 0;
+            return taken;
+        }
+
+    }
+
+    private final TimedPostProcess analysisPostProcess
+            = new TimedPostProcess(new ClassPostProcess());
+    private final TimedPostProcess removePostProcess
+            = new TimedPostProcess(new ClassRemovePostProcess());
+
+    private final PrintStream out;
+
+    /**
+     * Creates a benchmark that writes its report to the given stream.
+     *
+     * @param out The stream to write the CSV report to
+     */
+    public MacroBenchmark(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes the header of the report.
+     */
+    public void printHeader() {
+        out.println("mode,index,commit,parse_ms,post_process_ms,write_ms,"
+                + "peak_heap_mb");
+    }
+
+    /**
+     * Parses all given commits of a repository and reports the measurements.
+     *
+     * @param repositoryDirectory The repository, its working tree is used to
+     * check out the commits
+     * @param commits The commits to parse, oldest first
+     * @param mode Whether to parse every commit fully or incrementally
+     * @throws IOException Thrown when parsing or writing failed
+     * @throws GitAPIException Thrown when the repository cannot be opened
+     */
+    public void run(File repositoryDirectory, List<RevCommit> commits,
+            Mode mode) throws IOException, GitAPIException {
+
+        GitHelper gitHelper = new GitHelper(
+                repositoryDirectory.getAbsolutePath(), false
+        );
+        // Always update incrementally, the full mode uses new graphs instead
+        gitHelper.setParsePlanner(new ParsePlanner(Double.POSITIVE_INFINITY));
+
+        File outputFile = File.createTempFile("pyne_macro_", ".graphml");
+        try {
+            Parser parser = null;
+            int index = 0;
+            for (RevCommit commit : commits) {
+                if (parser == null || mode == Mode.FULL) {
+                    parser = createParser();
+                }
+
+                System.gc();
+                resetPeakHeap();
+                analysisPostProcess.takeNanos();
+                removePostProcess.takeNanos();
+
+                long start = System.nanoTime();
+                gitHelper.parseCommit(parser, commit.getName());
+                long parseNanos = System.nanoTime() - start;
+                long postProcessNanos = analysisPostProcess.takeNanos()
+                        + removePostProcess.takeNanos();
+
+                start = System.nanoTime();
+                parser.getGraph().traversal()
+                        .io(outputFile.getAbsolutePath())
+                        .with(IO.writer, IO.graphml).write().iterate();
+                long writeNanos = System.nanoTime() - start;
+
+                out.println(String.format("%s,%d,%s,%d,%d,%d,%.1f",
+                        mode.name().toLowerCase(), index++, commit.getName(),
+                        (parseNanos - postProcessNanos) / 1000000,
+                        postProcessNanos / 1000000, writeNanos / 1000000,
+                        getPeakHeap() / (1024.0 * 1024.0)
+                ));
+                out.flush();
+            }
+        } finally {
+            // Only close, cleaning up would delete the repository
+            gitHelper.getGit().close();
+            Files.deleteIfExists(outputFile.toPath());
+        }
+    }
+
+    /**
+     * Creates a parser with the default processors and the timed post
+     * processors.
+     *
+     * @return The new parser on an empty graph
+     */
+    private Parser createParser() {
+        Parser parser = new Parser(TinkerGraph.open());
+        parser.addDefaultStructureProcessors();
+        parser.addDefaultAnalysisProcessors();
+        parser.addDefaultRemoveProcessors();
+        parser.addAnalysisPostProcessor(analysisPostProcess);
+        parser.addRemovePostProcessor(removePostProcess);
+        return parser;
+    }
+
+    /**
+     * Resets the peak usage of all heap memory pools.
+     */
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool
+                : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Gets the peak heap usage since the last reset, summed over all pools.
+     *
+     * @return The peak heap usage in bytes
+     */
+    private static long getPeakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool
+                : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Generates a repository and benchmarks parsing its history.
+     *
+     * @param args The arguments given in the command line
+     * @throws IOException Thrown when generating or parsing failed
+     * @throws GitAPIException Thrown when generating the repository failed
+     * @throws ParseException Thrown when the arguments cannot be parsed
+     */
+    public static void main(String[] args)
+            throws IOException, GitAPIException, ParseException {
+
+        Options options = new Options();
+        options.addOption(Option.builder("h").longOpt("help")
+                .desc("Prints this help message").build());
+        options.addOption(Option.builder("k").longOpt("packages")
+                .desc("The number of packages. Defaults to 10.")
+                .hasArg().argName("n").build());
+        options.addOption(Option.builder("c").longOpt("classes")
+                .desc("The number of classes in the first commit."
+                        + " Defaults to 200.")
+                .hasArg().argName("n").build());
+        options.addOption(Option.builder("d").longOpt("dependencies")
+                .desc("The number of dependencies per class. Defaults to 5.")
+                .hasArg().argName("n").build());
+        options.addOption(Option.builder("n").longOpt("commits")
+                .desc("The number of commits. Defaults to 20.")
+                .hasArg().argName("n").build());
+        options.addOption(Option.builder("u").longOpt("churn")
+                .desc("The added, modified, deleted and renamed classes per"
+                        + " commit. Defaults to 2,5,1,1.")
+                .hasArg().argName("a,m,d,r").build());
+        options.addOption(Option.builder("m").longOpt("mode")
+                .desc("FULL, INCREMENTAL or BOTH. Defaults to BOTH.")
+                .hasArg().argName("mode").build());
+        options.addOption(Option.builder("o").longOpt("output")
+                .desc("The CSV file to write the report to."
+                        + " Defaults to the standard output.")
+                .hasArg().argName("file").build());
+
+        CommandLine cmd = new DefaultParser().parse(options, args);
+        if (cmd.hasOption("h")) {
+            new HelpFormatter().printHelp("MacroBenchmark [OPTIONS...]",
+                    options);
+            return;
+        }
+
+        SyntheticRepository syntheticRepository = new SyntheticRepository();
+        syntheticRepository.setPackageCount(
+                Integer.parseInt(cmd.getOptionValue("k", "10")));
+        syntheticRepository.setClassCount(
+                Integer.parseInt(cmd.getOptionValue("c", "200")));
+        syntheticRepository.setDependenciesPerClass(
+                Integer.parseInt(cmd.getOptionValue("d", "5")));
+        syntheticRepository.setCommitCount(
+                Integer.parseInt(cmd.getOptionValue("n", "20")));
+        String[] churn = cmd.getOptionValue("u", "2,5,1,1").split(",");
+        if (churn.length != 4) {
+            throw new ParseException("Churn needs four numbers");
+        }
+        syntheticRepository.setChurn(
+                Integer.parseInt(churn[0].trim()),
+                Integer.parseInt(churn[1].trim()),
+                Integer.parseInt(churn[2].trim()),
+                Integer.parseInt(churn[3].trim())
+        );
+
+        String modeValue = cmd.getOptionValue("m", "BOTH").toUpperCase();
+        List<Mode> modes = modeValue.equals("BOTH")
+                ? List.of(Mode.FULL, Mode.INCREMENTAL)
+                : List.of(Mode.valueOf(modeValue));
+
+        PrintStream out = cmd.hasOption("o")
+                ? new PrintStream(new FileOutputStream(cmd.getOptionValue("o")))
+                : System.out;
+
+        File repositoryDirectory = Files.createTempDirectory(
+                "pyne_synthetic_repo_"
+        ).toFile();
+        try {
+            List<RevCommit> commits
+                    = syntheticRepository.generate(repositoryDirectory);
+
+            MacroBenchmark benchmark = new MacroBenchmark(out);
+            benchmark.printHeader();
+            for (Mode mode : modes) {
+                benchmark.run(repositoryDirectory, commits, mode);
+            }
+        } finally {
+            FileUtils.delete(repositoryDirectory, FileUtils.RECURSIVE);
+            if (out != System.out) {
+                out.close();
+            }
+        }
+    }
+
+}
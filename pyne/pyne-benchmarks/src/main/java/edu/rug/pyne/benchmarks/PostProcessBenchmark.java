@@ -0,0 +1,107 @@
+package edu.rug.pyne.benchmarks;
+
+import edu.rug.pyne.api.parser.analysisprocessor.ClassPostProcess;
+import edu.rug.pyne.api.parser.removeprocessor.ClassRemovePostProcess;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the post processors that run after every parsed commit. Both
+ * change the graph, so every invocation gets a freshly generated graph.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, batchSize = 1)
+@Measurement(iterations = 10, batchSize = 1)
+@Fork(1)
+public class PostProcessBenchmark {
+
+    /**
+     * A graph with dependencies but without afferent and efferent edges, as
+     * it is before the analysis post processing.
+     */
+    @State(Scope.Thread)
+    public static class AnalyzedGraph {
+
+        @Param({"100", "1000", "5000"})
+        public int classCount;
+
+        @Param({"5"})
+        public int dependenciesPerClass;
+
+        public SyntheticGraph syntheticGraph;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            syntheticGraph = new SyntheticGraph(
+                    Math.max(classCount / 20, 1), classCount,
+                    dependenciesPerClass, 42
+            );
+        }
+
+    }
+
+    /**
+     * A graph with afferent and efferent edges, as it is before the remove
+     * post processing.
+     */
+    @State(Scope.Thread)
+    public static class PostProcessedGraph {
+
+        @Param({"100", "1000", "5000"})
+        public int classCount;
+
+        @Param({"5"})
+        public int dependenciesPerClass;
+
+        public SyntheticGraph syntheticGraph;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            syntheticGraph = new SyntheticGraph(
+                    Math.max(classCount / 20, 1), classCount,
+                    dependenciesPerClass, 42
+            );
+            new ClassPostProcess().postProcess(
+                    syntheticGraph.getFramedGraph()
+            );
+        }
+
+    }
+
+    /**
+     * Removes orphans and adds the afferent and efferent edges.
+     *
+     * @param state The graph to process
+     */
+    @Benchmark
+    public void classPostProcess(AnalyzedGraph state) {
+        new ClassPostProcess().postProcess(
+                state.syntheticGraph.getFramedGraph()
+        );
+    }
+
+    /**
+     * Removes all afferent and efferent edges.
+     *
+     * @param state The graph to process
+     */
+    @Benchmark
+    public void classRemovePostProcess(PostProcessedGraph state) {
+        new ClassRemovePostProcess().postProcess(
+                state.syntheticGraph.getFramedGraph()
+        );
+    }
+
+}
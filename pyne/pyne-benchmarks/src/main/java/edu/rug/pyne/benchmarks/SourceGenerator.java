@@ -0,0 +1,173 @@
+package edu.rug.pyne.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates Java source files with dependencies between them. The classes
+ * use each other as field types and call methods on each other, so the
+ * analysis step has references and invocations to resolve.
+ */
+public final class SourceGenerator {
+
+    // The source root the classes are written to
+    public static final String SOURCE_ROOT = "src/main/java";
+
+    private SourceGenerator() {
+    }
+
+    /**
+     * Gets the qualified name of a generated class.
+     *
+     * @param packageIndex The index of the package
+     * @param classIndex The index of the class
+     * @return The qualified class name
+     */
+    public static String getClassName(int packageIndex, int classIndex) {
+        return "p" + packageIndex + ".C" + classIndex;
+    }
+
+    /**
+     * Gets the path of the source file of a class, relative to the root of
+     * the project.
+     *
+     * @param qualifiedName The qualified name of the class
+     * @return The path of the source file
+     */
+    public static String getPath(String qualifiedName) {
+        return SOURCE_ROOT + "/" + qualifiedName.replace('.', '/') + ".java";
+    }
+
+    /**
+     * Generates the source code of a class.
+     *
+     * @param qualifiedName The qualified name of the class
+     * @param dependencies The qualified names of the classes it depends on
+     * @param revision A number that changes the body of the class, to create
+     * modifications
+     * @return The source code
+     */
+    public static String generateClass(String qualifiedName,
+            Collection<String> dependencies, int revision) {
+
+        int split = qualifiedName.lastIndexOf('.');
+        String packageName = qualifiedName.substring(0, split);
+        String simpleName = qualifiedName.substring(split + 1);
+
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(packageName).append(";\n\n");
+        source.append("public class ").append(simpleName).append(" {\n\n");
+
+        int field = 0;
+        for (String dependency : dependencies) {
+            source.append("    private ").append(dependency).append(" field")
+                    .append(field++).append(";\n");
+        }
+
+        source.append("\n    public int value() {\n");
+        source.append("        return ").append(revision).append(";\n");
+        source.append("    }\n\n");
+
+        source.append("    public int total() {\n");
+        source.append("        int total = value();\n");
+        for (int i = 0; i < field; i++) {
+            source.append("        if (field").append(i).append(" != null) {\n");
+            source.append("            total += field").append(i)
+                    .append(".value();\n");
+            source.append("        }\n");
+        }
+        source.append("        return total;\n");
+        source.append("    }\n\n");
+        source.append("}\n");
+
+        return source.toString();
+    }
+
+    /**
+     * Writes the source file of a class.
+     *
+     * @param rootDirectory The root of the project
+     * @param qualifiedName The qualified name of the class
+     * @param dependencies The qualified names of the classes it depends on
+     * @param revision A number that changes the body of the class
+     * @return The written file
+     * @throws IOException Thrown when the file cannot be written
+     */
+    public static File writeClass(File rootDirectory, String qualifiedName,
+            Collection<String> dependencies, int revision) throws IOException {
+
+        File file = new File(rootDirectory, getPath(qualifiedName));
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(
+                file.toPath(),
+                generateClass(qualifiedName, dependencies, revision)
+                        .getBytes(StandardCharsets.UTF_8)
+        );
+        return file;
+    }
+
+    /**
+     * Picks random dependencies from the given classes, never the class
+     * itself.
+     *
+     * @param random The random to use
+     * @param qualifiedName The class to pick the dependencies for
+     * @param classes The classes to pick from
+     * @param count The maximum number of dependencies
+     * @return The picked dependencies
+     */
+    public static Set<String> pickDependencies(Random random,
+            String qualifiedName, List<String> classes, int count) {
+
+        Set<String> dependencies = new LinkedHashSet<>();
+        if (classes.isEmpty()) {
+            return dependencies;
+        }
+        for (int i = 0; i < count; i++) {
+            String dependency = classes.get(random.nextInt(classes.size()));
+            if (!dependency.equals(qualifiedName)) {
+                dependencies.add(dependency);
+            }
+        }
+        return dependencies;
+    }
+
+    /**
+     * Writes a whole project of generated classes.
+     *
+     * @param rootDirectory The root of the project
+     * @param packageCount The number of packages
+     * @param classCount The number of classes
+     * @param dependenciesPerClass The number of dependencies of each class
+     * @param seed The seed for the random dependencies
+     * @return The qualified names of the written classes
+     * @throws IOException Thrown when a file cannot be written
+     */
+    public static List<String> writeProject(File rootDirectory,
+            int packageCount, int classCount, int dependenciesPerClass,
+            long seed) throws IOException {
+
+        List<String> classes = new ArrayList<>();
+        for (int i = 0; i < classCount; i++) {
+            classes.add(getClassName(i % packageCount, i));
+        }
+
+        Random random = new Random(seed);
+        for (String qualifiedName : classes) {
+            writeClass(rootDirectory, qualifiedName, pickDependencies(
+                    random, qualifiedName, classes, dependenciesPerClass
+            ), 0);
+        }
+
+        return classes;
+    }
+
+}
@@ -0,0 +1,101 @@
+package edu.rug.pyne.benchmarks;
+
+import edu.rug.pyne.api.structure.EdgeDependsOn;
+import edu.rug.pyne.api.structure.EdgePackageIsAfferentOf;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the lookups and edge updates on the vertex classes and vertex
+ * packages, which the processors call for every class.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StructureBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int classCount;
+
+    @Param({"5"})
+    public int dependenciesPerClass;
+
+    private SyntheticGraph syntheticGraph;
+    private List<VertexClass> classes;
+    private List<VertexPackage> packages;
+    private Random random;
+
+    /**
+     * Generates a new graph for every iteration, so the edges added by the
+     * benchmarks do not pile up.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        syntheticGraph = new SyntheticGraph(
+                Math.max(classCount / 20, 1), classCount,
+                dependenciesPerClass, 42
+        );
+        classes = syntheticGraph.getClasses();
+        packages = syntheticGraph.getPackages();
+        random = new Random(7);
+    }
+
+    /**
+     * Finds a class by its qualified name.
+     *
+     * @return The found class
+     */
+    @Benchmark
+    public VertexClass getVertexClassByName() {
+        return VertexClass.getVertexClassByName(
+                syntheticGraph.getFramedGraph(),
+                syntheticGraph.getClassName(random.nextInt(classCount))
+        );
+    }
+
+    /**
+     * Adds a dependency between two random classes, or increments the weight
+     * if it already exists.
+     *
+     * @return The added or updated edge
+     */
+    @Benchmark
+    public EdgeDependsOn addDependOnClass() {
+        return classes.get(random.nextInt(classCount)).addDependOnClass(
+                classes.get(random.nextInt(classCount))
+        );
+    }
+
+    /**
+     * Adds an afferent edge between two random packages, or increments the
+     * weight if it already exists.
+     *
+     * @return The added or updated edge
+     */
+    @Benchmark
+    public EdgePackageIsAfferentOf addAfferentOfPackage() {
+        return packages.get(random.nextInt(packages.size()))
+                .addAfferentOfPackage(
+                        packages.get(random.nextInt(packages.size()))
+                );
+    }
+
+}
@@ -0,0 +1,121 @@
+package edu.rug.pyne.benchmarks;
+
+import com.syncleus.ferma.DelegatingFramedGraph;
+import com.syncleus.ferma.FramedGraph;
+import edu.rug.pyne.api.structure.VertexClass;
+import edu.rug.pyne.api.structure.VertexPackage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.apache.tinkerpop.gremlin.structure.Graph;
+import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
+
+/**
+ * A generated dependency graph, as the parser would create it, of a given
+ * size. The same seed always gives the same graph.
+ */
+public class SyntheticGraph {
+
+    private final Graph graph = TinkerGraph.open();
+    private final FramedGraph framedGraph
+            = new DelegatingFramedGraph<>(graph, true, true);
+
+    private final List<VertexPackage> packages = new ArrayList<>();
+    private final List<VertexClass> classes = new ArrayList<>();
+
+    /**
+     * Generates a graph with system classes spread over the packages. Each
+     * class depends on a number of random other classes.
+     *
+     * @param packageCount The number of packages
+     * @param classCount The number of classes
+     * @param dependenciesPerClass The number of dependencies of each class
+     * @param seed The seed for the random dependencies
+     */
+    public SyntheticGraph(int packageCount, int classCount,
+            int dependenciesPerClass, long seed) {
+
+        for (int i = 0; i < packageCount; i++) {
+            VertexPackage vertexPackage = VertexPackage
+                    .createRetrievedPackage(framedGraph, getPackageName(i));
+            vertexPackage.setPackageType("SystemPackage");
+            packages.add(vertexPackage);
+        }
+
+        for (int i = 0; i < classCount; i++) {
+            VertexClass vertexClass = VertexClass.createRetrievedClass(
+                    framedGraph, getClassName(i)
+            );
+            vertexClass.setClassType(VertexClass.ClassType.SystemClass);
+            vertexClass.setBelongsTo(packages.get(i % packageCount));
+            classes.add(vertexClass);
+        }
+
+        Random random = new Random(seed);
+        for (VertexClass vertexClass : classes) {
+            for (int i = 0; i < dependenciesPerClass; i++) {
+                vertexClass.addDependOnClass(
+                        classes.get(random.nextInt(classCount))
+                );
+            }
+        }
+    }
+
+    /**
+     * Gets the name of the package with the given index.
+     *
+     * @param index The index of the package
+     * @return The package name
+     */
+    public static String getPackageName(int index) {
+        return "p" + index;
+    }
+
+    /**
+     * Gets the qualified name of the class with the given index.
+     *
+     * @param index The index of the class
+     * @return The class name
+     */
+    public String getClassName(int index) {
+        int packageCount = Math.max(packages.size(), 1);
+        return getPackageName(index % packageCount) + ".C" + index;
+    }
+
+    /**
+     * Gets the generated graph.
+     *
+     * @return The graph
+     */
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Gets the framed version of the generated graph.
+     *
+     * @return The framed graph
+     */
+    public FramedGraph getFramedGraph() {
+        return framedGraph;
+    }
+
+    /**
+     * Gets the generated packages.
+     *
+     * @return The package vertices
+     */
+    public List<VertexPackage> getPackages() {
+        return packages;
+    }
+
+    /**
+     * Gets the generated classes.
+     *
+     * @return The class vertices
+     */
+    public List<VertexClass> getClasses() {
+        return classes;
+    }
+
+}
@@ -0,0 +1,282 @@
+package edu.rug.pyne.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TimeZone;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+
+/**
+ * Generates a local git repository with a history of Java code. The first
+ * commit adds a whole project, every following commit adds, modifies,
+ * deletes and renames some classes. The same settings and seed always give
+ * the same history, so it can be used to benchmark offline.
+ */
+public class SyntheticRepository {
+
+    // The date of the first commit, every next commit is a day later
+    private static final long START_TIME = 1546300800000L;
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    private int packageCount = 10;
+    private int classCount = 200;
+    private int dependenciesPerClass = 5;
+    private int commitCount = 20;
+    private int addsPerCommit = 2;
+    private int modificationsPerCommit = 5;
+    private int deletesPerCommit = 1;
+    private int renamesPerCommit = 1;
+    private long seed = 42;
+
+    // The state of the generated project
+    private final List<String> classes = new ArrayList<>();
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+    private final Map<String, Integer> revisions = new HashMap<>();
+    private int nextClassIndex;
+
+    /**
+     * Sets the number of packages new classes are spread over.
+     *
+     * @param packageCount The number of packages
+     */
+    public void setPackageCount(int packageCount) {
+        this.packageCount = packageCount;
+    }
+
+    /**
+     * Sets the number of classes in the first commit.
+     *
+     * @param classCount The number of classes
+     */
+    public void setClassCount(int classCount) {
+        this.classCount = classCount;
+    }
+
+    /**
+     * Sets the number of dependencies of each class.
+     *
+     * @param dependenciesPerClass The number of dependencies
+     */
+    public void setDependenciesPerClass(int dependenciesPerClass) {
+        this.dependenciesPerClass = dependenciesPerClass;
+    }
+
+    /**
+     * Sets the number of commits, including the first.
+     *
+     * @param commitCount The number of commits
+     */
+    public void setCommitCount(int commitCount) {
+        this.commitCount = commitCount;
+    }
+
+    /**
+     * Sets the churn of every commit after the first.
+     *
+     * @param adds The number of added classes
+     * @param modifications The number of modified classes
+     * @param deletes The number of deleted classes
+     * @param renames The number of renamed classes
+     */
+    public void setChurn(int adds, int modifications, int deletes,
+            int renames) {
+        this.addsPerCommit = adds;
+        this.modificationsPerCommit = modifications;
+        this.deletesPerCommit = deletes;
+        this.renamesPerCommit = renames;
+    }
+
+    /**
+     * Sets the seed for all random choices.
+     *
+     * @param seed The seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Generates the repository in the given directory.
+     *
+     * @param directory The directory to create the repository in
+     * @return The commits made, oldest first
+     * @throws IOException Thrown when a file cannot be written
+     * @throws GitAPIException Thrown when a commit failed
+     */
+    public List<RevCommit> generate(File directory)
+            throws IOException, GitAPIException {
+
+        classes.clear();
+        dependencies.clear();
+        revisions.clear();
+        nextClassIndex = 0;
+
+        Random random = new Random(seed);
+        List<RevCommit> commits = new ArrayList<>();
+
+        try (Git git = Git.init().setDirectory(directory).call()) {
+            for (int i = 0; i < classCount; i++) {
+                classes.add(newClassName(random));
+            }
+            for (String qualifiedName : classes) {
+                writeClass(directory, random, qualifiedName, 0);
+            }
+            commits.add(commit(git, 0, "Initial project"));
+
+            for (int i = 1; i < commitCount; i++) {
+                for (int j = 0; j < addsPerCommit; j++) {
+                    String qualifiedName = newClassName(random);
+                    classes.add(qualifiedName);
+                    writeClass(directory, random, qualifiedName, 0);
+                }
+                for (int j = 0; j < modificationsPerCommit
+                        && !classes.isEmpty(); j++) {
+                    String qualifiedName = pickClass(random);
+                    writeClass(directory, random, qualifiedName,
+                            revisions.get(qualifiedName) + 1);
+                }
+                for (int j = 0; j < deletesPerCommit
+                        && !classes.isEmpty(); j++) {
+                    deleteClass(directory, pickClass(random));
+                }
+                for (int j = 0; j < renamesPerCommit
+                        && !classes.isEmpty(); j++) {
+                    renameClass(directory, random, pickClass(random));
+                }
+                commits.add(commit(git, i, "Change " + i));
+            }
+        }
+
+        return commits;
+    }
+
+    /**
+     * Gets the classes in the last generated commit.
+     *
+     * @return The qualified class names
+     */
+    public List<String> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Creates the name of a new class in a random package.
+     *
+     * @param random The random to use
+     * @return The qualified class name
+     */
+    private String newClassName(Random random) {
+        return SourceGenerator.getClassName(
+                random.nextInt(packageCount), nextClassIndex++
+        );
+    }
+
+    /**
+     * Picks a random existing class.
+     *
+     * @param random The random to use
+     * @return The qualified class name
+     */
+    private String pickClass(Random random) {
+        return classes.get(random.nextInt(classes.size()));
+    }
+
+    /**
+     * Writes a class with new random dependencies.
+     *
+     * @param directory The root of the repository
+     * @param random The random to use
+     * @param qualifiedName The qualified name of the class
+     * @param revision The revision of the class body
+     * @throws IOException Thrown when the file cannot be written
+     */
+    private void writeClass(File directory, Random random,
+            String qualifiedName, int revision) throws IOException {
+
+        Set<String> classDependencies = SourceGenerator.pickDependencies(
+                random, qualifiedName, classes, dependenciesPerClass
+        );
+        dependencies.put(qualifiedName, classDependencies);
+        revisions.put(qualifiedName, revision);
+        SourceGenerator.writeClass(
+                directory, qualifiedName, classDependencies, revision
+        );
+    }
+
+    /**
+     * Deletes a class.
+     *
+     * @param directory The root of the repository
+     * @param qualifiedName The qualified name of the class
+     * @throws IOException Thrown when the file cannot be deleted
+     */
+    private void deleteClass(File directory, String qualifiedName)
+            throws IOException {
+
+        classes.remove(qualifiedName);
+        dependencies.remove(qualifiedName);
+        revisions.remove(qualifiedName);
+        Files.delete(new File(
+                directory, SourceGenerator.getPath(qualifiedName)
+        ).toPath());
+    }
+
+    /**
+     * Moves a class to a new name, keeping its body and dependencies.
+     *
+     * @param directory The root of the repository
+     * @param random The random to use
+     * @param qualifiedName The qualified name of the class
+     * @throws IOException Thrown when the file cannot be moved
+     */
+    private void renameClass(File directory, Random random,
+            String qualifiedName) throws IOException {
+
+        String newName = newClassName(random);
+        Set<String> classDependencies = dependencies.get(qualifiedName);
+        int revision = revisions.get(qualifiedName);
+
+        deleteClass(directory, qualifiedName);
+        classes.add(newName);
+        dependencies.put(newName, classDependencies);
+        revisions.put(newName, revision);
+        SourceGenerator.writeClass(
+                directory, newName, classDependencies, revision
+        );
+    }
+
+    /**
+     * Commits all changes, a day after the previous commit.
+     *
+     * @param git The git of the repository
+     * @param index The index of the commit
+     * @param message The commit message
+     * @return The made commit
+     * @throws GitAPIException Thrown when the commit failed
+     */
+    private static RevCommit commit(Git git, int index, String message)
+            throws GitAPIException {
+
+        git.add().addFilepattern(".").call();
+        git.add().setUpdate(true).addFilepattern(".").call();
+
+        PersonIdent ident = new PersonIdent(
+                "Pyne", "pyne@example.com",
+                new Date(START_TIME + index * DAY),
+                TimeZone.getTimeZone("UTC")
+        );
+        return git.commit().setMessage(message)
+                .setAuthor(ident).setCommitter(ident).call();
+    }
+
+}
@@ -1,7 +1,16 @@
 package edu.rug.pyne.cli;
 
 import edu.rug.pyne.api.GitHelper;
+import edu.rug.pyne.api.git.CommitSampler;
+import edu.rug.pyne.api.git.HistoryIndex;
+import edu.rug.pyne.api.git.MirrorCache;
+import edu.rug.pyne.api.git.ParsePlanner;
+import edu.rug.pyne.api.metrics.JsonLinesMetricsWriter;
+import edu.rug.pyne.api.metrics.MetricsWriter;
+import edu.rug.pyne.api.metrics.PrometheusMetricsWriter;
+import edu.rug.pyne.api.metrics.SimpleMetricsRegistry;
 import edu.rug.pyne.api.parser.Parser;
+import edu.rug.pyne.api.parser.analysisprocessor.CyclePostProcess;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
@@ -10,8 +19,7 @@ import java.nio.file.FileSystems;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.List;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
 import org.apache.commons.cli.DefaultParser;
@@ -27,9 +35,7 @@ import org.apache.tinkerpop.gremlin.structure.Graph;
 import org.apache.tinkerpop.gremlin.tinkergraph.structure.TinkerGraph;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
-import org.eclipse.jgit.revwalk.RevCommit;
-import org.eclipse.jgit.revwalk.filter.CommitTimeRevFilter;
-import org.eclipse.jgit.revwalk.filter.RevFilter;
+import org.eclipse.jgit.lib.ObjectId;
 
 /**
  * This class implements a cli to be able to interact with the api
@@ -94,6 +100,79 @@ public class PyneCli {
                         + " the root of the repo for source files.")
                 .hasArgs().argName("paths").build();
 
+        Option cacheDirectoryOption = Option.builder("c")
+                .longOpt("cache-directory")
+                .desc("Sets the directory where mirrors of the repositories"
+                        + " are kept, so they only need to be cloned once."
+                        + " Only remote repositories are mirrored, unless"
+                        + " this is given. Defaults to \"" + File.separator
+                        + ".pyne" + File.separator + "mirrors\" in the home"
+                        + " directory.")
+                .hasArg().argName("file")
+                .type(PatternOptionBuilder.FILE_VALUE).build();
+
+        Option branchOption = Option.builder("b").longOpt("branch")
+                .desc("Sets the branch to take the commits from. Only the"
+                        + " first parents are followed, so all parsed commits"
+                        + " are on one line of history. Defaults to HEAD.")
+                .hasArg().argName("branch").build();
+
+        Option allParentsOption = Option.builder("a").longOpt("all-parents")
+                .desc("Walks all ancestors of the branch instead of only the"
+                        + " first parents.")
+                .build();
+
+        Option calendarPeriodOption = Option.builder("k")
+                .longOpt("calendar-period")
+                .desc("Parses the newest commit of every calendar day, week,"
+                        + " month or year of the period, instead of the first"
+                        + " commit a period after the last parsed one.")
+                .build();
+
+        Option everyNthOption = Option.builder("n").longOpt("every-nth")
+                .desc("Parses every nth commit instead of one per period.")
+                .hasArg().argName("n")
+                .type(PatternOptionBuilder.NUMBER_VALUE).build();
+
+        Option tagsOption = Option.builder("t").longOpt("tags")
+                .desc("Parses only tagged commits instead of one per period.")
+                .build();
+
+        Option rebuildThresholdOption = Option.builder("r")
+                .longOpt("rebuild-threshold")
+                .desc("Sets the fraction of changed Java files at which the"
+                        + " graph is rebuilt instead of updated. Defaults to "
+                        + ParsePlanner.DEFAULT_THRESHOLD + ".")
+                .hasArg().argName("fraction")
+                .type(PatternOptionBuilder.NUMBER_VALUE).build();
+
+        Option metricsOption = Option.builder("x").longOpt("metrics")
+                .desc("Writes the timings and counts of every parsed commit"
+                        + " next to the graphml files. Possible formats are:"
+                        + " JSON (one line per commit in metrics.jsonl),"
+                        + " PROMETHEUS (one text file per commit).")
+                .hasArg().argName("format").build();
+
+        Option unresolvedDetailOption = Option.builder("u")
+                .longOpt("unresolved-detail")
+                .desc("Logs every nth unresolved invocation of each signature"
+                        + " in detail. By default only a summary per commit is"
+                        + " logged.")
+                .hasArg().argName("n")
+                .type(PatternOptionBuilder.NUMBER_VALUE).build();
+
+        Option factsOption = Option.builder("f").longOpt("facts")
+                .desc("Reads the parsed source files with the given number"
+                        + " of threads, before changing the graph.")
+                .hasArg().argName("threads")
+                .type(PatternOptionBuilder.NUMBER_VALUE).build();
+
+        Option cyclesOption = Option.builder("y").longOpt("cycles")
+                .desc("Tracks the dependency cycles between classes and"
+                        + " between packages, and stores the id of the cycle"
+                        + " as cycleId on the vertices in it.")
+                .build();
+
         // Add the options to the collection
         options.addOption(help);
         options.addOption(outputDirectoryOption);
@@ -101,6 +180,17 @@ public class PyneCli {
         options.addOption(endDateOption);
         options.addOption(periodOption);
         options.addOption(inputDirectoriesOption);
+        options.addOption(cacheDirectoryOption);
+        options.addOption(branchOption);
+        options.addOption(allParentsOption);
+        options.addOption(calendarPeriodOption);
+        options.addOption(everyNthOption);
+        options.addOption(tagsOption);
+        options.addOption(rebuildThresholdOption);
+        options.addOption(metricsOption);
+        options.addOption(unresolvedDetailOption);
+        options.addOption(factsOption);
+        options.addOption(cyclesOption);
 
         // Create a new parser
         CommandLineParser cliParser = new DefaultParser();
@@ -218,48 +308,192 @@ public class PyneCli {
             }
         }
 
-        // Create a git helper and a filter between start and end date
-        GitHelper gitHelper = new GitHelper(repoURI.toString());
+        // Enable the detailed logging of unresolved invocations
+        if (cmd.hasOption(unresolvedDetailOption.getOpt())) {
+            Number interval = (Number) cmd
+                    .getParsedOptionValue(unresolvedDetailOption.getOpt());
+            if (interval == null || interval.intValue() < 1) {
+                LOGGER.fatal("Unresolved detail needs to be a positive number");
+                printHelp(options);
+                return;
+            }
+            parser.getUnresolvedReferences()
+                    .setDetailInterval(interval.intValue());
+        }
 
-        Git git = gitHelper.getGit();
+        // Extract facts before changing the graph, if requested
+        if (cmd.hasOption(factsOption.getOpt())) {
+            Number threads = (Number) cmd
+                    .getParsedOptionValue(factsOption.getOpt());
+            if (threads == null || threads.intValue() < 1) {
+                LOGGER.fatal("Facts needs a positive number of threads");
+                printHelp(options);
+                return;
+            }
+            parser.setFactExtractionThreads(threads.intValue());
+        }
+
+        // Track the dependency cycles, after the default post processors
+        if (cmd.hasOption(cyclesOption.getOpt())) {
+            parser.addDefaultAnalysisPostProcessors();
+            parser.addAnalysisPostProcessor(new CyclePostProcess(parser));
+        }
+
+        // Get the metrics writer, if metrics are requested
+        SimpleMetricsRegistry metrics = new SimpleMetricsRegistry();
+        MetricsWriter metricsWriter = null;
+        if (cmd.hasOption(metricsOption.getOpt())) {
+            String format = cmd.getOptionValue(metricsOption.getOpt());
+            switch (format.toUpperCase()) {
+                case "JSON":
+                    metricsWriter = new JsonLinesMetricsWriter(
+                            new File(outputDirectory, "metrics.jsonl")
+                    );
+                    break;
+                case "PROMETHEUS":
+                    metricsWriter = new PrometheusMetricsWriter(
+                            outputDirectory
+                    );
+                    break;
+                default:
+                    LOGGER.fatal("\"" + format
+                            + "\" is not a valid metrics format");
+                    printHelp(options);
+                    return;
+            }
+
+            // Only measure the parser when the metrics are written
+            parser.setMetricsRegistry(metrics);
+        }
+
+        // Get the mirror cache, the default location if not given. A local
+        // repository is only mirrored when a cache directory is given
+        MirrorCache mirrorCache = null;
+        if (cmd.hasOption(cacheDirectoryOption.getOpt())) {
+            mirrorCache = new MirrorCache((File) cmd
+                    .getParsedOptionValue(cacheDirectoryOption.getOpt()));
+        } else if (repoURI.getScheme() != null
+                && !"file".equalsIgnoreCase(repoURI.getScheme())) {
+            mirrorCache = new MirrorCache();
+        }
 
-        RevFilter revFilter = CommitTimeRevFilter.between(startDate, endDate);
+        // Create a git helper
+        long startTime = System.nanoTime();
+        GitHelper gitHelper = mirrorCache == null
+                ? new GitHelper(repoURI.toString())
+                : new GitHelper(mirrorCache, repoURI.toString());
+        metrics.recordTime("git.worktree", System.nanoTime() - startTime);
 
-        Iterable<RevCommit> revCommits
-                = git.log().all().setRevFilter(revFilter).call();
+        Git git = gitHelper.getGit();
 
-        // Add all commits in a map that is sorted by there date
-        Map<Date, String> commitMap = new TreeMap<>();
-        for (RevCommit revCommit : revCommits) {
-            commitMap.put(
-                    new Date(((long) revCommit.getCommitTime()) * 1000),
-                    revCommit.getName()
+        if (cmd.hasOption(rebuildThresholdOption.getOpt())) {
+            Number threshold = (Number) cmd
+                    .getParsedOptionValue(rebuildThresholdOption.getOpt());
+            if (threshold == null || threshold.doubleValue() < 0) {
+                LOGGER.fatal("The rebuild threshold needs to be a positive"
+                        + " number");
+                printHelp(options);
+                return;
+            }
+            gitHelper.setParsePlanner(
+                    new ParsePlanner(threshold.doubleValue())
             );
         }
 
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(startDate);
-        Date checkDate = calendar.getTime();
-        // Go over all commits
+        // Select the commits to parse between the start and end date
+        CommitSampler commitSampler = new CommitSampler(git.getRepository());
+        commitSampler.setStartDate(startDate);
+        commitSampler.setEndDate(endDate);
+        commitSampler.setFirstParent(
+                !cmd.hasOption(allParentsOption.getOpt())
+        );
+        if (cmd.hasOption(branchOption.getOpt())) {
+            commitSampler.setBranch(cmd.getOptionValue(branchOption.getOpt()));
+        }
+
+        if (cmd.hasOption(tagsOption.getOpt())) {
+            commitSampler.sampleTags();
+        } else if (cmd.hasOption(everyNthOption.getOpt())) {
+            Number everyNth = (Number) cmd
+                    .getParsedOptionValue(everyNthOption.getOpt());
+            if (everyNth == null || everyNth.intValue() < 1) {
+                LOGGER.fatal("Every nth needs to be a positive number");
+                printHelp(options);
+                return;
+            }
+            commitSampler.sampleEveryNth(everyNth.intValue());
+        } else if (cmd.hasOption(calendarPeriodOption.getOpt())) {
+            commitSampler.sampleCalendarPeriod(period);
+        } else {
+            commitSampler.samplePeriod(period);
+        }
+
+        List<CommitSampler.Sample> samples = commitSampler.sample();
 
-        if (commitMap.entrySet().isEmpty()) {
+        if (samples.isEmpty()) {
             LOGGER.error("There are no commits between the periods of "+startDate+" and "+endDate+" to make a graph from");
             return;
         }
-        for (Map.Entry<Date, String> commitEntry : commitMap.entrySet()) {
-            Date commitDate = commitEntry.getKey();
-            String commit = commitEntry.getValue();
 
-            // Check if the period has expired and a new commit should be parsed
-            if (!commitDate.after(checkDate)) {
-                continue;
+        // Load and update the index of changed Java files, it is stored next
+        // to the mirror of the repository. Without a mirror it is only kept
+        // in memory
+        File indexFile = mirrorCache == null ? null : new File(
+                mirrorCache.getMirrorDirectory(repoURI.toString())
+                        .getAbsolutePath() + ".index");
+        startTime = System.nanoTime();
+        HistoryIndex historyIndex = indexFile == null
+                ? new HistoryIndex()
+                : HistoryIndex.load(indexFile);
+        metrics.increment(
+                "history_index.new_commits",
+                historyIndex.update(git.getRepository())
+        );
+        if (indexFile != null) {
+            historyIndex.save(indexFile);
+        }
+        metrics.recordTime(
+                "history_index.update", System.nanoTime() - startTime
+        );
+
+        // Estimate the work before parsing anything
+        ObjectId previous = null;
+        int estimatedChanges = 0;
+        for (CommitSampler.Sample sample : samples) {
+            ObjectId commitId = sample.getCommit();
+            int changes = historyIndex.countChangesBetween(previous, commitId);
+            if (changes >= 0) {
+                estimatedChanges += changes;
+            }
+            previous = commitId;
+        }
+        LOGGER.info("Parsing " + samples.size() + " commits, about "
+                + estimatedChanges + " changed Java files");
+
+        // Go over all selected commits
+        String lastParsed = null;
+        for (CommitSampler.Sample sample : samples) {
+            Date commitDate = sample.getDate();
+            String commit = sample.getName();
+
+            // Only parse if Java files changed since the last parsed commit,
+            // otherwise the graph is still the same
+            if (lastParsed == null || historyIndex.hasChangesBetween(
+                    ObjectId.fromString(lastParsed),
+                    ObjectId.fromString(commit))) {
+
+                LOGGER.info("Parsing commit: "
+                        + commitDate + " | " + commit);
+
+                // Parse the commit
+                metrics.increment("cache.history_index.misses", 1);
+                gitHelper.parseCommit(parser, commit);
+                lastParsed = commit;
+            } else {
+                metrics.increment("cache.history_index.hits", 1);
+                LOGGER.info("No Java files changed, reusing graph for commit: "
+                        + commitDate + " | " + commit);
             }
-
-            LOGGER.info("Parsing commit: "
-                    + commitDate + " | " + commit);
-
-            // Parse the commit
-            gitHelper.parseCommit(parser, commit);
 
             // Build the name for the output file
             StringBuilder nameBuilder = new StringBuilder();
@@ -269,16 +503,21 @@ public class PyneCli {
             File outputFile = new File(outputDirectory, nameBuilder.toString());
 
             // Output the generated graph
+            startTime = System.nanoTime();
             graph.traversal().io(outputFile.getAbsolutePath())
                     .with(IO.writer, IO.graphml).write().iterate();
+            metrics.recordTime(
+                    "snapshot.write", System.nanoTime() - startTime
+            );
 
             LOGGER.info("Saved graph to: "
                     + outputFile.getAbsolutePath() + "\n\n");
 
-            // Set the date to the next period
-            calendar.setTime(commitDate);
-            calendar.add(period, 1);
-            checkDate = calendar.getTime();
+            // Output the metrics of this commit and start over for the next
+            if (metricsWriter != null) {
+                metricsWriter.write(commit, metrics.snapshot());
+            }
+            metrics.reset();
 
         }
 
@@ -1,6 +1,7 @@
 package edu.rug.pyne.demo;
 
 import edu.rug.pyne.api.GitHelper;
+import edu.rug.pyne.api.git.MirrorCache;
 import edu.rug.pyne.api.parser.Parser;
 import java.io.BufferedReader;
 import java.io.File;
@@ -21,6 +22,11 @@ public class DemoBuild implements Runnable {
 
     private final String repo;
 
+    /**
+     * The cache holding the mirror of the repo
+     */
+    private final MirrorCache mirrorCache;
+
     /**
      * Directory to put the graphs in
      */
@@ -30,10 +36,12 @@ public class DemoBuild implements Runnable {
      * Creates a demo showing off how building works
      *
      * @param repo The repo to clone from
+     * @param mirrorCache The cache holding the mirror of the repo
      * @param outputDirectory The location to put output graphs in
      */
-    public DemoBuild(String repo, File outputDirectory) {
+    public DemoBuild(String repo, MirrorCache mirrorCache, File outputDirectory) {
         this.repo = repo;
+        this.mirrorCache = mirrorCache;
         this.outputDirectory = outputDirectory;
     }
 
@@ -47,8 +55,9 @@ public class DemoBuild implements Runnable {
 
         try {
             for (int i = 0; i < PyneDemo.COMMIT_LIST.length; i++) {
-                // Create the GitHelper for the current iteration 
-                GitHelper gitHelper = new GitHelper(repo);
+                // Create the GitHelper for the current iteration, the repo
+                // itself is only cloned once into the mirror cache
+                GitHelper gitHelper = new GitHelper(mirrorCache, repo);
 
                 // Create the graph
                 Graph graph = TinkerGraph.open();
@@ -1,6 +1,7 @@
 package edu.rug.pyne.demo;
 
 import edu.rug.pyne.api.GitHelper;
+import edu.rug.pyne.api.git.MirrorCache;
 import edu.rug.pyne.api.parser.Parser;
 import java.io.File;
 import java.io.IOException;
@@ -31,13 +32,14 @@ public class DemoGit implements Runnable {
      * Creates a demo showing off how git works
      * 
      * @param repo The repo to clone from
+     * @param mirrorCache The cache holding the mirror of the repo
      * @param outputDirectory The location to put output graphs in
      * @throws IOException
      * @throws GitAPIException 
      */
-    public DemoGit(String repo, File outputDirectory) 
+    public DemoGit(String repo, MirrorCache mirrorCache, File outputDirectory) 
             throws IOException, GitAPIException {
-        gitHelper = new GitHelper(repo);
+        gitHelper = new GitHelper(mirrorCache, repo);
         this.outputDirectory = outputDirectory;
     }
 
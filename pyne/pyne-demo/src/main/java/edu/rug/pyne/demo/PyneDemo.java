@@ -1,5 +1,6 @@
 package edu.rug.pyne.demo;
 
+import edu.rug.pyne.api.git.MirrorCache;
 import java.io.File;
 import java.io.IOException;
 import java.util.EnumMap;
@@ -30,7 +31,8 @@ public class PyneDemo {
      * Creates a demo program that test parsing with git, reparsing and building
      * with maven
      * 
-     * @param args 0: input directory, 1: output directory
+     * @param args 0: input directory, 1: output directory, 2: optional mirror
+     * cache directory
      * @throws IOException
      * @throws GitAPIException 
      */
@@ -48,14 +50,18 @@ public class PyneDemo {
         File outputDirectory = new File(args[1]);
         String repo = inputDirectory.toURI().toString();
         
+        // All demos share one mirror, so the repo is only cloned once
+        MirrorCache mirrorCache = args.length > 2
+                ? new MirrorCache(new File(args[2])) : new MirrorCache();
+        
         Thread git = new Thread(new DemoGit(
-                repo, new File(outputDirectory, "git")
+                repo, mirrorCache, new File(outputDirectory, "git")
         ));
         Thread reparse = new Thread(new DemoReparse(
-                repo, new File(outputDirectory, "reparse")
+                repo, mirrorCache, new File(outputDirectory, "reparse")
         ));
         Thread build = new Thread(new DemoBuild(
-                repo, new File(outputDirectory, "build")
+                repo, mirrorCache, new File(outputDirectory, "build")
         ));
 
         build.start();